@@ -43,7 +43,7 @@ import javax.xml.bind.annotation.XmlValue;
 public class ODMcomplexTypeDefinitionItemDataBoolean {
 
     @XmlValue
-    protected boolean value;
+    protected Boolean value;
     @XmlAttribute(name = "ItemOID", required = true)
     protected String itemOID;
     @XmlAttribute(name = "TransactionType")
@@ -66,16 +66,24 @@ public class ODMcomplexTypeDefinitionItemDataBoolean {
     /**
      * Gets the value of the value property.
      * 
+     * @return
+     *     possible object is
+     *     {@link Boolean }
+     *     
      */
-    public boolean isValue() {
+    public Boolean isValue() {
         return value;
     }
 
     /**
      * Sets the value of the value property.
      * 
+     * @param value
+     *     allowed object is
+     *     {@link Boolean }
+     *     
      */
-    public void setValue(boolean value) {
+    public void setValue(Boolean value) {
         this.value = value;
     }
 
@@ -0,0 +1,5457 @@
+//
+// This file was generated by nl.vumc.odmtoi2b2.generated.ODMStaxReaderGenerator from the JAXB classes in
+// org.cdisk.odm.jaxb. Any modifications to this file will be lost when the reader is regenerated.
+//
+
+
+package org.cdisk.odm.stax;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.cdisk.odm.jaxb.*;
+
+
+/**
+ * Reads ODM 1.3.1 elements from a StAX stream reader into the org.cdisk.odm.jaxb classes with direct
+ * setter calls. It gives the same result as a JAXB unmarshaller without using reflection; elements whose
+ * types cannot be read directly (like XML signatures) are delegated to a JAXB unmarshaller, which is only
+ * created when such an element is found.
+ * 
+ * An instance is not thread safe; use one reader per thread.
+ */
+public class ODMStaxReader {
+
+    private static final String ODM_NAMESPACE = "http://www.cdisc.org/ns/odm/v1.3";
+
+    private final Map<String, Object> identifiers = new HashMap<String, Object>();
+    private final List<ODMStaxReader.PendingReference> pendingReferences = new ArrayList<ODMStaxReader.PendingReference>();
+    private JAXBContext jaxbContext;
+    private Unmarshaller unmarshaller;
+    private DatatypeFactory datatypeFactory;
+
+    /**
+     * Creates a reader that creates its own JAXB context when an element has to be delegated to JAXB.
+     * 
+     */
+    public ODMStaxReader() {
+        this(null);
+    }
+
+    /**
+     * Creates a reader that uses the given JAXB context (for the org.cdisk.odm.jaxb package) when an
+     * element has to be delegated to JAXB.
+     * 
+     * @param jaxbContext
+     *     the JAXB context, or null to create one when it is needed.
+     */
+    public ODMStaxReader(final JAXBContext jaxbContext) {
+        this.jaxbContext = jaxbContext;
+    }
+
+    /**
+     * Reads the element at which the reader is positioned (or the first element after that position). Like
+     * the JAXB unmarshaller, the reader is left right after the end of the element. ID references are
+     * resolved within the element that is read.
+     * 
+     * @param reader
+     *     the stream reader.
+     * @param type
+     *     the class of the element.
+     * @return
+     *     the object with the contents of the element.
+     * @throws XMLStreamException
+     *     when the XML cannot be parsed.
+     * @throws JAXBException
+     *     when an element that is delegated to JAXB cannot be unmarshalled.
+     */
+    public <T> T read(final XMLStreamReader reader, final Class<T> type)
+        throws XMLStreamException, JAXBException
+    {
+        while (!reader.isStartElement()) {
+            reader.next();
+        }
+        identifiers.clear();
+        pendingReferences.clear();
+        final Object result = readElement(reader, type);
+        for (final ODMStaxReader.PendingReference pendingReference : pendingReferences) {
+            final Object target = identifiers.get(pendingReference.identifier);
+            if (target != null) {
+                pendingReference.resolve(target);
+            }
+        }
+        pendingReferences.clear();
+        identifiers.clear();
+        return type.cast(result);
+    }
+
+    private Object readElement(final XMLStreamReader reader, final Class<?> type)
+        throws XMLStreamException, JAXBException
+    {
+        if (type == ODM.class) {
+            return readODM(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAddress.class) {
+            return readAddress(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAdminData.class) {
+            return readAdminData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAlias.class) {
+            return readAlias(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAnnotation.class) {
+            return readAnnotation(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAnnotations.class) {
+            return readAnnotations(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionArchiveLayout.class) {
+            return readArchiveLayout(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionArchiveLayoutRef.class) {
+            return readArchiveLayoutRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAssociation.class) {
+            return readAssociation(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAuditRecord.class) {
+            return readAuditRecord(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionAuditRecords.class) {
+            return readAuditRecords(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionBasicDefinitions.class) {
+            return readBasicDefinitions(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCertificate.class) {
+            return readCertificate(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCheckValue.class) {
+            return readCheckValue(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCity.class) {
+            return readCity(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionClinicalData.class) {
+            return readClinicalData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCodeList.class) {
+            return readCodeList(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCodeListItem.class) {
+            return readCodeListItem(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCodeListRef.class) {
+            return readCodeListRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionComment.class) {
+            return readComment(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionConditionDef.class) {
+            return readConditionDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCountry.class) {
+            return readCountry(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionCryptoBindingManifest.class) {
+            return readCryptoBindingManifest(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionDateTimeStamp.class) {
+            return readDateTimeStamp(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionDecode.class) {
+            return readDecode(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionDescription.class) {
+            return readDescription(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionDisplayName.class) {
+            return readDisplayName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionEmail.class) {
+            return readEmail(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionEnumeratedItem.class) {
+            return readEnumeratedItem(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionErrorMessage.class) {
+            return readErrorMessage(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionExternalCodeList.class) {
+            return readExternalCodeList(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionExternalQuestion.class) {
+            return readExternalQuestion(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFax.class) {
+            return readFax(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFirstName.class) {
+            return readFirstName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFlag.class) {
+            return readFlag(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFlagType.class) {
+            return readFlagType(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFlagValue.class) {
+            return readFlagValue(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFormData.class) {
+            return readFormData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFormDef.class) {
+            return readFormDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFormRef.class) {
+            return readFormRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFormalExpression.class) {
+            return readFormalExpression(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionFullName.class) {
+            return readFullName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionGlobalVariables.class) {
+            return readGlobalVariables(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionImputationMethod.class) {
+            return readImputationMethod(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionInclude.class) {
+            return readInclude(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionInvestigatorRef.class) {
+            return readInvestigatorRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemData.class) {
+            return readItemData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataAny.class) {
+            return readItemDataAny(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataBase64Binary.class) {
+            return readItemDataBase64Binary(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataBase64Float.class) {
+            return readItemDataBase64Float(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataBoolean.class) {
+            return readItemDataBoolean(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataDate.class) {
+            return readItemDataDate(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataDatetime.class) {
+            return readItemDataDatetime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataDouble.class) {
+            return readItemDataDouble(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataDurationDatetime.class) {
+            return readItemDataDurationDatetime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataFloat.class) {
+            return readItemDataFloat(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataHexBinary.class) {
+            return readItemDataHexBinary(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataHexFloat.class) {
+            return readItemDataHexFloat(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataIncompleteDate.class) {
+            return readItemDataIncompleteDate(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataIncompleteDatetime.class) {
+            return readItemDataIncompleteDatetime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataIncompleteTime.class) {
+            return readItemDataIncompleteTime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataInteger.class) {
+            return readItemDataInteger(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataIntervalDatetime.class) {
+            return readItemDataIntervalDatetime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataPartialDate.class) {
+            return readItemDataPartialDate(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataPartialDatetime.class) {
+            return readItemDataPartialDatetime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataPartialTime.class) {
+            return readItemDataPartialTime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataString.class) {
+            return readItemDataString(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataTime.class) {
+            return readItemDataTime(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDataURI.class) {
+            return readItemDataURI(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemDef.class) {
+            return readItemDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemGroupData.class) {
+            return readItemGroupData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemGroupDef.class) {
+            return readItemGroupDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemGroupRef.class) {
+            return readItemGroupRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionItemRef.class) {
+            return readItemRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionKeySet.class) {
+            return readKeySet(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionLastName.class) {
+            return readLastName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionLegalReason.class) {
+            return readLegalReason(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionLocation.class) {
+            return readLocation(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionLocationRef.class) {
+            return readLocationRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionLoginName.class) {
+            return readLoginName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMeaning.class) {
+            return readMeaning(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMeasurementUnit.class) {
+            return readMeasurementUnit(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMeasurementUnitRef.class) {
+            return readMeasurementUnitRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMetaDataVersion.class) {
+            return readMetaDataVersion(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMetaDataVersionRef.class) {
+            return readMetaDataVersionRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionMethodDef.class) {
+            return readMethodDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionOrganization.class) {
+            return readOrganization(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionOtherText.class) {
+            return readOtherText(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionPager.class) {
+            return readPager(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionPhone.class) {
+            return readPhone(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionPicture.class) {
+            return readPicture(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionPostalCode.class) {
+            return readPostalCode(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionPresentation.class) {
+            return readPresentation(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionProtocol.class) {
+            return readProtocol(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionProtocolName.class) {
+            return readProtocolName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionQuestion.class) {
+            return readQuestion(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionRangeCheck.class) {
+            return readRangeCheck(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionReasonForChange.class) {
+            return readReasonForChange(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionReferenceData.class) {
+            return readReferenceData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionRole.class) {
+            return readRole(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSignature.class) {
+            return readSignature(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSignatureDef.class) {
+            return readSignatureDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSignatureRef.class) {
+            return readSignatureRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSignatures.class) {
+            return readSignatures(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSiteRef.class) {
+            return readSiteRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSourceID.class) {
+            return readSourceID(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStateProv.class) {
+            return readStateProv(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStreetName.class) {
+            return readStreetName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudy.class) {
+            return readStudy(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudyDescription.class) {
+            return readStudyDescription(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudyEventData.class) {
+            return readStudyEventData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudyEventDef.class) {
+            return readStudyEventDef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudyEventRef.class) {
+            return readStudyEventRef(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionStudyName.class) {
+            return readStudyName(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSubjectData.class) {
+            return readSubjectData(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionSymbol.class) {
+            return readSymbol(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionTranslatedText.class) {
+            return readTranslatedText(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionUser.class) {
+            return readUser(reader);
+        }
+        if (type == ODMcomplexTypeDefinitionUserRef.class) {
+            return readUserRef(reader);
+        }
+        return unmarshalWithJaxb(reader, type);
+    }
+
+    /**
+     * Reads an element of type .
+     * 
+     */
+    private ODM readODM(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODM result = new ODM();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Description":
+                        result.setDescription(value);
+                        break;
+                    case "FileType":
+                        result.setFileType(parseFileType(value));
+                        break;
+                    case "Granularity":
+                        result.setGranularity(parseGranularity(value));
+                        break;
+                    case "Archival":
+                        result.setArchival(parseYesOnly(value));
+                        break;
+                    case "FileOID":
+                        result.setFileOID(value);
+                        break;
+                    case "CreationDateTime":
+                        result.setCreationDateTime(parseCalendar(value));
+                        break;
+                    case "PriorFileOID":
+                        result.setPriorFileOID(value);
+                        break;
+                    case "AsOfDateTime":
+                        result.setAsOfDateTime(parseCalendar(value));
+                        break;
+                    case "ODMVersion":
+                        result.setODMVersion(value);
+                        break;
+                    case "Originator":
+                        result.setOriginator(value);
+                        break;
+                    case "SourceSystem":
+                        result.setSourceSystem(value);
+                        break;
+                    case "SourceSystemVersion":
+                        result.setSourceSystemVersion(value);
+                        break;
+                    case "Id":
+                        result.setId(collapse(value));
+                        identifiers.put(result.getId(), result);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Study":
+                        result.getStudy().add(readStudy(reader));
+                        break;
+                    case "AdminData":
+                        result.getAdminData().add(readAdminData(reader));
+                        break;
+                    case "ReferenceData":
+                        result.getReferenceData().add(readReferenceData(reader));
+                        break;
+                    case "ClinicalData":
+                        result.getClinicalData().add(readClinicalData(reader));
+                        break;
+                    case "Association":
+                        result.getAssociation().add(readAssociation(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else if ("http://www.w3.org/2000/09/xmldsig#".equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Signature":
+                        result.getSignature().add(unmarshalWithJaxb(reader, org.w3.xmldsig.jaxb.SignatureType.class));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Address.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAddress readAddress(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAddress result = new ODMcomplexTypeDefinitionAddress();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "StreetName":
+                        result.getStreetName().add(readStreetName(reader));
+                        break;
+                    case "City":
+                        result.setCity(readCity(reader));
+                        break;
+                    case "StateProv":
+                        result.setStateProv(readStateProv(reader));
+                        break;
+                    case "Country":
+                        result.setCountry(readCountry(reader));
+                        break;
+                    case "PostalCode":
+                        result.setPostalCode(readPostalCode(reader));
+                        break;
+                    case "OtherText":
+                        result.setOtherText(readOtherText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-AdminData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAdminData readAdminData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAdminData result = new ODMcomplexTypeDefinitionAdminData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "User":
+                        result.getUser().add(readUser(reader));
+                        break;
+                    case "Location":
+                        result.getLocation().add(readLocation(reader));
+                        break;
+                    case "SignatureDef":
+                        result.getSignatureDef().add(readSignatureDef(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Alias.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAlias readAlias(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAlias result = new ODMcomplexTypeDefinitionAlias();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Context":
+                        result.setContext(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Annotation.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAnnotation readAnnotation(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAnnotation result = new ODMcomplexTypeDefinitionAnnotation();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "SeqNum":
+                        result.setSeqNum(parseInteger(value));
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "ID":
+                        result.setID(collapse(value));
+                        identifiers.put(result.getID(), result);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Comment":
+                        result.setComment(readComment(reader));
+                        break;
+                    case "Flag":
+                        result.getFlag().add(readFlag(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Annotations.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAnnotations readAnnotations(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAnnotations result = new ODMcomplexTypeDefinitionAnnotations();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ArchiveLayout.
+     * 
+     */
+    private ODMcomplexTypeDefinitionArchiveLayout readArchiveLayout(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionArchiveLayout result = new ODMcomplexTypeDefinitionArchiveLayout();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "PdfFileName":
+                        result.setPdfFileName(value);
+                        break;
+                    case "PresentationOID":
+                        result.setPresentationOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ArchiveLayoutRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionArchiveLayoutRef readArchiveLayoutRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionArchiveLayoutRef result = new ODMcomplexTypeDefinitionArchiveLayoutRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ArchiveLayoutOID":
+                        result.setArchiveLayoutOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Association.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAssociation readAssociation(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        return unmarshalWithJaxb(reader, ODMcomplexTypeDefinitionAssociation.class);
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-AuditRecord.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAuditRecord readAuditRecord(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAuditRecord result = new ODMcomplexTypeDefinitionAuditRecord();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "EditPoint":
+                        result.setEditPoint(parseEditPointType(value));
+                        break;
+                    case "UsedImputationMethod":
+                        result.setUsedImputationMethod(parseYesOrNo(value));
+                        break;
+                    case "ID":
+                        result.setID(collapse(value));
+                        identifiers.put(result.getID(), result);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "UserRef":
+                        result.setUserRef(readUserRef(reader));
+                        break;
+                    case "LocationRef":
+                        result.setLocationRef(readLocationRef(reader));
+                        break;
+                    case "DateTimeStamp":
+                        result.setDateTimeStamp(readDateTimeStamp(reader));
+                        break;
+                    case "ReasonForChange":
+                        result.setReasonForChange(readReasonForChange(reader));
+                        break;
+                    case "SourceID":
+                        result.setSourceID(readSourceID(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-AuditRecords.
+     * 
+     */
+    private ODMcomplexTypeDefinitionAuditRecords readAuditRecords(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionAuditRecords result = new ODMcomplexTypeDefinitionAuditRecords();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.getAuditRecord().add(readAuditRecord(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-BasicDefinitions.
+     * 
+     */
+    private ODMcomplexTypeDefinitionBasicDefinitions readBasicDefinitions(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionBasicDefinitions result = new ODMcomplexTypeDefinitionBasicDefinitions();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "MeasurementUnit":
+                        result.getMeasurementUnit().add(readMeasurementUnit(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Certificate.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCertificate readCertificate(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCertificate result = new ODMcomplexTypeDefinitionCertificate();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-CheckValue.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCheckValue readCheckValue(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCheckValue result = new ODMcomplexTypeDefinitionCheckValue();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-City.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCity readCity(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCity result = new ODMcomplexTypeDefinitionCity();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ClinicalData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionClinicalData readClinicalData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionClinicalData result = new ODMcomplexTypeDefinitionClinicalData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    case "MetaDataVersionOID":
+                        result.setMetaDataVersionOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "SubjectData":
+                        result.getSubjectData().add(readSubjectData(reader));
+                        break;
+                    case "AuditRecords":
+                        result.getAuditRecords().add(readAuditRecords(reader));
+                        break;
+                    case "Signatures":
+                        result.getSignatures().add(readSignatures(reader));
+                        break;
+                    case "Annotations":
+                        result.getAnnotations().add(readAnnotations(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-CodeList.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCodeList readCodeList(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCodeList result = new ODMcomplexTypeDefinitionCodeList();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "DataType":
+                        result.setDataType(parseCLDataType(value));
+                        break;
+                    case "SASFormatName":
+                        result.setSASFormatName(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "CodeListItem":
+                        result.getCodeListItem().add(readCodeListItem(reader));
+                        break;
+                    case "ExternalCodeList":
+                        result.setExternalCodeList(readExternalCodeList(reader));
+                        break;
+                    case "EnumeratedItem":
+                        result.getEnumeratedItem().add(readEnumeratedItem(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-CodeListItem.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCodeListItem readCodeListItem(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCodeListItem result = new ODMcomplexTypeDefinitionCodeListItem();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "CodedValue":
+                        result.setCodedValue(value);
+                        break;
+                    case "Rank":
+                        result.setRank(parseDecimal(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Decode":
+                        result.setDecode(readDecode(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-CodeListRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCodeListRef readCodeListRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCodeListRef result = new ODMcomplexTypeDefinitionCodeListRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "CodeListOID":
+                        result.setCodeListOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Comment.
+     * 
+     */
+    private ODMcomplexTypeDefinitionComment readComment(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionComment result = new ODMcomplexTypeDefinitionComment();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "SponsorOrSite":
+                        result.setSponsorOrSite(parseCommentType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ConditionDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionConditionDef readConditionDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionConditionDef result = new ODMcomplexTypeDefinitionConditionDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "FormalExpression":
+                        result.getFormalExpression().add(readFormalExpression(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Country.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCountry readCountry(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCountry result = new ODMcomplexTypeDefinitionCountry();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-CryptoBindingManifest.
+     * 
+     */
+    private ODMcomplexTypeDefinitionCryptoBindingManifest readCryptoBindingManifest(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionCryptoBindingManifest result = new ODMcomplexTypeDefinitionCryptoBindingManifest();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-DateTimeStamp.
+     * 
+     */
+    private ODMcomplexTypeDefinitionDateTimeStamp readDateTimeStamp(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionDateTimeStamp result = new ODMcomplexTypeDefinitionDateTimeStamp();
+        final String text = readText(reader);
+        result.setValue(parseCalendar(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Decode.
+     * 
+     */
+    private ODMcomplexTypeDefinitionDecode readDecode(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionDecode result = new ODMcomplexTypeDefinitionDecode();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "TranslatedText":
+                        result.getTranslatedText().add(readTranslatedText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Description.
+     * 
+     */
+    private ODMcomplexTypeDefinitionDescription readDescription(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionDescription result = new ODMcomplexTypeDefinitionDescription();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "TranslatedText":
+                        result.getTranslatedText().add(readTranslatedText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-DisplayName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionDisplayName readDisplayName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionDisplayName result = new ODMcomplexTypeDefinitionDisplayName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Email.
+     * 
+     */
+    private ODMcomplexTypeDefinitionEmail readEmail(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionEmail result = new ODMcomplexTypeDefinitionEmail();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-EnumeratedItem.
+     * 
+     */
+    private ODMcomplexTypeDefinitionEnumeratedItem readEnumeratedItem(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionEnumeratedItem result = new ODMcomplexTypeDefinitionEnumeratedItem();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "CodedValue":
+                        result.setCodedValue(value);
+                        break;
+                    case "Rank":
+                        result.setRank(parseDecimal(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ErrorMessage.
+     * 
+     */
+    private ODMcomplexTypeDefinitionErrorMessage readErrorMessage(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionErrorMessage result = new ODMcomplexTypeDefinitionErrorMessage();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "TranslatedText":
+                        result.getTranslatedText().add(readTranslatedText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ExternalCodeList.
+     * 
+     */
+    private ODMcomplexTypeDefinitionExternalCodeList readExternalCodeList(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionExternalCodeList result = new ODMcomplexTypeDefinitionExternalCodeList();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "href":
+                        result.setHref(value);
+                        break;
+                    case "ref":
+                        result.setRef(value);
+                        break;
+                    case "Dictionary":
+                        result.setDictionary(value);
+                        break;
+                    case "Version":
+                        result.setVersion(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ExternalQuestion.
+     * 
+     */
+    private ODMcomplexTypeDefinitionExternalQuestion readExternalQuestion(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionExternalQuestion result = new ODMcomplexTypeDefinitionExternalQuestion();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Dictionary":
+                        result.setDictionary(value);
+                        break;
+                    case "Version":
+                        result.setVersion(value);
+                        break;
+                    case "Code":
+                        result.setCode(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Fax.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFax readFax(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFax result = new ODMcomplexTypeDefinitionFax();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FirstName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFirstName readFirstName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFirstName result = new ODMcomplexTypeDefinitionFirstName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Flag.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFlag readFlag(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFlag result = new ODMcomplexTypeDefinitionFlag();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "FlagValue":
+                        result.setFlagValue(readFlagValue(reader));
+                        break;
+                    case "FlagType":
+                        result.setFlagType(readFlagType(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FlagType.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFlagType readFlagType(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFlagType result = new ODMcomplexTypeDefinitionFlagType();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "CodeListOID":
+                        result.setCodeListOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FlagValue.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFlagValue readFlagValue(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFlagValue result = new ODMcomplexTypeDefinitionFlagValue();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "CodeListOID":
+                        result.setCodeListOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FormData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFormData readFormData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFormData result = new ODMcomplexTypeDefinitionFormData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "FormOID":
+                        result.setFormOID(value);
+                        break;
+                    case "FormRepeatKey":
+                        result.setFormRepeatKey(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.setAuditRecord(readAuditRecord(reader));
+                        break;
+                    case "Signature":
+                        result.setSignature(readSignature(reader));
+                        break;
+                    case "ArchiveLayoutRef":
+                        result.setArchiveLayoutRef(readArchiveLayoutRef(reader));
+                        break;
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    case "ItemGroupData":
+                        result.getItemGroupData().add(readItemGroupData(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FormDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFormDef readFormDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFormDef result = new ODMcomplexTypeDefinitionFormDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "Repeating":
+                        result.setRepeating(parseYesOrNo(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "ItemGroupRef":
+                        result.getItemGroupRef().add(readItemGroupRef(reader));
+                        break;
+                    case "ArchiveLayout":
+                        result.getArchiveLayout().add(readArchiveLayout(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FormRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFormRef readFormRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFormRef result = new ODMcomplexTypeDefinitionFormRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OrderNumber":
+                        result.setOrderNumber(parseInteger(value));
+                        break;
+                    case "Mandatory":
+                        result.setMandatory(parseYesOrNo(value));
+                        break;
+                    case "CollectionExceptionConditionOID":
+                        result.setCollectionExceptionConditionOID(value);
+                        break;
+                    case "FormOID":
+                        result.setFormOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FormalExpression.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFormalExpression readFormalExpression(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFormalExpression result = new ODMcomplexTypeDefinitionFormalExpression();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Context":
+                        result.setContext(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-FullName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionFullName readFullName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionFullName result = new ODMcomplexTypeDefinitionFullName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-GlobalVariables.
+     * 
+     */
+    private ODMcomplexTypeDefinitionGlobalVariables readGlobalVariables(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionGlobalVariables result = new ODMcomplexTypeDefinitionGlobalVariables();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "StudyName":
+                        result.setStudyName(readStudyName(reader));
+                        break;
+                    case "StudyDescription":
+                        result.setStudyDescription(readStudyDescription(reader));
+                        break;
+                    case "ProtocolName":
+                        result.setProtocolName(readProtocolName(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ImputationMethod.
+     * 
+     */
+    private ODMcomplexTypeDefinitionImputationMethod readImputationMethod(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionImputationMethod result = new ODMcomplexTypeDefinitionImputationMethod();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Include.
+     * 
+     */
+    private ODMcomplexTypeDefinitionInclude readInclude(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionInclude result = new ODMcomplexTypeDefinitionInclude();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    case "MetaDataVersionOID":
+                        result.setMetaDataVersionOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-InvestigatorRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionInvestigatorRef readInvestigatorRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionInvestigatorRef result = new ODMcomplexTypeDefinitionInvestigatorRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "UserOID":
+                        result.setUserOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemData readItemData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemData result = new ODMcomplexTypeDefinitionItemData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Value":
+                        result.setValue(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "IsNull":
+                        result.setIsNull(parseYesOnly(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.setAuditRecord(readAuditRecord(reader));
+                        break;
+                    case "Signature":
+                        result.setSignature(readSignature(reader));
+                        break;
+                    case "MeasurementUnitRef":
+                        result.setMeasurementUnitRef(readMeasurementUnitRef(reader));
+                        break;
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataAny.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataAny readItemDataAny(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataAny result = new ODMcomplexTypeDefinitionItemDataAny();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "IsNull":
+                        result.setIsNull(parseYesOnly(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataBase64Binary.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataBase64Binary readItemDataBase64Binary(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataBase64Binary result = new ODMcomplexTypeDefinitionItemDataBase64Binary();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseBase64Binary(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataBase64Float.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataBase64Float readItemDataBase64Float(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataBase64Float result = new ODMcomplexTypeDefinitionItemDataBase64Float();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseBase64Binary(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataBoolean.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataBoolean readItemDataBoolean(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataBoolean result = new ODMcomplexTypeDefinitionItemDataBoolean();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseBoolean(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataDate.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataDate readItemDataDate(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataDate result = new ODMcomplexTypeDefinitionItemDataDate();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseCalendar(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataDatetime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataDatetime readItemDataDatetime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataDatetime result = new ODMcomplexTypeDefinitionItemDataDatetime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseCalendar(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataDouble.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataDouble readItemDataDouble(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataDouble result = new ODMcomplexTypeDefinitionItemDataDouble();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataDurationDatetime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataDurationDatetime readItemDataDurationDatetime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataDurationDatetime result = new ODMcomplexTypeDefinitionItemDataDurationDatetime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataFloat.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataFloat readItemDataFloat(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataFloat result = new ODMcomplexTypeDefinitionItemDataFloat();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseDecimal(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataHexBinary.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataHexBinary readItemDataHexBinary(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataHexBinary result = new ODMcomplexTypeDefinitionItemDataHexBinary();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseHexBinary(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataHexFloat.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataHexFloat readItemDataHexFloat(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataHexFloat result = new ODMcomplexTypeDefinitionItemDataHexFloat();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseHexBinary(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataIncompleteDate.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataIncompleteDate readItemDataIncompleteDate(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataIncompleteDate result = new ODMcomplexTypeDefinitionItemDataIncompleteDate();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataIncompleteDatetime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataIncompleteDatetime readItemDataIncompleteDatetime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataIncompleteDatetime result = new ODMcomplexTypeDefinitionItemDataIncompleteDatetime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataIncompleteTime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataIncompleteTime readItemDataIncompleteTime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataIncompleteTime result = new ODMcomplexTypeDefinitionItemDataIncompleteTime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataInteger.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataInteger readItemDataInteger(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataInteger result = new ODMcomplexTypeDefinitionItemDataInteger();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseInteger(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataIntervalDatetime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataIntervalDatetime readItemDataIntervalDatetime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataIntervalDatetime result = new ODMcomplexTypeDefinitionItemDataIntervalDatetime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataPartialDate.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataPartialDate readItemDataPartialDate(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataPartialDate result = new ODMcomplexTypeDefinitionItemDataPartialDate();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataPartialDatetime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataPartialDatetime readItemDataPartialDatetime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataPartialDatetime result = new ODMcomplexTypeDefinitionItemDataPartialDatetime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataPartialTime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataPartialTime readItemDataPartialTime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataPartialTime result = new ODMcomplexTypeDefinitionItemDataPartialTime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataString.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataString readItemDataString(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataString result = new ODMcomplexTypeDefinitionItemDataString();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataTime.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataTime readItemDataTime(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataTime result = new ODMcomplexTypeDefinitionItemDataTime();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(parseCalendar(text));
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDataURI.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDataURI readItemDataURI(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDataURI result = new ODMcomplexTypeDefinitionItemDataURI();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "AuditRecordID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAuditRecordID(target);
+                            }
+                        });
+                        break;
+                    case "SignatureID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setSignatureID(target);
+                            }
+                        });
+                        break;
+                    case "AnnotationID":
+                        pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {
+                            @Override
+                            void resolve(final Object target) {
+                                result.setAnnotationID(target);
+                            }
+                        });
+                        break;
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemDef readItemDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemDef result = new ODMcomplexTypeDefinitionItemDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "DataType":
+                        result.setDataType(parseDataType(value));
+                        break;
+                    case "Length":
+                        result.setLength(parseInteger(value));
+                        break;
+                    case "SignificantDigits":
+                        result.setSignificantDigits(parseInteger(value));
+                        break;
+                    case "SASFieldName":
+                        result.setSASFieldName(value);
+                        break;
+                    case "SDSVarName":
+                        result.setSDSVarName(value);
+                        break;
+                    case "Origin":
+                        result.setOrigin(value);
+                        break;
+                    case "Comment":
+                        result.setComment(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "Question":
+                        result.setQuestion(readQuestion(reader));
+                        break;
+                    case "ExternalQuestion":
+                        result.setExternalQuestion(readExternalQuestion(reader));
+                        break;
+                    case "MeasurementUnitRef":
+                        result.getMeasurementUnitRef().add(readMeasurementUnitRef(reader));
+                        break;
+                    case "RangeCheck":
+                        result.getRangeCheck().add(readRangeCheck(reader));
+                        break;
+                    case "CodeListRef":
+                        result.setCodeListRef(readCodeListRef(reader));
+                        break;
+                    case "Role":
+                        result.getRole().add(readRole(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemGroupData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemGroupData readItemGroupData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemGroupData result = new ODMcomplexTypeDefinitionItemGroupData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ItemGroupOID":
+                        result.setItemGroupOID(value);
+                        break;
+                    case "ItemGroupRepeatKey":
+                        result.setItemGroupRepeatKey(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.setAuditRecord(readAuditRecord(reader));
+                        break;
+                    case "Signature":
+                        result.setSignature(readSignature(reader));
+                        break;
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    case "ItemData":
+                        result.getItemDataGroup().add(readItemData(reader));
+                        break;
+                    case "ItemDataURI":
+                        result.getItemDataStarGroup().add(readItemDataURI(reader));
+                        break;
+                    case "ItemDataAny":
+                        result.getItemDataStarGroup().add(readItemDataAny(reader));
+                        break;
+                    case "ItemDataBoolean":
+                        result.getItemDataStarGroup().add(readItemDataBoolean(reader));
+                        break;
+                    case "ItemDataString":
+                        result.getItemDataStarGroup().add(readItemDataString(reader));
+                        break;
+                    case "ItemDataInteger":
+                        result.getItemDataStarGroup().add(readItemDataInteger(reader));
+                        break;
+                    case "ItemDataFloat":
+                        result.getItemDataStarGroup().add(readItemDataFloat(reader));
+                        break;
+                    case "ItemDataDouble":
+                        result.getItemDataStarGroup().add(readItemDataDouble(reader));
+                        break;
+                    case "ItemDataDate":
+                        result.getItemDataStarGroup().add(readItemDataDate(reader));
+                        break;
+                    case "ItemDataTime":
+                        result.getItemDataStarGroup().add(readItemDataTime(reader));
+                        break;
+                    case "ItemDataDatetime":
+                        result.getItemDataStarGroup().add(readItemDataDatetime(reader));
+                        break;
+                    case "ItemDataHexBinary":
+                        result.getItemDataStarGroup().add(readItemDataHexBinary(reader));
+                        break;
+                    case "ItemDataBase64Binary":
+                        result.getItemDataStarGroup().add(readItemDataBase64Binary(reader));
+                        break;
+                    case "ItemDataHexFloat":
+                        result.getItemDataStarGroup().add(readItemDataHexFloat(reader));
+                        break;
+                    case "ItemDataBase64Float":
+                        result.getItemDataStarGroup().add(readItemDataBase64Float(reader));
+                        break;
+                    case "ItemDataPartialDate":
+                        result.getItemDataStarGroup().add(readItemDataPartialDate(reader));
+                        break;
+                    case "ItemDataPartialTime":
+                        result.getItemDataStarGroup().add(readItemDataPartialTime(reader));
+                        break;
+                    case "ItemDataPartialDatetime":
+                        result.getItemDataStarGroup().add(readItemDataPartialDatetime(reader));
+                        break;
+                    case "ItemDataDurationDatetime":
+                        result.getItemDataStarGroup().add(readItemDataDurationDatetime(reader));
+                        break;
+                    case "ItemDataIntervalDatetime":
+                        result.getItemDataStarGroup().add(readItemDataIntervalDatetime(reader));
+                        break;
+                    case "ItemDataIncompleteDatetime":
+                        result.getItemDataStarGroup().add(readItemDataIncompleteDatetime(reader));
+                        break;
+                    case "ItemDataIncompleteDate":
+                        result.getItemDataStarGroup().add(readItemDataIncompleteDate(reader));
+                        break;
+                    case "ItemDataIncompleteTime":
+                        result.getItemDataStarGroup().add(readItemDataIncompleteTime(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemGroupDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemGroupDef readItemGroupDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemGroupDef result = new ODMcomplexTypeDefinitionItemGroupDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "Repeating":
+                        result.setRepeating(parseYesOrNo(value));
+                        break;
+                    case "IsReferenceData":
+                        result.setIsReferenceData(parseYesOrNo(value));
+                        break;
+                    case "SASDatasetName":
+                        result.setSASDatasetName(value);
+                        break;
+                    case "Domain":
+                        result.setDomain(value);
+                        break;
+                    case "Origin":
+                        result.setOrigin(value);
+                        break;
+                    case "Role":
+                        result.setRole(value);
+                        break;
+                    case "Purpose":
+                        result.setPurpose(value);
+                        break;
+                    case "Comment":
+                        result.setComment(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "ItemRef":
+                        result.getItemRef().add(readItemRef(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemGroupRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemGroupRef readItemGroupRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemGroupRef result = new ODMcomplexTypeDefinitionItemGroupRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OrderNumber":
+                        result.setOrderNumber(parseInteger(value));
+                        break;
+                    case "Mandatory":
+                        result.setMandatory(parseYesOrNo(value));
+                        break;
+                    case "CollectionExceptionConditionOID":
+                        result.setCollectionExceptionConditionOID(value);
+                        break;
+                    case "ItemGroupOID":
+                        result.setItemGroupOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ItemRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionItemRef readItemRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionItemRef result = new ODMcomplexTypeDefinitionItemRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OrderNumber":
+                        result.setOrderNumber(parseInteger(value));
+                        break;
+                    case "Mandatory":
+                        result.setMandatory(parseYesOrNo(value));
+                        break;
+                    case "CollectionExceptionConditionOID":
+                        result.setCollectionExceptionConditionOID(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "KeySequence":
+                        result.setKeySequence(parseInteger(value));
+                        break;
+                    case "MethodOID":
+                        result.setMethodOID(value);
+                        break;
+                    case "ImputationMethodOID":
+                        result.setImputationMethodOID(value);
+                        break;
+                    case "Role":
+                        result.setRole(value);
+                        break;
+                    case "RoleCodeListOID":
+                        result.setRoleCodeListOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-KeySet.
+     * 
+     */
+    private ODMcomplexTypeDefinitionKeySet readKeySet(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionKeySet result = new ODMcomplexTypeDefinitionKeySet();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    case "SubjectKey":
+                        result.setSubjectKey(value);
+                        break;
+                    case "StudyEventOID":
+                        result.setStudyEventOID(value);
+                        break;
+                    case "StudyEventRepeatKey":
+                        result.setStudyEventRepeatKey(value);
+                        break;
+                    case "FormOID":
+                        result.setFormOID(value);
+                        break;
+                    case "FormRepeatKey":
+                        result.setFormRepeatKey(value);
+                        break;
+                    case "ItemGroupOID":
+                        result.setItemGroupOID(value);
+                        break;
+                    case "ItemGroupRepeatKey":
+                        result.setItemGroupRepeatKey(value);
+                        break;
+                    case "ItemOID":
+                        result.setItemOID(value);
+                        break;
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-LastName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionLastName readLastName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionLastName result = new ODMcomplexTypeDefinitionLastName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-LegalReason.
+     * 
+     */
+    private ODMcomplexTypeDefinitionLegalReason readLegalReason(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionLegalReason result = new ODMcomplexTypeDefinitionLegalReason();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Location.
+     * 
+     */
+    private ODMcomplexTypeDefinitionLocation readLocation(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionLocation result = new ODMcomplexTypeDefinitionLocation();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "LocationType":
+                        result.setLocationType(parseLocationType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "MetaDataVersionRef":
+                        result.getMetaDataVersionRef().add(readMetaDataVersionRef(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-LocationRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionLocationRef readLocationRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionLocationRef result = new ODMcomplexTypeDefinitionLocationRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "LocationOID":
+                        result.setLocationOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-LoginName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionLoginName readLoginName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionLoginName result = new ODMcomplexTypeDefinitionLoginName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Meaning.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMeaning readMeaning(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMeaning result = new ODMcomplexTypeDefinitionMeaning();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-MeasurementUnit.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMeasurementUnit readMeasurementUnit(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMeasurementUnit result = new ODMcomplexTypeDefinitionMeasurementUnit();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Symbol":
+                        result.setSymbol(readSymbol(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-MeasurementUnitRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMeasurementUnitRef readMeasurementUnitRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMeasurementUnitRef result = new ODMcomplexTypeDefinitionMeasurementUnitRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "MeasurementUnitOID":
+                        result.setMeasurementUnitOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-MetaDataVersion.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMetaDataVersion readMetaDataVersion(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMetaDataVersion result = new ODMcomplexTypeDefinitionMetaDataVersion();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "Description":
+                        result.setDescription(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Include":
+                        result.setInclude(readInclude(reader));
+                        break;
+                    case "Protocol":
+                        result.setProtocol(readProtocol(reader));
+                        break;
+                    case "StudyEventDef":
+                        result.getStudyEventDef().add(readStudyEventDef(reader));
+                        break;
+                    case "FormDef":
+                        result.getFormDef().add(readFormDef(reader));
+                        break;
+                    case "ItemGroupDef":
+                        result.getItemGroupDef().add(readItemGroupDef(reader));
+                        break;
+                    case "ItemDef":
+                        result.getItemDef().add(readItemDef(reader));
+                        break;
+                    case "CodeList":
+                        result.getCodeList().add(readCodeList(reader));
+                        break;
+                    case "ImputationMethod":
+                        result.getImputationMethod().add(readImputationMethod(reader));
+                        break;
+                    case "Presentation":
+                        result.getPresentation().add(readPresentation(reader));
+                        break;
+                    case "ConditionDef":
+                        result.getConditionDef().add(readConditionDef(reader));
+                        break;
+                    case "MethodDef":
+                        result.getMethodDef().add(readMethodDef(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-MetaDataVersionRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMetaDataVersionRef readMetaDataVersionRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMetaDataVersionRef result = new ODMcomplexTypeDefinitionMetaDataVersionRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    case "MetaDataVersionOID":
+                        result.setMetaDataVersionOID(value);
+                        break;
+                    case "EffectiveDate":
+                        result.setEffectiveDate(parseCalendar(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-MethodDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionMethodDef readMethodDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionMethodDef result = new ODMcomplexTypeDefinitionMethodDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "Type":
+                        result.setType(parseMethodType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "FormalExpression":
+                        result.getFormalExpression().add(readFormalExpression(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Organization.
+     * 
+     */
+    private ODMcomplexTypeDefinitionOrganization readOrganization(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionOrganization result = new ODMcomplexTypeDefinitionOrganization();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-OtherText.
+     * 
+     */
+    private ODMcomplexTypeDefinitionOtherText readOtherText(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionOtherText result = new ODMcomplexTypeDefinitionOtherText();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Pager.
+     * 
+     */
+    private ODMcomplexTypeDefinitionPager readPager(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionPager result = new ODMcomplexTypeDefinitionPager();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Phone.
+     * 
+     */
+    private ODMcomplexTypeDefinitionPhone readPhone(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionPhone result = new ODMcomplexTypeDefinitionPhone();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Picture.
+     * 
+     */
+    private ODMcomplexTypeDefinitionPicture readPicture(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionPicture result = new ODMcomplexTypeDefinitionPicture();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "PictureFileName":
+                        result.setPictureFileName(value);
+                        break;
+                    case "ImageType":
+                        result.setImageType(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-PostalCode.
+     * 
+     */
+    private ODMcomplexTypeDefinitionPostalCode readPostalCode(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionPostalCode result = new ODMcomplexTypeDefinitionPostalCode();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Presentation.
+     * 
+     */
+    private ODMcomplexTypeDefinitionPresentation readPresentation(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionPresentation result = new ODMcomplexTypeDefinitionPresentation();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            } else if ("http://www.w3.org/XML/1998/namespace".equals(namespace)) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "lang":
+                        result.setLang(collapse(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Protocol.
+     * 
+     */
+    private ODMcomplexTypeDefinitionProtocol readProtocol(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionProtocol result = new ODMcomplexTypeDefinitionProtocol();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "StudyEventRef":
+                        result.getStudyEventRef().add(readStudyEventRef(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ProtocolName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionProtocolName readProtocolName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionProtocolName result = new ODMcomplexTypeDefinitionProtocolName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Question.
+     * 
+     */
+    private ODMcomplexTypeDefinitionQuestion readQuestion(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionQuestion result = new ODMcomplexTypeDefinitionQuestion();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "TranslatedText":
+                        result.getTranslatedText().add(readTranslatedText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-RangeCheck.
+     * 
+     */
+    private ODMcomplexTypeDefinitionRangeCheck readRangeCheck(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionRangeCheck result = new ODMcomplexTypeDefinitionRangeCheck();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "Comparator":
+                        result.setComparator(parseComparator(value));
+                        break;
+                    case "SoftHard":
+                        result.setSoftHard(parseSoftOrHard(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "CheckValue":
+                        result.getCheckValue().add(readCheckValue(reader));
+                        break;
+                    case "FormalExpression":
+                        result.getFormalExpression().add(readFormalExpression(reader));
+                        break;
+                    case "MeasurementUnitRef":
+                        result.setMeasurementUnitRef(readMeasurementUnitRef(reader));
+                        break;
+                    case "ErrorMessage":
+                        result.setErrorMessage(readErrorMessage(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ReasonForChange.
+     * 
+     */
+    private ODMcomplexTypeDefinitionReasonForChange readReasonForChange(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionReasonForChange result = new ODMcomplexTypeDefinitionReasonForChange();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-ReferenceData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionReferenceData readReferenceData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionReferenceData result = new ODMcomplexTypeDefinitionReferenceData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyOID":
+                        result.setStudyOID(value);
+                        break;
+                    case "MetaDataVersionOID":
+                        result.setMetaDataVersionOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "ItemGroupData":
+                        result.getItemGroupData().add(readItemGroupData(reader));
+                        break;
+                    case "AuditRecords":
+                        result.getAuditRecords().add(readAuditRecords(reader));
+                        break;
+                    case "Signatures":
+                        result.getSignatures().add(readSignatures(reader));
+                        break;
+                    case "Annotations":
+                        result.getAnnotations().add(readAnnotations(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Role.
+     * 
+     */
+    private ODMcomplexTypeDefinitionRole readRole(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionRole result = new ODMcomplexTypeDefinitionRole();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Signature.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSignature readSignature(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSignature result = new ODMcomplexTypeDefinitionSignature();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "ID":
+                        result.setID(collapse(value));
+                        identifiers.put(result.getID(), result);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "UserRef":
+                        result.setUserRef(readUserRef(reader));
+                        break;
+                    case "LocationRef":
+                        result.setLocationRef(readLocationRef(reader));
+                        break;
+                    case "SignatureRef":
+                        result.setSignatureRef(readSignatureRef(reader));
+                        break;
+                    case "DateTimeStamp":
+                        result.setDateTimeStamp(readDateTimeStamp(reader));
+                        break;
+                    case "CryptoBindingManifest":
+                        result.setCryptoBindingManifest(readCryptoBindingManifest(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-SignatureDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSignatureDef readSignatureDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSignatureDef result = new ODMcomplexTypeDefinitionSignatureDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Methodology":
+                        result.setMethodology(parseSignMethod(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Meaning":
+                        result.setMeaning(readMeaning(reader));
+                        break;
+                    case "LegalReason":
+                        result.setLegalReason(readLegalReason(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-SignatureRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSignatureRef readSignatureRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSignatureRef result = new ODMcomplexTypeDefinitionSignatureRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "SignatureOID":
+                        result.setSignatureOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Signatures.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSignatures readSignatures(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSignatures result = new ODMcomplexTypeDefinitionSignatures();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Signature":
+                        result.getSignature().add(readSignature(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-SiteRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSiteRef readSiteRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSiteRef result = new ODMcomplexTypeDefinitionSiteRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "LocationOID":
+                        result.setLocationOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-SourceID.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSourceID readSourceID(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSourceID result = new ODMcomplexTypeDefinitionSourceID();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StateProv.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStateProv readStateProv(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStateProv result = new ODMcomplexTypeDefinitionStateProv();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StreetName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStreetName readStreetName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStreetName result = new ODMcomplexTypeDefinitionStreetName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Study.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudy readStudy(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudy result = new ODMcomplexTypeDefinitionStudy();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "GlobalVariables":
+                        result.setGlobalVariables(readGlobalVariables(reader));
+                        break;
+                    case "BasicDefinitions":
+                        result.setBasicDefinitions(readBasicDefinitions(reader));
+                        break;
+                    case "MetaDataVersion":
+                        result.getMetaDataVersion().add(readMetaDataVersion(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StudyDescription.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudyDescription readStudyDescription(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudyDescription result = new ODMcomplexTypeDefinitionStudyDescription();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StudyEventData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudyEventData readStudyEventData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudyEventData result = new ODMcomplexTypeDefinitionStudyEventData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "StudyEventOID":
+                        result.setStudyEventOID(value);
+                        break;
+                    case "StudyEventRepeatKey":
+                        result.setStudyEventRepeatKey(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.setAuditRecord(readAuditRecord(reader));
+                        break;
+                    case "Signature":
+                        result.setSignature(readSignature(reader));
+                        break;
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    case "FormData":
+                        result.getFormData().add(readFormData(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StudyEventDef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudyEventDef readStudyEventDef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudyEventDef result = new ODMcomplexTypeDefinitionStudyEventDef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "Name":
+                        result.setName(value);
+                        break;
+                    case "Repeating":
+                        result.setRepeating(parseYesOrNo(value));
+                        break;
+                    case "Type":
+                        result.setType(parseEventType(value));
+                        break;
+                    case "Category":
+                        result.setCategory(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "Description":
+                        result.setDescription(readDescription(reader));
+                        break;
+                    case "FormRef":
+                        result.getFormRef().add(readFormRef(reader));
+                        break;
+                    case "Alias":
+                        result.getAlias().add(readAlias(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StudyEventRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudyEventRef readStudyEventRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudyEventRef result = new ODMcomplexTypeDefinitionStudyEventRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OrderNumber":
+                        result.setOrderNumber(parseInteger(value));
+                        break;
+                    case "Mandatory":
+                        result.setMandatory(parseYesOrNo(value));
+                        break;
+                    case "CollectionExceptionConditionOID":
+                        result.setCollectionExceptionConditionOID(value);
+                        break;
+                    case "StudyEventOID":
+                        result.setStudyEventOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-StudyName.
+     * 
+     */
+    private ODMcomplexTypeDefinitionStudyName readStudyName(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionStudyName result = new ODMcomplexTypeDefinitionStudyName();
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-SubjectData.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSubjectData readSubjectData(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSubjectData result = new ODMcomplexTypeDefinitionSubjectData();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "SubjectKey":
+                        result.setSubjectKey(value);
+                        break;
+                    case "TransactionType":
+                        result.setTransactionType(parseTransactionType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "AuditRecord":
+                        result.setAuditRecord(readAuditRecord(reader));
+                        break;
+                    case "Signature":
+                        result.setSignature(readSignature(reader));
+                        break;
+                    case "InvestigatorRef":
+                        result.setInvestigatorRef(readInvestigatorRef(reader));
+                        break;
+                    case "SiteRef":
+                        result.setSiteRef(readSiteRef(reader));
+                        break;
+                    case "Annotation":
+                        result.getAnnotation().add(readAnnotation(reader));
+                        break;
+                    case "StudyEventData":
+                        result.getStudyEventData().add(readStudyEventData(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-Symbol.
+     * 
+     */
+    private ODMcomplexTypeDefinitionSymbol readSymbol(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionSymbol result = new ODMcomplexTypeDefinitionSymbol();
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "TranslatedText":
+                        result.getTranslatedText().add(readTranslatedText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-TranslatedText.
+     * 
+     */
+    private ODMcomplexTypeDefinitionTranslatedText readTranslatedText(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionTranslatedText result = new ODMcomplexTypeDefinitionTranslatedText();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if ("http://www.w3.org/XML/1998/namespace".equals(namespace)) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "lang":
+                        result.setLang(collapse(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        final String text = readText(reader);
+        result.setValue(text);
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-User.
+     * 
+     */
+    private ODMcomplexTypeDefinitionUser readUser(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionUser result = new ODMcomplexTypeDefinitionUser();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "OID":
+                        result.setOID(value);
+                        break;
+                    case "UserType":
+                        result.setUserType(parseUserType(value));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                event = reader.next();
+                continue;
+            }
+            final String namespace = reader.getNamespaceURI();
+            if (ODM_NAMESPACE.equals(namespace)) {
+                switch (reader.getLocalName()) {
+                    case "LoginName":
+                        result.setLoginName(readLoginName(reader));
+                        break;
+                    case "DisplayName":
+                        result.setDisplayName(readDisplayName(reader));
+                        break;
+                    case "FullName":
+                        result.setFullName(readFullName(reader));
+                        break;
+                    case "FirstName":
+                        result.setFirstName(readFirstName(reader));
+                        break;
+                    case "LastName":
+                        result.setLastName(readLastName(reader));
+                        break;
+                    case "Organization":
+                        result.setOrganization(readOrganization(reader));
+                        break;
+                    case "Address":
+                        result.getAddress().add(readAddress(reader));
+                        break;
+                    case "Email":
+                        result.getEmail().add(readEmail(reader));
+                        break;
+                    case "Picture":
+                        result.setPicture(readPicture(reader));
+                        break;
+                    case "Pager":
+                        result.setPager(readPager(reader));
+                        break;
+                    case "Fax":
+                        result.getFax().add(readFax(reader));
+                        break;
+                    case "Phone":
+                        result.getPhone().add(readPhone(reader));
+                        break;
+                    case "LocationRef":
+                        result.getLocationRef().add(readLocationRef(reader));
+                        break;
+                    case "Certificate":
+                        result.getCertificate().add(readCertificate(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                        break;
+                }
+            } else {
+                skipElement(reader);
+            }
+            event = reader.getEventType();
+        }
+        reader.next();
+        return result;
+    }
+
+    /**
+     * Reads an element of type ODMcomplexTypeDefinition-UserRef.
+     * 
+     */
+    private ODMcomplexTypeDefinitionUserRef readUserRef(final XMLStreamReader reader)
+        throws XMLStreamException, JAXBException
+    {
+        final ODMcomplexTypeDefinitionUserRef result = new ODMcomplexTypeDefinitionUserRef();
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            final String namespace = reader.getAttributeNamespace(index);
+            if (namespace == null || namespace.isEmpty()) {
+                final String value = reader.getAttributeValue(index);
+                switch (reader.getAttributeLocalName(index)) {
+                    case "UserOID":
+                        result.setUserOID(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        skipElement(reader);
+        return result;
+    }
+
+    private static CLDataType parseCLDataType(final String value) {
+        try {
+            return CLDataType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static CommentType parseCommentType(final String value) {
+        try {
+            return CommentType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Comparator parseComparator(final String value) {
+        try {
+            return Comparator.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static DataType parseDataType(final String value) {
+        try {
+            return DataType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static EditPointType parseEditPointType(final String value) {
+        try {
+            return EditPointType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static EventType parseEventType(final String value) {
+        try {
+            return EventType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static FileType parseFileType(final String value) {
+        try {
+            return FileType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Granularity parseGranularity(final String value) {
+        try {
+            return Granularity.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static LocationType parseLocationType(final String value) {
+        try {
+            return LocationType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static MethodType parseMethodType(final String value) {
+        try {
+            return MethodType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static SignMethod parseSignMethod(final String value) {
+        try {
+            return SignMethod.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static SoftOrHard parseSoftOrHard(final String value) {
+        try {
+            return SoftOrHard.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static TransactionType parseTransactionType(final String value) {
+        try {
+            return TransactionType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static UserType parseUserType(final String value) {
+        try {
+            return UserType.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static YesOnly parseYesOnly(final String value) {
+        try {
+            return YesOnly.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static YesOrNo parseYesOrNo(final String value) {
+        try {
+            return YesOrNo.fromValue(collapse(value));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private <T> T unmarshalWithJaxb(final XMLStreamReader reader, final Class<T> type)
+        throws JAXBException
+    {
+        if (unmarshaller == null) {
+            if (jaxbContext == null) {
+                jaxbContext = JAXBContext.newInstance("org.cdisk.odm.jaxb");
+            }
+            unmarshaller = jaxbContext.createUnmarshaller();
+        }
+        return unmarshaller.unmarshal(reader, type).getValue();
+    }
+
+    private static void skipElement(final XMLStreamReader reader)
+        throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        reader.next();
+    }
+
+    private static String readText(final XMLStreamReader reader)
+        throws XMLStreamException
+    {
+        String text = null;
+        StringBuilder builder = null;
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+                event = reader.getEventType();
+                continue;
+            }
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                if (text == null) {
+                    text = reader.getText();
+                } else {
+                    if (builder == null) {
+                        builder = new StringBuilder(text);
+                    }
+                    builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+            event = reader.next();
+        }
+        reader.next();
+        if (builder != null) {
+            return builder.toString();
+        }
+        return text == null ? "" : text;
+    }
+
+    private static String collapse(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final StringBuilder builder = new StringBuilder(value.length());
+        boolean space = false;
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            if (character == ' ' || character == '\t' || character == '\n' || character == '\r') {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(character);
+            }
+        }
+        return builder.length() == value.length() ? value : builder.toString();
+    }
+
+    private static Boolean parseBoolean(final String value) {
+        final String collapsed = collapse(value);
+        if ("true".equals(collapsed) || "1".equals(collapsed)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equals(collapsed) || "0".equals(collapsed)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    private static BigInteger parseInteger(final String value) {
+        try {
+            return DatatypeConverter.parseInteger(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal parseDecimal(final String value) {
+        try {
+            return DatatypeConverter.parseDecimal(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseHexBinary(final String value) {
+        try {
+            return DatatypeConverter.parseHexBinary(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseBase64Binary(final String value) {
+        try {
+            return DatatypeConverter.parseBase64Binary(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private XMLGregorianCalendar parseCalendar(final String value) {
+        try {
+            if (datatypeFactory == null) {
+                datatypeFactory = DatatypeFactory.newInstance();
+            }
+            return datatypeFactory.newXMLGregorianCalendar(value.trim());
+        } catch (DatatypeConfigurationException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private abstract static class PendingReference {
+
+        private final String identifier;
+
+        PendingReference(final String identifier) {
+            this.identifier = identifier;
+        }
+
+        abstract void resolve(final Object target);
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.i2b2;
+
+/**
+ * A node in the tree of concept paths of the STUDY ontology (study, event, form, item and code list item). A node only
+ * stores its own segment and a reference to its parent, so the nodes below a study share their prefixes instead of
+ * each holding a copy of the full path. A node is rendered once into a reusable buffer when a record is written, and
+ * the full name (c_fullname and c_dimcode) and the tooltip are both taken from that buffer.
+ */
+public final class ConceptPath {
+    /**
+     * The separator between the segments.
+     */
+    private static final char SEPARATOR = '\\';
+
+    /**
+     * The parent node, or null for the root.
+     */
+    private final ConceptPath parent;
+
+    /**
+     * The segment of this node.
+     */
+    private final String segment;
+
+    /**
+     * The length of the segments from the root up to this node, with the separators between them.
+     */
+    private final int length;
+
+    /**
+     * Construct a node.
+     *
+     * @param parent  the parent node, or null for the root.
+     * @param segment the segment of this node.
+     */
+    private ConceptPath(final ConceptPath parent, final String segment) {
+        this.parent = parent;
+        this.segment = segment;
+        this.length = (parent != null ? parent.length + 1 : 0) + segment.length();
+    }
+
+    /**
+     * Create a root node.
+     *
+     * @param segment the segment of the root.
+     * @return the root node.
+     */
+    public static ConceptPath root(final String segment) {
+        return new ConceptPath(null, segment);
+    }
+
+    /**
+     * Create a child node.
+     *
+     * @param childSegment the segment of the child.
+     * @return the child node.
+     */
+    public ConceptPath child(final String childSegment) {
+        return new ConceptPath(this, childSegment);
+    }
+
+    /**
+     * Render the full name of this node in a buffer, like \\STUDY\\source:study\\event\\. The full name, the tooltip
+     * and the names of a child segment are then all taken from this buffer, so the segments are walked only once for
+     * a record and a code list item needs no child node.
+     *
+     * @param buffer the buffer to render in, which is cleared first.
+     */
+    public void render(final StringBuilder buffer) {
+        buffer.setLength(0);
+        buffer.ensureCapacity(length + 2);
+        buffer.append(SEPARATOR);
+        appendSegments(buffer);
+        buffer.append(SEPARATOR);
+    }
+
+    /**
+     * Get the full name of this node, which is also used as the dimension code.
+     *
+     * @param buffer the buffer in which this node has been rendered.
+     * @return the full name, like \\STUDY\\source:study\\event\\.
+     */
+    public String getFullName(final StringBuilder buffer) {
+        buffer.setLength(length + 2);
+        return buffer.toString();
+    }
+
+    /**
+     * Get the tooltip of this node.
+     *
+     * @param buffer the buffer in which this node has been rendered.
+     * @return the tooltip, like STUDY\\source:study\\event.
+     */
+    public String getToolTip(final StringBuilder buffer) {
+        return buffer.substring(1, length + 1);
+    }
+
+    /**
+     * Get the full name of a child segment of this node, without creating a node for it.
+     *
+     * @param buffer       the buffer in which this node has been rendered.
+     * @param childSegment the segment of the child.
+     * @return the full name of the child.
+     */
+    public String getChildFullName(final StringBuilder buffer, final String childSegment) {
+        buffer.setLength(length + 2);
+        return buffer.append(childSegment).append(SEPARATOR).toString();
+    }
+
+    /**
+     * Get the tooltip of a child segment of this node, without creating a node for it.
+     *
+     * @param buffer       the buffer in which this node has been rendered.
+     * @param childSegment the segment of the child.
+     * @return the tooltip of the child.
+     */
+    public String getChildToolTip(final StringBuilder buffer, final String childSegment) {
+        buffer.setLength(length + 2);
+        return buffer.append(childSegment).substring(1);
+    }
+
+    /**
+     * Append the segments from the root up to this node, separated by backslashes.
+     *
+     * @param buffer the buffer to append to.
+     */
+    private void appendSegments(final StringBuilder buffer) {
+        if (parent != null) {
+            parent.appendSegments(buffer);
+            buffer.append(SEPARATOR);
+        }
+        buffer.append(segment);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        render(buffer);
+        return getToolTip(buffer);
+    }
+}
@@ -14,6 +14,10 @@ import java.sql.SQLException;
 import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.JAXBException;
 
@@ -21,7 +25,6 @@ import org.cdisk.odm.jaxb.ODM;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
-import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDescription;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormDef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormRef;
@@ -37,7 +40,6 @@ import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventDef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventRef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
-import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionTranslatedText;
 
 import com.recomdata.i2b2.dao.ClinicalDataDao;
 import com.recomdata.i2b2.dao.IClinicalDataDao;
@@ -45,7 +47,10 @@ import com.recomdata.i2b2.dao.IStudyDao;
 import com.recomdata.i2b2.dao.StudyDao;
 import com.recomdata.i2b2.entity.I2B2ClinicalDataInfo;
 import com.recomdata.i2b2.entity.I2B2StudyInfo;
+import com.recomdata.i2b2.util.MetaDataVersionIndex;
 import com.recomdata.i2b2.util.ODMUtil;
+import com.recomdata.odm.ODMItemData;
+import nl.vumc.odmtoi2b2.export.LanguagePreference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,10 +78,27 @@ public class I2B2ODMStudyHandler implements IConstants {
     private Date currentDate = null;
     private MessageDigest messageDigest = null;
     private StringBuffer conceptBuffer = new StringBuffer("STUDY|");
+    private StringBuilder pathBuffer = new StringBuilder();
     private MetaDataXML mdx = new MetaDataXML();
 
     /**
-     * Constructor to set ODM object
+     * The languages in which the descriptions and decodes are taken, the same as for the file export.
+     */
+    private final LanguagePreference languagePreference;
+
+    /**
+     * The decoded values by coded value of the code lists, which are computed when a code list is first used.
+     */
+    private final Map<ODMcomplexTypeDefinitionCodeList, Map<String, String>> decodedValues = new IdentityHashMap<>();
+
+    /**
+     * The indexes of the metadata versions of the studies, which are built when a study is first used. The metadata
+     * is complete when the handler is created, so an index is never out of date.
+     */
+    private final Map<ODMcomplexTypeDefinitionStudy, MetaDataVersionIndex> metaDataIndexes = new IdentityHashMap<>();
+
+    /**
+     * Constructor to set ODM object, with the default language preference
      *
      * @param odm the entire ODM tree.
      * @throws SQLException
@@ -84,7 +106,21 @@ public class I2B2ODMStudyHandler implements IConstants {
      */
     public I2B2ODMStudyHandler(ODM odm) throws SQLException,
             NoSuchAlgorithmException {
+        this(odm, LanguagePreference.DEFAULT);
+    }
+
+    /**
+     * Constructor to set ODM object
+     *
+     * @param odm the entire ODM tree.
+     * @param languagePreference the languages in which the descriptions and decodes are taken.
+     * @throws SQLException
+     * @throws NoSuchAlgorithmException
+     */
+    public I2B2ODMStudyHandler(ODM odm, LanguagePreference languagePreference) throws SQLException,
+            NoSuchAlgorithmException {
         this.odm = odm;
+        this.languagePreference = languagePreference;
 
         studyDao = new StudyDao();
         clinicalDataDao = new ClinicalDataDao();
@@ -106,12 +142,14 @@ public class I2B2ODMStudyHandler implements IConstants {
         // Need to include source system in path to avoid conflicts between servers
         String studyKey = odm.getSourceSystem() + ":" + study.getOID();
 
-        String studyPath = "\\" + "STUDY" + "\\" + studyKey + "\\";
-        String studyToolTip = "STUDY" + "\\" + studyKey;
+        ConceptPath studyPath = ConceptPath.root("STUDY").child(studyKey);
+        studyPath.render(pathBuffer);
+        String studyFullName = studyPath.getFullName(pathBuffer);
+        String studyToolTip = studyPath.getToolTip(pathBuffer);
 
         // set c_hlevel 1 data (Study)
         studyInfo.setChlevel(IConstants.C_HLEVEL_1);
-        studyInfo.setCfullname(studyPath);
+        studyInfo.setCfullname(studyFullName);
         studyInfo.setCname(study.getGlobalVariables().getStudyName().getValue());
         studyInfo.setCsynonmCd(IConstants.C_SYNONYM_CD);
         studyInfo.setCvisualAttributes(IConstants.C_VISUALATTRIBUTES_FOLDER);
@@ -124,7 +162,7 @@ public class I2B2ODMStudyHandler implements IConstants {
         studyInfo.setUpdateDate(currentDate);
         studyInfo.setDownloadDate(currentDate);
         studyInfo.setImportDate(currentDate);
-        studyInfo.setCdimcode(studyPath);
+        studyInfo.setCdimcode(studyFullName);
         studyInfo.setCtooltip(studyToolTip);
 
         logStudyInfo();
@@ -138,9 +176,9 @@ public class I2B2ODMStudyHandler implements IConstants {
         if (version.getProtocol().getStudyEventRef() != null) {
             for (ODMcomplexTypeDefinitionStudyEventRef studyEventRef : version.getProtocol().getStudyEventRef()) {
                 ODMcomplexTypeDefinitionStudyEventDef studyEventDef =
-                        ODMUtil.getStudyEvent(study, studyEventRef.getStudyEventOID());
+                        getMetaDataIndex(study).getStudyEventDef(studyEventRef.getStudyEventOID());
 
-                saveEvent(study, studyEventDef, studyPath, studyToolTip);
+                saveEvent(study, studyEventDef, studyPath);
             }
         }
     }
@@ -152,16 +190,18 @@ public class I2B2ODMStudyHandler implements IConstants {
      */
     private void saveEvent(ODMcomplexTypeDefinitionStudy study,
                            ODMcomplexTypeDefinitionStudyEventDef studyEventDef,
-                           String studyPath, String studyToolTip) throws SQLException,
+                           ConceptPath studyPath) throws SQLException,
             JAXBException {
-        String eventPath = studyPath + studyEventDef.getOID() + "\\";
-        String eventToolTip = studyToolTip + "\\" + studyEventDef.getOID();
+        ConceptPath eventPath = studyPath.child(studyEventDef.getOID());
+        eventPath.render(pathBuffer);
+        String eventFullName = eventPath.getFullName(pathBuffer);
+        String eventToolTip = eventPath.getToolTip(pathBuffer);
 
         // set c_hlevel 2 data (StudyEvent)
         studyInfo.setChlevel(IConstants.C_HLEVEL_2);
-        studyInfo.setCfullname(eventPath);
+        studyInfo.setCfullname(eventFullName);
         studyInfo.setCname(studyEventDef.getName());
-        studyInfo.setCdimcode(eventPath);
+        studyInfo.setCdimcode(eventFullName);
         studyInfo.setCtooltip(eventToolTip);
         studyInfo.setCvisualAttributes(IConstants.C_VISUALATTRIBUTES_FOLDER);
 
@@ -171,9 +211,9 @@ public class I2B2ODMStudyHandler implements IConstants {
         studyDao.insertMetadata(studyInfo);
 
         for (ODMcomplexTypeDefinitionFormRef formRef : studyEventDef.getFormRef()) {
-            ODMcomplexTypeDefinitionFormDef formDef = ODMUtil.getForm(study, formRef.getFormOID());
+            ODMcomplexTypeDefinitionFormDef formDef = getMetaDataIndex(study).getFormDef(formRef.getFormOID());
 
-            saveForm(study, studyEventDef, formDef, eventPath, eventToolTip);
+            saveForm(study, studyEventDef, formDef, eventPath);
         }
     }
 
@@ -184,16 +224,18 @@ public class I2B2ODMStudyHandler implements IConstants {
      */
     private void saveForm(ODMcomplexTypeDefinitionStudy study,
                           ODMcomplexTypeDefinitionStudyEventDef studyEventDef,
-                          ODMcomplexTypeDefinitionFormDef formDef, String eventPath,
-                          String eventToolTip) throws SQLException, JAXBException {
-        String formPath = eventPath + formDef.getOID() + "\\";
-        String formToolTip = eventToolTip + "\\" + formDef.getOID();
+                          ODMcomplexTypeDefinitionFormDef formDef,
+                          ConceptPath eventPath) throws SQLException, JAXBException {
+        ConceptPath formPath = eventPath.child(formDef.getOID());
+        formPath.render(pathBuffer);
+        String formFullName = formPath.getFullName(pathBuffer);
+        String formToolTip = formPath.getToolTip(pathBuffer);
 
         // set c_hlevel 3 data (Form)
         studyInfo.setChlevel(IConstants.C_HLEVEL_3);
-        studyInfo.setCfullname(formPath);
-        studyInfo.setCname(getTranslatedDescription(formDef.getDescription(), "en", formDef.getName()));
-        studyInfo.setCdimcode(formPath);
+        studyInfo.setCfullname(formFullName);
+        studyInfo.setCname(languagePreference.chooseDescription(formDef.getDescription(), formDef.getName()));
+        studyInfo.setCdimcode(formFullName);
         studyInfo.setCtooltip(formToolTip);
         studyInfo.setCvisualAttributes(IConstants.C_VISUALATTRIBUTES_FOLDER);
 
@@ -205,13 +247,13 @@ public class I2B2ODMStudyHandler implements IConstants {
 
         for (ODMcomplexTypeDefinitionItemGroupRef itemGroupRef : formDef.getItemGroupRef()) {
             ODMcomplexTypeDefinitionItemGroupDef itemGroupDef =
-                    ODMUtil.getItemGroup(study, itemGroupRef.getItemGroupOID());
+                    getMetaDataIndex(study).getItemGroupDef(itemGroupRef.getItemGroupOID());
 
             if (itemGroupDef.getItemRef() != null) {
                 for (ODMcomplexTypeDefinitionItemRef itemRef : itemGroupDef.getItemRef()) {
-                    ODMcomplexTypeDefinitionItemDef itemDef = ODMUtil.getItem(study, itemRef.getItemOID());
+                    ODMcomplexTypeDefinitionItemDef itemDef = getMetaDataIndex(study).getItemDef(itemRef.getItemOID());
 
-                    saveItem(study, studyEventDef, formDef, itemDef, formPath, formToolTip);
+                    saveItem(study, studyEventDef, formDef, itemDef, formPath);
                 }
             }
         }
@@ -226,17 +268,20 @@ public class I2B2ODMStudyHandler implements IConstants {
     private void saveItem(ODMcomplexTypeDefinitionStudy study,
                           ODMcomplexTypeDefinitionStudyEventDef studyEventDef,
                           ODMcomplexTypeDefinitionFormDef formDef,
-                          ODMcomplexTypeDefinitionItemDef itemDef, String formPath,
-                          String formToolTip) throws SQLException, JAXBException {
-        String itemPath = formPath + itemDef.getOID() + "\\";
-        String itemToolTip = formToolTip + "\\" + itemDef.getOID();
+                          ODMcomplexTypeDefinitionItemDef itemDef,
+                          ConceptPath formPath) throws SQLException, JAXBException {
+        ConceptPath itemPath = formPath.child(itemDef.getOID());
+        itemPath.render(pathBuffer);
+        String itemFullName = itemPath.getFullName(pathBuffer);
+        String itemToolTip = itemPath.getToolTip(pathBuffer);
+        String itemName = languagePreference.chooseDescription(itemDef.getDescription(), itemDef.getName());
 
         // set c_hlevel 4 data (Items)
         studyInfo.setChlevel(IConstants.C_HLEVEL_4);
-        studyInfo.setCfullname(itemPath);
-        studyInfo.setCname(getTranslatedDescription(itemDef.getDescription(), "en", itemDef.getName()));
+        studyInfo.setCfullname(itemFullName);
+        studyInfo.setCname(itemName);
         studyInfo.setCbasecode(generateConceptCode(study.getOID(), studyEventDef.getOID(), formDef.getOID(), itemDef.getOID(), null));
-        studyInfo.setCdimcode(itemPath);
+        studyInfo.setCdimcode(itemFullName);
         studyInfo.setCtooltip(itemToolTip);
         studyInfo.setCmetadataxml(createMetadataXml(study, itemDef));
 
@@ -253,29 +298,65 @@ public class I2B2ODMStudyHandler implements IConstants {
         studyDao.insertMetadata(studyInfo);
 
         if (itemDef.getCodeListRef() != null) {
-            ODMcomplexTypeDefinitionCodeList codeList = ODMUtil.getCodeList(study, itemDef.getCodeListRef().getCodeListOID());
+            ODMcomplexTypeDefinitionCodeList codeList =
+                    getMetaDataIndex(study).getCodeList(itemDef.getCodeListRef().getCodeListOID());
 
             if (codeList != null) {
+                // The path buffer still holds the item path rendered above; each code list item appends its segment.
                 for (ODMcomplexTypeDefinitionCodeListItem codeListItem : codeList.getCodeListItem()) {
                     // save
                     // level 5
-                    saveCodeListItem(study, studyEventDef, formDef, itemDef, codeListItem, itemPath, itemToolTip);
+                    saveCodeListItem(study, studyEventDef, formDef, itemDef, itemName, codeListItem, itemPath);
                 }
             }
         }
     }
 
-    private String getTranslatedDescription(
-            ODMcomplexTypeDefinitionDescription description, String lang, String defaultValue) {
-        if (description != null) {
-            for (ODMcomplexTypeDefinitionTranslatedText translatedText : description.getTranslatedText()) {
-                if (translatedText.getLang().equals(lang)) {
-                    return translatedText.getValue();
+    /**
+     * Get the index of the metadata version of a study, which is built the first time.
+     */
+    private MetaDataVersionIndex getMetaDataIndex(ODMcomplexTypeDefinitionStudy study) {
+        MetaDataVersionIndex index = metaDataIndexes.get(study);
+        if (index == null) {
+            // We assume there is only one pack of metadata for a study.
+            index = new MetaDataVersionIndex(study.getMetaDataVersion().get(0));
+            metaDataIndexes.put(study, index);
+        }
+        return index;
+    }
+
+    /**
+     * Get the decoded values of the items of a code list, in the order of the items.
+     */
+    private String[] getCodeListValues(ODMcomplexTypeDefinitionCodeList codeList) {
+        List<ODMcomplexTypeDefinitionCodeListItem> codeListItems = codeList.getCodeListItem();
+        String[] codeListValues = new String[codeListItems.size()];
+
+        for (int i = 0; i < codeListValues.length; i++) {
+            codeListValues[i] = languagePreference.chooseDecode(codeListItems.get(i));
+        }
+
+        return codeListValues;
+    }
+
+    /**
+     * Look up the decoded value of a coded value. The decoded values of a code list are computed once, and the
+     * first code list item with a coded value wins, like a search would.
+     *
+     * @return the decoded value, or null if the code list has no item with the coded value
+     */
+    private String getDecodedValue(ODMcomplexTypeDefinitionCodeList codeList, String codedValue) {
+        Map<String, String> codeListValues = decodedValues.get(codeList);
+        if (codeListValues == null) {
+            codeListValues = new HashMap<>();
+            for (ODMcomplexTypeDefinitionCodeListItem codeListItem : codeList.getCodeListItem()) {
+                if (!codeListValues.containsKey(codeListItem.getCodedValue())) {
+                    codeListValues.put(codeListItem.getCodedValue(), languagePreference.chooseDecode(codeListItem));
                 }
             }
+            decodedValues.put(codeList, codeListValues);
         }
-
-        return defaultValue;
+        return codeListValues.get(codedValue);
     }
 
     private String createMetadataXml(ODMcomplexTypeDefinitionStudy study,
@@ -298,8 +379,8 @@ public class I2B2ODMStudyHandler implements IConstants {
                     metadataXml = mdx.getStringMetadataXML(itemDef.getOID(), itemDef.getName());
                 } else {
                     ODMcomplexTypeDefinitionCodeList codeList =
-                            ODMUtil.getCodeList(study, itemDef.getCodeListRef().getCodeListOID());
-                    String[] codeListValues = ODMUtil.getCodeListValues(codeList, "en");
+                            getMetaDataIndex(study).getCodeList(itemDef.getCodeListRef().getCodeListOID());
+                    String[] codeListValues = getCodeListValues(codeList);
 
                     metadataXml = mdx.getEnumMetadataXML(itemDef.getOID(), itemDef.getName(), codeListValues);
                 }
@@ -329,22 +410,22 @@ public class I2B2ODMStudyHandler implements IConstants {
     private void saveCodeListItem(ODMcomplexTypeDefinitionStudy study,
                                   ODMcomplexTypeDefinitionStudyEventDef studyEventDef,
                                   ODMcomplexTypeDefinitionFormDef formDef,
-                                  ODMcomplexTypeDefinitionItemDef itemDef,
-                                  ODMcomplexTypeDefinitionCodeListItem codeListItem, String itemPath,
-                                  String itemToolTip) throws SQLException {
-        String value = ODMUtil.getTranslatedValue(codeListItem, "en");
+                                  ODMcomplexTypeDefinitionItemDef itemDef, String itemName,
+                                  ODMcomplexTypeDefinitionCodeListItem codeListItem,
+                                  ConceptPath itemPath) throws SQLException {
+        String value = languagePreference.chooseDecode(codeListItem);
         String codedValue = codeListItem.getCodedValue();
-        String codeListItemPath = itemPath + codedValue + "\\";
-        String codeListItemToolTip = itemToolTip + "\\"	+ value;
-
-
+        // The path buffer still holds the item path that saveItem rendered; only the code segment is appended.
+        // The full name ends with the coded value, the tooltip with the decoded value.
+        String codeListItemFullName = itemPath.getChildFullName(pathBuffer, codedValue);
+        String codeListItemToolTip = itemPath.getChildToolTip(pathBuffer, value);
 
         // set c_hlevel 5 data (TranslatedText)
         studyInfo.setChlevel(IConstants.C_HLEVEL_5);
-        studyInfo.setCfullname(codeListItemPath);
-        studyInfo.setCname(getTranslatedDescription(itemDef.getDescription(), "en", itemDef.getName()) + ": " + value);
+        studyInfo.setCfullname(codeListItemFullName);
+        studyInfo.setCname(itemName + ": " + value);
         studyInfo.setCbasecode(generateConceptCode(study.getOID(), studyEventDef.getOID(), formDef.getOID(), itemDef.getOID(), codedValue));
-        studyInfo.setCdimcode(codeListItemPath);
+        studyInfo.setCdimcode(codeListItemFullName);
         studyInfo.setCtooltip(codeListItemToolTip);
         studyInfo.setCmetadataxml(null);
         studyInfo.setCvisualAttributes(IConstants.C_VISUALATTRIBUTES_LEAF);
@@ -460,13 +541,17 @@ public class I2B2ODMStudyHandler implements IConstants {
                         }
 
                         for (ODMcomplexTypeDefinitionItemGroupData itemGroupData : formData.getItemGroupData()) {
-                            if (itemGroupData.getItemDataGroup() == null) {
-                                continue;
-                            }
-
                             for (ODMcomplexTypeDefinitionItemData itemData : itemGroupData.getItemDataGroup()) {
                                 if (itemData.getValue() != null) {
-                                    saveItemData(study, subjectData, studyEventData, formData, itemData, encounterNum);
+                                    saveItemData(study, subjectData, studyEventData, formData, itemData.getItemOID(),
+                                            itemData.getValue(), null, encounterNum);
+                                }
+                            }
+                            for (Object typedItemData : itemGroupData.getItemDataStarGroup()) {
+                                ODMItemData itemData = ODMItemData.fromTyped(typedItemData);
+                                if (itemData != null && itemData.getValue() != null) {
+                                    saveItemData(study, subjectData, studyEventData, formData, itemData.getItemOID(),
+                                            itemData.getValue(), itemData.getNumber(), encounterNum);
                                 }
                             }
                         }
@@ -496,11 +581,12 @@ public class I2B2ODMStudyHandler implements IConstants {
             ODMcomplexTypeDefinitionSubjectData subjectData,
             ODMcomplexTypeDefinitionStudyEventData studyEventData,
             ODMcomplexTypeDefinitionFormData formData,
-            ODMcomplexTypeDefinitionItemData itemData,
+            String itemOID,
+            String itemValue,
+            BigDecimal number,
             int encounterNum) throws JAXBException, ParseException, SQLException {
 
-        String itemValue = itemData.getValue();
-        ODMcomplexTypeDefinitionItemDef item = ODMUtil.getItem(study, itemData.getItemOID());
+        ODMcomplexTypeDefinitionItemDef item = getMetaDataIndex(study).getItemDef(itemOID);
 
         String conceptCd;
 
@@ -508,10 +594,11 @@ public class I2B2ODMStudyHandler implements IConstants {
             clinicalDataInfo.setValTypeCd("T");
             clinicalDataInfo.setNvalNum(null);
 
-            ODMcomplexTypeDefinitionCodeList codeList = ODMUtil.getCodeList(study, item.getCodeListRef().getCodeListOID());
-            ODMcomplexTypeDefinitionCodeListItem codeListItem = ODMUtil.getCodeListItem(codeList, itemValue);
+            ODMcomplexTypeDefinitionCodeList codeList =
+                    getMetaDataIndex(study).getCodeList(item.getCodeListRef().getCodeListOID());
+            String decodedValue = getDecodedValue(codeList, itemValue);
 
-            if (codeListItem == null) {
+            if (decodedValue == null) {
                 log.error("Code list item for coded value: " + itemValue + " not found in code list: " + codeList.getOID());
                 return;
             } else {
@@ -522,27 +609,31 @@ public class I2B2ODMStudyHandler implements IConstants {
                         study.getOID(),
                         studyEventData.getStudyEventOID(),
                         formData.getFormOID(),
-                        itemData.getItemOID(),
+                        itemOID,
                         itemValue);
-                clinicalDataInfo.setTvalChar(ODMUtil.getTranslatedValue(codeListItem, "en"));
+                clinicalDataInfo.setTvalChar(decodedValue);
             }
         } else if (ODMUtil.isNumericDataType(item.getDataType())) {
             conceptCd = generateConceptCode(
                     study.getOID(),
                     studyEventData.getStudyEventOID(),
                     formData.getFormOID(),
-                    itemData.getItemOID(),
+                    itemOID,
                     null);
 
             clinicalDataInfo.setValTypeCd("N");
             clinicalDataInfo.setTvalChar("E");
-            clinicalDataInfo.setNvalNum(itemValue == null || itemValue.trim().equals("") || itemValue.length() == 0 ? null : new BigDecimal(itemValue));
+            if (number != null) {
+                clinicalDataInfo.setNvalNum(number);
+            } else {
+                clinicalDataInfo.setNvalNum(itemValue == null || itemValue.trim().equals("") || itemValue.length() == 0 ? null : new BigDecimal(itemValue));
+            }
         } else {
             conceptCd = generateConceptCode(
                     study.getOID(),
                     studyEventData.getStudyEventOID(),
                     formData.getFormOID(),
-                    itemData.getItemOID(),
+                    itemOID,
                     null);
 
             clinicalDataInfo.setValTypeCd("T");
@@ -570,7 +661,7 @@ public class I2B2ODMStudyHandler implements IConstants {
         } catch (SQLException e) {
             String sError = "Error inserting observation_fact record.";
             sError += " study: " + study.getOID();
-            sError += " item: " + itemData.getItemOID();
+            sError += " item: " + itemOID;
             log.error(sError, e);
         }
     }
@@ -15,19 +15,35 @@ package com.recomdata.i2b2;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBException;
 
 import nl.vumc.odmtoi2b2.export.ColumnFilter;
 import nl.vumc.odmtoi2b2.export.Configuration;
+import nl.vumc.odmtoi2b2.export.IngestionMode;
 import nl.vumc.odmtoi2b2.export.OdmToFilesConverter;
 
 import org.apache.log4j.xml.DOMConfigurator;
 import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.recomdata.config.Config;
 import com.recomdata.i2b2.dao.I2B2DBUtils;
+import com.recomdata.odm.ODMCompression;
+import com.recomdata.odm.ODMDocument;
 import com.recomdata.odm.ODMLoader;
+import com.recomdata.odm.ODMReadOptions;
+import com.recomdata.odm.ODMStreamHandler;
+import com.recomdata.odm.ODMSubjectSelection;
+import com.recomdata.odm.ODMValidationResult;
 
 /**
  * This class will be used by both command-line and web app to load ODM files
@@ -47,11 +63,28 @@ public class I2B2ODMStudyHandlerCMLClient {
      */
     private static final Logger logger = LoggerFactory.getLogger(I2B2ODMStudyHandlerCMLClient.class);
 
+    /**
+     * The command line option with the whitelist file of the subjects to convert.
+     */
+    private static final String SUBJECTS_OPTION = "--subjects=";
+
+    /**
+     * The command line option with the size of the subject sample.
+     */
+    private static final String SAMPLE_OPTION = "--sample=";
+
+    /**
+     * The command line option with the maximum number of subjects.
+     */
+    private static final String FIRST_OPTION = "--first=";
+
     /**
 	 * method to process odm xml file and save data into i2b2
 	 * 
-	 * @param odmXmlPath the ODM file to process.
-	 * @param exportFilePath the path of the export file.
+	 * @param odmXmlPath the ODM file to process; a gzip file or a zip file with ODM files is decompressed while it
+	 *                   is read. Use "-" to read from the standard input; a named pipe can be used as well.
+	 * @param exportFilePath the path of the export file. For a zip file with several ODM documents, the export files
+	 *                       of each document are written to a subdirectory that is named after its zip entry.
      * @param propertiesFilePath the file path to the properties.
      * @param filterFilePath path to a file containing a list of columns (as ODM-axis) which must be excluded from the
      *                       export.
@@ -61,18 +94,171 @@ public class I2B2ODMStudyHandlerCMLClient {
                                  String exportFilePath,
                                  final String propertiesFilePath,
                                  final String filterFilePath) throws Exception {
+        loadODMFile2I2B2(odmXmlPath, exportFilePath, propertiesFilePath, filterFilePath, null);
+    }
+
+    /**
+     * method to process odm xml file and save data into i2b2, for a selection of the subjects
+     *
+     * @param odmXmlPath the ODM file to process (see loadODMFile2I2B2 with four parameters).
+     * @param exportFilePath the path of the export file.
+     * @param propertiesFilePath the file path to the properties.
+     * @param filterFilePath path to a file containing a list of columns (as ODM-axis) which must be excluded from the
+     *                       export.
+     * @param subjectSelection the subjects to convert, or null to use the selection of the configuration.
+     * @throws Exception
+     */
+    public void loadODMFile2I2B2(String odmXmlPath,
+                                 String exportFilePath,
+                                 final String propertiesFilePath,
+                                 final String filterFilePath,
+                                 ODMSubjectSelection subjectSelection) throws Exception {
 		File xmlFile = new File(odmXmlPath);
 
-		if (!xmlFile.exists()) {
+		if (!ODMDocument.STANDARD_INPUT.equals(odmXmlPath) && !xmlFile.exists()) {
             logger.error("ODM file not found: " + odmXmlPath);
 			throw new FileNotFoundException(xmlFile.getPath());
 		}
 
         ColumnFilter columnFilter = new ColumnFilter(filterFilePath);
+        Configuration configuration = new Configuration(propertiesFilePath);
+        if (subjectSelection == null) {
+            subjectSelection = createSubjectSelection(configuration.getSubjectWhitelistPath(),
+                                                      configuration.getSubjectSampleModulus(),
+                                                      configuration.getSubjectLimit());
+        }
+        if (subjectSelection.isActive()) {
+            logger.info("Trial conversion of " + subjectSelection + ".");
+        }
+        final ODMReadOptions readOptions = ODMReadOptions.builder()
+                .binding(configuration.getOdmBinding())
+                .parser(configuration.getXmlParser())
+                .skippedElementNames(configuration.getSkippedElementNames())
+                .canonicalizeStrings(configuration.isCanonicalizeStrings())
+                .subjectSelection(subjectSelection)
+                .build();
+
+        // A gzip file holds one ODM document and a zip file may hold several; they are decompressed while reading.
+        List<ODMDocument> documents = ODMDocument.list(xmlFile);
+        if (documents.size() == 0) {
+            throw new Exception("No ODM documents were found in zip file " + odmXmlPath + ".");
+        }
+
+        // Closing the loader stops its validation thread.
+        try (ODMLoader odmLoader = new ODMLoader(readOptions)) {
+            for (ODMDocument document : documents) {
+                if (documents.size() > 1 || document.getCompression() != ODMCompression.NONE || document.isPipe()) {
+                    logger.info("Processing ODM document " + document.getName());
+                }
+                // The schema validation reads the document a second time on another thread, next to the conversion.
+                Future<ODMValidationResult> validation = null;
+                if (configuration.isValidateSchema()) {
+                    if (document.isPipe()) {
+                        logger.warn("ODM document " + document.getName()
+                                    + " comes from a pipe, so it is not validated.");
+                    } else {
+                        validation = odmLoader.validateInBackground(document);
+                    }
+                }
+                // The export files are named after the study, so the documents of a zip file each get their own
+                // directory; otherwise documents with the same study would overwrite each other's files.
+                final String documentExportFilePath = documents.size() > 1
+                                                      ? createEntryExportDirectory(exportFilePath, document)
+                                                      : exportFilePath;
+                loadODMDocument2I2B2(odmLoader, document, documentExportFilePath, propertiesFilePath, configuration,
+                                     columnFilter);
+                if (validation != null) {
+                    logValidationResult(validation.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the export directory for a document in a zip file with several documents: a subdirectory of the export
+     * directory that is named after the zip entry.
+     *
+     * @param exportFilePath the path of the export directory.
+     * @param document the ODM document in the zip file.
+     * @return the path of the export directory for the document.
+     * @throws IOException when the directory cannot be created.
+     */
+    private static String createEntryExportDirectory(final String exportFilePath,
+                                                     final ODMDocument document) throws IOException {
+        final File directory = new File(exportFilePath, document.getEntryName().replace('/', '_').replace('\\', '_'));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("The export directory " + directory.getPath() + " cannot be created.");
+        }
+        logger.info("Writing the export files of ODM document " + document.getName() + " to " + directory.getPath());
+        return directory.getPath();
+    }
+
+    /**
+     * Create the selection of the subjects to convert.
+     *
+     * @param whitelistPath the path of the file with the subject keys, or null to select all subject keys.
+     * @param sampleModulus one out of this many subjects is selected; 0 or 1 selects all subjects.
+     * @param limit the maximum number of subjects; 0 means no limit.
+     * @return the subject selection.
+     * @throws IOException when the whitelist file cannot be read.
+     */
+    private static ODMSubjectSelection createSubjectSelection(final String whitelistPath,
+                                                              final int sampleModulus,
+                                                              final int limit) throws IOException {
+        final List<String> subjectKeys = whitelistPath != null
+                                         ? ODMSubjectSelection.readSubjectKeys(Paths.get(whitelistPath))
+                                         : null;
+        return new ODMSubjectSelection(subjectKeys, sampleModulus, limit);
+    }
+
+    /**
+     * Log the result of the schema validation of an ODM document.
+     *
+     * @param result the validation result.
+     */
+    private void logValidationResult(final ODMValidationResult result) {
+        if (result.isValid()) {
+            logger.info("ODM document " + result.getDocumentName() + " is valid according to the ODM schema.");
+        } else {
+            logger.warn("ODM document " + result.getDocumentName() + " has " + result.getErrorCount()
+                        + " schema validation errors; the first ones are:");
+            for (String message : result.getMessages()) {
+                logger.warn("  " + message);
+            }
+        }
+    }
+
+    /**
+     * Process a single ODM document, using the ingestion mode of the configuration.
+     *
+     * @param odmLoader the loader that reads the ODM document.
+     * @param document the ODM document to process.
+     * @param exportFilePath the path of the export file.
+     * @param propertiesFilePath the file path to the properties.
+     * @param configuration the configuration.
+     * @param columnFilter the filter with the columns to exclude.
+     * @throws Exception
+     */
+    private void loadODMDocument2I2B2(ODMLoader odmLoader,
+                                      ODMDocument document,
+                                      String exportFilePath,
+                                      final String propertiesFilePath,
+                                      final Configuration configuration,
+                                      final ColumnFilter columnFilter) throws Exception {
+        if (configuration.isMetaDataOnly()) {
+            loadODMMetaData2I2B2(odmLoader, document, exportFilePath, propertiesFilePath, configuration, columnFilter);
+            return;
+        }
 
-		// Load and parse ODM xml here by jaxb
-		ODMLoader odmLoader = new ODMLoader();
-		ODM odm = odmLoader.unmarshall(xmlFile);
+        IngestionMode ingestionMode = configuration.getIngestionMode();
+        if (!EXPORT_TO_DATABASE && ingestionMode != IngestionMode.TREE) {
+            int threadCount = ingestionMode == IngestionMode.PARALLEL ? configuration.getParallelThreadCount() : 1;
+            streamODMFile2Files(odmLoader, document, exportFilePath, propertiesFilePath, columnFilter, threadCount);
+            return;
+        }
+
+		// Load and parse ODM xml here by the generated reader or jaxb
+		ODM odm = odmLoader.unmarshall(document);
 
 		if (odm == null || odm.getStudy() == null || odm.getStudy().size() == 0) {
 			throw new Exception("No study definitions were found in ODM file.");
@@ -80,7 +266,7 @@ public class I2B2ODMStudyHandlerCMLClient {
 
 		// parse ODM XML and save as i2b2 metadata and demodata records
         if (EXPORT_TO_DATABASE) {
-            I2B2ODMStudyHandler odmHandler = new I2B2ODMStudyHandler(odm);
+            I2B2ODMStudyHandler odmHandler = new I2B2ODMStudyHandler(odm, configuration.getLanguagePreference());
             odmHandler.processODM();
         } else {
             OdmToFilesConverter odmHandler = new OdmToFilesConverter(columnFilter);
@@ -89,6 +275,91 @@ public class I2B2ODMStudyHandlerCMLClient {
         }
     }
 
+    /**
+     * Convert only the metadata of an ODM file. The file is read up to the end of the last study and the
+     * clinical data is skipped completely.
+     *
+     * @param odmLoader the loader that reads the ODM document.
+     * @param document the ODM document to process.
+     * @param exportFilePath the path of the export file.
+     * @param propertiesFilePath the file path to the properties.
+     * @param configuration the configuration.
+     * @param columnFilter the filter with the columns to exclude.
+     * @throws Exception
+     */
+    private void loadODMMetaData2I2B2(ODMLoader odmLoader,
+                                      ODMDocument document,
+                                      String exportFilePath,
+                                      final String propertiesFilePath,
+                                      final Configuration configuration,
+                                      final ColumnFilter columnFilter) throws Exception {
+        ODM odm = odmLoader.unmarshallMetaData(document);
+
+        if (odm.getStudy().size() == 0) {
+            throw new Exception("No study definitions were found in ODM file.");
+        }
+
+        if (EXPORT_TO_DATABASE) {
+            I2B2ODMStudyHandler odmHandler = new I2B2ODMStudyHandler(odm, configuration.getLanguagePreference());
+            odmHandler.processODMStudy();
+        } else {
+            OdmToFilesConverter odmHandler = new OdmToFilesConverter(columnFilter);
+            odmHandler.processODMMetaData(odm, exportFilePath, propertiesFilePath);
+            odmHandler.closeExportWriters();
+        }
+    }
+
+    /**
+     * Convert an ODM file to files while streaming it: the metadata is converted first and after that the
+     * subjects are unmarshalled and converted one at a time. With more than one thread, the subjects are
+     * unmarshalled in parallel but still converted one at a time and in document order.
+     *
+     * @param odmLoader the loader that reads the ODM document.
+     * @param document the ODM document to process.
+     * @param exportFilePath the path of the export file.
+     * @param propertiesFilePath the file path to the properties.
+     * @param columnFilter the filter with the columns to exclude.
+     * @param threadCount the number of threads that unmarshal the subjects.
+     * @throws Exception
+     */
+    private void streamODMFile2Files(ODMLoader odmLoader,
+                                     ODMDocument document,
+                                     final String exportFilePath,
+                                     final String propertiesFilePath,
+                                     final ColumnFilter columnFilter,
+                                     int threadCount) throws Exception {
+        final OdmToFilesConverter odmHandler = new OdmToFilesConverter(columnFilter);
+
+        ODMStreamHandler streamHandler = new ODMStreamHandler() {
+            private boolean metaDataProcessed = false;
+
+            @Override
+            public void processMetaData(ODM odm) throws IOException, JAXBException {
+                if (odm.getStudy().size() > 0) {
+                    odmHandler.processODMMetaData(odm, exportFilePath, propertiesFilePath);
+                    metaDataProcessed = true;
+                }
+            }
+
+            @Override
+            public void processSubjectData(ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           ODMcomplexTypeDefinitionSubjectData subjectData) {
+                if (metaDataProcessed) {
+                    odmHandler.processSubjectData(clinicalData, subjectData);
+                }
+            }
+        };
+        ODM odm = threadCount > 1
+                  ? odmLoader.streamParallel(document, streamHandler, threadCount, odmHandler.getItemFilter())
+                  : odmLoader.stream(document, streamHandler, odmHandler.getItemFilter());
+
+        if (odm.getStudy().size() == 0) {
+            throw new Exception("No study definitions were found in ODM file.");
+        }
+
+        odmHandler.closeExportWriters();
+    }
+
 	/**
 	 * main method for command-line user
 	 * 
@@ -107,7 +378,33 @@ public class I2B2ODMStudyHandlerCMLClient {
             }
 
             logger.info("ODM-to-i2b2 version v3.0 (2015-06-11) started running.\n");
-            if (args.length >= 2) {
+            // The options for a trial conversion override the subject selection of the configuration.
+            final List<String> arguments = new ArrayList<>();
+            String whitelistPath = configuration.getSubjectWhitelistPath();
+            int sampleModulus = configuration.getSubjectSampleModulus();
+            int limit = configuration.getSubjectLimit();
+            final ODMSubjectSelection subjectSelection;
+            try {
+                for (String arg : args) {
+                    if (arg.startsWith(SUBJECTS_OPTION)) {
+                        whitelistPath = arg.substring(SUBJECTS_OPTION.length());
+                    } else if (arg.startsWith(SAMPLE_OPTION)) {
+                        sampleModulus = parseCountOption(arg, SAMPLE_OPTION);
+                    } else if (arg.startsWith(FIRST_OPTION)) {
+                        limit = parseCountOption(arg, FIRST_OPTION);
+                    } else {
+                        arguments.add(arg);
+                    }
+                }
+                subjectSelection = createSubjectSelection(whitelistPath, sampleModulus, limit);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid command line option: " + e.getMessage());
+                logUsage();
+                System.exit(1);
+                return;
+            }
+
+            if (arguments.size() >= 2) {
 
                 if (EXPORT_TO_DATABASE) {
                     logger.info("Initializing database connection...");
@@ -115,16 +412,17 @@ public class I2B2ODMStudyHandlerCMLClient {
                     I2B2DBUtils.init(config);
                 }
 
-                String odmFilePath = args[0];
-                String exportFilePath = args[1];
+                String odmFilePath = arguments.get(0);
+                String exportFilePath = arguments.get(1);
                 String filterFilePath = "";
-                if (args.length == 3) {
-                    filterFilePath = args[2];
+                if (arguments.size() == 3) {
+                    filterFilePath = arguments.get(2);
                 }
 
                 logger.info("Parsing ODM file ..." + odmFilePath);
                 I2B2ODMStudyHandlerCMLClient client = new I2B2ODMStudyHandlerCMLClient();
-                client.loadODMFile2I2B2(odmFilePath, exportFilePath, propertiesFilePath, filterFilePath);
+                client.loadODMFile2I2B2(odmFilePath, exportFilePath, propertiesFilePath, filterFilePath,
+                                        subjectSelection);
 
                 if (EXPORT_TO_DATABASE) {
                     logger.info("Releasing database connection.");
@@ -133,26 +431,62 @@ public class I2B2ODMStudyHandlerCMLClient {
 
                 logger.info("Processing complete.");
             } else {
-                logger.info("ODM-to-i2b2 tool; converts an OpenClinica / ALEA ODM to files suitable for import in tranSMART.\n" +
-						"\n" +
-						"Usage: java -jar odm-to-i2b2-3.0-jar-with-dependencies.jar [ODM Input file] [Output directory] <Filter file>\n" +
-						"\n" +
-						"Command line parameters are:\n" +
-						"1. the ODM file (plus path) to process\n" +
-                        "2. the path of the export directory\n" +
-						"3. (Optional) the filter file path\n" +
-						"\n" +
-						"The filter file is a TAB-demlimited file containing 4 columns specifying the \n" +
-						"StudyEvent_Name, Form_Name, ItemGroup_Name and Item_Name of\n" +
-						"fields to exclude in the output files. This file MUST include column names. For example: \n" +
-						"\n" +
-						"StudyEvent_Name	Form_Name	ItemGroup_Name	Item_Name\n" +
-						"Registration	Registration form	MetaData	clinicianId\n" +
-						"Baseline	Randomisation   MetaData	clinicianId\n" +
-						"Baseline	Baseline	MetaData	patientId\n");
+                logUsage();
             }
         } catch (Exception ex) {
 			ex.printStackTrace();
 		}
 	}
+
+    /**
+     * Parse the number of a subject selection option.
+     *
+     * @param arg    the command line argument.
+     * @param option the option that the argument starts with.
+     * @return the number, which is zero or more.
+     * @throws IllegalArgumentException if the option does not have a number of zero or more.
+     */
+    private static int parseCountOption(final String arg, final String option) {
+        final String value = arg.substring(option.length());
+        try {
+            final int count = Integer.parseInt(value);
+            if (count >= 0) {
+                return count;
+            }
+        } catch (final NumberFormatException e) {
+            // Reported below, like a negative number.
+        }
+        throw new IllegalArgumentException(option + " needs a whole number of zero or more, not \"" + value + "\".");
+    }
+
+    /**
+     * Log the usage of the command line tool.
+     */
+    private static void logUsage() {
+        logger.info("ODM-to-i2b2 tool; converts an OpenClinica / ALEA ODM to files suitable for import in tranSMART.\n" +
+                "\n" +
+                "Usage: java -jar odm-to-i2b2-3.0-jar-with-dependencies.jar [ODM Input file] [Output directory] <Filter file>\n" +
+                "       <--subjects=Whitelist file> <--sample=N> <--first=N>\n" +
+                "\n" +
+                "Command line parameters are:\n" +
+                "1. the ODM file (plus path) to process; this may also be a gzip file or a zip file with ODM files,\n" +
+                "   or - to read a (gzip) ODM file from the standard input, or a named pipe\n" +
+                "2. the path of the export directory\n" +
+                "3. (Optional) the filter file path\n" +
+                "\n" +
+                "For a fast trial conversion, the options below convert only a part of the subjects (all the\n" +
+                "columns are still written); they can be combined and override the configuration file:\n" +
+                "--subjects=file  only the subjects whose SubjectKey is in the file (one on each line)\n" +
+                "--sample=N       about one out of N subjects, chosen by a hash of the SubjectKey\n" +
+                "--first=N        only the first N subjects\n" +
+                "\n" +
+                "The filter file is a TAB-demlimited file containing 4 columns specifying the \n" +
+                "StudyEvent_Name, Form_Name, ItemGroup_Name and Item_Name of\n" +
+                "fields to exclude in the output files. This file MUST include column names. For example: \n" +
+                "\n" +
+                "StudyEvent_Name	Form_Name	ItemGroup_Name	Item_Name\n" +
+                "Registration	Registration form	MetaData	clinicianId\n" +
+                "Baseline	Randomisation   MetaData	clinicianId\n" +
+                "Baseline	Baseline	MetaData	patientId\n");
+    }
 }
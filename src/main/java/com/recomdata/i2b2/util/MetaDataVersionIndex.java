@@ -0,0 +1,137 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.i2b2.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemGroupDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventDef;
+
+/**
+ * The definitions of a metadata version by OID, which replaces the linear searches of {@link ODMUtil} for code that
+ * looks up definitions for every observation. The first definition with an OID wins, like a search would.
+ *
+ * An index is a snapshot: it is built once, by the code that owns it, from a metadata version that is complete.
+ * Definitions that are added to the metadata version afterwards are not seen; build a new index in that case.
+ */
+public final class MetaDataVersionIndex {
+    /**
+     * The study event definitions by OID.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionStudyEventDef> studyEventDefs = new HashMap<>();
+
+    /**
+     * The form definitions by OID.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionFormDef> formDefs = new HashMap<>();
+
+    /**
+     * The item group definitions by OID.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionItemGroupDef> itemGroupDefs = new HashMap<>();
+
+    /**
+     * The item definitions by OID.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionItemDef> itemDefs = new HashMap<>();
+
+    /**
+     * The code lists by OID.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionCodeList> codeLists = new HashMap<>();
+
+    /**
+     * Build the index of a metadata version.
+     *
+     * @param version the metadata version, which should not be changed while the index is used.
+     */
+    public MetaDataVersionIndex(final ODMcomplexTypeDefinitionMetaDataVersion version) {
+        for (final ODMcomplexTypeDefinitionStudyEventDef studyEventDef : version.getStudyEventDef()) {
+            putFirst(studyEventDefs, studyEventDef.getOID(), studyEventDef);
+        }
+        for (final ODMcomplexTypeDefinitionFormDef formDef : version.getFormDef()) {
+            putFirst(formDefs, formDef.getOID(), formDef);
+        }
+        for (final ODMcomplexTypeDefinitionItemGroupDef itemGroupDef : version.getItemGroupDef()) {
+            putFirst(itemGroupDefs, itemGroupDef.getOID(), itemGroupDef);
+        }
+        for (final ODMcomplexTypeDefinitionItemDef itemDef : version.getItemDef()) {
+            putFirst(itemDefs, itemDef.getOID(), itemDef);
+        }
+        for (final ODMcomplexTypeDefinitionCodeList codeList : version.getCodeList()) {
+            putFirst(codeLists, codeList.getOID(), codeList);
+        }
+    }
+
+    /**
+     * Get a study event definition.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @return the study event definition, or null if the metadata version does not define it.
+     */
+    public ODMcomplexTypeDefinitionStudyEventDef getStudyEventDef(final String studyEventOID) {
+        return studyEventDefs.get(studyEventOID);
+    }
+
+    /**
+     * Get a form definition.
+     *
+     * @param formOID the OID of the form.
+     * @return the form definition, or null if the metadata version does not define it.
+     */
+    public ODMcomplexTypeDefinitionFormDef getFormDef(final String formOID) {
+        return formDefs.get(formOID);
+    }
+
+    /**
+     * Get an item group definition.
+     *
+     * @param itemGroupOID the OID of the item group.
+     * @return the item group definition, or null if the metadata version does not define it.
+     */
+    public ODMcomplexTypeDefinitionItemGroupDef getItemGroupDef(final String itemGroupOID) {
+        return itemGroupDefs.get(itemGroupOID);
+    }
+
+    /**
+     * Get an item definition.
+     *
+     * @param itemOID the OID of the item.
+     * @return the item definition, or null if the metadata version does not define it.
+     */
+    public ODMcomplexTypeDefinitionItemDef getItemDef(final String itemOID) {
+        return itemDefs.get(itemOID);
+    }
+
+    /**
+     * Get a code list.
+     *
+     * @param codeListOID the OID of the code list.
+     * @return the code list, or null if the metadata version does not define it.
+     */
+    public ODMcomplexTypeDefinitionCodeList getCodeList(final String codeListOID) {
+        return codeLists.get(codeListOID);
+    }
+
+    /**
+     * Add a definition, unless a definition with the same OID has been added before.
+     *
+     * @param definitions the definitions by OID.
+     * @param oid         the OID of the definition.
+     * @param definition  the definition.
+     * @param <T>         the type of definition.
+     */
+    private static <T> void putFirst(final Map<String, T> definitions, final String oid, final T definition) {
+        if (!definitions.containsKey(oid)) {
+            definitions.put(oid, definition);
+        }
+    }
+}
@@ -139,14 +139,14 @@ public class ODMUtil {
 		for (ODMcomplexTypeDefinitionTranslatedText translatedText :
 			codeListItem.getDecode().getTranslatedText()) {
 			// TODO: the language attribute is not always available for OpenClinica data.
-			if (translatedText.getLang() != null && translatedText.getLang().equals("en")) {
+			if (translatedText.getLang() != null && translatedText.getLang().equals(lang)) {
 				translatedValue = translatedText.getValue();
 				break;
 			}
 		}
 	
 		if (translatedValue == null) {
-			// take first value if we can't find an english translation
+			// take first value if we can't find a translation in the language
 			translatedValue = codeListItem.getDecode().getTranslatedText().get(0).getValue();
 		}
 		
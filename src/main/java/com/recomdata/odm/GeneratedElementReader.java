@@ -0,0 +1,36 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.cdisk.odm.stax.ODMStaxReader;
+
+/**
+ * Reads ODM elements with the generated {@link ODMStaxReader}, which fills the objects without reflection.
+ */
+public class GeneratedElementReader implements ODMElementReader {
+    /**
+     * The generated reader.
+     */
+    private final ODMStaxReader staxReader;
+
+    /**
+     * Construct an element reader that uses the generated reader.
+     *
+     * @param staxReader the generated reader.
+     */
+    public GeneratedElementReader(final ODMStaxReader staxReader) {
+        this.staxReader = staxReader;
+    }
+
+    @Override
+    public <T> T read(final XMLStreamReader reader, final Class<T> type) throws JAXBException, XMLStreamException {
+        return staxReader.read(reader, type);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads ODM elements with a JAXB unmarshaller.
+ */
+public class JaxbElementReader implements ODMElementReader {
+    /**
+     * The unmarshaller for the org.cdisk.odm.jaxb classes.
+     */
+    private final Unmarshaller unmarshaller;
+
+    /**
+     * Construct an element reader that uses a JAXB unmarshaller.
+     *
+     * @param unmarshaller the unmarshaller for the org.cdisk.odm.jaxb classes.
+     */
+    public JaxbElementReader(final Unmarshaller unmarshaller) {
+        this.unmarshaller = unmarshaller;
+    }
+
+    @Override
+    public <T> T read(final XMLStreamReader reader, final Class<T> type) throws JAXBException {
+        return unmarshaller.unmarshal(reader, type).getValue();
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionInclude;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The metadata of all the studies in an ODM file, with the include tags resolved. A metadata version can include
+ * another metadata version, which can include yet another one, like a site that includes the definitions of its
+ * country, which includes the definitions of the master study. The chains are followed to any depth, in whatever
+ * order the studies appear in the file.
+ *
+ * There is a single {@link MetaDataWithIncludes} object for each (study OID, metadata version OID) pair, which is
+ * shared by all the metadata versions that include it, so its definitions are indexed only once. An include that
+ * refers to an unknown metadata version, or that would close a cycle, is logged and ignored.
+ */
+public class MetaDataRegistry {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MetaDataRegistry.class);
+
+    /**
+     * The separator between the study OID and the metadata version OID in a key.
+     */
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * The metadata versions of all studies by key.
+     */
+    private final Map<String, ODMcomplexTypeDefinitionMetaDataVersion> metaDataVersions = new HashMap<>();
+
+    /**
+     * The resolved metadata by key.
+     */
+    private final Map<String, MetaDataWithIncludes> resolvedMetaData = new HashMap<>();
+
+    /**
+     * The keys of the metadata versions whose includes are being resolved, in the order of the chain.
+     */
+    private final Set<String> resolvingKeys = new LinkedHashSet<>();
+
+    /**
+     * Construct the registry and resolve the includes of all metadata versions of the studies.
+     *
+     * @param studies the studies of the ODM file.
+     */
+    public MetaDataRegistry(final List<ODMcomplexTypeDefinitionStudy> studies) {
+        for (final ODMcomplexTypeDefinitionStudy study : studies) {
+            for (final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion : study.getMetaDataVersion()) {
+                metaDataVersions.put(createKey(study.getOID(), metaDataVersion.getOID()), metaDataVersion);
+            }
+        }
+        for (final ODMcomplexTypeDefinitionStudy study : studies) {
+            for (final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion : study.getMetaDataVersion()) {
+                resolve(study.getOID(), metaDataVersion.getOID());
+            }
+        }
+    }
+
+    /**
+     * Get the metadata of a metadata version, including the definitions that it includes (recursively).
+     *
+     * @param studyOID           the OID of the study.
+     * @param metaDataVersionOID the OID of the metadata version.
+     * @return the metadata, or null if the study has no metadata version with this OID.
+     */
+    public MetaDataWithIncludes get(final String studyOID, final String metaDataVersionOID) {
+        return resolvedMetaData.get(createKey(studyOID, metaDataVersionOID));
+    }
+
+    /**
+     * Get the number of metadata versions in the registry.
+     *
+     * @return the number of resolved metadata versions.
+     */
+    public int size() {
+        return resolvedMetaData.size();
+    }
+
+    /**
+     * Resolve the includes of a metadata version, after resolving the metadata versions that it includes.
+     *
+     * @param studyOID           the OID of the study.
+     * @param metaDataVersionOID the OID of the metadata version.
+     * @return the metadata, or null if the metadata version does not exist or is part of a cycle.
+     */
+    private MetaDataWithIncludes resolve(final String studyOID, final String metaDataVersionOID) {
+        final String key = createKey(studyOID, metaDataVersionOID);
+        MetaDataWithIncludes metaData = resolvedMetaData.get(key);
+        if (metaData != null) {
+            return metaData;
+        }
+        final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion = metaDataVersions.get(key);
+        if (metaDataVersion == null) {
+            return null;
+        }
+        if (!resolvingKeys.add(key)) {
+            logger.error("The metadata version " + metaDataVersionOID + " of study " + studyOID
+                         + " includes itself through the chain " + describeChain(key) + "; the include that closes"
+                         + " the cycle is ignored.");
+            return null;
+        }
+
+        final List<MetaDataWithIncludes> metaDataIncludes = new ArrayList<>();
+        final ODMcomplexTypeDefinitionInclude include = metaDataVersion.getInclude();
+        if (include != null) {
+            final MetaDataWithIncludes includedMetaData = resolve(include.getStudyOID(),
+                                                                  include.getMetaDataVersionOID());
+            if (includedMetaData != null) {
+                metaDataIncludes.add(includedMetaData);
+            } else if (!metaDataVersions.containsKey(createKey(include.getStudyOID(),
+                                                               include.getMetaDataVersionOID()))) {
+                logger.warn("The metadata version " + metaDataVersionOID + " of study " + studyOID
+                            + " includes the unknown metadata version " + include.getMetaDataVersionOID()
+                            + " of study " + include.getStudyOID() + "; the include is ignored.");
+            }
+        }
+        resolvingKeys.remove(key);
+
+        metaData = new MetaDataWithIncludes(metaDataVersion, studyOID, metaDataIncludes);
+        resolvedMetaData.put(key, metaData);
+        return metaData;
+    }
+
+    /**
+     * Describe the chain of includes that leads back to a metadata version.
+     *
+     * @param key the key of the metadata version that is included again.
+     * @return the description of the chain.
+     */
+    private String describeChain(final String key) {
+        final StringBuilder chain = new StringBuilder();
+        boolean inCycle = false;
+        for (final String resolvingKey : resolvingKeys) {
+            inCycle = inCycle || resolvingKey.equals(key);
+            if (inCycle) {
+                chain.append(resolvingKey.replace(SEPARATOR, "/")).append(" -> ");
+            }
+        }
+        return chain.append(key.replace(SEPARATOR, "/")).toString();
+    }
+
+    /**
+     * Create the key of a metadata version.
+     *
+     * @param studyOID           the OID of the study.
+     * @param metaDataVersionOID the OID of the metadata version.
+     * @return the key.
+     */
+    private static String createKey(final String studyOID, final String metaDataVersionOID) {
+        return studyOID + SEPARATOR + metaDataVersionOID;
+    }
+}
@@ -5,7 +5,11 @@
 
 package com.recomdata.odm;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cdisk.odm.jaxb.ODM;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
@@ -19,7 +23,14 @@ import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventDef;
 /**
  * A MetaDataWithIncludes object contains a block of metadata that belongs to a study, even if that
  * metadata is spread over different metadata blocks and over different studies. It contains all the
- * information to retrieve the correct metadata.
+ * information to retrieve the correct metadata. The included blocks can include other blocks in turn (see
+ * {@link MetaDataRegistry}), and a block is immutable, so it can be shared by all the blocks that include it.
+ *
+ * The definitions are looked up for every item of every subject, so they are indexed by OID the first time they are
+ * needed. The index of a metadata block contains the definitions of the block itself and of all the included blocks,
+ * with the same precedence as a search would have: a definition in the block itself wins (the last one, if an OID is
+ * defined twice), followed by the included blocks in their order. The index of an included block is built only once,
+ * even when several studies include it.
  *
  * @author <a href="mailto:w.blonde@vumc.nl">Ward Blondé</a>
  * @author <a href="mailto:f.debruijn@vumc.nl">Freek de Bruijn</a>
@@ -29,48 +40,63 @@ public class MetaDataWithIncludes {
     /**
      * The classical metadata block, which is incomplete if it contains an includes tag.
      */
-    private ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion;
+    private final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion;
 
     /**
      * The study that is described by the metadata.
      */
-    private String studyOID;
+    private final String studyOID;
+
+    /**
+     * The metadata blocks (= metadata versions) that are referred to by include tags. Each of them has
+     * its own includes, so includes in includes in includes, etc. are followed as well.
+     */
+    private final List<MetaDataWithIncludes> metaDataIncludes;
 
     /**
-     * The list of all the metadata blocks (= metadata versions) that are referred to by include tags,
-     * or includes in includes in includes, etc.
+     * The definitions of this metadata block and the included blocks by OID, or null until they are first needed.
      */
-    private List<MetaDataWithIncludes> metaDataIncludes;
+    private volatile Index index;
 
     /**
      * Constructs a metadata object for a given study and a given metadata version in the study.
      *
      * @param metaDataVersion The given metadata version.
      * @param studyOID The given study.
-     * @param metaDataIncludes The list with all the (recursively) included metadata.
+     * @param metaDataIncludes The list with the included metadata, which is copied.
      */
     public MetaDataWithIncludes(final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion,
                                 final String studyOID,
                                 final List<MetaDataWithIncludes> metaDataIncludes) {
         this.metaDataVersion = metaDataVersion;
         this.studyOID = studyOID;
-        this.metaDataIncludes = metaDataIncludes;
+        this.metaDataIncludes = Collections.unmodifiableList(new ArrayList<>(metaDataIncludes));
+    }
+
+    /**
+     * Get the OID of the defining study, by following the includes to the end of the chain.
+     *
+     * @return The OID of the defining study.
+     */
+    public String getDefiningStudyOID() {
+        MetaDataWithIncludes definingMetaData = this;
+        while (!definingMetaData.metaDataIncludes.isEmpty()) {
+            final List<MetaDataWithIncludes> includes = definingMetaData.metaDataIncludes;
+            definingMetaData = includes.get(includes.size() - 1);
+        }
+        return definingMetaData.studyOID;
     }
 
     /**
-     * This method assumes that the last study in the list of recursively included metadata is the
-     * study that defines the metadata. This study is therefore called the defining study. The method
+     * This method assumes that the study at the end of the chain of included metadata is the study
+     * that defines the metadata. This study is therefore called the defining study. The method
      * returns this study.
      *
      * @param odm The whole odm object, which contains the link between study and studyOID.
      * @return The defining study.
      */
     public ODMcomplexTypeDefinitionStudy getDefiningStudy(final ODM odm) {
-        String definingStudyOID = studyOID;
-        if (metaDataIncludes.size() > 0) {
-            definingStudyOID = metaDataIncludes.get(metaDataIncludes.size() - 1).studyOID;
-        }
-
+        final String definingStudyOID = getDefiningStudyOID();
         for (ODMcomplexTypeDefinitionStudy definingStudy : odm.getStudy()) {
             if (definingStudy.getOID().equals(definingStudyOID)) {
                 return definingStudy;
@@ -86,32 +112,7 @@ public class MetaDataWithIncludes {
      * @return The study event object.
      */
     public ODMcomplexTypeDefinitionStudyEventDef getStudyEventDef(final String studyEventOID) {
-        ODMcomplexTypeDefinitionStudyEventDef studyEventDef = searchStudyEventDef(studyEventOID);
-
-        int includeIndex = 0;
-        while (studyEventDef == null && includeIndex < metaDataIncludes.size()) {
-            studyEventDef = metaDataIncludes.get(includeIndex).getStudyEventDef(studyEventOID);
-            includeIndex++;
-        }
-
-        return studyEventDef;
-    }
-
-    /**
-     * A helper method that searches the study event object in the list of recursively included
-     * metadata objects, for a given study event OID.
-     *
-     * @param studyEventOID The given study event OID.
-     * @return The study event object.
-     */
-    private ODMcomplexTypeDefinitionStudyEventDef searchStudyEventDef(final String studyEventOID) {
-        ODMcomplexTypeDefinitionStudyEventDef result = null;
-        for (ODMcomplexTypeDefinitionStudyEventDef studyEventDef : metaDataVersion.getStudyEventDef()) {
-            if (studyEventDef.getOID().equals(studyEventOID)) {
-                result = studyEventDef;
-            }
-        }
-        return result;
+        return getIndex().studyEventDefs.get(studyEventOID);
     }
 
     /**
@@ -121,32 +122,7 @@ public class MetaDataWithIncludes {
      * @return The form object.
      */
     public ODMcomplexTypeDefinitionFormDef getFormDef(final String formOID) {
-        ODMcomplexTypeDefinitionFormDef formDef = searchFormDef(formOID);
-
-        int includeIndex = 0;
-        while (formDef == null && includeIndex < metaDataIncludes.size()) {
-            formDef = metaDataIncludes.get(includeIndex).getFormDef(formOID);
-            includeIndex++;
-        }
-
-        return formDef;
-    }
-
-    /**
-     * A helper method that searches the form object in the list of recursively included
-     * metadata objects, for a given form OID.
-     *
-     * @param formOID The given form OID.
-     * @return The form object.
-     */
-    private ODMcomplexTypeDefinitionFormDef searchFormDef(final String formOID) {
-        ODMcomplexTypeDefinitionFormDef result = null;
-        for (ODMcomplexTypeDefinitionFormDef formDef : metaDataVersion.getFormDef()) {
-            if (formDef.getOID().equals(formOID)) {
-                result = formDef;
-            }
-        }
-        return result;
+        return getIndex().formDefs.get(formOID);
     }
 
     /**
@@ -156,32 +132,7 @@ public class MetaDataWithIncludes {
      * @return The item group object.
      */
     public ODMcomplexTypeDefinitionItemGroupDef getItemGroupDef(final String itemGroupOID) {
-        ODMcomplexTypeDefinitionItemGroupDef itemGroupDef = searchItemGroupDef(itemGroupOID);
-
-        int includeIndex = 0;
-        while (itemGroupDef == null && includeIndex < metaDataIncludes.size()) {
-            itemGroupDef = metaDataIncludes.get(includeIndex).getItemGroupDef(itemGroupOID);
-            includeIndex++;
-        }
-
-        return itemGroupDef;
-    }
-
-    /**
-     * A helper method that searches the item group object in the list of recursively included
-     * metadata objects, for a given item group OID.
-     *
-     * @param itemGroupOID The given item group OID.
-     * @return The item group object.
-     */
-    private ODMcomplexTypeDefinitionItemGroupDef searchItemGroupDef(final String itemGroupOID) {
-        ODMcomplexTypeDefinitionItemGroupDef result = null;
-        for (ODMcomplexTypeDefinitionItemGroupDef itemGroupDef : metaDataVersion.getItemGroupDef()) {
-            if (itemGroupDef.getOID().equals(itemGroupOID)) {
-                result = itemGroupDef;
-            }
-        }
-        return result;
+        return getIndex().itemGroupDefs.get(itemGroupOID);
     }
 
     /**
@@ -191,35 +142,9 @@ public class MetaDataWithIncludes {
      * @return The item object.
      */
     public ODMcomplexTypeDefinitionItemDef getItemDef(final String itemOID) {
-        ODMcomplexTypeDefinitionItemDef itemDef = searchItemDef(itemOID);
-
-        int includeIndex = 0;
-        while (itemDef == null && includeIndex < metaDataIncludes.size()) {
-            itemDef = metaDataIncludes.get(includeIndex).getItemDef(itemOID);
-            includeIndex++;
-        }
-
-        return itemDef;
+        return getIndex().itemDefs.get(itemOID);
     }
 
-    /**
-     * A helper method that searches the item object in the list of recursively included
-     * metadata objects, for a given item OID.
-     *
-     * @param itemOID The given item OID.
-     * @return The item object.
-     */
-    private ODMcomplexTypeDefinitionItemDef searchItemDef(final String itemOID) {
-        ODMcomplexTypeDefinitionItemDef result = null;
-        for (ODMcomplexTypeDefinitionItemDef itemDef : metaDataVersion.getItemDef()) {
-            if (itemDef.getOID().equals(itemOID)) {
-                result = itemDef;
-            }
-        }
-        return result;
-    }
-
-
     /**
      * Returns the code list object for a given code list OID.
      *
@@ -227,31 +152,90 @@ public class MetaDataWithIncludes {
      * @return The code list object.
      */
     public ODMcomplexTypeDefinitionCodeList getCodeList(final String codeListOID) {
-        ODMcomplexTypeDefinitionCodeList codeList = searchCodeList(codeListOID);
+        return getIndex().codeLists.get(codeListOID);
+    }
 
-        int includeIndex = 0;
-        while (codeList == null && includeIndex < metaDataIncludes.size()) {
-            codeList = metaDataIncludes.get(includeIndex).getCodeList(codeListOID);
-            includeIndex++;
+    /**
+     * Get the index with the definitions of this metadata block and the included blocks, which is built when it is
+     * first needed.
+     *
+     * @return The index.
+     */
+    private Index getIndex() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = buildIndex();
+                    index = result;
+                }
+            }
         }
-
-        return codeList;
+        return result;
     }
 
     /**
-     * A helper method that searches the code list object in the list of recursively included
-     * metadata objects, for a given code list OID.
+     * Build the index. The included blocks are added from the last to the first, and the block itself is added last,
+     * so a definition that is added later replaces a definition with the same OID that has a lower precedence.
      *
-     * @param codeListOID The given code list OID.
-     * @return The code list object.
+     * @return The index.
      */
-    private ODMcomplexTypeDefinitionCodeList searchCodeList(final String codeListOID) {
-        ODMcomplexTypeDefinitionCodeList result = null;
+    private Index buildIndex() {
+        final Index result = new Index();
+        for (int includeIndex = metaDataIncludes.size() - 1; includeIndex >= 0; includeIndex--) {
+            final Index includedIndex = metaDataIncludes.get(includeIndex).getIndex();
+            result.studyEventDefs.putAll(includedIndex.studyEventDefs);
+            result.formDefs.putAll(includedIndex.formDefs);
+            result.itemGroupDefs.putAll(includedIndex.itemGroupDefs);
+            result.itemDefs.putAll(includedIndex.itemDefs);
+            result.codeLists.putAll(includedIndex.codeLists);
+        }
+        for (ODMcomplexTypeDefinitionStudyEventDef studyEventDef : metaDataVersion.getStudyEventDef()) {
+            result.studyEventDefs.put(studyEventDef.getOID(), studyEventDef);
+        }
+        for (ODMcomplexTypeDefinitionFormDef formDef : metaDataVersion.getFormDef()) {
+            result.formDefs.put(formDef.getOID(), formDef);
+        }
+        for (ODMcomplexTypeDefinitionItemGroupDef itemGroupDef : metaDataVersion.getItemGroupDef()) {
+            result.itemGroupDefs.put(itemGroupDef.getOID(), itemGroupDef);
+        }
+        for (ODMcomplexTypeDefinitionItemDef itemDef : metaDataVersion.getItemDef()) {
+            result.itemDefs.put(itemDef.getOID(), itemDef);
+        }
         for (ODMcomplexTypeDefinitionCodeList codeList : metaDataVersion.getCodeList()) {
-            if (codeList.getOID().equals(codeListOID)) {
-                result = codeList;
-            }
+            result.codeLists.put(codeList.getOID(), codeList);
         }
         return result;
     }
+
+    /**
+     * The definitions of a metadata block and its included blocks by OID. It is not changed after it has been built.
+     */
+    private static class Index {
+        /**
+         * The study event definitions by OID.
+         */
+        private final Map<String, ODMcomplexTypeDefinitionStudyEventDef> studyEventDefs = new HashMap<>();
+
+        /**
+         * The form definitions by OID.
+         */
+        private final Map<String, ODMcomplexTypeDefinitionFormDef> formDefs = new HashMap<>();
+
+        /**
+         * The item group definitions by OID.
+         */
+        private final Map<String, ODMcomplexTypeDefinitionItemGroupDef> itemGroupDefs = new HashMap<>();
+
+        /**
+         * The item definitions by OID.
+         */
+        private final Map<String, ODMcomplexTypeDefinitionItemDef> itemDefs = new HashMap<>();
+
+        /**
+         * The code lists by OID.
+         */
+        private final Map<String, ODMcomplexTypeDefinitionCodeList> codeLists = new HashMap<>();
+    }
 }
@@ -0,0 +1,23 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+/**
+ * The ways in which the elements of an ODM file can be turned into org.cdisk.odm.jaxb objects. The binding is set
+ * with the odm-binding property in the configuration file.
+ */
+public enum ODMBinding {
+    /**
+     * Use the generated org.cdisk.odm.stax.ODMStaxReader, which calls the setters directly. Elements that it cannot
+     * read itself are still unmarshalled with JAXB.
+     */
+    GENERATED,
+
+    /**
+     * Use a JAXB unmarshaller for everything.
+     */
+    JAXB
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The ways in which an input file with ODM documents can be compressed. The compression is detected from the first
+ * bytes of the file (the magic number), so the file name does not matter.
+ */
+public enum ODMCompression {
+    /**
+     * A plain XML file.
+     */
+    NONE,
+
+    /**
+     * A gzip file with a single ODM document (usually named *.xml.gz).
+     */
+    GZIP,
+
+    /**
+     * A zip archive with one or more ODM documents.
+     */
+    ZIP;
+
+    /**
+     * The number of bytes at the start of a file that identify its compression.
+     */
+    private static final int MAGIC_LENGTH = 4;
+
+    /**
+     * Detect the compression of a file.
+     *
+     * @param file the file.
+     * @return the compression.
+     * @throws IOException An input-output exception.
+     */
+    public static ODMCompression detect(final File file) throws IOException {
+        try (final InputStream inputStream = new FileInputStream(file)) {
+            return detect(readMagic(inputStream));
+        }
+    }
+
+    /**
+     * Detect the compression of a stream without consuming any of its bytes, so the stream can still be read from the
+     * start. This works for pipes, which cannot be opened a second time.
+     *
+     * @param inputStream the stream, which must support mark and reset.
+     * @return the compression.
+     * @throws IOException An input-output exception.
+     */
+    public static ODMCompression detect(final InputStream inputStream) throws IOException {
+        inputStream.mark(MAGIC_LENGTH);
+        try {
+            return detect(readMagic(inputStream));
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * Read the first bytes of a stream.
+     *
+     * @param inputStream the stream.
+     * @return the first bytes; fewer than MAGIC_LENGTH if the stream is shorter.
+     * @throws IOException An input-output exception.
+     */
+    private static byte[] readMagic(final InputStream inputStream) throws IOException {
+        final byte[] magic = new byte[MAGIC_LENGTH];
+        int length = 0;
+        int count;
+        while (length < magic.length && (count = inputStream.read(magic, length, magic.length - length)) > 0) {
+            length += count;
+        }
+        return Arrays.copyOf(magic, length);
+    }
+
+    /**
+     * Detect the compression from the first bytes of a file.
+     *
+     * @param magic the first bytes.
+     * @return the compression.
+     */
+    private static ODMCompression detect(final byte[] magic) {
+        if (magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return GZIP;
+        }
+        // A local file header, or the end of central directory record of an empty archive.
+        if (magic.length == MAGIC_LENGTH && magic[0] == 'P' && magic[1] == 'K'
+            && ((magic[2] == 3 && magic[3] == 4) || (magic[2] == 5 && magic[3] == 6))) {
+            return ZIP;
+        }
+        return NONE;
+    }
+}
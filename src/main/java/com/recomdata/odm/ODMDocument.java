@@ -0,0 +1,310 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * An ODM document in an input file: the file itself, the decompressed content of a gzip file or an entry of a zip
+ * archive. Compressed documents are decompressed while they are read, so nothing is written to disk.
+ *
+ * A document can also come from a pipe: the standard input (with "-" as file name) or a named pipe (FIFO). Such a
+ * document is parsed while the data is still coming in, but it can only be read once, so it cannot be memory-mapped
+ * or validated next to the conversion.
+ */
+public class ODMDocument {
+    /**
+     * The size of the buffers of the decompression streams.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The name of the root element of an ODM document.
+     */
+    private static final String ODM_ELEMENT = "ODM";
+
+    /**
+     * The file name that stands for the standard input.
+     */
+    public static final String STANDARD_INPUT = "-";
+
+    /**
+     * The input file.
+     */
+    private final File file;
+
+    /**
+     * The compression of the input file.
+     */
+    private final ODMCompression compression;
+
+    /**
+     * The name of the zip entry, or null if the document is not in a zip archive.
+     */
+    private final String entryName;
+
+    /**
+     * Whether the document comes from a pipe instead of a file.
+     */
+    private final boolean pipe;
+
+    /**
+     * The stream of a document that comes from a pipe, or null if the document is read from a file. It is set to null
+     * when the document is opened, because a pipe can only be read once.
+     */
+    private InputStream pipeStream;
+
+    /**
+     * Construct a document.
+     *
+     * @param file        the input file.
+     * @param compression the compression of the input file.
+     * @param entryName   the name of the zip entry, or null if the document is not in a zip archive.
+     */
+    private ODMDocument(final File file, final ODMCompression compression, final String entryName) {
+        this.file = file;
+        this.compression = compression;
+        this.entryName = entryName;
+        this.pipe = false;
+    }
+
+    /**
+     * Construct a document that comes from a pipe.
+     *
+     * @param file        the input file: the standard input ("-") or a named pipe.
+     * @param compression the compression of the stream.
+     * @param pipeStream  the buffered stream.
+     */
+    private ODMDocument(final File file, final ODMCompression compression, final InputStream pipeStream) {
+        this.file = file;
+        this.compression = compression;
+        this.entryName = null;
+        this.pipe = true;
+        this.pipeStream = pipeStream;
+    }
+
+    /**
+     * Get all the ODM documents in an input file. A plain or gzip file contains a single document; for a zip archive
+     * every entry with an ODM root element is a document, in the order of the archive. Other entries are ignored.
+     *
+     * @param file the input file.
+     * @return the documents.
+     * @throws IOException An input-output exception.
+     */
+    public static List<ODMDocument> list(final File file) throws IOException {
+        if (STANDARD_INPUT.equals(file.getPath())) {
+            return Collections.singletonList(forPipe(file, System.in));
+        }
+        if (file.exists() && !file.isFile() && !file.isDirectory()) {
+            // A named pipe: opening it a second time would wait for a new writer.
+            return Collections.singletonList(forPipe(file, new FileInputStream(file)));
+        }
+        final ODMCompression compression = ODMCompression.detect(file);
+        if (compression != ODMCompression.ZIP) {
+            return Collections.singletonList(new ODMDocument(file, compression, (String) null));
+        }
+
+        final List<ODMDocument> documents = new ArrayList<>();
+        try (final ZipFile zipFile = new ZipFile(file)) {
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && hasODMRootElement(zipFile, entry)) {
+                    documents.add(new ODMDocument(file, compression, entry.getName()));
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Create a document for a pipe. The compression is detected from the buffered first bytes of the stream.
+     *
+     * @param file        the input file: the standard input ("-") or a named pipe.
+     * @param inputStream the unbuffered stream of the pipe.
+     * @return the document.
+     * @throws IOException when the stream cannot be read, or when it contains a zip archive, which can only be read
+     *                     from a file.
+     */
+    private static ODMDocument forPipe(final File file, final InputStream inputStream) throws IOException {
+        final InputStream bufferedStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        final ODMCompression compression = ODMCompression.detect(bufferedStream);
+        if (compression == ODMCompression.ZIP) {
+            throw new IOException("The zip archive " + getName(file) + " cannot be read from a pipe; "
+                                  + "use a plain or gzip compressed ODM file instead.");
+        }
+        return new ODMDocument(file, compression, bufferedStream);
+    }
+
+    /**
+     * Get the single ODM document in an input file.
+     *
+     * @param file the input file.
+     * @return the document.
+     * @throws IOException when the file cannot be read, or when it is a zip archive that does not contain exactly one
+     *                     ODM document.
+     */
+    public static ODMDocument forFile(final File file) throws IOException {
+        final List<ODMDocument> documents = list(file);
+        if (documents.size() != 1) {
+            throw new IOException("The zip file " + file.getPath() + " contains " + documents.size()
+                                  + " ODM documents instead of one.");
+        }
+        return documents.get(0);
+    }
+
+    /**
+     * Check whether the root element of a zip entry is an ODM element.
+     *
+     * @param zipFile the zip archive.
+     * @param entry   the entry.
+     * @return whether the entry is an ODM document.
+     * @throws IOException An input-output exception.
+     */
+    private static boolean hasODMRootElement(final ZipFile zipFile, final ZipEntry entry) throws IOException {
+        try (final InputStream inputStream = new BufferedInputStream(zipFile.getInputStream(entry), BUFFER_SIZE)) {
+            final XMLStreamReader reader = XMLParser.JDK.createInputFactory().createXMLStreamReader(inputStream);
+            try {
+                while (reader.hasNext() && !reader.isStartElement()) {
+                    reader.next();
+                }
+                return reader.isStartElement() && ODM_ELEMENT.equals(reader.getLocalName());
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException e) {
+            // Not an XML document.
+            return false;
+        }
+    }
+
+    /**
+     * Open the (decompressed) content of the document. Closing the stream releases the input file. A document that
+     * comes from a pipe can only be opened once.
+     *
+     * @return the buffered input stream.
+     * @throws IOException An input-output exception.
+     */
+    public InputStream open() throws IOException {
+        if (pipe) {
+            if (pipeStream == null) {
+                throw new IOException("The ODM document " + getName() + " comes from a pipe and can only be read once.");
+            }
+            final InputStream inputStream = pipeStream;
+            pipeStream = null;
+            return compression == ODMCompression.GZIP
+                   ? new BufferedInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE), BUFFER_SIZE)
+                   : inputStream;
+        }
+        switch (compression) {
+            case GZIP:
+                return new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE),
+                                               BUFFER_SIZE);
+            case ZIP:
+                final ZipFile zipFile = new ZipFile(file);
+                final ZipEntry entry = zipFile.getEntry(entryName);
+                if (entry == null) {
+                    zipFile.close();
+                    throw new IOException("Entry " + entryName + " not found in zip file " + file.getPath() + ".");
+                }
+                return new BufferedInputStream(new FilterInputStream(zipFile.getInputStream(entry)) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            zipFile.close();
+                        }
+                    }
+                }, BUFFER_SIZE);
+            default:
+                return new BufferedInputStream(new FileInputStream(file));
+        }
+    }
+
+    /**
+     * Get the system id of the document, which the XML parser uses to resolve relative references.
+     *
+     * @return the system id.
+     */
+    public String getSystemId() {
+        if (STANDARD_INPUT.equals(file.getPath())) {
+            return null;
+        }
+        final String fileUri = file.toURI().toString();
+        return entryName != null ? "jar:" + fileUri + "!/" + entryName : fileUri;
+    }
+
+    /**
+     * Get a name for the document that can be shown to the user.
+     *
+     * @return the path of the input file, followed by the name of the zip entry if there is one.
+     */
+    public String getName() {
+        return entryName != null ? file.getPath() + "!/" + entryName : getName(file);
+    }
+
+    /**
+     * Get a name for an input file that can be shown to the user.
+     *
+     * @param file the input file.
+     * @return the path of the file, or "standard input".
+     */
+    private static String getName(final File file) {
+        return STANDARD_INPUT.equals(file.getPath()) ? "standard input" : file.getPath();
+    }
+
+    /**
+     * Get the name of the zip entry.
+     *
+     * @return the name of the zip entry, or null if the document is not in a zip archive.
+     */
+    public String getEntryName() {
+        return entryName;
+    }
+
+    /**
+     * Check whether the document comes from a pipe (the standard input or a named pipe), which can only be read once.
+     *
+     * @return whether the document comes from a pipe.
+     */
+    public boolean isPipe() {
+        return pipe;
+    }
+
+    /**
+     * Get the input file.
+     *
+     * @return the input file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the compression of the input file.
+     *
+     * @return the compression.
+     */
+    public ODMCompression getCompression() {
+        return compression;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A filter that skips complete elements (with all their content) while an ODM file is parsed, so they are never
+ * turned into objects. This is meant for elements that the conversion does not use but that can take up most of an
+ * export, like the AuditRecord, Signature and Annotation elements of a full audit trail. The elements are matched by
+ * their local name, in any namespace.
+ *
+ * The filter counts the skipped elements and their size. A single filter can wrap the readers of several threads.
+ */
+public class ODMElementFilter {
+    /**
+     * The local names of the elements to skip.
+     */
+    private final Set<String> skippedElementNames;
+
+    /**
+     * The number of skipped elements, including the elements inside them.
+     */
+    private final AtomicLong skippedElementCount = new AtomicLong();
+
+    /**
+     * The number of skipped bytes.
+     */
+    private final AtomicLong skippedByteCount = new AtomicLong();
+
+    /**
+     * Construct a filter.
+     *
+     * @param skippedElementNames the local names of the elements to skip; an empty collection skips nothing.
+     */
+    public ODMElementFilter(final Collection<String> skippedElementNames) {
+        this.skippedElementNames = Collections.unmodifiableSet(new LinkedHashSet<>(skippedElementNames));
+    }
+
+    /**
+     * Wrap a StAX reader, so the skipped elements are left out of its events. When there is nothing to skip, the
+     * reader itself is returned.
+     *
+     * @param reader the reader to wrap.
+     * @return the filtering reader.
+     */
+    public XMLStreamReader apply(final XMLStreamReader reader) {
+        return skippedElementNames.isEmpty() ? reader : new SkippingStreamReader(reader);
+    }
+
+    /**
+     * Check whether this filter skips any elements.
+     *
+     * @return whether the set of skipped element names is not empty.
+     */
+    public boolean isActive() {
+        return !skippedElementNames.isEmpty();
+    }
+
+    /**
+     * Get the local names of the elements to skip.
+     *
+     * @return the element names.
+     */
+    public Set<String> getSkippedElementNames() {
+        return skippedElementNames;
+    }
+
+    /**
+     * Get the number of elements that have been skipped, including the elements inside them.
+     *
+     * @return the number of skipped elements.
+     */
+    public long getSkippedElementCount() {
+        return skippedElementCount.get();
+    }
+
+    /**
+     * Get the size of the elements that have been skipped. This is computed from the character offsets that the
+     * parser reports, so for a file with multi-byte characters it is the number of characters. Parsers that do not
+     * report offsets add nothing.
+     *
+     * @return the number of skipped bytes.
+     */
+    public long getSkippedByteCount() {
+        return skippedByteCount.get();
+    }
+
+    /**
+     * A reader that passes on all events except those of the skipped elements.
+     */
+    private class SkippingStreamReader extends ODMSkippingStreamReader {
+        /**
+         * Construct a skipping reader.
+         *
+         * @param reader the reader to wrap.
+         */
+        SkippingStreamReader(final XMLStreamReader reader) {
+            super(reader, true);
+        }
+
+        @Override
+        protected boolean shouldSkip() {
+            return skippedElementNames.contains(getLocalName());
+        }
+
+        @Override
+        protected void elementSkipped(final long elementCount, final int startOffset) {
+            skippedElementCount.addAndGet(elementCount);
+            final int endOffset = getLocation().getCharacterOffset();
+            if (startOffset >= 0 && endOffset > startOffset) {
+                skippedByteCount.addAndGet(endOffset - startOffset);
+            }
+        }
+    }
+}
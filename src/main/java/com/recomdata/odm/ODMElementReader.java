@@ -0,0 +1,29 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a single ODM element from a StAX stream reader into the matching org.cdisk.odm.jaxb object.
+ */
+public interface ODMElementReader {
+
+    /**
+     * Read the element at which the stream reader is positioned. The stream reader is left right after the end of
+     * the element.
+     *
+     * @param reader the stream reader, positioned at the start of the element.
+     * @param type   the class of the element.
+     * @param <T>    the type of the element.
+     * @return the object with the contents of the element.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     */
+    <T> T read(XMLStreamReader reader, Class<T> type) throws JAXBException, XMLStreamException;
+}
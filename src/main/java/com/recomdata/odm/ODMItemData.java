@@ -0,0 +1,235 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.math.BigDecimal;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataAny;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataBase64Binary;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataBase64Float;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataBoolean;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataDate;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataDatetime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataDouble;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataDurationDatetime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataFloat;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataHexBinary;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataHexFloat;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataIncompleteDate;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataIncompleteDatetime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataIncompleteTime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataInteger;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataIntervalDatetime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataPartialDate;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataPartialDatetime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataPartialTime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataString;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataTime;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDataURI;
+
+/**
+ * The value of a typed item data element, like ItemDataInteger and ItemDataFloat, which JAXB puts in the item data
+ * star group of an item group. The ItemData elements already have their value as a string attribute, so they are
+ * read directly and are not wrapped. For the numeric typed elements the value that was parsed while reading the file
+ * is kept, so it does not have to be converted to a string and parsed again.
+ */
+public final class ODMItemData {
+    /**
+     * The OID of the item.
+     */
+    private final String itemOID;
+
+    /**
+     * The value as a string, or null if the item has no value.
+     */
+    private final String value;
+
+    /**
+     * The numeric value of a typed element, or null if the element is not numeric or not typed.
+     */
+    private final BigDecimal number;
+
+    /**
+     * Construct an item value.
+     *
+     * @param itemOID the OID of the item.
+     * @param value   the value as a string, or null.
+     * @param number  the numeric value of a typed element, or null.
+     */
+    private ODMItemData(final String itemOID, final String value, final BigDecimal number) {
+        this.itemOID = itemOID;
+        this.value = value;
+        this.number = number;
+    }
+
+    /**
+     * Convert a typed element of the item data star group. The numeric types keep their parsed value; dates and times
+     * are formatted in the XML format and binary values are encoded like in the file. An empty boolean element has an
+     * empty value.
+     *
+     * @param itemData the typed element.
+     * @return the item value, or null if the type is unknown.
+     */
+    // CHECKSTYLE_OFF: CyclomaticComplexity|MethodLength|NPathComplexity
+    public static ODMItemData fromTyped(final Object itemData) {
+        if (itemData instanceof ODMcomplexTypeDefinitionItemDataInteger) {
+            final ODMcomplexTypeDefinitionItemDataInteger integer = (ODMcomplexTypeDefinitionItemDataInteger) itemData;
+            return integer.getValue() == null
+                   ? new ODMItemData(integer.getItemOID(), null, null)
+                   : new ODMItemData(integer.getItemOID(), integer.getValue().toString(),
+                                     new BigDecimal(integer.getValue()));
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataFloat) {
+            final ODMcomplexTypeDefinitionItemDataFloat decimal = (ODMcomplexTypeDefinitionItemDataFloat) itemData;
+            return new ODMItemData(decimal.getItemOID(),
+                                   decimal.getValue() != null ? decimal.getValue().toString() : null,
+                                   decimal.getValue());
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataDouble) {
+            // JAXB keeps xs:double as a string; values like INF and NaN have no decimal form.
+            final ODMcomplexTypeDefinitionItemDataDouble dbl = (ODMcomplexTypeDefinitionItemDataDouble) itemData;
+            return new ODMItemData(dbl.getItemOID(), dbl.getValue(), parseDecimal(dbl.getValue()));
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataString) {
+            final ODMcomplexTypeDefinitionItemDataString string = (ODMcomplexTypeDefinitionItemDataString) itemData;
+            return new ODMItemData(string.getItemOID(), string.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataBoolean) {
+            final ODMcomplexTypeDefinitionItemDataBoolean bool = (ODMcomplexTypeDefinitionItemDataBoolean) itemData;
+            return new ODMItemData(bool.getItemOID(), bool.isValue() != null ? bool.isValue().toString() : "", null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataDate) {
+            final ODMcomplexTypeDefinitionItemDataDate date = (ODMcomplexTypeDefinitionItemDataDate) itemData;
+            return new ODMItemData(date.getItemOID(),
+                                   date.getValue() != null ? date.getValue().toXMLFormat() : null, null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataTime) {
+            final ODMcomplexTypeDefinitionItemDataTime time = (ODMcomplexTypeDefinitionItemDataTime) itemData;
+            return new ODMItemData(time.getItemOID(),
+                                   time.getValue() != null ? time.getValue().toXMLFormat() : null, null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataDatetime) {
+            final ODMcomplexTypeDefinitionItemDataDatetime datetime =
+                    (ODMcomplexTypeDefinitionItemDataDatetime) itemData;
+            return new ODMItemData(datetime.getItemOID(),
+                                   datetime.getValue() != null ? datetime.getValue().toXMLFormat() : null, null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataHexBinary) {
+            final ODMcomplexTypeDefinitionItemDataHexBinary hex = (ODMcomplexTypeDefinitionItemDataHexBinary) itemData;
+            return new ODMItemData(hex.getItemOID(), printHex(hex.getValue()), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataHexFloat) {
+            final ODMcomplexTypeDefinitionItemDataHexFloat hex = (ODMcomplexTypeDefinitionItemDataHexFloat) itemData;
+            return new ODMItemData(hex.getItemOID(), printHex(hex.getValue()), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataBase64Binary) {
+            final ODMcomplexTypeDefinitionItemDataBase64Binary base64 =
+                    (ODMcomplexTypeDefinitionItemDataBase64Binary) itemData;
+            return new ODMItemData(base64.getItemOID(), printBase64(base64.getValue()), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataBase64Float) {
+            final ODMcomplexTypeDefinitionItemDataBase64Float base64 =
+                    (ODMcomplexTypeDefinitionItemDataBase64Float) itemData;
+            return new ODMItemData(base64.getItemOID(), printBase64(base64.getValue()), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataURI) {
+            final ODMcomplexTypeDefinitionItemDataURI uri = (ODMcomplexTypeDefinitionItemDataURI) itemData;
+            return new ODMItemData(uri.getItemOID(), uri.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataAny) {
+            final ODMcomplexTypeDefinitionItemDataAny any = (ODMcomplexTypeDefinitionItemDataAny) itemData;
+            return new ODMItemData(any.getItemOID(), any.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataPartialDate) {
+            final ODMcomplexTypeDefinitionItemDataPartialDate partial =
+                    (ODMcomplexTypeDefinitionItemDataPartialDate) itemData;
+            return new ODMItemData(partial.getItemOID(), partial.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataPartialTime) {
+            final ODMcomplexTypeDefinitionItemDataPartialTime partial =
+                    (ODMcomplexTypeDefinitionItemDataPartialTime) itemData;
+            return new ODMItemData(partial.getItemOID(), partial.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataPartialDatetime) {
+            final ODMcomplexTypeDefinitionItemDataPartialDatetime partial =
+                    (ODMcomplexTypeDefinitionItemDataPartialDatetime) itemData;
+            return new ODMItemData(partial.getItemOID(), partial.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataDurationDatetime) {
+            final ODMcomplexTypeDefinitionItemDataDurationDatetime duration =
+                    (ODMcomplexTypeDefinitionItemDataDurationDatetime) itemData;
+            return new ODMItemData(duration.getItemOID(), duration.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataIntervalDatetime) {
+            final ODMcomplexTypeDefinitionItemDataIntervalDatetime interval =
+                    (ODMcomplexTypeDefinitionItemDataIntervalDatetime) itemData;
+            return new ODMItemData(interval.getItemOID(), interval.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataIncompleteDate) {
+            final ODMcomplexTypeDefinitionItemDataIncompleteDate incomplete =
+                    (ODMcomplexTypeDefinitionItemDataIncompleteDate) itemData;
+            return new ODMItemData(incomplete.getItemOID(), incomplete.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataIncompleteTime) {
+            final ODMcomplexTypeDefinitionItemDataIncompleteTime incomplete =
+                    (ODMcomplexTypeDefinitionItemDataIncompleteTime) itemData;
+            return new ODMItemData(incomplete.getItemOID(), incomplete.getValue(), null);
+        } else if (itemData instanceof ODMcomplexTypeDefinitionItemDataIncompleteDatetime) {
+            final ODMcomplexTypeDefinitionItemDataIncompleteDatetime incomplete =
+                    (ODMcomplexTypeDefinitionItemDataIncompleteDatetime) itemData;
+            return new ODMItemData(incomplete.getItemOID(), incomplete.getValue(), null);
+        }
+        return null;
+    }
+    // CHECKSTYLE_ON: CyclomaticComplexity|MethodLength|NPathComplexity
+
+    /**
+     * Parse a decimal value, if possible.
+     *
+     * @param value the value, which may be null.
+     * @return the decimal value, or null if the value is empty or not a decimal number.
+     */
+    private static BigDecimal parseDecimal(final String value) {
+        if (value == null || "".equals(value.trim())) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encode a binary value as hexadecimal digits.
+     *
+     * @param value the binary value, which may be null.
+     * @return the hexadecimal digits, or null.
+     */
+    private static String printHex(final byte[] value) {
+        return value != null ? DatatypeConverter.printHexBinary(value) : null;
+    }
+
+    /**
+     * Encode a binary value in base64.
+     *
+     * @param value the binary value, which may be null.
+     * @return the base64 encoding, or null.
+     */
+    private static String printBase64(final byte[] value) {
+        return value != null ? DatatypeConverter.printBase64Binary(value) : null;
+    }
+
+    /**
+     * Get the OID of the item.
+     *
+     * @return the item OID.
+     */
+    public String getItemOID() {
+        return itemOID;
+    }
+
+    /**
+     * Get the value as a string.
+     *
+     * @return the value, or null if the item has no value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the numeric value of a typed element (ItemDataInteger, ItemDataFloat or ItemDataDouble), which was parsed
+     * while the file was read.
+     *
+     * @return the numeric value, or null for ItemData elements and for the other types.
+     */
+    public BigDecimal getNumber() {
+        return number;
+    }
+}
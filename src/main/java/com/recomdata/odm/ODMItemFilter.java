@@ -0,0 +1,178 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A filter that skips the item data of excluded items while the clinical data of an ODM file is parsed, so the values
+ * of columns that are not exported are never turned into objects. An item is identified by the OIDs of its study
+ * event, form and item, which are compiled from the column filter while the metadata is processed; that happens
+ * before the first subject is read, so the filter can be filled after the reader has been wrapped.
+ *
+ * An item that is excluded in one place but included in another (for example in a second item group of the same
+ * form) is kept. The filter counts the skipped item data elements. A single filter can wrap the readers of several
+ * threads.
+ */
+public class ODMItemFilter {
+    /**
+     * The separator between the OIDs in a key.
+     */
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * The prefix of the local names of the ItemData element and the typed item data elements, like ItemDataInteger.
+     */
+    private static final String ITEM_DATA_PREFIX = "ItemData";
+
+    /**
+     * The keys of the excluded items.
+     */
+    private final Set<String> excludedItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * The keys of the items that are included somewhere, which can therefore not be excluded.
+     */
+    private final Set<String> includedItems = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * The number of skipped item data elements.
+     */
+    private final AtomicLong skippedItemCount = new AtomicLong();
+
+    /**
+     * Exclude an item, unless it has been included already.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     */
+    public void exclude(final String studyEventOID, final String formOID, final String itemOID) {
+        final String key = createKey(studyEventOID, formOID, itemOID);
+        if (!includedItems.contains(key)) {
+            excludedItems.add(key);
+        }
+    }
+
+    /**
+     * Include an item, which undoes an earlier exclusion and prevents later ones.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     */
+    public void include(final String studyEventOID, final String formOID, final String itemOID) {
+        final String key = createKey(studyEventOID, formOID, itemOID);
+        includedItems.add(key);
+        excludedItems.remove(key);
+    }
+
+    /**
+     * Check whether an item is excluded.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     * @return whether the item data of the item can be skipped.
+     */
+    public boolean isExcluded(final String studyEventOID, final String formOID, final String itemOID) {
+        return !excludedItems.isEmpty() && excludedItems.contains(createKey(studyEventOID, formOID, itemOID));
+    }
+
+    /**
+     * Get the number of excluded items.
+     *
+     * @return the number of excluded items.
+     */
+    public int getExcludedItemCount() {
+        return excludedItems.size();
+    }
+
+    /**
+     * Get the number of item data elements that have been skipped.
+     *
+     * @return the number of skipped item data elements.
+     */
+    public long getSkippedItemCount() {
+        return skippedItemCount.get();
+    }
+
+    /**
+     * Wrap a StAX reader, so the item data of the excluded items is left out of its events.
+     *
+     * @param reader the reader to wrap.
+     * @return the filtering reader.
+     */
+    public XMLStreamReader apply(final XMLStreamReader reader) {
+        return new ItemSkippingStreamReader(reader);
+    }
+
+    /**
+     * Create the key of an item.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     * @return the key.
+     */
+    private static String createKey(final String studyEventOID, final String formOID, final String itemOID) {
+        return studyEventOID + SEPARATOR + formOID + SEPARATOR + itemOID;
+    }
+
+    /**
+     * A reader that keeps track of the current study event and form, and passes on all events except those of the
+     * item data of excluded items.
+     */
+    private class ItemSkippingStreamReader extends ODMSkippingStreamReader {
+        /**
+         * The OID of the study event data that is being read, or null.
+         */
+        private String studyEventOID;
+
+        /**
+         * The OID of the form data that is being read, or null.
+         */
+        private String formOID;
+
+        /**
+         * Construct an item skipping reader.
+         *
+         * @param reader the reader to wrap.
+         */
+        ItemSkippingStreamReader(final XMLStreamReader reader) {
+            super(reader, false);
+        }
+
+        /**
+         * Check whether the current start tag is the item data of an excluded item. The start tags of the study event
+         * data and form data are remembered on the way.
+         *
+         * @return whether the current element should be skipped.
+         */
+        @Override
+        protected boolean shouldSkip() {
+            final String localName = getLocalName();
+            if (localName.startsWith(ITEM_DATA_PREFIX)) {
+                return isExcluded(studyEventOID, formOID, getAttributeValue(null, "ItemOID"));
+            } else if ("StudyEventData".equals(localName)) {
+                studyEventOID = getAttributeValue(null, "StudyEventOID");
+            } else if ("FormData".equals(localName)) {
+                formOID = getAttributeValue(null, "FormOID");
+            }
+            return false;
+        }
+
+        @Override
+        protected void elementSkipped(final long elementCount, final int startOffset) {
+            skippedItemCount.incrementAndGet();
+        }
+    }
+}
@@ -9,49 +9,431 @@ package com.recomdata.odm;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Writer;
 import java.io.StringWriter;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
 
 import org.cdisk.odm.jaxb.*;
+import org.cdisk.odm.stax.ODMStaxReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
-public class ODMLoader {
+/**
+ * A loader is thread-safe and meant to be long-lived: the JAXB context and the compiled
+ * schema are shared by all loaders (see ODMResources), and the unmarshallers and
+ * marshallers, which are not thread-safe themselves, are pooled and reused. Close a
+ * loader that validated documents in the background, to stop its validation thread.
+ */
+public class ODMLoader implements AutoCloseable {
+
+	/** the logger for this class */
+	private static final Logger logger = LoggerFactory.getLogger(ODMLoader.class);
+
+	/** the options for reading the ODM files */
+	private final ODMReadOptions options;
+
+	/** the way in which the ODM elements are turned into objects */
+	private final ODMBinding binding;
+
+	/** the StAX parser that reads the ODM files */
+	private final XMLParser parser;
+
+	/** the subjects that are read; the others are skipped while parsing */
+	private final ODMSubjectSelection subjectSelection;
+
+	/** the unmarshallers that are not in use */
+	private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+	/** the marshallers that are not in use */
+	private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
+	/** the thread that validates documents in the background, created when it is first needed */
+	private ExecutorService validationExecutor;
+
+	/**create a loader with the default options: the generated reader, with JAXB as
+	 * fallback, and the parser of the JDK
+	 */
+	public ODMLoader() {
+		this(ODMReadOptions.DEFAULT);
+	}
 
-	/**unmashell ODM XML File to a ODM object
+	/**create a loader with the given options: the binding and the StAX parser, the
+	 * elements that are skipped while parsing, whether strings are canonicalized and the
+	 * subjects that are read (see ODMReadOptions.Builder)
+	 */
+	public ODMLoader(ODMReadOptions options) {
+		this.options = options;
+		this.binding = options.getBinding();
+		this.parser = options.getParser();
+		this.subjectSelection = options.getSubjectSelection();
+	}
+
+	/**unmashell ODM XML File to a ODM object; the file may be compressed with gzip or
+	 * be a zip file with a single ODM document
 	 */
 	public ODM unmarshall(File xml) throws JAXBException {
 		ODM odm = new ODM();
 		try {
-			JAXBContext context = JAXBContext.newInstance("org.cdisk.odm.jaxb");
+			odm = unmarshall(ODMDocument.forFile(xml));
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
 
-			Unmarshaller unmarshaller = context.createUnmarshaller();
-			odm = (ODM) unmarshaller.unmarshal(xml);
+		return odm;
+	}
 
-		} catch (JAXBException jaxbEx) {
-			jaxbEx.printStackTrace();
+	/**unmashell an ODM document to a ODM object
+	 */
+	public ODM unmarshall(ODMDocument document) throws JAXBException {
+		ODM odm = new ODM();
+		ODMElementFilter elementFilter = options.createElementFilter();
+		ODMSubjectFilter subjectFilter = options.createSubjectFilter();
+		ODMStringPool stringPool = options.createStringPool();
+		Unmarshaller unmarshaller = null;
+		try {
+			unmarshaller = acquireUnmarshaller();
+			InputStream inputStream = document.open();
+			XMLStreamReader reader = null;
+			try {
+				if (binding == ODMBinding.JAXB && parser == XMLParser.JDK && !elementFilter.isActive()
+						&& !subjectFilter.isActive() && stringPool == null) {
+					odm = (ODM) unmarshaller.unmarshal(new StreamSource(inputStream, document.getSystemId()));
+				} else {
+					// JAXB reads from the configured StAX parser through the element reader as well
+					reader = createXMLStreamReader(document, inputStream, elementFilter, subjectFilter, null,
+							stringPool);
+
+					odm = createElementReader(unmarshaller).read(reader, ODM.class);
+				}
+			} finally {
+				if (reader != null) {
+					reader.close();
+				}
+				inputStream.close();
+			}
+		} catch (JAXBException | XMLStreamException | IOException ex) {
+			ex.printStackTrace();
+		} finally {
+			releaseUnmarshaller(unmarshaller);
+		}
+		logStatistics(document, elementFilter, stringPool);
+		logStatistics(document, subjectFilter);
+
+		return odm;
+	}
+
+	/**stream ODM XML File: the metadata is unmarshalled completely and handed to the
+	 * handler, after which the subjects are unmarshalled and handed over one at a time.
+	 * Only a single subject is kept in memory, so this works for files that do not fit
+	 * in the heap as one ODM object.
+	 * @return the ODM object with the metadata; its clinical data list stays empty
+	 */
+	public ODM stream(File xml, ODMStreamHandler handler) throws JAXBException, XMLStreamException, IOException {
+		return stream(ODMDocument.forFile(xml), handler);
+	}
+
+	/**stream an ODM document, see stream(File, ODMStreamHandler); a compressed document
+	 * is decompressed while it is read
+	 */
+	public ODM stream(ODMDocument document, ODMStreamHandler handler)
+			throws JAXBException, XMLStreamException, IOException {
+		return stream(document, handler, null);
+	}
+
+	/**stream an ODM document, see stream(ODMDocument, ODMStreamHandler); the item data of
+	 * the items that the item filter excludes is skipped by the parser; the handler may
+	 * fill the filter while it processes the metadata, because no subject is read before
+	 */
+	public ODM stream(ODMDocument document, ODMStreamHandler handler, ODMItemFilter itemFilter)
+			throws JAXBException, XMLStreamException, IOException {
+		ODMElementFilter elementFilter = options.createElementFilter();
+		ODMSubjectFilter subjectFilter = options.createSubjectFilter();
+		ODMStringPool stringPool = options.createStringPool();
+
+		Unmarshaller unmarshaller = acquireUnmarshaller();
+		InputStream inputStream = null;
+		XMLStreamReader reader = null;
+		try {
+			inputStream = document.open();
+			reader = createXMLStreamReader(document, inputStream, elementFilter, subjectFilter, itemFilter,
+					stringPool);
+
+			ODM odm = new ODMStreamReader(createElementReader(unmarshaller), reader).read(handler);
+			logStatistics(document, elementFilter, stringPool);
+			logStatistics(document, subjectFilter);
+			logStatistics(document, itemFilter);
+			return odm;
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+			if (inputStream != null) {
+				inputStream.close();
+			}
+			releaseUnmarshaller(unmarshaller);
 		}
+	}
 
+	/**stream ODM XML File with several threads: the metadata is unmarshalled first, after
+	 * which batches of subjects are unmarshalled on a pool of threadCount threads. The
+	 * subjects are handed over in document order on the calling thread, just like stream
+	 * does, so the handler does not need to be thread-safe
+	 * @return the ODM object with the metadata; its clinical data list stays empty
+	 */
+	public ODM streamParallel(File xml, ODMStreamHandler handler, int threadCount)
+			throws JAXBException, XMLStreamException, IOException {
+		return streamParallel(ODMDocument.forFile(xml), handler, threadCount);
+	}
+
+	/**stream an ODM document with several threads, see streamParallel(File, ...); only
+	 * an uncompressed file can be memory-mapped, so a compressed document or a document
+	 * from a pipe is streamed with a single thread; so is a document of which only the
+	 * first subjects are selected, because they can only be counted in document order
+	 */
+	public ODM streamParallel(ODMDocument document, ODMStreamHandler handler, int threadCount)
+			throws JAXBException, XMLStreamException, IOException {
+		return streamParallel(document, handler, threadCount, null);
+	}
+
+	/**stream an ODM document with several threads, see streamParallel(ODMDocument, ...);
+	 * the item data of the items that the item filter excludes is skipped by the parsers
+	 */
+	public ODM streamParallel(ODMDocument document, ODMStreamHandler handler, int threadCount,
+			ODMItemFilter itemFilter) throws JAXBException, XMLStreamException, IOException {
+		if (document.getCompression() != ODMCompression.NONE || document.isPipe()) {
+			logger.info("The " + (document.isPipe() ? "piped" : "compressed") + " ODM document "
+					+ document.getName() + " is streamed with a single thread.");
+			return stream(document, handler, itemFilter);
+		}
+		if (subjectSelection.hasLimit()) {
+			logger.info("Only the first " + subjectSelection.getLimit() + " subjects of ODM document "
+					+ document.getName() + " are selected, so it is streamed with a single thread.");
+			return stream(document, handler, itemFilter);
+		}
+		ODMParallelReader parallelReader = new ODMParallelReader(options, threadCount, itemFilter);
+		ODM odm = parallelReader.read(document.getFile(), handler);
+		logStatistics(document, parallelReader.getElementFilter(), parallelReader.getStringPool());
+		logStatistics(document, parallelReader.getSubjectFilter());
+		logStatistics(document, itemFilter);
 		return odm;
 	}
 
+	/**unmashell only the metadata of an ODM XML File: parsing stops as soon as the last
+	 * Study element is closed, so none of the clinical data is read
+	 * @return the ODM object with the studies; its clinical data list stays empty
+	 */
+	public ODM unmarshallMetaData(File xml) throws JAXBException, XMLStreamException, IOException {
+		return unmarshallMetaData(ODMDocument.forFile(xml));
+	}
+
+	/**unmashell only the metadata of an ODM document, see unmarshallMetaData(File)
+	 */
+	public ODM unmarshallMetaData(ODMDocument document) throws JAXBException, XMLStreamException, IOException {
+		ODMElementFilter elementFilter = options.createElementFilter();
+		ODMStringPool stringPool = options.createStringPool();
+
+		Unmarshaller unmarshaller = acquireUnmarshaller();
+		InputStream inputStream = null;
+		XMLStreamReader reader = null;
+		try {
+			inputStream = document.open();
+			reader = createXMLStreamReader(document, inputStream, elementFilter, null, null, stringPool);
+
+			ODM odm = new ODMStreamReader(createElementReader(unmarshaller), reader).readMetaData();
+			logStatistics(document, elementFilter, stringPool);
+			return odm;
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+			if (inputStream != null) {
+				inputStream.close();
+			}
+			releaseUnmarshaller(unmarshaller);
+		}
+	}
+
+	/**create the reader that turns ODM elements into objects for the configured binding;
+	 * the generated reader uses the shared JAXB context for the elements it cannot read
+	 * itself
+	 */
+	private ODMElementReader createElementReader(Unmarshaller unmarshaller) throws JAXBException {
+		if (binding == ODMBinding.JAXB) {
+			return new JaxbElementReader(unmarshaller);
+		}
+		return new GeneratedElementReader(new ODMStaxReader(ODMResources.getJAXBContext()));
+	}
+
+	/**take an unmarshaller from the pool (or create one) for the JAXB binding; the
+	 * generated binding does not need one, so null is returned for it
+	 */
+	private Unmarshaller acquireUnmarshaller() throws JAXBException {
+		if (binding != ODMBinding.JAXB) {
+			return null;
+		}
+		Unmarshaller unmarshaller = unmarshallers.poll();
+		return unmarshaller != null ? unmarshaller : ODMResources.getJAXBContext().createUnmarshaller();
+	}
+
+	/**put an unmarshaller back in the pool, so the next read can reuse it
+	 */
+	private void releaseUnmarshaller(Unmarshaller unmarshaller) {
+		if (unmarshaller != null) {
+			unmarshallers.offer(unmarshaller);
+		}
+	}
+
+	/**create a StAX reader for an ODM document with the configured parser, which leaves
+	 * out the elements that the element filter skips, the subjects that the subject filter
+	 * skips (if any) and the item data of the items that the item filter excludes (if any),
+	 * and which takes its strings from the pool (if any)
+	 */
+	private XMLStreamReader createXMLStreamReader(ODMDocument document, InputStream inputStream,
+			ODMElementFilter elementFilter, ODMSubjectFilter subjectFilter, ODMItemFilter itemFilter,
+			ODMStringPool stringPool) throws XMLStreamException {
+		XMLStreamReader reader = elementFilter.apply(parser.createInputFactory().createXMLStreamReader(
+				document.getSystemId(), inputStream));
+		if (subjectFilter != null) {
+			reader = subjectFilter.apply(reader);
+		}
+		if (itemFilter != null) {
+			reader = itemFilter.apply(reader);
+		}
+		return stringPool != null ? stringPool.apply(reader) : reader;
+	}
+
+	/**report how much of an ODM document was skipped by the element filter and how much
+	 * memory the string pool saved
+	 */
+	private void logStatistics(ODMDocument document, ODMElementFilter elementFilter, ODMStringPool stringPool) {
+		if (elementFilter.isActive()) {
+			logger.info("Skipped " + elementFilter.getSkippedElementCount() + " elements ("
+					+ elementFilter.getSkippedByteCount() + " bytes) of types "
+					+ elementFilter.getSkippedElementNames() + " in ODM document " + document.getName() + ".");
+		}
+		if (stringPool != null) {
+			logger.info("Shared " + stringPool.getSharedStringCount() + " strings between " + stringPool.size()
+					+ " pooled instances, which saved about " + stringPool.getSavedByteCount()
+					+ " bytes of heap for ODM document " + document.getName() + ".");
+		}
+	}
+
+	/**report how many subjects were selected and skipped
+	 */
+	private void logStatistics(ODMDocument document, ODMSubjectFilter subjectFilter) {
+		if (subjectFilter.isActive()) {
+			logger.info("Selected " + subjectFilter.getSelectedSubjectCount() + " and skipped "
+					+ subjectFilter.getSkippedSubjectCount() + " subjects (" + subjectFilter.getSelection()
+					+ ") in ODM document " + document.getName() + ".");
+		}
+	}
+
+	/**report how many item data elements of excluded items were skipped
+	 */
+	private void logStatistics(ODMDocument document, ODMItemFilter itemFilter) {
+		if (itemFilter != null && itemFilter.getExcludedItemCount() > 0) {
+			logger.info("Skipped " + itemFilter.getSkippedItemCount() + " item data elements of "
+					+ itemFilter.getExcludedItemCount() + " excluded items in ODM document "
+					+ document.getName() + ".");
+		}
+	}
+
+	/**validate an ODM document against the ODM 1.3.1 schema on a background thread, so
+	 * the conversion can continue while the document is read a second time; the schema is
+	 * compiled only once; a document from a pipe cannot be read twice, so it cannot be
+	 * validated this way
+	 * @return the future result, which contains the first validation errors
+	 */
+	public Future<ODMValidationResult> validateInBackground(final ODMDocument document) {
+		if (document.isPipe()) {
+			// a pipe can only be read once, and the conversion needs it
+			throw new IllegalArgumentException("The ODM document " + document.getName()
+					+ " comes from a pipe and cannot be validated next to the conversion.");
+		}
+		return getValidationExecutor().submit(new Callable<ODMValidationResult>() {
+			@Override
+			public ODMValidationResult call() {
+				ODMValidationResult result = new ODMValidationResult(document.getName());
+				try (InputStream inputStream = document.open()) {
+					Validator validator = ODMResources.getSchema().newValidator();
+					validator.setErrorHandler(result);
+					validator.validate(new StreamSource(inputStream, document.getSystemId()));
+				} catch (SAXParseException ex) {
+					// a fatal error, which the result already contains
+				} catch (SAXException | IOException ex) {
+					result.addError(ex);
+				}
+				return result;
+			}
+		});
+	}
+
+	/**get the executor with the validation thread, which is a daemon thread so it does
+	 * not keep the JVM alive
+	 */
+	private synchronized ExecutorService getValidationExecutor() {
+		if (validationExecutor == null) {
+			validationExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "odm-validation");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return validationExecutor;
+	}
+
+	/**stop the validation thread once the validations that were started have finished; a
+	 * validation that is started after this creates a new thread
+	 */
+	@Override
+	public synchronized void close() {
+		if (validationExecutor != null) {
+			validationExecutor.shutdown();
+			validationExecutor = null;
+		}
+	}
+
 	/**mashall a ODM xml object to StringWriter
 	*/
 	public void marshall(Object odm, Writer writer) throws JAXBException {
+		Marshaller marshaller = null;
 		try {
-			JAXBContext context = JAXBContext.newInstance("org.cdisk.odm.jaxb");
-
-			Marshaller marshaller = context.createMarshaller();
-			marshaller.setProperty("jaxb.formatted.output", Boolean.TRUE);
+			marshaller = marshallers.poll();
+			if (marshaller == null) {
+				marshaller = ODMResources.getJAXBContext().createMarshaller();
+				marshaller.setProperty("jaxb.formatted.output", Boolean.TRUE);
+			}
 
 			//marshaller.marshal(odm, System.out);
 			marshaller.marshal(odm, writer);
 
 		} catch (JAXBException jaxbEx) {
 			jaxbEx.printStackTrace();
+		} finally {
+			if (marshaller != null) {
+				marshallers.offer(marshaller);
+			}
 		}
 	}
 
@@ -0,0 +1,924 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.cdisk.odm.stax.ODMStaxReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads an ODM file with several threads. The file is memory-mapped and scanned once for the boundaries of the
+ * ClinicalData and SubjectData elements, which is much cheaper than parsing it. The metadata (everything outside the
+ * ClinicalData elements) is then read on the calling thread, after which batches of subjects are parsed on a worker
+ * pool. Each batch is parsed as a small document that repeats the prolog and the start tags of the ODM root and the
+ * ClinicalData element, so the namespace declarations and the encoding stay the same.
+ *
+ * The subjects are passed to the {@link ODMStreamHandler} on the calling thread and in document order, so the handler
+ * sees exactly the same calls as with the sequential {@link ODMStreamReader}. Files that cannot be split safely (with
+ * a document type declaration, which may declare entities, or in an encoding that is not ASCII compatible) are
+ * streamed sequentially instead.
+ */
+public class ODMParallelReader {
+    /**
+     * The default number of bytes of subject data that are parsed in a single task.
+     */
+    public static final long DEFAULT_BATCH_SIZE = 1 << 20;
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ODMParallelReader.class);
+
+    /**
+     * The number of bits of a position within a part of the mapped file (a single mapping is limited to 2 GB).
+     */
+    private static final int REGION_BITS = 30;
+
+    /**
+     * The size of the parts in which the file is mapped.
+     */
+    private static final long REGION_SIZE = 1L << REGION_BITS;
+
+    /**
+     * The mask that gives the position within a part of the mapped file.
+     */
+    private static final long REGION_MASK = REGION_SIZE - 1;
+
+    /**
+     * The size of the window that is used to scan the file.
+     */
+    private static final int WINDOW_SIZE = 1 << 16;
+
+    /**
+     * The name of the root element.
+     */
+    private static final String ODM_ELEMENT = "ODM";
+
+    /**
+     * The name of the clinical data element.
+     */
+    private static final String CLINICAL_DATA_ELEMENT = "ClinicalData";
+
+    /**
+     * The name of the subject data element.
+     */
+    private static final String SUBJECT_DATA_ELEMENT = "SubjectData";
+
+    /**
+     * The way in which the ODM elements are turned into objects.
+     */
+    private final ODMBinding binding;
+
+    /**
+     * The StAX parser that reads the file.
+     */
+    private final XMLParser parser;
+
+    /**
+     * The number of worker threads.
+     */
+    private final int threadCount;
+
+    /**
+     * The number of bytes of subject data that are parsed in a single task.
+     */
+    private final long batchSize;
+
+    /**
+     * The filter that skips the unused elements; it is shared by all threads.
+     */
+    private final ODMElementFilter elementFilter;
+
+    /**
+     * The pool that canonicalizes the strings of all threads, or null to keep the strings of the parser.
+     */
+    private final ODMStringPool stringPool;
+
+    /**
+     * The filter that skips the item data of excluded items, or null to read all item data.
+     */
+    private final ODMItemFilter itemFilter;
+
+    /**
+     * The filter that skips the subjects that are not selected; it is shared by all threads.
+     */
+    private final ODMSubjectFilter subjectFilter;
+
+    /**
+     * The XML input factory of each thread. Creating a factory involves a service lookup, which is too expensive to
+     * repeat for every batch, and a factory is not guaranteed to be thread-safe.
+     */
+    private final ThreadLocal<XMLInputFactory> inputFactory = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            return parser.createInputFactory();
+        }
+    };
+
+    /**
+     * The element reader of each worker thread, which is kept for all the batches of the thread because the readers
+     * create some expensive objects (like a datatype factory) when they are first used.
+     */
+    private final ThreadLocal<ODMElementReader> workerElementReader = new ThreadLocal<>();
+
+    /**
+     * The JAXB context that is shared by the workers when the JAXB binding is used.
+     */
+    private JAXBContext jaxbContext;
+
+    /**
+     * Construct a parallel reader that skips elements, subjects and item data and canonicalizes strings while parsing,
+     * as the options say. The filters and the string pool are created for this reader; their counts can be read
+     * after the file has been read. The subject selection cannot have a limit, because the batches are not parsed in
+     * document order.
+     *
+     * @param options     the options for reading the file.
+     * @param threadCount the number of worker threads.
+     * @param itemFilter  the filter that skips the item data of excluded items, or null to read all item data.
+     */
+    public ODMParallelReader(final ODMReadOptions options, final int threadCount, final ODMItemFilter itemFilter) {
+        if (options.getSubjectSelection().hasLimit()) {
+            throw new IllegalArgumentException("The first subjects cannot be selected by several threads.");
+        }
+        this.binding = options.getBinding();
+        this.parser = options.getParser();
+        this.threadCount = Math.max(1, threadCount);
+        this.batchSize = options.getBatchSize();
+        this.elementFilter = options.createElementFilter();
+        this.stringPool = options.createStringPool();
+        this.itemFilter = itemFilter;
+        this.subjectFilter = options.createSubjectFilter();
+    }
+
+    /**
+     * Get the filter that skips the unused elements.
+     *
+     * @return the element filter.
+     */
+    public ODMElementFilter getElementFilter() {
+        return elementFilter;
+    }
+
+    /**
+     * Get the pool that canonicalizes the strings.
+     *
+     * @return the string pool, or null if the strings of the parser are kept.
+     */
+    public ODMStringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Get the filter that skips the subjects that are not selected.
+     *
+     * @return the subject filter.
+     */
+    public ODMSubjectFilter getSubjectFilter() {
+        return subjectFilter;
+    }
+
+    /**
+     * Read the complete ODM file and pass the metadata and the subjects to the handler.
+     *
+     * @param xml     the ODM file.
+     * @param handler the handler that processes the metadata and the subjects.
+     * @return the odm object with the metadata; its clinical data list is empty.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    public ODM read(final File xml, final ODMStreamHandler handler)
+            throws JAXBException, XMLStreamException, IOException {
+        if (binding == ODMBinding.JAXB) {
+            jaxbContext = ODMResources.getJAXBContext();
+        }
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(xml, "r");
+             final FileChannel channel = randomAccessFile.getChannel()) {
+            final MappedFile file = new MappedFile(channel);
+            final Layout layout = scan(file);
+            if (layout == null) {
+                logger.info("The ODM file cannot be split into subjects; it is streamed with a single thread.");
+                return readDocument(file, Collections.singletonList(file.newInputStream(0, file.size)), handler);
+            }
+
+            final List<InputStream> metaDataParts = new ArrayList<>();
+            long partStart = 0;
+            for (final ClinicalDataBlock block : layout.blocks) {
+                metaDataParts.add(file.newInputStream(partStart, block.start));
+                partStart = block.end;
+            }
+            metaDataParts.add(file.newInputStream(partStart, file.size));
+            final ODM odm = readDocument(file, metaDataParts, handler);
+
+            readSubjects(file, layout, handler);
+            return odm;
+        }
+    }
+
+    /**
+     * Scan the file for the boundaries of the root element, the ClinicalData elements and the SubjectData elements.
+     *
+     * @param file the mapped file.
+     * @return the layout of the file, or null if the file cannot be split safely.
+     */
+    private Layout scan(final MappedFile file) {
+        if (file.size >= 2 && (file.byteAt(0) == (byte) 0xFE || file.byteAt(0) == (byte) 0xFF
+                               || file.byteAt(0) == 0 || file.byteAt(1) == 0)) {
+            // UTF-16 or UTF-32.
+            return null;
+        }
+
+        final Layout layout = new Layout();
+        ClinicalDataBlock block = null;
+        long subjectStart = 0;
+        int depth = 0;
+        long position = file.indexOf(0, (byte) '<');
+        while (position < file.size) {
+            if (file.startsWith(position, "<!--")) {
+                position = file.indexOf(position + 4, "-->") + 3;
+            } else if (file.startsWith(position, "<![CDATA[")) {
+                position = file.indexOf(position + 9, "]]>") + 3;
+            } else if (file.startsWith(position, "<!")) {
+                // A document type declaration.
+                return null;
+            } else if (file.startsWith(position, "<?")) {
+                position = file.indexOf(position + 2, "?>") + 2;
+            } else if (file.startsWith(position, "</")) {
+                // Only the names of the elements near the root matter, so most names are never read.
+                final String name = block != null && depth <= 3 ? getLocalName(file.readName(position + 2)) : null;
+                position = file.indexOf(position, ">") + 1;
+                depth--;
+                if (block != null && depth == 2 && SUBJECT_DATA_ELEMENT.equals(name)) {
+                    block.subjects.add(new long[]{subjectStart, position});
+                } else if (block != null && depth == 1 && CLINICAL_DATA_ELEMENT.equals(name)) {
+                    block.end = position;
+                    layout.blocks.add(block);
+                    block = null;
+                }
+            } else {
+                final long tagStart = position;
+                final String qualifiedName = depth <= 2 ? file.readName(position + 1) : null;
+                final String name = qualifiedName != null ? getLocalName(qualifiedName) : null;
+                position = file.findTagEnd(position);
+                final boolean empty = file.byteAt(position - 2) == '/';
+                if (depth == 0) {
+                    if (!ODM_ELEMENT.equals(name) || empty) {
+                        return null;
+                    }
+                    layout.rootEnd = position;
+                    layout.rootName = qualifiedName;
+                } else if (depth == 1 && CLINICAL_DATA_ELEMENT.equals(name)) {
+                    block = new ClinicalDataBlock(tagStart, position, qualifiedName);
+                    if (empty) {
+                        block.end = position;
+                        layout.blocks.add(block);
+                        block = null;
+                    }
+                } else if (depth == 2 && block != null && SUBJECT_DATA_ELEMENT.equals(name)) {
+                    if (empty) {
+                        block.subjects.add(new long[]{tagStart, position});
+                    } else {
+                        subjectStart = tagStart;
+                    }
+                }
+                if (!empty) {
+                    depth++;
+                }
+            }
+            position = file.indexOf(position, (byte) '<');
+        }
+        // An incomplete file is left to the sequential reader, which reports the parse error.
+        return depth == 0 && block == null && layout.rootName != null ? layout : null;
+    }
+
+    /**
+     * Get the local part of a qualified element name.
+     *
+     * @param qualifiedName the qualified name.
+     * @return the local name.
+     */
+    private static String getLocalName(final String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.indexOf(':') + 1);
+    }
+
+    /**
+     * Read a document with the sequential stream reader.
+     *
+     * @param file    the mapped file.
+     * @param parts   the parts of the document.
+     * @param handler the handler that processes the metadata and the subjects.
+     * @return the odm object with the metadata.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    private ODM readDocument(final MappedFile file, final List<InputStream> parts, final ODMStreamHandler handler)
+            throws JAXBException, XMLStreamException, IOException {
+        final XMLStreamReader reader = createXMLStreamReader(new SequenceInputStream(Collections.enumeration(parts)));
+        try {
+            return new ODMStreamReader(createElementReader(), reader).read(handler);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse the subjects on the worker pool and pass them to the handler in document order. The number of batches
+     * that are parsed ahead of the handler is limited, so the memory use stays bounded.
+     *
+     * @param file    the mapped file.
+     * @param layout  the layout of the file.
+     * @param handler the handler that processes the subjects.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    private void readSubjects(final MappedFile file, final Layout layout, final ODMStreamHandler handler)
+            throws JAXBException, XMLStreamException, IOException {
+        final List<SubjectBatch> batches = createBatches(file, layout);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        int subjectCount = 0;
+        try {
+            final Deque<SubjectBatch> pendingBatches = new ArrayDeque<>();
+            int nextBatch = 0;
+            while (nextBatch < batches.size() || !pendingBatches.isEmpty()) {
+                while (nextBatch < batches.size() && pendingBatches.size() < 2 * threadCount) {
+                    final SubjectBatch batch = batches.get(nextBatch++);
+                    batch.result = executor.submit(batch);
+                    pendingBatches.add(batch);
+                }
+                final SubjectBatch batch = pendingBatches.poll();
+                for (final ODMcomplexTypeDefinitionSubjectData subjectData : getResult(batch)) {
+                    handler.processSubjectData(batch.block.clinicalData, subjectData);
+                    subjectCount++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Parsed " + subjectCount + " subjects with " + threadCount + " threads.");
+    }
+
+    /**
+     * Split the subjects of all ClinicalData elements into batches of about the batch size.
+     *
+     * @param file   the mapped file.
+     * @param layout the layout of the file.
+     * @return the batches in document order.
+     * @throws XMLStreamException When the start tag of a ClinicalData element cannot be parsed.
+     */
+    private List<SubjectBatch> createBatches(final MappedFile file, final Layout layout) throws XMLStreamException {
+        final List<SubjectBatch> batches = new ArrayList<>();
+        for (final ClinicalDataBlock block : layout.blocks) {
+            block.clinicalData = readClinicalDataAttributes(file, layout, block);
+            int first = 0;
+            for (int index = 0; index < block.subjects.size(); index++) {
+                final long batchStart = block.subjects.get(first)[0];
+                final long batchEnd = block.subjects.get(index)[1];
+                if (batchEnd - batchStart >= batchSize || index == block.subjects.size() - 1) {
+                    batches.add(new SubjectBatch(file, layout, block, batchStart, batchEnd));
+                    first = index + 1;
+                }
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Create the clinical data object that is passed to the handler for the subjects of a ClinicalData element.
+     *
+     * @param file   the mapped file.
+     * @param layout the layout of the file.
+     * @param block  the ClinicalData element.
+     * @return the clinical data object with only the attributes filled.
+     * @throws XMLStreamException When the start tag cannot be parsed.
+     */
+    private ODMcomplexTypeDefinitionClinicalData readClinicalDataAttributes(final MappedFile file, final Layout layout,
+                                                                            final ClinicalDataBlock block)
+            throws XMLStreamException {
+        final XMLStreamReader reader = inputFactory.get().createXMLStreamReader(
+                createFragment(file, layout, block, block.startTagEnd, block.startTagEnd));
+        try {
+            while (!reader.isStartElement() || !CLINICAL_DATA_ELEMENT.equals(reader.getLocalName())) {
+                reader.next();
+            }
+            final ODMcomplexTypeDefinitionClinicalData clinicalData = new ODMcomplexTypeDefinitionClinicalData();
+            clinicalData.setStudyOID(reader.getAttributeValue(null, "StudyOID"));
+            clinicalData.setMetaDataVersionOID(reader.getAttributeValue(null, "MetaDataVersionOID"));
+            return clinicalData;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Create a small document with a part of the content of a ClinicalData element: the prolog, the start tags of the
+     * root and the ClinicalData element, the content and the end tags.
+     *
+     * @param file  the mapped file.
+     * @param layout the layout of the file.
+     * @param block the ClinicalData element.
+     * @param start the start of the content.
+     * @param end   the end of the content.
+     * @return the document.
+     */
+    private static InputStream createFragment(final MappedFile file, final Layout layout,
+                                              final ClinicalDataBlock block, final long start, final long end) {
+        final String endTags = "</" + block.name + "></" + layout.rootName + ">";
+        final List<InputStream> parts = new ArrayList<>();
+        parts.add(file.newInputStream(0, layout.rootEnd));
+        parts.add(file.newInputStream(block.start, block.startTagEnd));
+        parts.add(file.newInputStream(start, end));
+        // The names were read as ISO-8859-1, which maps every byte to one character, so this gives the original bytes.
+        parts.add(new ByteArrayInputStream(endTags.getBytes(StandardCharsets.ISO_8859_1)));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    /**
+     * Create a StAX reader with the factory of the current thread, which leaves out the elements that the filter
+     * skips, the subjects that are not selected (if any) and the item data of excluded items (if any) and takes its
+     * strings from the pool (if any).
+     *
+     * @param inputStream the input stream.
+     * @return the StAX reader.
+     * @throws XMLStreamException When the reader cannot be created.
+     */
+    private XMLStreamReader createXMLStreamReader(final InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader reader = subjectFilter.apply(elementFilter.apply(
+                inputFactory.get().createXMLStreamReader(inputStream)));
+        if (itemFilter != null) {
+            reader = itemFilter.apply(reader);
+        }
+        return stringPool != null ? stringPool.apply(reader) : reader;
+    }
+
+    /**
+     * Create an element reader for the configured binding. Each worker thread gets its own element reader.
+     *
+     * @return the element reader.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    private ODMElementReader createElementReader() throws JAXBException {
+        if (binding == ODMBinding.JAXB) {
+            return new JaxbElementReader(jaxbContext.createUnmarshaller());
+        }
+        return new GeneratedElementReader(new ODMStaxReader(ODMResources.getJAXBContext()));
+    }
+
+    /**
+     * Wait for the subjects of a batch and rethrow the exception of the worker, if there is one. The batch forgets
+     * its result, so the subjects can be garbage collected as soon as they have been handed over.
+     *
+     * @param batch the batch.
+     * @return the subjects.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    private static List<ODMcomplexTypeDefinitionSubjectData> getResult(final SubjectBatch batch)
+            throws JAXBException, XMLStreamException, IOException {
+        try {
+            final List<ODMcomplexTypeDefinitionSubjectData> subjects = batch.result.get();
+            batch.result = null;
+            return subjects;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing the subjects.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof JAXBException) {
+                throw (JAXBException) cause;
+            } else if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * A task that parses the subjects in a range of a ClinicalData element.
+     */
+    private class SubjectBatch implements Callable<List<ODMcomplexTypeDefinitionSubjectData>> {
+        /**
+         * The mapped file.
+         */
+        private final MappedFile file;
+
+        /**
+         * The layout of the file.
+         */
+        private final Layout layout;
+
+        /**
+         * The ClinicalData element that contains the subjects.
+         */
+        private final ClinicalDataBlock block;
+
+        /**
+         * The start of the first subject.
+         */
+        private final long start;
+
+        /**
+         * The end of the last subject.
+         */
+        private final long end;
+
+        /**
+         * The result of the task, once it has been submitted.
+         */
+        private Future<List<ODMcomplexTypeDefinitionSubjectData>> result;
+
+        /**
+         * Construct a task.
+         *
+         * @param file   the mapped file.
+         * @param layout the layout of the file.
+         * @param block  the ClinicalData element that contains the subjects.
+         * @param start  the start of the first subject.
+         * @param end    the end of the last subject.
+         */
+        SubjectBatch(final MappedFile file, final Layout layout, final ClinicalDataBlock block, final long start,
+                     final long end) {
+            this.file = file;
+            this.layout = layout;
+            this.block = block;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public List<ODMcomplexTypeDefinitionSubjectData> call() throws JAXBException, XMLStreamException {
+            ODMElementReader elementReader = workerElementReader.get();
+            if (elementReader == null) {
+                elementReader = createElementReader();
+                workerElementReader.set(elementReader);
+            }
+            final List<ODMcomplexTypeDefinitionSubjectData> subjects = new ArrayList<>();
+            final XMLStreamReader reader = createXMLStreamReader(createFragment(file, layout, block, start, end));
+            try {
+                int depth = 0;
+                while (reader.hasNext()) {
+                    if (reader.isStartElement() && depth == 2 && SUBJECT_DATA_ELEMENT.equals(reader.getLocalName())) {
+                        subjects.add(elementReader.read(reader, ODMcomplexTypeDefinitionSubjectData.class));
+                    } else {
+                        if (reader.isStartElement()) {
+                            depth++;
+                        } else if (reader.isEndElement()) {
+                            depth--;
+                        }
+                        reader.next();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            return subjects;
+        }
+    }
+
+    /**
+     * The positions of the elements in the file that are needed to split it.
+     */
+    private static class Layout {
+        /**
+         * The end of the start tag of the root element.
+         */
+        private long rootEnd;
+
+        /**
+         * The qualified name of the root element.
+         */
+        private String rootName;
+
+        /**
+         * The ClinicalData elements in document order.
+         */
+        private final List<ClinicalDataBlock> blocks = new ArrayList<>();
+    }
+
+    /**
+     * The positions of a ClinicalData element and its subjects.
+     */
+    private static class ClinicalDataBlock {
+        /**
+         * The start of the element.
+         */
+        private final long start;
+
+        /**
+         * The end of the start tag.
+         */
+        private final long startTagEnd;
+
+        /**
+         * The qualified name of the element.
+         */
+        private final String name;
+
+        /**
+         * The start and end of each SubjectData element.
+         */
+        private final List<long[]> subjects = new ArrayList<>();
+
+        /**
+         * The end of the element.
+         */
+        private long end;
+
+        /**
+         * The clinical data object that is passed to the handler with the subjects.
+         */
+        private ODMcomplexTypeDefinitionClinicalData clinicalData;
+
+        /**
+         * Construct a block.
+         *
+         * @param start       the start of the element.
+         * @param startTagEnd the end of the start tag.
+         * @param name        the qualified name of the element.
+         */
+        ClinicalDataBlock(final long start, final long startTagEnd, final String name) {
+            this.start = start;
+            this.startTagEnd = startTagEnd;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A memory-mapped file, mapped in parts so files larger than 2 GB are supported as well. The scan methods copy
+     * the file into a small window first, because scanning a byte array is much faster than reading the mapped
+     * buffers byte by byte; they are only used by the thread that scans the file.
+     */
+    private static class MappedFile {
+        /**
+         * The size of the file.
+         */
+        private final long size;
+
+        /**
+         * The mapped parts of the file.
+         */
+        private final MappedByteBuffer[] regions;
+
+        /**
+         * The window with a copy of a part of the file.
+         */
+        private final byte[] window = new byte[WINDOW_SIZE];
+
+        /**
+         * The position in the file of the first byte of the window.
+         */
+        private long windowStart;
+
+        /**
+         * The number of bytes in the window.
+         */
+        private int windowLength;
+
+        /**
+         * Map a file.
+         *
+         * @param channel the channel of the file.
+         * @throws IOException An input-output exception.
+         */
+        MappedFile(final FileChannel channel) throws IOException {
+            this.size = channel.size();
+            this.regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int index = 0; index < regions.length; index++) {
+                final long regionStart = index * REGION_SIZE;
+                regions[index] = channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+                                             Math.min(REGION_SIZE, size - regionStart));
+            }
+        }
+
+        /**
+         * Get a byte of the file.
+         *
+         * @param position the position of the byte.
+         * @return the byte.
+         */
+        byte byteAt(final long position) {
+            final long offset = position - windowStart;
+            if (offset >= 0 && offset < windowLength) {
+                return window[(int) offset];
+            }
+            final ByteBuffer region = regions[(int) (position >>> REGION_BITS)].duplicate();
+            region.position((int) (position & REGION_MASK));
+            windowStart = position;
+            windowLength = Math.min(window.length, region.remaining());
+            region.get(window, 0, windowLength);
+            return window[0];
+        }
+
+        /**
+         * Whether the file contains an ASCII string at a position.
+         *
+         * @param position the position.
+         * @param text     the string.
+         * @return whether the string is found.
+         */
+        boolean startsWith(final long position, final String text) {
+            if (position + text.length() > size) {
+                return false;
+            }
+            for (int index = 0; index < text.length(); index++) {
+                if (byteAt(position + index) != text.charAt(index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Find the next occurrence of an ASCII string.
+         *
+         * @param position the position to start searching.
+         * @param text     the string.
+         * @return the position of the string, or the size of the file if it is not found.
+         */
+        long indexOf(final long position, final String text) {
+            final byte first = (byte) text.charAt(0);
+            for (long index = indexOf(position, first); index < size; index = indexOf(index + 1, first)) {
+                if (startsWith(index, text)) {
+                    return index;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Find the next occurrence of a byte.
+         *
+         * @param position the position to start searching.
+         * @param value    the byte.
+         * @return the position of the byte, or the size of the file if it is not found.
+         */
+        long indexOf(final long position, final byte value) {
+            long index = position;
+            while (index < size) {
+                // Reading the byte moves the window to the position if needed.
+                byteAt(index);
+                for (int offset = (int) (index - windowStart); offset < windowLength; offset++) {
+                    if (window[offset] == value) {
+                        return windowStart + offset;
+                    }
+                }
+                index = windowStart + windowLength;
+            }
+            return size;
+        }
+
+        /**
+         * Find the end of a start tag, skipping the attribute values.
+         *
+         * @param position the start of the tag.
+         * @return the position right after the tag.
+         */
+        long findTagEnd(final long position) {
+            byte quote = 0;
+            long index = position;
+            while (index < size) {
+                // Reading the byte moves the window to the position if needed.
+                byteAt(index);
+                for (int offset = (int) (index - windowStart); offset < windowLength; offset++) {
+                    final byte value = window[offset];
+                    if (quote != 0) {
+                        if (value == quote) {
+                            quote = 0;
+                        }
+                    } else if (value == '"' || value == '\'') {
+                        quote = value;
+                    } else if (value == '>') {
+                        return windowStart + offset + 1;
+                    }
+                }
+                index = windowStart + windowLength;
+            }
+            return size;
+        }
+
+        /**
+         * Read the name of a tag.
+         *
+         * @param position the start of the name.
+         * @return the name, with each byte as one character.
+         */
+        String readName(final long position) {
+            final StringBuilder name = new StringBuilder();
+            for (long index = position; index < size; index++) {
+                final byte value = byteAt(index);
+                if (value == '>' || value == '/' || value == ' ' || value == '\t' || value == '\n' || value == '\r') {
+                    break;
+                }
+                name.append((char) (value & 0xFF));
+            }
+            return name.toString();
+        }
+
+        /**
+         * Create an input stream for a range of the file.
+         *
+         * @param start the start of the range.
+         * @param end   the end of the range.
+         * @return the input stream.
+         */
+        InputStream newInputStream(final long start, final long end) {
+            return new RangeInputStream(this, start, end);
+        }
+    }
+
+    /**
+     * An input stream for a range of a mapped file.
+     */
+    private static class RangeInputStream extends InputStream {
+        /**
+         * The mapped file.
+         */
+        private final MappedFile file;
+
+        /**
+         * The end of the range.
+         */
+        private final long end;
+
+        /**
+         * The current position.
+         */
+        private long position;
+
+        /**
+         * Construct an input stream.
+         *
+         * @param file  the mapped file.
+         * @param start the start of the range.
+         * @param end   the end of the range.
+         */
+        RangeInputStream(final MappedFile file, final long start, final long end) {
+            this.file = file;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            final byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) == 1 ? buffer[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            // Copy from a duplicate of the region, so concurrent readers do not share a buffer position.
+            final ByteBuffer region = file.regions[(int) (position >>> REGION_BITS)].duplicate();
+            final int regionOffset = (int) (position & REGION_MASK);
+            final int count = (int) Math.min(Math.min(length, end - position), region.limit() - regionOffset);
+            region.position(regionOffset);
+            region.get(buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The options for reading ODM files, which are shared by the {@link ODMLoader} and the {@link ODMParallelReader}. An
+ * options object is immutable and is created with a {@link Builder}; every option that is not set keeps its default.
+ *
+ * The options also create the filters and the string pool of a single read, because those keep counts and state
+ * that belong to one read.
+ */
+public final class ODMReadOptions {
+    /**
+     * The options with all defaults: the generated binding, the parser of the JDK, no skipped elements, the strings
+     * of the parser and all subjects.
+     */
+    public static final ODMReadOptions DEFAULT = builder().build();
+
+    /**
+     * The way in which the ODM elements are turned into objects.
+     */
+    private final ODMBinding binding;
+
+    /**
+     * The StAX parser that reads the ODM files.
+     */
+    private final XMLParser parser;
+
+    /**
+     * The local names of the elements that are skipped while parsing.
+     */
+    private final Set<String> skippedElementNames;
+
+    /**
+     * Whether identical OIDs and short values share a single string instance.
+     */
+    private final boolean canonicalizeStrings;
+
+    /**
+     * The subjects that are read; the others are skipped while parsing.
+     */
+    private final ODMSubjectSelection subjectSelection;
+
+    /**
+     * The number of bytes of subject data that the parallel reader parses in a single task.
+     */
+    private final long batchSize;
+
+    /**
+     * Construct the options from a builder.
+     *
+     * @param builder the builder with the options.
+     */
+    private ODMReadOptions(final Builder builder) {
+        this.binding = builder.binding;
+        this.parser = builder.parser;
+        this.skippedElementNames = Collections.unmodifiableSet(new LinkedHashSet<>(builder.skippedElementNames));
+        this.canonicalizeStrings = builder.canonicalizeStrings;
+        this.subjectSelection = builder.subjectSelection;
+        this.batchSize = builder.batchSize;
+    }
+
+    /**
+     * Create a builder with the default options.
+     *
+     * @return the builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the way in which the ODM elements are turned into objects.
+     *
+     * @return the binding.
+     */
+    public ODMBinding getBinding() {
+        return binding;
+    }
+
+    /**
+     * Get the StAX parser that reads the ODM files.
+     *
+     * @return the parser.
+     */
+    public XMLParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Get the local names of the elements that are skipped while parsing.
+     *
+     * @return the element names.
+     */
+    public Set<String> getSkippedElementNames() {
+        return skippedElementNames;
+    }
+
+    /**
+     * Check whether identical OIDs and short values share a single string instance.
+     *
+     * @return whether the strings are canonicalized.
+     */
+    public boolean isCanonicalizeStrings() {
+        return canonicalizeStrings;
+    }
+
+    /**
+     * Get the subjects that are read.
+     *
+     * @return the subject selection.
+     */
+    public ODMSubjectSelection getSubjectSelection() {
+        return subjectSelection;
+    }
+
+    /**
+     * Get the number of bytes of subject data that the parallel reader parses in a single task.
+     *
+     * @return the batch size.
+     */
+    public long getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Create the filter that skips the elements of a single read.
+     *
+     * @return the element filter.
+     */
+    public ODMElementFilter createElementFilter() {
+        return new ODMElementFilter(skippedElementNames);
+    }
+
+    /**
+     * Create the filter that skips the subjects of a single read.
+     *
+     * @return the subject filter.
+     */
+    public ODMSubjectFilter createSubjectFilter() {
+        return subjectSelection.createFilter();
+    }
+
+    /**
+     * Create the pool that canonicalizes the strings of a single read.
+     *
+     * @return the string pool, or null when the strings of the parser are kept as they are.
+     */
+    public ODMStringPool createStringPool() {
+        return canonicalizeStrings ? new ODMStringPool() : null;
+    }
+
+    /**
+     * A builder for the read options.
+     */
+    public static final class Builder {
+        /**
+         * The way in which the ODM elements are turned into objects.
+         */
+        private ODMBinding binding = ODMBinding.GENERATED;
+
+        /**
+         * The StAX parser that reads the ODM files.
+         */
+        private XMLParser parser = XMLParser.JDK;
+
+        /**
+         * The local names of the elements that are skipped while parsing.
+         */
+        private Collection<String> skippedElementNames = Collections.emptySet();
+
+        /**
+         * Whether identical OIDs and short values share a single string instance.
+         */
+        private boolean canonicalizeStrings;
+
+        /**
+         * The subjects that are read.
+         */
+        private ODMSubjectSelection subjectSelection = ODMSubjectSelection.ALL;
+
+        /**
+         * The number of bytes of subject data that the parallel reader parses in a single task.
+         */
+        private long batchSize = ODMParallelReader.DEFAULT_BATCH_SIZE;
+
+        /**
+         * Construct a builder with the default options.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Set the way in which the ODM elements are turned into objects; the default is the generated reader, with
+         * JAXB as fallback.
+         *
+         * @param binding the binding.
+         * @return this builder.
+         */
+        public Builder binding(final ODMBinding binding) {
+            this.binding = binding;
+            return this;
+        }
+
+        /**
+         * Set the StAX parser that reads the ODM files; the default is the parser of the JDK.
+         *
+         * @param parser the parser.
+         * @return this builder.
+         */
+        public Builder parser(final XMLParser parser) {
+            this.parser = parser;
+            return this;
+        }
+
+        /**
+         * Set the local names of the elements that are skipped (with all their content) while parsing, like the
+         * AuditRecord, Signature and Annotation elements that the conversion does not use; the default is none.
+         *
+         * @param skippedElementNames the element names.
+         * @return this builder.
+         */
+        public Builder skippedElementNames(final Collection<String> skippedElementNames) {
+            this.skippedElementNames = skippedElementNames;
+            return this;
+        }
+
+        /**
+         * Set whether identical OIDs and short values (like the ItemOID and the coded values of every ItemData
+         * element) share a single string instance; the default is false.
+         *
+         * @param canonicalizeStrings whether the strings are canonicalized.
+         * @return this builder.
+         */
+        public Builder canonicalizeStrings(final boolean canonicalizeStrings) {
+            this.canonicalizeStrings = canonicalizeStrings;
+            return this;
+        }
+
+        /**
+         * Set the subjects that are read; the SubjectData elements of the other subjects are skipped while parsing,
+         * which makes fast trial conversions possible. The default is all subjects.
+         *
+         * @param subjectSelection the subject selection.
+         * @return this builder.
+         */
+        public Builder subjectSelection(final ODMSubjectSelection subjectSelection) {
+            this.subjectSelection = subjectSelection;
+            return this;
+        }
+
+        /**
+         * Set the number of bytes of subject data that the parallel reader parses in a single task; the default is
+         * {@link ODMParallelReader#DEFAULT_BATCH_SIZE}.
+         *
+         * @param batchSize the batch size.
+         * @return this builder.
+         */
+        public Builder batchSize(final long batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Create the options.
+         *
+         * @return the options.
+         */
+        public ODMReadOptions build() {
+            return new ODMReadOptions(this);
+        }
+    }
+}
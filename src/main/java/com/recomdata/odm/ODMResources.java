@@ -0,0 +1,81 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.net.URL;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * The expensive objects that are shared by all the readers and loaders in the JVM: the JAXB context of the ODM
+ * classes and the compiled ODM schema. Both are created once, when they are first needed, and both are thread-safe,
+ * so processing many files in one JVM only pays for them once.
+ */
+public final class ODMResources {
+    /**
+     * The package with the JAXB classes of the ODM elements.
+     */
+    private static final String JAXB_PACKAGE = "org.cdisk.odm.jaxb";
+
+    /**
+     * The location of the main ODM schema file on the class path; the files it imports are next to it.
+     */
+    private static final String SCHEMA_RESOURCE = "/xsd/cdisc-odm-1.3.1/ODM1-3-1.xsd";
+
+    /**
+     * The JAXB context of the ODM classes.
+     */
+    private static JAXBContext jaxbContext;
+
+    /**
+     * The compiled ODM schema.
+     */
+    private static Schema schema;
+
+    /**
+     * Hidden constructor, because this class only has static methods.
+     */
+    private ODMResources() {
+    }
+
+    /**
+     * Get the JAXB context of the ODM classes. Unmarshallers and marshallers that are created from the context are not
+     * thread-safe, but the context itself is.
+     *
+     * @return the JAXB context.
+     * @throws JAXBException when the context cannot be created.
+     */
+    public static synchronized JAXBContext getJAXBContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(JAXB_PACKAGE);
+        }
+        return jaxbContext;
+    }
+
+    /**
+     * Get the compiled ODM 1.3.1 schema. Validators that are created from the schema are not thread-safe, but the
+     * schema itself is.
+     *
+     * @return the schema.
+     * @throws SAXException when the schema cannot be compiled.
+     */
+    public static synchronized Schema getSchema() throws SAXException {
+        if (schema == null) {
+            final URL schemaUrl = ODMResources.class.getResource(SCHEMA_RESOURCE);
+            if (schemaUrl == null) {
+                throw new SAXException("The ODM schema " + SCHEMA_RESOURCE + " is not on the class path.");
+            }
+            schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaUrl);
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * A reader that passes on all events of the wrapped reader, except those of the elements that a subclass decides to
+ * skip: each start tag is offered to {@link #shouldSkip()}, and a skipped element is left out with all its content.
+ * This is the base of the element, item and subject filters.
+ */
+abstract class ODMSkippingStreamReader extends StreamReaderDelegate {
+    /**
+     * Whether the character offsets of the skipped elements are passed to {@link #elementSkipped(long, int)}.
+     */
+    private final boolean offsetsTracked;
+
+    /**
+     * Construct a skipping reader.
+     *
+     * @param reader         the reader to wrap.
+     * @param offsetsTracked whether the character offset before each element is looked up, to measure what is
+     *                       skipped.
+     */
+    ODMSkippingStreamReader(final XMLStreamReader reader, final boolean offsetsTracked) {
+        super(reader);
+        this.offsetsTracked = offsetsTracked;
+    }
+
+    /**
+     * Check whether the element at the current start tag should be skipped.
+     *
+     * @return whether the element should be skipped.
+     */
+    protected abstract boolean shouldSkip();
+
+    /**
+     * Called after an element has been skipped, with the reader positioned at its end tag.
+     *
+     * @param elementCount the number of skipped elements, including the elements inside the skipped one.
+     * @param startOffset  the character offset before the start tag, or -1 if offsets are not tracked.
+     */
+    protected void elementSkipped(final long elementCount, final int startOffset) {
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int startOffset = getStartOffset();
+        int eventType = getParent().next();
+        while (eventType == XMLStreamConstants.START_ELEMENT && shouldSkip()) {
+            elementSkipped(skipElement(), startOffset);
+            startOffset = getStartOffset();
+            eventType = getParent().next();
+        }
+        return eventType;
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        // The delegate would call nextTag of the wrapped reader, which does not skip anything.
+        int eventType = next();
+        while (eventType == XMLStreamConstants.CHARACTERS && isWhiteSpace()
+               || eventType == XMLStreamConstants.CDATA && isWhiteSpace()
+               || eventType == XMLStreamConstants.SPACE
+               || eventType == XMLStreamConstants.PROCESSING_INSTRUCTION
+               || eventType == XMLStreamConstants.COMMENT) {
+            eventType = next();
+        }
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT) {
+            throw new XMLStreamException("Expected a start or end tag.", getLocation());
+        }
+        return eventType;
+    }
+
+    /**
+     * Get the character offset of the wrapped reader, if offsets are tracked.
+     *
+     * @return the character offset, or -1.
+     */
+    private int getStartOffset() {
+        return offsetsTracked ? getParent().getLocation().getCharacterOffset() : -1;
+    }
+
+    /**
+     * Move the wrapped reader from the start tag of a skipped element to its end tag.
+     *
+     * @return the number of skipped elements, including the elements inside the skipped one.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     */
+    private long skipElement() throws XMLStreamException {
+        long elementCount = 1;
+        int depth = 1;
+        while (depth > 0) {
+            final int eventType = getParent().next();
+            if (eventType == XMLStreamConstants.START_ELEMENT) {
+                elementCount++;
+                depth++;
+            } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return elementCount;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.IOException;
+
+import javax.xml.bind.JAXBException;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+
+/**
+ * Receives the parts of an ODM file while it is being streamed by the {@link ODMStreamReader}: first the complete
+ * metadata and then the subjects, one at a time.
+ */
+public interface ODMStreamHandler {
+
+    /**
+     * Handles the metadata. This method is called exactly once, after all the Study elements have been read and
+     * before the first subject is handed to {@link #processSubjectData}.
+     *
+     * @param odm the odm object with the studies, admin data and reference data, but without clinical data.
+     * @throws IOException   An input-output exception.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    void processMetaData(ODM odm) throws IOException, JAXBException;
+
+    /**
+     * Handles the data of one subject. The subject is not referenced by the stream reader anymore after this call,
+     * so it can be garbage collected as soon as the handler is done with it.
+     *
+     * @param clinicalData the clinical data block the subject belongs to. Only its attributes are filled; the
+     *                     subject data list is empty.
+     * @param subjectData  the complete data of one subject.
+     * @throws IOException   An input-output exception.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    void processSubjectData(ODMcomplexTypeDefinitionClinicalData clinicalData,
+                            ODMcomplexTypeDefinitionSubjectData subjectData) throws IOException, JAXBException;
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.IOException;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.cdisk.odm.jaxb.FileType;
+import org.cdisk.odm.jaxb.Granularity;
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionAdminData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionReferenceData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudy;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads an ODM file with a StAX stream reader instead of unmarshalling the whole file at once. The metadata (the
+ * Study elements, plus the AdminData and ReferenceData elements) is read completely with an {@link ODMElementReader}.
+ * The ClinicalData elements are walked with the stream reader and each SubjectData element is read on its own and
+ * passed to an {@link ODMStreamHandler}. The peak memory use therefore depends on the largest subject instead of on
+ * the size of the whole file.
+ *
+ * The AuditRecords, Signatures and Annotations elements of a ClinicalData block and the Association and Signature
+ * elements of the ODM root are skipped, since none of the converters use them.
+ */
+public class ODMStreamReader {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ODMStreamReader.class);
+
+    /**
+     * The name of the root element.
+     */
+    private static final String ODM_ELEMENT = "ODM";
+
+    /**
+     * The name of the study element.
+     */
+    private static final String STUDY_ELEMENT = "Study";
+
+    /**
+     * The name of the admin data element.
+     */
+    private static final String ADMIN_DATA_ELEMENT = "AdminData";
+
+    /**
+     * The name of the reference data element.
+     */
+    private static final String REFERENCE_DATA_ELEMENT = "ReferenceData";
+
+    /**
+     * The name of the clinical data element.
+     */
+    private static final String CLINICAL_DATA_ELEMENT = "ClinicalData";
+
+    /**
+     * The name of the subject data element.
+     */
+    private static final String SUBJECT_DATA_ELEMENT = "SubjectData";
+
+    /**
+     * The element reader that is used for the metadata and for the separate subjects.
+     */
+    private final ODMElementReader elementReader;
+
+    /**
+     * The stream reader that walks through the ODM file.
+     */
+    private final XMLStreamReader reader;
+
+    /**
+     * The odm object that is filled with everything except the clinical data.
+     */
+    private final ODM odm;
+
+    /**
+     * Whether the metadata has already been passed to the handler.
+     */
+    private boolean metaDataHandled;
+
+    /**
+     * The number of subjects that were passed to the handler.
+     */
+    private int subjectCount;
+
+    /**
+     * Construct a stream reader for one ODM file.
+     *
+     * @param elementReader the element reader for the org.cdisk.odm.jaxb classes.
+     * @param reader        the StAX reader, positioned at the start of the document.
+     */
+    public ODMStreamReader(final ODMElementReader elementReader, final XMLStreamReader reader) {
+        this.elementReader = elementReader;
+        this.reader = reader;
+        this.odm = new ODM();
+        this.metaDataHandled = false;
+        this.subjectCount = 0;
+    }
+
+    /**
+     * Read only the metadata: the attributes of the ODM root and the Study elements. Reading stops as soon as the
+     * last Study element is closed, so the rest of the file (including all the clinical data) is never parsed.
+     *
+     * @return the odm object with the studies.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     */
+    public ODM readMetaData() throws JAXBException, XMLStreamException {
+        while (reader.hasNext()) {
+            if (!reader.isStartElement()) {
+                reader.next();
+            } else {
+                final String elementName = reader.getLocalName();
+                if (ODM_ELEMENT.equals(elementName)) {
+                    readODMAttributes();
+                    reader.next();
+                } else if (STUDY_ELEMENT.equals(elementName)) {
+                    odm.getStudy().add(elementReader.read(reader, ODMcomplexTypeDefinitionStudy.class));
+                } else {
+                    // The ODM schema puts all Study elements before the other children of the root.
+                    break;
+                }
+            }
+        }
+        return odm;
+    }
+
+    /**
+     * Read the complete ODM file and pass the metadata and the subjects to the handler.
+     *
+     * @param handler the handler that processes the metadata and the subjects.
+     * @return the odm object with the metadata; its clinical data list is empty.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    public ODM read(final ODMStreamHandler handler) throws JAXBException, XMLStreamException, IOException {
+        readMetaData();
+        while (reader.hasNext()) {
+            if (!reader.isStartElement()) {
+                reader.next();
+            } else {
+                final String elementName = reader.getLocalName();
+                if (ADMIN_DATA_ELEMENT.equals(elementName)) {
+                    odm.getAdminData().add(elementReader.read(reader, ODMcomplexTypeDefinitionAdminData.class));
+                } else if (REFERENCE_DATA_ELEMENT.equals(elementName)) {
+                    odm.getReferenceData().add(
+                            elementReader.read(reader, ODMcomplexTypeDefinitionReferenceData.class));
+                } else if (CLINICAL_DATA_ELEMENT.equals(elementName)) {
+                    handleMetaData(handler);
+                    readClinicalData(handler);
+                } else {
+                    skipElement();
+                }
+            }
+        }
+        handleMetaData(handler);
+        logger.info("Streamed " + subjectCount + " subjects.");
+        return odm;
+    }
+
+    /**
+     * Copy the attributes of the ODM root element to the odm object. The date-time attributes are not used by the
+     * converters and are left empty.
+     */
+    private void readODMAttributes() {
+        odm.setDescription(reader.getAttributeValue(null, "Description"));
+        odm.setFileOID(reader.getAttributeValue(null, "FileOID"));
+        odm.setPriorFileOID(reader.getAttributeValue(null, "PriorFileOID"));
+        odm.setODMVersion(reader.getAttributeValue(null, "ODMVersion"));
+        odm.setOriginator(reader.getAttributeValue(null, "Originator"));
+        odm.setSourceSystem(reader.getAttributeValue(null, "SourceSystem"));
+        odm.setSourceSystemVersion(reader.getAttributeValue(null, "SourceSystemVersion"));
+        final String fileType = reader.getAttributeValue(null, "FileType");
+        if (fileType != null) {
+            odm.setFileType(FileType.fromValue(fileType));
+        }
+        final String granularity = reader.getAttributeValue(null, "Granularity");
+        if (granularity != null) {
+            odm.setGranularity(Granularity.fromValue(granularity));
+        }
+    }
+
+    /**
+     * Pass the metadata to the handler, if that has not been done yet.
+     *
+     * @param handler the handler that processes the metadata.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     * @throws IOException   An input-output exception.
+     */
+    private void handleMetaData(final ODMStreamHandler handler) throws JAXBException, IOException {
+        if (!metaDataHandled) {
+            metaDataHandled = true;
+            handler.processMetaData(odm);
+        }
+    }
+
+    /**
+     * Walk through one ClinicalData element and pass each subject to the handler. The reader is positioned at the
+     * start of the ClinicalData element and is left right after its end.
+     *
+     * @param handler the handler that processes the subjects.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    private void readClinicalData(final ODMStreamHandler handler)
+            throws JAXBException, XMLStreamException, IOException {
+        final ODMcomplexTypeDefinitionClinicalData clinicalData = new ODMcomplexTypeDefinitionClinicalData();
+        clinicalData.setStudyOID(reader.getAttributeValue(null, "StudyOID"));
+        clinicalData.setMetaDataVersionOID(reader.getAttributeValue(null, "MetaDataVersionOID"));
+        reader.next();
+
+        while (!reader.isEndElement()) {
+            if (!reader.isStartElement()) {
+                reader.next();
+            } else if (SUBJECT_DATA_ELEMENT.equals(reader.getLocalName())) {
+                final ODMcomplexTypeDefinitionSubjectData subjectData =
+                        elementReader.read(reader, ODMcomplexTypeDefinitionSubjectData.class);
+                handler.processSubjectData(clinicalData, subjectData);
+                subjectCount++;
+            } else {
+                skipElement();
+            }
+        }
+        reader.next();
+    }
+
+    /**
+     * Skip the element at which the reader is positioned, including all its children. The reader is left right
+     * after the end of the element.
+     *
+     * @throws XMLStreamException When the XML cannot be parsed.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        reader.next();
+    }
+}
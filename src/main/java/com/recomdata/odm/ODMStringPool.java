@@ -0,0 +1,207 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * A pool that makes identical strings from an ODM file share a single instance. The parser creates a new string for
+ * every attribute value, so without the pool each ItemData element keeps its own copy of its ItemOID and of coded
+ * values like "1" and "0", which are repeated for every subject.
+ *
+ * The pool wraps the StAX reader, so it works for both the generated reader and JAXB. It keeps OIDs (the values of
+ * attributes whose name ends with OID) and other short values. Longer values, like dates and free text, are mostly
+ * unique and are passed on as they are. The number of pooled strings is limited, so the memory use of the pool stays
+ * bounded for files with many different values. A single pool can wrap the readers of several threads.
+ */
+public class ODMStringPool {
+    /**
+     * The maximum number of strings in the pool.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The maximum length of a pooled OID.
+     */
+    private static final int MAX_OID_LENGTH = 128;
+
+    /**
+     * The maximum length of another pooled value.
+     */
+    private static final int MAX_VALUE_LENGTH = 8;
+
+    /**
+     * The suffix of the names of the attributes that contain an OID.
+     */
+    private static final String OID_SUFFIX = "OID";
+
+    /**
+     * The maximum number of strings in the pool.
+     */
+    private final int capacity;
+
+    /**
+     * The canonical instance of each pooled string.
+     */
+    private final ConcurrentMap<String, String> strings;
+
+    /**
+     * The number of strings that were replaced by an instance from the pool.
+     */
+    private final AtomicLong sharedStringCount = new AtomicLong();
+
+    /**
+     * The estimated number of bytes of the strings that were replaced by an instance from the pool.
+     */
+    private final AtomicLong savedByteCount = new AtomicLong();
+
+    /**
+     * Construct a pool with the default capacity.
+     */
+    public ODMStringPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct a pool.
+     *
+     * @param capacity the maximum number of strings in the pool.
+     */
+    public ODMStringPool(final int capacity) {
+        this.capacity = capacity;
+        this.strings = new ConcurrentHashMap<>(Math.min(capacity, 1 << 10));
+    }
+
+    /**
+     * Wrap a StAX reader, so the attribute values and texts that it returns come from the pool.
+     *
+     * @param reader the reader to wrap.
+     * @return the pooling reader.
+     */
+    public XMLStreamReader apply(final XMLStreamReader reader) {
+        return new PoolingStreamReader(reader);
+    }
+
+    /**
+     * Get the canonical instance of a string. A string that is not in the pool yet is added, unless the pool is full.
+     *
+     * @param string the string, which may be null.
+     * @return the pooled string, or the string itself if it is not in the pool.
+     */
+    public String canonicalize(final String string) {
+        if (string == null) {
+            return null;
+        }
+        final String pooled = strings.get(string);
+        if (pooled != null) {
+            if (pooled != string) {
+                sharedStringCount.incrementAndGet();
+                savedByteCount.addAndGet(estimateSize(string));
+            }
+            return pooled;
+        }
+        if (strings.size() >= capacity) {
+            return string;
+        }
+        final String previous = strings.putIfAbsent(string, string);
+        return previous != null ? previous : string;
+    }
+
+    /**
+     * Get the number of strings in the pool.
+     *
+     * @return the number of pooled strings.
+     */
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * Get the number of strings that were replaced by an instance from the pool.
+     *
+     * @return the number of shared strings.
+     */
+    public long getSharedStringCount() {
+        return sharedStringCount.get();
+    }
+
+    /**
+     * Get the estimated number of bytes that were saved by the pool: the size of the string objects that could be
+     * garbage collected because the pooled instance was used instead.
+     *
+     * @return the number of saved bytes.
+     */
+    public long getSavedByteCount() {
+        return savedByteCount.get();
+    }
+
+    /**
+     * Estimate the heap size of a string on a 64-bit JVM with compressed references: a 24 byte string object and a
+     * character array with a 16 byte header, rounded up to a multiple of 8 bytes.
+     *
+     * @param string the string.
+     * @return the estimated size in bytes.
+     */
+    private static long estimateSize(final String string) {
+        return 24 + ((16 + 2 * string.length() + 7) & ~7);
+    }
+
+    /**
+     * Check whether the value of an attribute should be pooled.
+     *
+     * @param localName the local name of the attribute.
+     * @param value     the value.
+     * @return whether the value is an OID or a short value.
+     */
+    private static boolean isPooled(final String localName, final String value) {
+        return value.length() <= MAX_VALUE_LENGTH
+               || value.length() <= MAX_OID_LENGTH && localName.endsWith(OID_SUFFIX);
+    }
+
+    /**
+     * A reader that returns pooled attribute values and texts.
+     */
+    private class PoolingStreamReader extends StreamReaderDelegate {
+        /**
+         * Construct a pooling reader.
+         *
+         * @param reader the reader to wrap.
+         */
+        PoolingStreamReader(final XMLStreamReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public String getAttributeValue(final int index) {
+            final String value = super.getAttributeValue(index);
+            return value != null && isPooled(super.getAttributeLocalName(index), value) ? canonicalize(value) : value;
+        }
+
+        @Override
+        public String getAttributeValue(final String namespaceURI, final String localName) {
+            final String value = super.getAttributeValue(namespaceURI, localName);
+            return value != null && isPooled(localName, value) ? canonicalize(value) : value;
+        }
+
+        @Override
+        public String getText() {
+            final String text = super.getText();
+            return text != null && text.length() <= MAX_VALUE_LENGTH ? canonicalize(text) : text;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            final String text = super.getElementText();
+            return text != null && text.length() <= MAX_VALUE_LENGTH ? canonicalize(text) : text;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A filter that skips the SubjectData elements of the subjects that a {@link ODMSubjectSelection} leaves out while an
+ * ODM file is parsed, so they are never turned into objects. A filter belongs to a single read: it counts the
+ * selected and skipped subjects, and it keeps track of the limit. A filter without a limit can wrap the readers of
+ * several threads.
+ *
+ * With a limit, a subject that appears in several ClinicalData elements is selected every time but counted once. As
+ * soon as the limit is reached and the current ClinicalData element is closed, the filtering reader ends the document:
+ * it reports the end of the root element without reading the rest of the file, so a trial conversion of the first
+ * subjects does not parse the whole file.
+ */
+public class ODMSubjectFilter {
+    /**
+     * The local name of the SubjectData element.
+     */
+    private static final String SUBJECT_DATA_ELEMENT = "SubjectData";
+
+    /**
+     * The local name of the ClinicalData element.
+     */
+    private static final String CLINICAL_DATA_ELEMENT = "ClinicalData";
+
+    /**
+     * The selection that is applied.
+     */
+    private final ODMSubjectSelection selection;
+
+    /**
+     * The number of selected subjects.
+     */
+    private final AtomicLong selectedSubjectCount = new AtomicLong();
+
+    /**
+     * The number of skipped subjects.
+     */
+    private final AtomicLong skippedSubjectCount = new AtomicLong();
+
+    /**
+     * The keys of the selected subjects when there is a limit, so reappearing subjects are counted once. A filter
+     * with a limit belongs to a single thread.
+     */
+    private final Set<String> selectedSubjectKeys = new HashSet<>();
+
+    /**
+     * Construct a filter.
+     *
+     * @param selection the selection that is applied.
+     */
+    public ODMSubjectFilter(final ODMSubjectSelection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Wrap a StAX reader, so the SubjectData elements of the subjects that are not selected are left out of its
+     * events. When all subjects are selected, the reader itself is returned.
+     *
+     * @param reader the reader to wrap.
+     * @return the filtering reader.
+     */
+    public XMLStreamReader apply(final XMLStreamReader reader) {
+        return selection.isActive() ? new SubjectSkippingStreamReader(reader) : reader;
+    }
+
+    /**
+     * Check whether this filter skips any subjects.
+     *
+     * @return whether the selection leaves out any subjects.
+     */
+    public boolean isActive() {
+        return selection.isActive();
+    }
+
+    /**
+     * Get the selection that is applied.
+     *
+     * @return the subject selection.
+     */
+    public ODMSubjectSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Get the number of subjects that have been selected. With a limit, this is the number of distinct subject keys.
+     *
+     * @return the number of selected subjects.
+     */
+    public long getSelectedSubjectCount() {
+        return selectedSubjectCount.get();
+    }
+
+    /**
+     * Get the number of subjects that have been skipped.
+     *
+     * @return the number of skipped subjects.
+     */
+    public long getSkippedSubjectCount() {
+        return skippedSubjectCount.get();
+    }
+
+    /**
+     * Check whether a subject is selected, and count it.
+     *
+     * @param subjectKey the subject key.
+     * @return whether the subject is selected.
+     */
+    private boolean select(final String subjectKey) {
+        if (selection.isCandidate(subjectKey)) {
+            if (!selection.hasLimit()) {
+                selectedSubjectCount.incrementAndGet();
+                return true;
+            }
+            if (selectedSubjectKeys.contains(subjectKey)) {
+                return true;
+            }
+            if (!isLimitReached()) {
+                selectedSubjectKeys.add(subjectKey);
+                selectedSubjectCount.incrementAndGet();
+                return true;
+            }
+        }
+        skippedSubjectCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Check whether the limit has been reached, so no new subjects will be selected.
+     *
+     * @return whether there is a limit and that many subjects have been selected.
+     */
+    private boolean isLimitReached() {
+        return selection.hasLimit() && selectedSubjectKeys.size() >= selection.getLimit();
+    }
+
+    /**
+     * A reader that passes on all events except those of the subjects that are not selected. After the limit has been
+     * reached and a ClinicalData element is closed, it reports the end of the root element and the end of the
+     * document itself, instead of reading them from the wrapped reader.
+     */
+    private class SubjectSkippingStreamReader extends ODMSkippingStreamReader {
+        /**
+         * The name of the root element, or null before it has been read.
+         */
+        private QName rootName;
+
+        /**
+         * The namespace prefixes that the root element declares.
+         */
+        private String[] rootNamespacePrefixes;
+
+        /**
+         * The namespace URIs that the root element declares.
+         */
+        private String[] rootNamespaceURIs;
+
+        /**
+         * The event that this reader reports itself (the end of the root element or the end of the document), or 0
+         * while the events of the wrapped reader are passed on.
+         */
+        private int endEventType;
+
+        /**
+         * Construct a subject skipping reader.
+         *
+         * @param reader the reader to wrap.
+         */
+        SubjectSkippingStreamReader(final XMLStreamReader reader) {
+            super(reader, false);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            if (endEventType != 0) {
+                if (endEventType == XMLStreamConstants.END_DOCUMENT) {
+                    throw new NoSuchElementException("The end of the document has been reached.");
+                }
+                endEventType = XMLStreamConstants.END_DOCUMENT;
+                return endEventType;
+            }
+            if (rootName != null && super.getEventType() == XMLStreamConstants.END_ELEMENT
+                && CLINICAL_DATA_ELEMENT.equals(super.getLocalName()) && isLimitReached()) {
+                endEventType = XMLStreamConstants.END_ELEMENT;
+                return endEventType;
+            }
+            final int eventType = super.next();
+            if (eventType == XMLStreamConstants.START_ELEMENT && rootName == null) {
+                saveRootElement();
+            }
+            return eventType;
+        }
+
+        @Override
+        public boolean hasNext() throws XMLStreamException {
+            return endEventType != 0 ? endEventType != XMLStreamConstants.END_DOCUMENT : super.hasNext();
+        }
+
+        @Override
+        public int getEventType() {
+            return endEventType != 0 ? endEventType : super.getEventType();
+        }
+
+        @Override
+        public boolean isStartElement() {
+            return endEventType != 0 ? false : super.isStartElement();
+        }
+
+        @Override
+        public boolean isEndElement() {
+            return endEventType != 0 ? endEventType == XMLStreamConstants.END_ELEMENT : super.isEndElement();
+        }
+
+        @Override
+        public boolean isCharacters() {
+            return endEventType != 0 ? false : super.isCharacters();
+        }
+
+        @Override
+        public boolean isWhiteSpace() {
+            return endEventType != 0 ? false : super.isWhiteSpace();
+        }
+
+        @Override
+        public boolean hasText() {
+            return endEventType != 0 ? false : super.hasText();
+        }
+
+        @Override
+        public boolean hasName() {
+            return endEventType != 0 ? endEventType == XMLStreamConstants.END_ELEMENT : super.hasName();
+        }
+
+        @Override
+        public QName getName() {
+            return endEventType != 0 ? rootName : super.getName();
+        }
+
+        @Override
+        public String getLocalName() {
+            return endEventType != 0 ? rootName.getLocalPart() : super.getLocalName();
+        }
+
+        @Override
+        public String getNamespaceURI() {
+            return endEventType != 0 ? rootName.getNamespaceURI() : super.getNamespaceURI();
+        }
+
+        @Override
+        public String getPrefix() {
+            return endEventType != 0 ? rootName.getPrefix() : super.getPrefix();
+        }
+
+        @Override
+        public int getNamespaceCount() {
+            return endEventType != 0 ? rootNamespacePrefixes.length : super.getNamespaceCount();
+        }
+
+        @Override
+        public String getNamespacePrefix(final int index) {
+            return endEventType != 0 ? rootNamespacePrefixes[index] : super.getNamespacePrefix(index);
+        }
+
+        @Override
+        public String getNamespaceURI(final int index) {
+            return endEventType != 0 ? rootNamespaceURIs[index] : super.getNamespaceURI(index);
+        }
+
+        /**
+         * Save the name and the namespace declarations of the root element, so its end can be reported when the rest
+         * of the document is not read.
+         */
+        private void saveRootElement() {
+            rootName = super.getName();
+            final int namespaceCount = super.getNamespaceCount();
+            rootNamespacePrefixes = new String[namespaceCount];
+            rootNamespaceURIs = new String[namespaceCount];
+            for (int index = 0; index < namespaceCount; index++) {
+                rootNamespacePrefixes[index] = super.getNamespacePrefix(index);
+                rootNamespaceURIs[index] = super.getNamespaceURI(index);
+            }
+        }
+
+        @Override
+        protected boolean shouldSkip() {
+            return SUBJECT_DATA_ELEMENT.equals(getLocalName()) && !select(getAttributeValue(null, "SubjectKey"));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The subjects that are converted, which makes a fast trial conversion of a large study possible. A subject can be
+ * selected by its SubjectKey in three ways, which can be combined:
+ * <ul>
+ *     <li>a whitelist with the subject keys;</li>
+ *     <li>a deterministic sample of about one in every n subjects, based on a hash of the subject key, so the same
+ *     subjects are selected in every run and in every version of the file;</li>
+ *     <li>a limit: only the first n subjects (in document order) that pass the other two are selected.</li>
+ * </ul>
+ *
+ * The subjects that are not selected are skipped while the file is parsed (see {@link ODMSubjectFilter}). The
+ * metadata is always read completely, so all columns are still written. A selection is immutable and can be shared.
+ */
+public final class ODMSubjectSelection {
+    /**
+     * The selection with all subjects.
+     */
+    public static final ODMSubjectSelection ALL = new ODMSubjectSelection(null, 0, 0);
+
+    /**
+     * The character that starts a comment line in a whitelist file.
+     */
+    private static final String COMMENT_PREFIX = "#";
+
+    /**
+     * The selected subject keys, or null to select all subject keys.
+     */
+    private final Set<String> subjectKeys;
+
+    /**
+     * One out of this many subjects is selected by the sample; 0 or 1 selects all subjects.
+     */
+    private final int sampleModulus;
+
+    /**
+     * The maximum number of selected subjects; 0 means no limit.
+     */
+    private final int limit;
+
+    /**
+     * Construct a selection.
+     *
+     * @param subjectKeys   the whitelist with the selected subject keys, or null to select all subject keys.
+     * @param sampleModulus one out of this many subjects is selected; 0 or 1 selects all subjects.
+     * @param limit         the maximum number of selected subjects; 0 means no limit.
+     */
+    public ODMSubjectSelection(final Collection<String> subjectKeys, final int sampleModulus, final int limit) {
+        if (sampleModulus < 0 || limit < 0) {
+            throw new IllegalArgumentException("The sample modulus and the limit cannot be negative.");
+        }
+        this.subjectKeys = subjectKeys != null ? Collections.unmodifiableSet(new LinkedHashSet<>(subjectKeys)) : null;
+        this.sampleModulus = sampleModulus;
+        this.limit = limit;
+    }
+
+    /**
+     * Read a whitelist file with one subject key on each line. Empty lines and lines that start with # are ignored.
+     *
+     * @param path the path of the whitelist file.
+     * @return the subject keys.
+     * @throws IOException When the file cannot be read.
+     */
+    public static List<String> readSubjectKeys(final Path path) throws IOException {
+        final List<String> subjectKeys = new ArrayList<>();
+        for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final String subjectKey = line.trim();
+            if (!subjectKey.isEmpty() && !subjectKey.startsWith(COMMENT_PREFIX)) {
+                subjectKeys.add(subjectKey);
+            }
+        }
+        return subjectKeys;
+    }
+
+    /**
+     * Check whether this selection leaves out any subjects.
+     *
+     * @return whether there is a whitelist, a sample or a limit.
+     */
+    public boolean isActive() {
+        return subjectKeys != null || sampleModulus > 1 || limit > 0;
+    }
+
+    /**
+     * Check whether the number of subjects is limited. The first subjects can only be found in document order, so a
+     * limited selection cannot be read by several threads.
+     *
+     * @return whether there is a limit.
+     */
+    public boolean hasLimit() {
+        return limit > 0;
+    }
+
+    /**
+     * Get the maximum number of selected subjects.
+     *
+     * @return the limit, or 0 if there is no limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Check whether a subject passes the whitelist and the sample. The limit is applied by the filter of a read.
+     *
+     * @param subjectKey the subject key.
+     * @return whether the subject is on the whitelist (if any) and in the sample (if any).
+     */
+    public boolean isCandidate(final String subjectKey) {
+        if (subjectKeys != null && !subjectKeys.contains(subjectKey)) {
+            return false;
+        }
+        return sampleModulus <= 1
+               || subjectKey != null && (mix(subjectKey.hashCode()) & Integer.MAX_VALUE) % sampleModulus == 0;
+    }
+
+    /**
+     * Create the filter that applies this selection to a single read.
+     *
+     * @return the subject filter.
+     */
+    public ODMSubjectFilter createFilter() {
+        return new ODMSubjectFilter(this);
+    }
+
+    /**
+     * Spread the bits of a hash code, so subject keys that only differ in their last digit (like SS_001 and SS_002)
+     * do not end up in a regular pattern in the sample. This is the finalization step of MurmurHash3.
+     *
+     * @param hashCode the hash code of the subject key, which is the same in every JVM.
+     * @return the mixed hash code.
+     */
+    private static int mix(final int hashCode) {
+        int hash = hashCode;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        if (!isActive()) {
+            return "all subjects";
+        }
+        final List<String> parts = new ArrayList<>();
+        if (subjectKeys != null) {
+            parts.add("the " + subjectKeys.size() + " subjects of the whitelist");
+        }
+        if (sampleModulus > 1) {
+            parts.add("a sample of one in " + sampleModulus + " subjects");
+        }
+        if (limit > 0) {
+            parts.add("at most " + limit + " subjects");
+        }
+        final StringBuilder description = new StringBuilder();
+        for (final String part : parts) {
+            description.append(description.length() > 0 ? ", " : "").append(part);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXParseException;
+
+/**
+ * The result of validating an ODM document against the ODM schema. It collects the errors that the validator reports
+ * (and a fatal error, after which the validation stops), keeping the messages of the first few.
+ */
+public class ODMValidationResult implements ErrorHandler {
+    /**
+     * The maximum number of error messages that are kept.
+     */
+    private static final int MAX_MESSAGE_COUNT = 20;
+
+    /**
+     * The name of the document that was validated.
+     */
+    private final String documentName;
+
+    /**
+     * The messages of the first errors.
+     */
+    private final List<String> messages = new ArrayList<>();
+
+    /**
+     * The number of errors.
+     */
+    private int errorCount;
+
+    /**
+     * Construct an empty result.
+     *
+     * @param documentName the name of the document that is validated.
+     */
+    public ODMValidationResult(final String documentName) {
+        this.documentName = documentName;
+    }
+
+    @Override
+    public void warning(final SAXParseException exception) {
+        // Warnings do not make a document invalid.
+    }
+
+    @Override
+    public void error(final SAXParseException exception) {
+        addError(exception);
+    }
+
+    @Override
+    public void fatalError(final SAXParseException exception) throws SAXParseException {
+        addError(exception);
+        throw exception;
+    }
+
+    /**
+     * Add an error that is not reported by the validator itself, like an input-output problem.
+     *
+     * @param exception the exception.
+     */
+    public void addError(final Exception exception) {
+        errorCount++;
+        if (messages.size() < MAX_MESSAGE_COUNT) {
+            if (exception instanceof SAXParseException) {
+                final SAXParseException parseException = (SAXParseException) exception;
+                messages.add("line " + parseException.getLineNumber() + ", column "
+                             + parseException.getColumnNumber() + ": " + parseException.getMessage());
+            } else {
+                messages.add(exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the name of the document that was validated.
+     *
+     * @return the document name.
+     */
+    public String getDocumentName() {
+        return documentName;
+    }
+
+    /**
+     * Check whether the document is valid.
+     *
+     * @return whether no errors were found.
+     */
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    /**
+     * Get the number of errors.
+     *
+     * @return the number of errors.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Get the messages of the first errors.
+     *
+     * @return the error messages.
+     */
+    public List<String> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+}
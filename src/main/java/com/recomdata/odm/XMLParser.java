@@ -0,0 +1,68 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * The StAX parsers that can read the ODM files. The parser is set with the xml-parser property in the configuration
+ * file. Each parser creates its own factory directly, instead of using XMLInputFactory.newInstance(), because that
+ * method returns whichever implementation happens to be registered first on the class path.
+ */
+public enum XMLParser {
+    /**
+     * The parser that is built into the JDK (SJSXP).
+     */
+    JDK {
+        @Override
+        public XMLInputFactory createInputFactory() {
+            try {
+                // Java 9 and later have a method for this; Java 8 only has the internal class.
+                try {
+                    return (XMLInputFactory) XMLInputFactory.class.getMethod("newDefaultFactory").invoke(null);
+                } catch (final NoSuchMethodException e) {
+                    return (XMLInputFactory) Class.forName(JDK_FACTORY_CLASS_NAME).newInstance();
+                }
+            } catch (final ReflectiveOperationException e) {
+                throw new FactoryConfigurationError(e, "The StAX parser of the JDK is not available.");
+            }
+        }
+    },
+
+    /**
+     * The Woodstox parser.
+     */
+    WOODSTOX {
+        @Override
+        public XMLInputFactory createInputFactory() {
+            return new com.ctc.wstx.stax.WstxInputFactory();
+        }
+    },
+
+    /**
+     * The Aalto parser, which is optimized for speed.
+     */
+    AALTO {
+        @Override
+        public XMLInputFactory createInputFactory() {
+            return new com.fasterxml.aalto.stax.InputFactoryImpl();
+        }
+    };
+
+    /**
+     * The class name of the input factory of the JDK before Java 9.
+     */
+    private static final String JDK_FACTORY_CLASS_NAME = "com.sun.xml.internal.stream.XMLInputFactoryImpl";
+
+    /**
+     * Create a new input factory for this parser. A factory is not guaranteed to be thread-safe, so each thread
+     * should use its own factory.
+     *
+     * @return the input factory.
+     */
+    public abstract XMLInputFactory createInputFactory();
+}
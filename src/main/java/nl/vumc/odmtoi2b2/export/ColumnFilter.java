@@ -7,6 +7,7 @@ import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
@@ -62,6 +63,14 @@ public class ColumnFilter {
         return !excludedItemList.contains(oidPath);
     }
 
+    /**
+     * Get the excluded items.
+     * @return the StudyEvent_Name, Form_Name, ItemGroup_Name and Item_Name of the excluded items.
+     */
+    public List<String> getExcludedItems() {
+        return Collections.unmodifiableList(excludedItemList);
+    }
+
     /**
      * Load a file from the specified path.
      * @param filePath the path to the file
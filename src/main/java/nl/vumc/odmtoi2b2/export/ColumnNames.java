@@ -0,0 +1,97 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The full human-readable names of the columns, which are used as identifiers within tranSMART and should therefore be
+ * unique. When the preferred name of an item is taken already, the candidates are tried in a fixed order: the item
+ * name, the item name with the item OID and finally the item name with the OID and an ordinal. So the same metadata
+ * always results in the same column names.
+ */
+public class ColumnNames {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ColumnNames.class);
+
+    /**
+     * The separator between the name path and the item name in a full name.
+     */
+    private static final String SEPARATOR = "+";
+
+    /**
+     * The full names that are taken.
+     */
+    private final Set<String> fullNames = new HashSet<>();
+
+    /**
+     * The next ordinal to try by full name with OID, so many duplicates do not try the same ordinals over and over.
+     */
+    private final Map<String, Integer> nextOrdinals = new HashMap<>();
+
+    /**
+     * Choose a unique name for a column and take its full name.
+     *
+     * @param namePath      the names of the study event, form and item group, which are part of the full name.
+     * @param preferredName the preferred name of the item, usually its question.
+     * @param itemName      the name of the item.
+     * @param itemOID       the OID of the item.
+     * @return the unique name of the column (without the name path).
+     */
+    public String takeUniqueName(final String namePath, final String preferredName, final String itemName,
+                                 final String itemOID) {
+        if (take(namePath, preferredName)) {
+            return preferredName;
+        }
+        logger.warn("\"" + namePath + SEPARATOR + preferredName + "\" was found more than once. "
+                    + itemName + " is now taken as preferred name.");
+        if (take(namePath, itemName)) {
+            return itemName;
+        }
+        final String nameWithOID = itemName + " (" + itemOID + ")";
+        final String fullNameWithOID = namePath + SEPARATOR + nameWithOID;
+        String uniqueName = nameWithOID;
+        if (!take(namePath, uniqueName)) {
+            int ordinal = nextOrdinals.containsKey(fullNameWithOID) ? nextOrdinals.get(fullNameWithOID) : 2;
+            do {
+                uniqueName = nameWithOID + " (" + ordinal + ")";
+                ordinal++;
+            } while (!take(namePath, uniqueName));
+            nextOrdinals.put(fullNameWithOID, ordinal);
+        }
+        logger.warn("\"" + namePath + SEPARATOR + itemName + "\" was found more than once. "
+                    + uniqueName + " is now taken as preferred name.");
+        return uniqueName;
+    }
+
+    /**
+     * Get the number of full names that are taken.
+     *
+     * @return the number of full names.
+     */
+    public int size() {
+        return fullNames.size();
+    }
+
+    /**
+     * Take a full name if it is still available.
+     *
+     * @param namePath the name path.
+     * @param name     the name of the column.
+     * @return whether the full name was available.
+     */
+    private boolean take(final String namePath, final String name) {
+        return fullNames.add(namePath + SEPARATOR + name);
+    }
+}
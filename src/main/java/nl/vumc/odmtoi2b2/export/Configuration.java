@@ -11,7 +11,14 @@ package nl.vumc.odmtoi2b2.export;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.Set;
+
+import com.recomdata.odm.ODMBinding;
+import com.recomdata.odm.XMLParser;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +57,82 @@ public class Configuration {
      */
     private boolean avoidTransmartSymbolBugs;
 
+    /**
+     * The way in which the ODM file is read: as one object tree or streamed subject by subject.
+     */
+    private IngestionMode ingestionMode = IngestionMode.TREE;
+
+    /**
+     * The number of threads that read the subjects in the parallel ingestion mode.
+     */
+    private int parallelThreadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The way in which the ODM elements are turned into objects: with the generated reader or with JAXB.
+     */
+    private ODMBinding odmBinding = ODMBinding.GENERATED;
+
+    /**
+     * The StAX parser that reads the ODM file.
+     */
+    private XMLParser xmlParser = XMLParser.JDK;
+
+    /**
+     * The local names of the elements that are skipped while the ODM file is parsed.
+     */
+    private Set<String> skippedElementNames = Collections.emptySet();
+
+    /**
+     * A boolean that indicates whether identical OIDs and short values should share a single string instance.
+     */
+    private boolean canonicalizeStrings;
+
+    /**
+     * A boolean that indicates whether the ODM file should be validated against the ODM schema.
+     */
+    private boolean validateSchema;
+
+    /**
+     * A boolean that indicates whether only the metadata should be converted, leaving the clinical data alone.
+     */
+    private boolean metaDataOnly;
+
+    /**
+     * A boolean that indicates whether the rows of each subject are written to the clinical data file as soon as the
+     * subject has been converted, instead of keeping all rows in memory until the end.
+     */
+    private boolean streamClinicalData;
+
+    /**
+     * The path of the file with the subject keys of the subjects to convert, or null to convert all subjects.
+     */
+    private String subjectWhitelistPath;
+
+    /**
+     * The maximum number of subjects to convert; 0 means no limit.
+     */
+    private int subjectLimit;
+
+    /**
+     * One out of this many subjects is converted; 0 or 1 converts all subjects.
+     */
+    private int subjectSampleModulus;
+
+    /**
+     * The directory with the snapshots of the processed metadata, or null to process the metadata in every run.
+     */
+    private String metaDataCacheDirectory;
+
+    /**
+     * The languages in which the descriptions, questions and decodes of the metadata are taken.
+     */
+    private LanguagePreference languagePreference = LanguagePreference.DEFAULT;
+
+    /**
+     * The directory with the dictionaries of external code lists, or null if external code lists are not decoded.
+     */
+    private String externalCodeListDirectory;
+
     /**
      * Construct the configuration object by reading in the properties in the configuration file.
      *
@@ -68,6 +151,33 @@ public class Configuration {
             this.forbiddenSymbolRegex = properties.getProperty("forbidden-symbols-regex");
             final String avoidTransmartSymbolBugsAsString = properties.getProperty("avoid-transmart-symbol-bugs");
             this.avoidTransmartSymbolBugs = Boolean.parseBoolean(avoidTransmartSymbolBugsAsString);
+            this.ingestionMode = parseEnumProperty(properties.getProperty("ingestion-mode"), IngestionMode.TREE);
+            this.parallelThreadCount = parseThreadCount(properties.getProperty("parallel-threads"));
+            this.odmBinding = parseEnumProperty(properties.getProperty("odm-binding"), ODMBinding.GENERATED);
+            this.xmlParser = parseEnumProperty(properties.getProperty("xml-parser"), XMLParser.JDK);
+            this.skippedElementNames = parseNames(properties.getProperty("skipped-elements"));
+            this.canonicalizeStrings = Boolean.parseBoolean(properties.getProperty("canonicalize-strings"));
+            this.validateSchema = Boolean.parseBoolean(properties.getProperty("validate-schema"));
+            this.metaDataOnly = Boolean.parseBoolean(properties.getProperty("metadata-only"));
+            this.streamClinicalData = Boolean.parseBoolean(properties.getProperty("stream-clinical-data"));
+            final String subjectWhitelistPathAsString = properties.getProperty("subject-whitelist-file");
+            this.subjectWhitelistPath = subjectWhitelistPathAsString != null
+                                        && !"".equals(subjectWhitelistPathAsString.trim())
+                                        ? subjectWhitelistPathAsString.trim()
+                                        : null;
+            this.subjectLimit = parseCount(properties.getProperty("subject-limit"), "subject limit");
+            this.subjectSampleModulus = parseCount(properties.getProperty("subject-sample"), "subject sample");
+            final String metaDataCacheDirectoryAsString = properties.getProperty("metadata-cache-directory");
+            this.metaDataCacheDirectory = metaDataCacheDirectoryAsString != null
+                                          && !"".equals(metaDataCacheDirectoryAsString.trim())
+                                          ? metaDataCacheDirectoryAsString.trim()
+                                          : null;
+            this.languagePreference = LanguagePreference.parse(properties.getProperty("languages"));
+            final String externalCodeListDirectoryAsString = properties.getProperty("external-code-list-directory");
+            this.externalCodeListDirectory = externalCodeListDirectoryAsString != null
+                                             && !"".equals(externalCodeListDirectoryAsString.trim())
+                                             ? externalCodeListDirectoryAsString.trim()
+                                             : null;
 
             fileInputStream.close();
             inputStreamReader.close();
@@ -77,6 +187,96 @@ public class Configuration {
         }
     }
 
+    /**
+     * Parse a property that has one of the values of an enum (in any case). An empty value results in the default.
+     *
+     * @param valueAsString the value of the property, which may be null.
+     * @param defaultValue  the value to use when the property is empty or unknown.
+     * @param <E>           the enum type.
+     * @return the enum value.
+     */
+    private <E extends Enum<E>> E parseEnumProperty(final String valueAsString, final E defaultValue) {
+        E result = defaultValue;
+        if (valueAsString != null && !"".equals(valueAsString.trim())) {
+            try {
+                final String name = valueAsString.trim().toUpperCase(Locale.ENGLISH);
+                result = Enum.valueOf(defaultValue.getDeclaringClass(), name);
+            } catch (final IllegalArgumentException e) {
+                logger.error("Unknown value " + valueAsString + "; the default value "
+                             + defaultValue.name().toLowerCase(Locale.ENGLISH) + " will be used.");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse a comma-separated list of names. An empty value results in an empty set.
+     *
+     * @param valueAsString the value of the property, which may be null.
+     * @return the names, in the order of the property.
+     */
+    private Set<String> parseNames(final String valueAsString) {
+        final Set<String> names = new LinkedHashSet<>();
+        if (valueAsString != null) {
+            for (final String name : valueAsString.split(",")) {
+                if (!"".equals(name.trim())) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Parse a count that is not negative. An empty or invalid value results in 0.
+     *
+     * @param valueAsString the value of the property, which may be null.
+     * @param description   the description of the property for the error message.
+     * @return the count.
+     */
+    private int parseCount(final String valueAsString, final String description) {
+        int result = 0;
+        if (valueAsString != null && !"".equals(valueAsString.trim())) {
+            try {
+                result = Integer.parseInt(valueAsString.trim());
+                if (result < 0) {
+                    logger.error("Negative " + description + " " + valueAsString + "; it will be ignored.");
+                    result = 0;
+                }
+            } catch (final NumberFormatException e) {
+                logger.error("Invalid " + description + " " + valueAsString + "; it will be ignored.");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the number of threads for the parallel ingestion mode. An empty value or zero results in the number of
+     * available processors.
+     *
+     * @param valueAsString the value of the property, which may be null.
+     * @return the number of threads.
+     */
+    private int parseThreadCount(final String valueAsString) {
+        final int processorCount = Runtime.getRuntime().availableProcessors();
+        int result = processorCount;
+        if (valueAsString != null && !"".equals(valueAsString.trim())) {
+            try {
+                final int threadCount = Integer.parseInt(valueAsString.trim());
+                if (threadCount < 0) {
+                    logger.error("Negative number of parallel threads " + valueAsString + "; " + processorCount
+                                 + " threads will be used.");
+                } else if (threadCount > 0) {
+                    result = threadCount;
+                }
+            } catch (final NumberFormatException e) {
+                logger.error("Invalid number of parallel threads " + valueAsString + "; " + processorCount
+                             + " threads will be used.");
+            }
+        }
+        return result;
+    }
+
     /**
      * Get the path and the filename that contain the properties for logging errors, warnings, etc.,
      * called the log4j properties file.
@@ -114,4 +314,146 @@ public class Configuration {
     public boolean getAvoidTransmartSymbolBugs() {
         return avoidTransmartSymbolBugs;
     }
+
+    /**
+     * Get the way in which the ODM file should be read.
+     *
+     * @return the ingestion mode.
+     */
+    public IngestionMode getIngestionMode() {
+        return ingestionMode;
+    }
+
+    /**
+     * Get the number of threads that read the subjects in the parallel ingestion mode.
+     *
+     * @return the number of threads.
+     */
+    public int getParallelThreadCount() {
+        return parallelThreadCount;
+    }
+
+    /**
+     * Get the way in which the ODM elements should be turned into objects.
+     *
+     * @return the ODM binding.
+     */
+    public ODMBinding getOdmBinding() {
+        return odmBinding;
+    }
+
+    /**
+     * Get the StAX parser that should read the ODM file.
+     *
+     * @return the XML parser.
+     */
+    public XMLParser getXmlParser() {
+        return xmlParser;
+    }
+
+    /**
+     * Get the local names of the elements that should be skipped while the ODM file is parsed.
+     *
+     * @return the element names, which may be empty.
+     */
+    public Set<String> getSkippedElementNames() {
+        return skippedElementNames;
+    }
+
+    /**
+     * Get the information whether identical OIDs and short values from the ODM file should share a single string
+     * instance, which reduces the memory use of the objects that are read.
+     *
+     * @return the boolean that says true in case the strings should be canonicalized.
+     */
+    public boolean isCanonicalizeStrings() {
+        return canonicalizeStrings;
+    }
+
+    /**
+     * Get the information whether the ODM file should be validated against the ODM schema. The validation runs on a
+     * separate thread while the file is converted, and its errors are logged.
+     *
+     * @return the boolean that says true in case the ODM file should be validated.
+     */
+    public boolean isValidateSchema() {
+        return validateSchema;
+    }
+
+    /**
+     * Get the information whether only the metadata should be converted. In that case the ODM file is only read up
+     * to the end of the last study, and the clinical data file is neither read nor written.
+     *
+     * @return the boolean that says true in case only the metadata should be converted.
+     */
+    public boolean isMetaDataOnly() {
+        return metaDataOnly;
+    }
+
+    /**
+     * Get the information whether the rows of each subject should be written to the clinical data file as soon as the
+     * subject has been converted. The memory use then no longer grows with the number of subjects, but the data of
+     * each subject must be contiguous in the ODM file: a subject that appears again after other subjects is not merged.
+     *
+     * @return the boolean that says true in case the clinical data should be written subject by subject.
+     */
+    public boolean isStreamClinicalData() {
+        return streamClinicalData;
+    }
+
+    /**
+     * Get the path of the whitelist file with the subject keys of the subjects that should be converted, one on each
+     * line.
+     *
+     * @return the path of the whitelist file, or null if all subjects should be converted.
+     */
+    public String getSubjectWhitelistPath() {
+        return subjectWhitelistPath;
+    }
+
+    /**
+     * Get the maximum number of subjects that should be converted: only the first subjects of the ODM file are read.
+     *
+     * @return the maximum number of subjects, or 0 if there is no limit.
+     */
+    public int getSubjectLimit() {
+        return subjectLimit;
+    }
+
+    /**
+     * Get the size of the subject sample: one out of this many subjects, chosen by a hash of the subject key, is
+     * converted. The same subjects are chosen in every run.
+     *
+     * @return the sample modulus, or 0 if all subjects should be converted.
+     */
+    public int getSubjectSampleModulus() {
+        return subjectSampleModulus;
+    }
+
+    /**
+     * Get the directory with the snapshots of the processed metadata.
+     *
+     * @return the path of the directory, or null if the metadata should be processed in every run.
+     */
+    public String getMetaDataCacheDirectory() {
+        return metaDataCacheDirectory;
+    }
+
+    /**
+     * Get the languages in which the descriptions, questions and decodes of the metadata are taken.
+     *
+     * @return the language preference.
+     */
+    public LanguagePreference getLanguagePreference() {
+        return languagePreference;
+    }
+
+    /**
+     * Get the directory with the dictionaries of external code lists.
+     *
+     * @return the path of the directory, or null if external code lists are not decoded.
+     */
+    public String getExternalCodeListDirectory() {
+        return externalCodeListDirectory;
+    }
 }
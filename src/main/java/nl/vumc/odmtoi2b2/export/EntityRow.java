@@ -0,0 +1,309 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A row of the clinical data file for a patient, an event repeat or an item group repeat. The values are stored in
+ * arrays that are indexed by the column index (see {@link FileExporter#getColumnIndex}), for the window of columns
+ * from the first to the last column that has a value. The rows of item groups only use the few adjacent columns of
+ * their items. Numbers are kept as a primitive unscaled value with a scale, and other values as references to the
+ * (often shared) strings. The IDs and names of the event and the item group are shared by all rows of the same type.
+ */
+public final class EntityRow {
+    /**
+     * The scale that marks a cell without a number.
+     */
+    private static final byte NO_NUMBER = Byte.MIN_VALUE;
+
+    /**
+     * The initial number of columns in the window.
+     */
+    private static final int INITIAL_WIDTH = 8;
+
+    /**
+     * The ID of the row: the patient ID, extended with the event and item group repeats.
+     */
+    private final String entityId;
+
+    /**
+     * The ID of the patient.
+     */
+    private final String patientId;
+
+    /**
+     * The type of event and item group, or null for the row of a patient.
+     */
+    private final EntityType entityType;
+
+    /**
+     * The repeat key of the event, or null if the row is not for an event repeat.
+     */
+    private final String eventRepeatKey;
+
+    /**
+     * The repeat key of the item group, or null if the row is not for an item group repeat.
+     */
+    private final String itemGroupRepeatKey;
+
+    /**
+     * The column index of the first cell in the arrays.
+     */
+    private int firstColumnIndex;
+
+    /**
+     * The values that are not stored as a number, or null before the first value is stored.
+     */
+    private String[] texts;
+
+    /**
+     * The unscaled values of the numbers, or null before the first number is stored.
+     */
+    private long[] unscaledValues;
+
+    /**
+     * The scales of the numbers, or NO_NUMBER for the cells without a number.
+     */
+    private byte[] scales;
+
+    /**
+     * Construct a row.
+     *
+     * @param entityId           the ID of the row.
+     * @param patientId          the ID of the patient.
+     * @param entityType         the type of event and item group, or null for the row of a patient.
+     * @param eventRepeatKey     the repeat key of the event, or null.
+     * @param itemGroupRepeatKey the repeat key of the item group, or null.
+     */
+    public EntityRow(final String entityId, final String patientId, final EntityType entityType,
+                     final String eventRepeatKey, final String itemGroupRepeatKey) {
+        this.entityId = entityId;
+        this.patientId = patientId;
+        this.entityType = entityType;
+        this.eventRepeatKey = eventRepeatKey;
+        this.itemGroupRepeatKey = itemGroupRepeatKey;
+    }
+
+    /**
+     * Get the ID of the row.
+     *
+     * @return the entity ID.
+     */
+    public String getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Get the ID of the patient.
+     *
+     * @return the patient ID.
+     */
+    public String getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Get the type of event and item group.
+     *
+     * @return the entity type, or null for the row of a patient.
+     */
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Get the repeat key of the event.
+     *
+     * @return the event repeat key, or null if the row is not for an event repeat.
+     */
+    public String getEventRepeatKey() {
+        return eventRepeatKey;
+    }
+
+    /**
+     * Get the repeat key of the item group.
+     *
+     * @return the item group repeat key, or null if the row is not for an item group repeat.
+     */
+    public String getItemGroupRepeatKey() {
+        return itemGroupRepeatKey;
+    }
+
+    /**
+     * Set the value of a cell.
+     *
+     * @param columnIndex the column index.
+     * @param value       the value.
+     */
+    public void setText(final int columnIndex, final String value) {
+        final int offset = reserve(columnIndex);
+        texts[offset] = value;
+        if (scales != null) {
+            scales[offset] = NO_NUMBER;
+        }
+    }
+
+    /**
+     * Set the value of a cell to a number. A number with more than 18 digits or an extreme scale is stored as text.
+     *
+     * @param columnIndex the column index.
+     * @param number      the number.
+     */
+    public void setNumber(final int columnIndex, final BigDecimal number) {
+        final int scale = number.scale();
+        if (scale <= NO_NUMBER || scale > Byte.MAX_VALUE || number.precision() > 18) {
+            setText(columnIndex, number.toString());
+            return;
+        }
+        final int offset = reserve(columnIndex);
+        if (scales == null) {
+            unscaledValues = new long[texts.length];
+            scales = new byte[texts.length];
+            Arrays.fill(scales, NO_NUMBER);
+        }
+        texts[offset] = null;
+        unscaledValues[offset] = number.unscaledValue().longValue();
+        scales[offset] = (byte) scale;
+    }
+
+    /**
+     * Get the value of a cell.
+     *
+     * @param columnIndex the column index.
+     * @return the value as it is written to the clinical data file, or null if the cell is empty.
+     */
+    public String getValue(final int columnIndex) {
+        final int offset = columnIndex - firstColumnIndex;
+        if (texts == null || offset < 0 || offset >= texts.length) {
+            return null;
+        }
+        if (texts[offset] != null || scales == null || scales[offset] == NO_NUMBER) {
+            return texts[offset];
+        }
+        return BigDecimal.valueOf(unscaledValues[offset], scales[offset]).toString();
+    }
+
+    /**
+     * Make sure that the arrays contain a cell for a column, by growing the window when needed.
+     *
+     * @param columnIndex the column index.
+     * @return the offset of the cell in the arrays.
+     */
+    private int reserve(final int columnIndex) {
+        if (texts == null) {
+            firstColumnIndex = columnIndex;
+            texts = new String[INITIAL_WIDTH];
+        } else if (columnIndex < firstColumnIndex) {
+            resize(columnIndex, firstColumnIndex - columnIndex + texts.length);
+        } else if (columnIndex - firstColumnIndex >= texts.length) {
+            resize(firstColumnIndex, Math.max(columnIndex - firstColumnIndex + 1, 2 * texts.length));
+        }
+        return columnIndex - firstColumnIndex;
+    }
+
+    /**
+     * Copy the cells to arrays for a larger window.
+     *
+     * @param newFirstColumnIndex the column index of the first cell in the new arrays.
+     * @param newWidth            the number of cells in the new arrays.
+     */
+    private void resize(final int newFirstColumnIndex, final int newWidth) {
+        final int shift = firstColumnIndex - newFirstColumnIndex;
+        final String[] newTexts = new String[newWidth];
+        System.arraycopy(texts, 0, newTexts, shift, texts.length);
+        if (scales != null) {
+            final long[] newUnscaledValues = new long[newWidth];
+            final byte[] newScales = new byte[newWidth];
+            Arrays.fill(newScales, NO_NUMBER);
+            System.arraycopy(unscaledValues, 0, newUnscaledValues, shift, unscaledValues.length);
+            System.arraycopy(scales, 0, newScales, shift, scales.length);
+            unscaledValues = newUnscaledValues;
+            scales = newScales;
+        }
+        texts = newTexts;
+        firstColumnIndex = newFirstColumnIndex;
+    }
+
+    /**
+     * The type of an event or item group row: the IDs and the human readable names of the event and the item group.
+     * There is one instance for each type, which is shared by all its rows.
+     */
+    public static final class EntityType {
+        /**
+         * The OID of the event.
+         */
+        private final String eventId;
+
+        /**
+         * The human readable name of the event.
+         */
+        private final String eventName;
+
+        /**
+         * The OID of the item group, or null for the type of an event row.
+         */
+        private final String itemGroupId;
+
+        /**
+         * The human readable name of the item group, or null for the type of an event row.
+         */
+        private final String itemGroupName;
+
+        /**
+         * Construct an entity type.
+         *
+         * @param eventId       the OID of the event.
+         * @param eventName     the human readable name of the event.
+         * @param itemGroupId   the OID of the item group, or null.
+         * @param itemGroupName the human readable name of the item group, or null.
+         */
+        public EntityType(final String eventId, final String eventName,
+                          final String itemGroupId, final String itemGroupName) {
+            this.eventId = eventId;
+            this.eventName = eventName;
+            this.itemGroupId = itemGroupId;
+            this.itemGroupName = itemGroupName;
+        }
+
+        /**
+         * Get the OID of the event.
+         *
+         * @return the event ID.
+         */
+        public String getEventId() {
+            return eventId;
+        }
+
+        /**
+         * Get the human readable name of the event.
+         *
+         * @return the event name.
+         */
+        public String getEventName() {
+            return eventName;
+        }
+
+        /**
+         * Get the OID of the item group.
+         *
+         * @return the item group ID, or null for the type of an event row.
+         */
+        public String getItemGroupId() {
+            return itemGroupId;
+        }
+
+        /**
+         * Get the human readable name of the item group.
+         *
+         * @return the item group name, or null for the type of an event row.
+         */
+        public String getItemGroupName() {
+            return itemGroupName;
+        }
+    }
+}
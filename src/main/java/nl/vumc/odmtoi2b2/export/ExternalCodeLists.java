@@ -0,0 +1,137 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionExternalCodeList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A directory with the dictionaries of external code lists. The dictionary of an ExternalCodeList element is the file
+ * "&lt;Dictionary&gt;-&lt;Version&gt;.txt", or "&lt;Dictionary&gt;.txt" when there is no file for the version (see
+ * {@link ExternalDictionary} for the format). Its index "&lt;file name&gt;.index" is built next to it the first time
+ * it is used, and again when the dictionary file has changed.
+ */
+public class ExternalCodeLists {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ExternalCodeLists.class);
+
+    /**
+     * The extension of the dictionary files.
+     */
+    private static final String DICTIONARY_EXTENSION = ".txt";
+
+    /**
+     * The extension that is added to the name of a dictionary file for its index.
+     */
+    private static final String INDEX_EXTENSION = ".index";
+
+    /**
+     * The directory with the dictionaries.
+     */
+    private final Path directory;
+
+    /**
+     * The opened dictionaries by dictionary file, so code lists that use the same dictionary share it.
+     */
+    private final Map<Path, ExternalDictionary> dictionaries = new HashMap<>();
+
+    /**
+     * Construct the external code lists.
+     *
+     * @param directory the directory with the dictionaries.
+     */
+    public ExternalCodeLists(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the dictionary of an external code list.
+     *
+     * @param externalCodeList the external code list.
+     * @return the dictionary, or null if there is no (readable) dictionary file for it.
+     */
+    public ExternalDictionary getDictionary(final ODMcomplexTypeDefinitionExternalCodeList externalCodeList) {
+        final Path dictionaryPath = findDictionaryPath(externalCodeList.getDictionary(), externalCodeList.getVersion());
+        if (dictionaryPath == null) {
+            logger.error("No dictionary file for external code list " + externalCodeList.getDictionary()
+                         + (externalCodeList.getVersion() != null ? " " + externalCodeList.getVersion() : "")
+                         + " in " + directory + ".");
+            return null;
+        }
+        ExternalDictionary dictionary = dictionaries.get(dictionaryPath);
+        if (dictionary == null) {
+            try {
+                dictionary = ExternalDictionary.open(getIndexPath(dictionaryPath));
+                dictionaries.put(dictionaryPath, dictionary);
+                logger.info("Opened the external dictionary " + dictionaryPath + " with " + dictionary.size()
+                            + " coded values.");
+            } catch (final IOException e) {
+                logger.error("The external dictionary " + dictionaryPath + " cannot be read.", e);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Find the dictionary file of an external code list.
+     *
+     * @param dictionaryName the name of the dictionary, which can be null.
+     * @param version        the version of the dictionary, which can be null.
+     * @return the path of the dictionary file, or null if there is no such file.
+     */
+    private Path findDictionaryPath(final String dictionaryName, final String version) {
+        if (dictionaryName == null || "".equals(dictionaryName.trim())) {
+            return null;
+        }
+        final String baseName = toFileName(dictionaryName);
+        if (version != null && !"".equals(version.trim())) {
+            final Path versionPath = directory.resolve(baseName + "-" + toFileName(version) + DICTIONARY_EXTENSION);
+            if (Files.isRegularFile(versionPath)) {
+                return versionPath;
+            }
+        }
+        final Path path = directory.resolve(baseName + DICTIONARY_EXTENSION);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Get the index of a dictionary file, which is (re)built when it does not exist or is older than the dictionary.
+     *
+     * @param dictionaryPath the path of the dictionary file.
+     * @return the path of the index file.
+     * @throws IOException An input-output exception.
+     */
+    private Path getIndexPath(final Path dictionaryPath) throws IOException {
+        final Path indexPath = dictionaryPath.resolveSibling(dictionaryPath.getFileName() + INDEX_EXTENSION);
+        if (!Files.isRegularFile(indexPath)
+            || Files.getLastModifiedTime(indexPath).compareTo(Files.getLastModifiedTime(dictionaryPath)) < 0) {
+            final long start = System.currentTimeMillis();
+            final int entryCount = ExternalDictionary.buildIndex(dictionaryPath, indexPath);
+            logger.info("Built the index " + indexPath + " with " + entryCount + " coded values in "
+                        + (System.currentTimeMillis() - start) + " ms.");
+        }
+        return indexPath;
+    }
+
+    /**
+     * Turn a dictionary name or version into (part of) a file name, by replacing unusual characters with underscores.
+     *
+     * @param name the name or version.
+     * @return the file name.
+     */
+    private static String toFileName(final String name) {
+        return name.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
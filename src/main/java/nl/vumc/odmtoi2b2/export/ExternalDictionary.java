@@ -0,0 +1,280 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A dictionary of an external code list (like MedDRA), which decodes coded values from a sorted index file that is
+ * mapped into memory. Only the pages that a binary search touches are read, so a dictionary with millions of codes is
+ * never loaded into the heap. The index is built once from a text file with a coded value, a tab and the decoded value
+ * on each line; empty lines and lines that start with # are skipped, and the first line of a coded value wins.
+ * <p>
+ * The index file consists of a magic number, the number of entries, the offsets of the entries (relative to the first
+ * entry) in the order of the coded values, and the entries themselves: the length and the UTF-8 bytes of the coded
+ * value, followed by the length and the UTF-8 bytes of the decoded value. The coded values are sorted by their UTF-8
+ * bytes, so a lookup compares bytes without decoding them.
+ */
+public class ExternalDictionary {
+    /**
+     * The number that starts an index file.
+     */
+    private static final int MAGIC_NUMBER = 0x4f444d44;
+
+    /**
+     * The size of the header: the magic number and the number of entries.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The separator between the coded value and the decoded value in a dictionary file.
+     */
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * The prefix of a comment line in a dictionary file.
+     */
+    private static final String COMMENT_PREFIX = "#";
+
+    /**
+     * The mapped index file.
+     */
+    private final ByteBuffer index;
+
+    /**
+     * The number of entries.
+     */
+    private final int entryCount;
+
+    /**
+     * The position of the first entry in the index file.
+     */
+    private final int entriesPosition;
+
+    /**
+     * Construct a dictionary from a mapped index file.
+     *
+     * @param index the mapped index file.
+     * @throws IOException When the file is not an index file.
+     */
+    private ExternalDictionary(final ByteBuffer index) throws IOException {
+        this.index = index;
+        if (index.capacity() < HEADER_SIZE || index.getInt(0) != MAGIC_NUMBER) {
+            throw new IOException("The file is not an external dictionary index.");
+        }
+        this.entryCount = index.getInt(4);
+        this.entriesPosition = HEADER_SIZE + 4 * entryCount;
+        if (entryCount < 0 || entriesPosition < HEADER_SIZE || entriesPosition > index.capacity()) {
+            throw new IOException("Invalid number of entries " + entryCount + " in the external dictionary index.");
+        }
+    }
+
+    /**
+     * Open an index file, which is mapped into memory.
+     *
+     * @param indexPath the path of the index file.
+     * @return the dictionary.
+     * @throws IOException An input-output exception, also when the file is not an index file.
+     */
+    public static ExternalDictionary open(final Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            final MappedByteBuffer mappedIndex = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ExternalDictionary(mappedIndex);
+        }
+    }
+
+    /**
+     * Build an index file from a dictionary file. The index is written to a temporary file first, so a concurrent
+     * run never opens half an index.
+     *
+     * @param dictionaryPath the path of the dictionary file.
+     * @param indexPath      the path of the index file.
+     * @return the number of entries.
+     * @throws IOException An input-output exception, also when the index would be too large to map.
+     */
+    public static int buildIndex(final Path dictionaryPath, final Path indexPath) throws IOException {
+        final List<byte[][]> entries = readEntries(dictionaryPath);
+        long entriesSize = 0;
+        for (final byte[][] entry : entries) {
+            entriesSize += 8 + entry[0].length + entry[1].length;
+        }
+        if (HEADER_SIZE + 4L * entries.size() + entriesSize > Integer.MAX_VALUE) {
+            throw new IOException("The external dictionary " + dictionaryPath + " is too large for an index.");
+        }
+
+        final Path parent = indexPath.toAbsolutePath().getParent();
+        final Path temporaryPath = Files.createTempFile(parent, indexPath.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryPath))) {
+                final DataOutputStream output = new DataOutputStream(outputStream);
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(entries.size());
+                int offset = 0;
+                for (final byte[][] entry : entries) {
+                    output.writeInt(offset);
+                    offset += 8 + entry[0].length + entry[1].length;
+                }
+                for (final byte[][] entry : entries) {
+                    output.writeInt(entry[0].length);
+                    output.write(entry[0]);
+                    output.writeInt(entry[1].length);
+                    output.write(entry[1]);
+                }
+                output.flush();
+            }
+            try {
+                Files.move(temporaryPath, indexPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Read the entries of a dictionary file, sorted by the bytes of their coded values, with the first entry of each
+     * coded value.
+     *
+     * @param dictionaryPath the path of the dictionary file.
+     * @return the entries, as the UTF-8 bytes of the coded and the decoded value.
+     * @throws IOException An input-output exception, also when a line has no decoded value.
+     */
+    private static List<byte[][]> readEntries(final Path dictionaryPath) throws IOException {
+        final List<byte[][]> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(dictionaryPath, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                    continue;
+                }
+                final int separatorIndex = line.indexOf(SEPARATOR);
+                if (separatorIndex < 0) {
+                    throw new IOException("Line " + lineNumber + " of the external dictionary " + dictionaryPath
+                                          + " has no tab between the coded value and the decoded value.");
+                }
+                entries.add(new byte[][]{
+                    line.substring(0, separatorIndex).getBytes(StandardCharsets.UTF_8),
+                    line.substring(separatorIndex + 1).getBytes(StandardCharsets.UTF_8)
+                });
+            }
+        }
+
+        // The sort is stable, so the first line of a coded value comes first.
+        Collections.sort(entries, new Comparator<byte[][]>() {
+            @Override
+            public int compare(final byte[][] entry1, final byte[][] entry2) {
+                return compareBytes(entry1[0], entry2[0]);
+            }
+        });
+        final List<byte[][]> uniqueEntries = new ArrayList<>(entries.size());
+        for (final byte[][] entry : entries) {
+            if (uniqueEntries.isEmpty() || compareBytes(uniqueEntries.get(uniqueEntries.size() - 1)[0], entry[0]) != 0) {
+                uniqueEntries.add(entry);
+            }
+        }
+        return uniqueEntries;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the number of coded values.
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Decode a coded value with a binary search over the index. The index is only read with absolute positions, so
+     * several threads can decode at the same time.
+     *
+     * @param codedValue the coded value.
+     * @return the decoded value, or null if the dictionary has no entry with this coded value.
+     */
+    public String decode(final String codedValue) {
+        final byte[] key = codedValue.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int entryPosition = entriesPosition + index.getInt(HEADER_SIZE + 4 * middle);
+            final int comparison = compareKey(entryPosition, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                final int decodedPosition = entryPosition + 4 + index.getInt(entryPosition);
+                final byte[] decodedValue = new byte[index.getInt(decodedPosition)];
+                for (int byteIndex = 0; byteIndex < decodedValue.length; byteIndex++) {
+                    decodedValue[byteIndex] = index.get(decodedPosition + 4 + byteIndex);
+                }
+                return new String(decodedValue, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compare the coded value of an entry with a key, byte by byte.
+     *
+     * @param entryPosition the position of the entry in the index file.
+     * @param key           the UTF-8 bytes of the key.
+     * @return a negative number, zero or a positive number when the coded value is smaller than, equal to or larger
+     *         than the key.
+     */
+    private int compareKey(final int entryPosition, final byte[] key) {
+        final int length = index.getInt(entryPosition);
+        final int commonLength = Math.min(length, key.length);
+        for (int byteIndex = 0; byteIndex < commonLength; byteIndex++) {
+            final int difference = (index.get(entryPosition + 4 + byteIndex) & 0xff) - (key[byteIndex] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Compare two byte arrays as unsigned bytes.
+     *
+     * @param bytes1 the first byte array.
+     * @param bytes2 the second byte array.
+     * @return a negative number, zero or a positive number when the first array is smaller than, equal to or larger
+     *         than the second array.
+     */
+    private static int compareBytes(final byte[] bytes1, final byte[] bytes2) {
+        final int commonLength = Math.min(bytes1.length, bytes2.length);
+        for (int byteIndex = 0; byteIndex < commonLength; byteIndex++) {
+            final int difference = (bytes1[byteIndex] & 0xff) - (bytes2[byteIndex] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return bytes1.length - bytes2.length;
+    }
+}
@@ -13,11 +13,15 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 
+import java.math.BigDecimal;
+
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +68,12 @@ public class FileExporter {
      */
     private static final String REPEAT_ABBREVIATION_IN_ID = "_R";
 
+    /**
+     * The number of bits in the filter of the written patient IDs (a megabyte), so the memory use does not grow with
+     * the number of subjects.
+     */
+    private static final int WRITTEN_PATIENT_ID_BIT_COUNT = 1 << 23;
+
     /**
      * The column identifier of the very first column, which contains a unique ID for each row in the clinical data
      * file.
@@ -130,6 +140,17 @@ public class FileExporter {
      */
     private static final String SEPARATOR_REPLACEMENT = " and ";
 
+    /**
+     * The number of columns with the IDs of the patient, the event and the item group, which precede the columns of
+     * the items (see initializeColumnHeadersAndIds).
+     */
+    private static final int DIMENSION_COLUMN_COUNT = 7;
+
+    /**
+     * The separator between the event ID and the item group ID in the key of an entity type.
+     */
+    private static final String TAB = "\t";
+
     /**
      * The character encoding used for all the files.
      */
@@ -185,7 +206,12 @@ public class FileExporter {
     /**
      * The writer for exporting the clinical data file.
      */
-    private BufferedWriter clinicalDataWriter;
+    private Writer clinicalDataWriter;
+
+    /**
+     * Whether the line with the column headers still has to be written to the clinical data file.
+     */
+    private boolean writeClinicalDataHeaders;
 
     /**
      * The column headers for the clinical data.
@@ -198,9 +224,36 @@ public class FileExporter {
     private List<String> columnIds;
 
     /**
-     * The entity IDs (either patient id, event id, or IG id), which correspond to the rows in the clinical data.
+     * Map<columnId, index in columnIds> for the first column with each ID.
      */
-    private List<String> entityIds;
+    private Map<String, Integer> columnIndexes;
+
+    /**
+     * For each column, the index of the column with the values (the first column with the same ID), or null when the
+     * columns have changed since it was computed.
+     */
+    private int[] valueIndexes;
+
+    /**
+     * The rows in the clinical data that have not been written yet (either patient, event or IG rows), in the order in
+     * which they were created.
+     */
+    private List<EntityRow> entityRows;
+
+    /**
+     * The rows in the clinical data that have not been written yet, by entity ID.
+     */
+    private Map<String, EntityRow> entityRowsById;
+
+    /**
+     * The row to which the last value was written.
+     */
+    private EntityRow currentEntityRow;
+
+    /**
+     * The shared types of the event and item group rows, by event ID and item group ID.
+     */
+    private Map<String, EntityRow.EntityType> entityTypes;
 
     /**
      * The IDs of a type of repeating event, which are turned into an integer (the place in the list)
@@ -226,9 +279,9 @@ public class FileExporter {
     private String currentColumnId;
 
     /**
-     * Mapping of (column ID + word) to values for the current patient.
+     * For each column index, the mapping of words to values, or null for a column without a word map.
      */
-    private Map<String, String> wordMap;
+    private List<Map<String, String>> columnWords;
 
     /**
      * Mapping of event or item group IDs to the human readable names.
@@ -236,15 +289,32 @@ public class FileExporter {
     private Map<String, String> eventOrIGIdToNameMap;
 
     /**
-     * A map of maps: Map<patientID, patientData>, with patientData a map of columnIds to data values.
+     * Whether the rows of each subject are written as soon as the subject has been converted.
      */
-    private Map<String, Map<String, String>> clinicalDataMap;
+    private boolean streamClinicalData;
+
+    /**
+     * A Bloom filter of the IDs of the patients of which the rows have been written, when the clinical data is
+     * streamed: it detects a subject that appears again with a fixed amount of memory, at the cost of a rare false
+     * alarm.
+     */
+    private BitSet writtenPatientIdBits;
+
+    /**
+     * The number of subjects that appeared again after other subjects, when the clinical data is streamed.
+     */
+    private int reappearedSubjectCount;
 
     /**
      * The cut-off length of the clinical data entry strings in the clinical data file.
      */
     private int maxClinicalDataEntry;
 
+    /**
+     * Whether only the metadata files are written. The clinical data file is then not touched.
+     */
+    private boolean metaDataOnly;
+
     /**
      * Construct a file exporter.
      *
@@ -263,21 +333,29 @@ public class FileExporter {
         this.maxClinicalDataEntry = configuration.getMaxClinicalDataEntry();
         this.forbiddenSymbolRegex = configuration.getForbiddenSymbolRegex();
         this.avoidTransmartSymbolBugs = configuration.getAvoidTransmartSymbolBugs();
+        this.metaDataOnly = configuration.isMetaDataOnly();
+        this.streamClinicalData = configuration.isStreamClinicalData();
         this.writeWordMapHeaders = true;
+        this.writeClinicalDataHeaders = true;
         this.valueCounter = 1;
         this.increasedColumnNumber = false;
         this.currentColumnNumber = 0;
         this.currentColumnId = null;
         initializeColumnHeadersAndIds();
-        this.entityIds = new ArrayList<>();
+        this.entityRows = new ArrayList<>();
+        this.entityRowsById = new HashMap<>();
+        this.entityTypes = new HashMap<>();
         this.repeatingEventIds = new ArrayList<>();
         this.repeatingItemGroupIds = new ArrayList<>();
-        this.wordMap = new HashMap<>();
+        this.columnWords = new ArrayList<>();
         this.eventOrIGIdToNameMap = new HashMap<>();
-        this.clinicalDataMap = new HashMap<>();
+        this.columnIndexes = new HashMap<>();
+        this.writtenPatientIdBits = streamClinicalData ? new BitSet(WRITTEN_PATIENT_ID_BIT_COUNT) : null;
         setColumnsName(columnsFileName);
         setWordMapName(wordMapFileName);
-        setClinicalDataName(this.clinicalDataFileName);
+        if (!metaDataOnly) {
+            setClinicalDataName(this.clinicalDataFileName);
+        }
     }
 
 
@@ -306,12 +384,39 @@ public class FileExporter {
     }
 
     /**
-     * Get a copy of the clinical data map. This method is meant for testing purposes.
+     * Get the rows that have not been written yet as a map of maps: Map<entityID, entityData>, with entityData a map of
+     * column IDs to data values. This method is meant for testing purposes.
      *
-     * @return a copy of the clinical data map.
+     * @return the clinical data map.
      */
     protected Map<String, Map<String, String>> getClinicalDataMap() {
-        return new HashMap<>(clinicalDataMap);
+        final Map<String, Map<String, String>> clinicalDataMap = new HashMap<>();
+        for (final EntityRow entityRow : entityRows) {
+            final Map<String, String> entityData = new HashMap<>();
+            entityData.put(COLUMN_ID_WITH_ROW_IDS, entityRow.getEntityId());
+            entityData.put(COLUMN_ID_WITH_PATIENT_IDS, entityRow.getPatientId());
+            final EntityRow.EntityType entityType = entityRow.getEntityType();
+            if (entityType != null) {
+                entityData.put(COLUMN_ID_WITH_EVENT_IDS, entityType.getEventId());
+                entityData.put(COLUMN_ID_WITH_EVENT_NAMES, entityType.getEventName());
+            }
+            if (entityRow.getEventRepeatKey() != null) {
+                entityData.put(COLUMN_ID_WITH_EVENT_NR, entityRow.getEventRepeatKey());
+            }
+            if (entityRow.getItemGroupRepeatKey() != null) {
+                entityData.put(COLUMN_ID_WITH_IG_IDS, entityType.getItemGroupId());
+                entityData.put(COLUMN_ID_WITH_IG_NAMES, entityType.getItemGroupName());
+                entityData.put(COLUMN_ID_WITH_IG_NR, entityRow.getItemGroupRepeatKey());
+            }
+            for (final Map.Entry<String, Integer> columnIndex : columnIndexes.entrySet()) {
+                final String value = entityRow.getValue(columnIndex.getValue());
+                if (value != null) {
+                    entityData.put(columnIndex.getKey(), value);
+                }
+            }
+            clinicalDataMap.put(entityRow.getEntityId(), entityData);
+        }
+        return clinicalDataMap;
     }
 
     /**
@@ -347,6 +452,15 @@ public class FileExporter {
         this.wordMapWriter = wordMapWriter;
     }
 
+    /**
+     * For testing purposes.
+     *
+     * @param clinicalDataWriter the clinical data writer.
+     */
+    protected void setClinicalDataWriter(final Writer clinicalDataWriter) {
+        this.clinicalDataWriter = clinicalDataWriter;
+    }
+
     /**
      * Set the output filename for the word map metadata file.
      *
@@ -431,8 +545,23 @@ public class FileExporter {
         handleColumnAttribute(namePath, preferredItemName);
 
         currentColumnId = oidPath;
+        if (!columnIndexes.containsKey(oidPath)) {
+            columnIndexes.put(oidPath, columnIds.size());
+        }
         columnHeaders.add(preferredItemName);
         columnIds.add(oidPath);
+        valueIndexes = null;
+    }
+
+    /**
+     * Get the index of a column in the clinical data file.
+     *
+     * @param columnId The full path of OIDs, which identifies a column.
+     * @return The index of the (first) column with this ID, or -1 if the column is not exported.
+     */
+    public int getColumnIndex(final String columnId) {
+        final Integer columnIndex = columnIndexes.get(columnId);
+        return columnIndex != null ? columnIndex : -1;
     }
 
     /**
@@ -503,7 +632,16 @@ public class FileExporter {
             valueCounter++;
         }
         final String value = String.valueOf(valueCounter);
-        wordMap.put(currentColumnId + wordValue, value);
+        final int columnIndex = getColumnIndex(currentColumnId);
+        if (columnIndex >= 0) {
+            while (columnWords.size() <= columnIndex) {
+                columnWords.add(null);
+            }
+            if (columnWords.get(columnIndex) == null) {
+                columnWords.set(columnIndex, new HashMap<String, String>());
+            }
+            columnWords.get(columnIndex).put(wordValue, value);
+        }
         final List<String> rowAsList = new ArrayList<>();
         rowAsList.add(clinicalDataFileName);
         rowAsList.add(String.valueOf(currentColumnNumber - 1));
@@ -513,8 +651,10 @@ public class FileExporter {
     }
 
     /**
-     * Write the clinical data to a clinical data map, which is kept in the memory until the moment
-     * that everything can be written out to a file writer in once.
+     * Write the clinical data to a row of the clinical data, which is kept in the memory until the moment
+     * that the rows of the patient can be written out to the file writer: when the next patient has been converted
+     * (see {@link #finishSubject}) or when the file exporter is closed. The value is left out when the column is not
+     * exported.
      *
      * @param columnId The full path of OIDs, which identifies a column.
      * @param dataValue The value, which might not yet be converted to a number.
@@ -531,252 +671,194 @@ public class FileExporter {
                                       final String eventRepeatKey,
                                       final String itemGroupId,
                                       final String itemGroupRepeatKey) {
-
-        if (eventRepeatKey == null && itemGroupRepeatKey == null) {
-            addPatientData(columnId, dataValue, patientId);
-        } else if (eventRepeatKey != null && itemGroupRepeatKey == null) {
-            addEventData(columnId, dataValue, patientId, eventId, eventRepeatKey);
-        } else if (eventRepeatKey == null) {
-            addItemGroupData(columnId, dataValue, patientId, eventId, itemGroupId, itemGroupRepeatKey);
-        } else {
-            addEventAndItemGroupData(columnId, dataValue, patientId, eventId,
-                    eventRepeatKey, itemGroupId, itemGroupRepeatKey);
-        }
+        storeClinicalDataInfo(getColumnIndex(columnId), dataValue, patientId, eventId, eventRepeatKey,
+                itemGroupId, itemGroupRepeatKey);
     }
 
     /**
-     * Write the clinical data to a clinical data map, for the case of a patient.
+     * Write the clinical data to a row of the clinical data, for a column that is identified by its index. A word is
+     * replaced by a number in case the word map has assigned such a replacement.
      *
-     * @param columnId The full path of OIDs, which identifies a column.
+     * @param columnIndex The index of the column (see {@link #getColumnIndex}), or -1 if the column is not exported.
      * @param dataValue The value, which might not yet be converted to a number.
      * @param patientId The identifier of the patient.
+     * @param eventId The OID of a type of repeating event.
+     * @param eventRepeatKey The repeat key that identifies an event repeat.
+     * @param itemGroupId The OID of a type of repeating item group.
+     * @param itemGroupRepeatKey The repeat key that identifies an item group repeat.
      */
-    private void addPatientData(final String columnId,
-                                final String dataValue,
-                                final String patientId) {
-        /**
-         * Mapping of column ID to values for the current entity.
-         */
-        Map<String, String> entityData = new HashMap<>();
-
-        if (clinicalDataMap.containsKey(patientId)) {
-            entityData = clinicalDataMap.get(patientId);
-        } else {
-            entityIds.add(patientId);
-            entityData.put(COLUMN_ID_WITH_ROW_IDS, patientId);
-            entityData.put(COLUMN_ID_WITH_PATIENT_IDS, patientId);
-            clinicalDataMap.put(patientId, entityData);
+    public void storeClinicalDataInfo(final int columnIndex,
+                                      final String dataValue,
+                                      final String patientId,
+                                      final String eventId,
+                                      final String eventRepeatKey,
+                                      final String itemGroupId,
+                                      final String itemGroupRepeatKey) {
+        if (columnIndex < 0) {
+            return;
         }
-
-        entityData = addWordOrNumber(columnId, dataValue, entityData);
-
-        logger.debug("Adding patient data for " + patientId);
-        clinicalDataMap.put(patientId, entityData);
+        final Map<String, String> words = columnIndex < columnWords.size() ? columnWords.get(columnIndex) : null;
+        final String word = words != null ? words.get(dataValue) : null;
+        getEntityRow(patientId, eventId, eventRepeatKey, itemGroupId, itemGroupRepeatKey)
+                .setText(columnIndex, word != null ? word : dataValue);
     }
 
     /**
-     * Write the clinical data to a clinical data map, for the case of an event repeat.
+     * Write a number to a row of the clinical data. It is kept as a primitive value and written like
+     * {@link BigDecimal#toString()}.
      *
-     * @param columnId The full path of OIDs, which identifies a column.
-     * @param dataValue The value, which might not yet be converted to a number.
+     * @param columnIndex The index of the column (see {@link #getColumnIndex}), or -1 if the column is not exported.
+     * @param number The number.
      * @param patientId The identifier of the patient.
-     * @param eventId   The OID that identifies the type of repeating event.
-     * @param eventRepeatKey The repeat key that identifies the event repeat.
-     */
-    private void addEventData(final String columnId,
-                              final String dataValue,
-                              final String patientId,
-                              final String eventId,
-                              final String eventRepeatKey) {
-        /**
-         * Mapping of column ID to values for the current entity.
-         */
-        Map<String, String> entityData = new HashMap<>();
-
-        if (!repeatingEventIds.contains(eventId)) {
-            repeatingEventIds.add(eventId);
-        }
-
-        final int repeatingEventIndex = repeatingEventIds.indexOf(eventId) + 1;
-        final String eventEntityId = patientId
-                + EVENT_ABBREVIATION_IN_ID + repeatingEventIndex
-                + REPEAT_ABBREVIATION_IN_ID + eventRepeatKey;
-
-        if (clinicalDataMap.containsKey(eventEntityId)) {
-            entityData = clinicalDataMap.get(eventEntityId);
-        } else {
-            entityIds.add(eventEntityId);
-            String eventName = eventId;
-            if (eventOrIGIdToNameMap.containsKey(eventId)) {
-                eventName = eventOrIGIdToNameMap.get(eventId);
-            }
-            entityData.put(COLUMN_ID_WITH_ROW_IDS, eventEntityId);
-            entityData.put(COLUMN_ID_WITH_PATIENT_IDS, patientId);
-            entityData.put(COLUMN_ID_WITH_EVENT_IDS, eventId);
-            entityData.put(COLUMN_ID_WITH_EVENT_NAMES, eventName);
-            entityData.put(COLUMN_ID_WITH_EVENT_NR, eventRepeatKey);
-            clinicalDataMap.put(eventEntityId, entityData);
+     * @param eventId The OID of a type of repeating event.
+     * @param eventRepeatKey The repeat key that identifies an event repeat.
+     * @param itemGroupId The OID of a type of repeating item group.
+     * @param itemGroupRepeatKey The repeat key that identifies an item group repeat.
+     */
+    public void storeClinicalDataNumber(final int columnIndex,
+                                        final BigDecimal number,
+                                        final String patientId,
+                                        final String eventId,
+                                        final String eventRepeatKey,
+                                        final String itemGroupId,
+                                        final String itemGroupRepeatKey) {
+        if (columnIndex >= 0) {
+            getEntityRow(patientId, eventId, eventRepeatKey, itemGroupId, itemGroupRepeatKey)
+                    .setNumber(columnIndex, number);
         }
-
-        entityData = addWordOrNumber(columnId, dataValue, entityData);
-
-        logger.debug("Adding event data for " + eventEntityId);
-        clinicalDataMap.put(eventEntityId, entityData);
     }
 
     /**
-     * Write the clinical data to a clinical data map, for the case of an item group repeat,
-     * that does not belong to a repeating event.
+     * Get the row of a patient, an event repeat or an item group repeat, which is created when it does not exist yet.
+     * Consecutive values usually belong to the same row, which is then reused without building its ID.
      *
-     * @param columnId The full path of OIDs, which identifies a column.
-     * @param dataValue The value, which might not yet be converted to a number.
      * @param patientId The identifier of the patient.
-     * @param eventId   The OID that identifies the non-repeating event.
-     * @param itemGroupId  The OID that identifies the type of repeating item group.
-     * @param itemGroupRepeatKey The repeat key that identifies the item group repeat.
-     */
-    private void addItemGroupData(final String columnId,
-                                  final String dataValue,
-                                  final String patientId,
-                                  final String eventId,
-                                  final String itemGroupId,
-                                  final String itemGroupRepeatKey) {
-        /**
-         * Mapping of column ID to values for the current entity.
-         */
-        Map<String, String> entityData = new HashMap<>();
-
-        if (!repeatingEventIds.contains(eventId)) {
-            repeatingEventIds.add(eventId);
-        }
-
-        if (!repeatingItemGroupIds.contains(itemGroupId)) {
-            repeatingItemGroupIds.add(itemGroupId);
+     * @param eventId The OID of a type of repeating event.
+     * @param eventRepeatKey The repeat key that identifies an event repeat.
+     * @param itemGroupId The OID of a type of repeating item group.
+     * @param itemGroupRepeatKey The repeat key that identifies an item group repeat.
+     * @return the row.
+     */
+    private EntityRow getEntityRow(final String patientId,
+                                   final String eventId,
+                                   final String eventRepeatKey,
+                                   final String itemGroupId,
+                                   final String itemGroupRepeatKey) {
+        if (isCurrentEntityRow(patientId, eventId, eventRepeatKey, itemGroupId, itemGroupRepeatKey)) {
+            return currentEntityRow;
         }
 
-        final int repeatingEventIndex = repeatingEventIds.indexOf(eventId) + 1;
-        final int repeatingItemGroupIndex = repeatingItemGroupIds.indexOf(itemGroupId) + 1;
-        final String itemGroupEntityId = patientId
-                + EVENT_ABBREVIATION_IN_ID  + repeatingEventIndex
-                + ITEM_GROUP_ABBREVIATION_IN_ID + repeatingItemGroupIndex
-                + REPEAT_ABBREVIATION_IN_ID  + itemGroupRepeatKey;
-
-        if (clinicalDataMap.containsKey(itemGroupEntityId)) {
-            entityData = clinicalDataMap.get(itemGroupEntityId);
+        final String entityId;
+        EntityRow.EntityType entityType = null;
+        if (eventRepeatKey == null && itemGroupRepeatKey == null) {
+            entityId = patientId;
+        } else if (eventRepeatKey != null && itemGroupRepeatKey == null) {
+            entityId = patientId
+                    + EVENT_ABBREVIATION_IN_ID + getRepeatingEventIndex(eventId)
+                    + REPEAT_ABBREVIATION_IN_ID + eventRepeatKey;
+            entityType = getEntityType(eventId, null);
+        } else if (eventRepeatKey == null) {
+            entityId = patientId
+                    + EVENT_ABBREVIATION_IN_ID  + getRepeatingEventIndex(eventId)
+                    + ITEM_GROUP_ABBREVIATION_IN_ID + getRepeatingItemGroupIndex(itemGroupId)
+                    + REPEAT_ABBREVIATION_IN_ID  + itemGroupRepeatKey;
+            entityType = getEntityType(eventId, itemGroupId);
         } else {
-            entityIds.add(itemGroupEntityId);
-            String eventName = eventId;
-            String itemGroupName = itemGroupId;
-            if (eventOrIGIdToNameMap.containsKey(eventId)) {
-                eventName = eventOrIGIdToNameMap.get(eventId);
-            }
-            if (eventOrIGIdToNameMap.containsKey(itemGroupId)) {
-                itemGroupName = eventOrIGIdToNameMap.get(itemGroupId);
-            }
-            entityData.put(COLUMN_ID_WITH_ROW_IDS, itemGroupEntityId);
-            entityData.put(COLUMN_ID_WITH_PATIENT_IDS, patientId);
-            entityData.put(COLUMN_ID_WITH_EVENT_IDS, eventId);
-            entityData.put(COLUMN_ID_WITH_EVENT_NAMES, eventName);
-            entityData.put(COLUMN_ID_WITH_IG_IDS, itemGroupId);
-            entityData.put(COLUMN_ID_WITH_IG_NAMES, itemGroupName);
-            entityData.put(COLUMN_ID_WITH_IG_NR, itemGroupRepeatKey);
-            clinicalDataMap.put(itemGroupEntityId, entityData);
+            entityId = patientId
+                    + EVENT_ABBREVIATION_IN_ID  + getRepeatingEventIndex(eventId)
+                    + REPEAT_ABBREVIATION_IN_ID + eventRepeatKey
+                    + ITEM_GROUP_ABBREVIATION_IN_ID + getRepeatingItemGroupIndex(itemGroupId)
+                    + REPEAT_ABBREVIATION_IN_ID + itemGroupRepeatKey;
+            entityType = getEntityType(eventId, itemGroupId);
         }
 
-        entityData = addWordOrNumber(columnId, dataValue, entityData);
-
-        logger.debug("Adding IG1 data for " + itemGroupEntityId);
-        clinicalDataMap.put(itemGroupEntityId, entityData);
+        EntityRow entityRow = entityRowsById.get(entityId);
+        if (entityRow == null) {
+            entityRow = new EntityRow(entityId, patientId, entityType, eventRepeatKey, itemGroupRepeatKey);
+            entityRows.add(entityRow);
+            entityRowsById.put(entityId, entityRow);
+            logger.debug("Adding data for " + entityId);
+        }
+        currentEntityRow = entityRow;
+        return entityRow;
     }
 
     /**
-     * Write the clinical data to a clinical data map, for the case of an item group repeat,
-     * that does belong to an event repeat.
+     * Check whether a value belongs to the row of the previous value.
      *
-     * @param columnId The full path of OIDs, which identifies a column.
-     * @param dataValue The value, which might not yet be converted to a number.
      * @param patientId The identifier of the patient.
-     * @param eventId   The OID that identifies the type of repeating event.
-     * @param eventRepeatKey The repeat key that identifies the event repeat.
-     * @param itemGroupId  The OID that identifies the type of repeating item group.
-     * @param itemGroupRepeatKey The repeat key that identifies the item group repeat.
-     */
-    private void addEventAndItemGroupData(final String columnId,
-                                          final String dataValue,
-                                          final String patientId,
-                                          final String eventId,
-                                          final String eventRepeatKey,
-                                          final String itemGroupId,
-                                          final String itemGroupRepeatKey) {
-        /**
-         * Mapping of column ID to values for the current entity.
-         */
-        Map<String, String> entityData = new HashMap<>();
+     * @param eventId The OID of a type of repeating event.
+     * @param eventRepeatKey The repeat key that identifies an event repeat.
+     * @param itemGroupId The OID of a type of repeating item group.
+     * @param itemGroupRepeatKey The repeat key that identifies an item group repeat.
+     * @return whether the value belongs to the current row.
+     */
+    private boolean isCurrentEntityRow(final String patientId,
+                                       final String eventId,
+                                       final String eventRepeatKey,
+                                       final String itemGroupId,
+                                       final String itemGroupRepeatKey) {
+        if (currentEntityRow == null
+            || !currentEntityRow.getPatientId().equals(patientId)
+            || !Objects.equals(currentEntityRow.getEventRepeatKey(), eventRepeatKey)
+            || !Objects.equals(currentEntityRow.getItemGroupRepeatKey(), itemGroupRepeatKey)) {
+            return false;
+        }
+        final EntityRow.EntityType entityType = currentEntityRow.getEntityType();
+        return entityType == null
+               || Objects.equals(entityType.getEventId(), eventId)
+                  && (itemGroupRepeatKey == null || Objects.equals(entityType.getItemGroupId(), itemGroupId));
+    }
 
+    /**
+     * Get the number of a type of repeating event, which is made part of the ID of its rows.
+     *
+     * @param eventId The OID of the event.
+     * @return the number, starting at 1.
+     */
+    private int getRepeatingEventIndex(final String eventId) {
         if (!repeatingEventIds.contains(eventId)) {
             repeatingEventIds.add(eventId);
         }
+        return repeatingEventIds.indexOf(eventId) + 1;
+    }
 
+    /**
+     * Get the number of a type of repeating item group, which is made part of the ID of its rows.
+     *
+     * @param itemGroupId The OID of the item group.
+     * @return the number, starting at 1.
+     */
+    private int getRepeatingItemGroupIndex(final String itemGroupId) {
         if (!repeatingItemGroupIds.contains(itemGroupId)) {
             repeatingItemGroupIds.add(itemGroupId);
         }
+        return repeatingItemGroupIds.indexOf(itemGroupId) + 1;
+    }
 
-        final int repeatingEventIndex = repeatingEventIds.indexOf(eventId) + 1;
-        final int repeatingItemGroupIndex = repeatingItemGroupIds.indexOf(itemGroupId) + 1;
-        final String itemGroupEntityId = patientId
-                + EVENT_ABBREVIATION_IN_ID  + repeatingEventIndex
-                + REPEAT_ABBREVIATION_IN_ID + eventRepeatKey
-                + ITEM_GROUP_ABBREVIATION_IN_ID + repeatingItemGroupIndex
-                + REPEAT_ABBREVIATION_IN_ID + itemGroupRepeatKey;
-
-        if (clinicalDataMap.containsKey(itemGroupEntityId)) {
-            entityData = clinicalDataMap.get(itemGroupEntityId);
-        } else {
-            entityIds.add(itemGroupEntityId);
+    /**
+     * Get the shared type of the rows of an event or item group, with the human readable names.
+     *
+     * @param eventId The OID of the event.
+     * @param itemGroupId The OID of the item group, or null for the rows of an event repeat.
+     * @return the entity type.
+     */
+    private EntityRow.EntityType getEntityType(final String eventId, final String itemGroupId) {
+        final String key = eventId + TAB + itemGroupId;
+        EntityRow.EntityType entityType = entityTypes.get(key);
+        if (entityType == null) {
             String eventName = eventId;
-            String itemGroupName = itemGroupId;
             if (eventOrIGIdToNameMap.containsKey(eventId)) {
                 eventName = eventOrIGIdToNameMap.get(eventId);
             }
-            if (eventOrIGIdToNameMap.containsKey(itemGroupId)) {
+            String itemGroupName = itemGroupId;
+            if (itemGroupId != null && eventOrIGIdToNameMap.containsKey(itemGroupId)) {
                 itemGroupName = eventOrIGIdToNameMap.get(itemGroupId);
             }
-            entityData.put(COLUMN_ID_WITH_ROW_IDS, itemGroupEntityId);
-            entityData.put(COLUMN_ID_WITH_PATIENT_IDS, patientId);
-            entityData.put(COLUMN_ID_WITH_EVENT_IDS, eventId);
-            entityData.put(COLUMN_ID_WITH_EVENT_NAMES, eventName);
-            entityData.put(COLUMN_ID_WITH_EVENT_NR, eventRepeatKey);
-            entityData.put(COLUMN_ID_WITH_IG_IDS, itemGroupId);
-            entityData.put(COLUMN_ID_WITH_IG_NAMES, itemGroupName);
-            entityData.put(COLUMN_ID_WITH_IG_NR, itemGroupRepeatKey);
-            clinicalDataMap.put(itemGroupEntityId, entityData);
-        }
-
-        entityData = addWordOrNumber(columnId, dataValue, entityData);
-
-        logger.debug("Adding IG2 data for " + itemGroupEntityId);
-        clinicalDataMap.put(itemGroupEntityId, entityData);
-    }
-
-    /**
-     * Adds a word or a number to a field in the clinical data file. Replaces a word by a number in case the
-     * word map has assigned such a replacement.
-     *
-     * @param columnId The column of the field in the clinical data file.
-     * @param dataValue The non-replaced data value.
-     * @param entityData The data of the row of the field in the clinical data file.
-     * @return entityData The data of the row of the field in the clinical data file.
-     */
-    private Map<String, String> addWordOrNumber(final String columnId,
-                                                final String dataValue,
-                                                final Map<String, String> entityData) {
-        if (wordMap.get(columnId + dataValue) != null) {
-            //fills clinical data with words from word map
-            entityData.put(columnId, wordMap.get(columnId + dataValue));
-        } else {
-            entityData.put(columnId, dataValue);
+            entityType = new EntityRow.EntityType(eventId, eventName, itemGroupId, itemGroupName);
+            entityTypes.put(key, entityType);
         }
-        return entityData;
+        return entityType;
     }
 
 //    /**
@@ -839,35 +921,163 @@ public class FileExporter {
 //    }
 
     /**
-     * Write the clinical data, which was kept in the memory, to the tab-delimited clinical data file.
+     * Signal that all the data of a subject has been stored. When the clinical data is streamed, the rows of the
+     * previous subjects are written to the clinical data file and removed from the memory. The rows of this subject
+     * are carried over until the next subject has been converted, because a subject at the end of a ClinicalData
+     * block can continue at the start of the next block; its rows are then still merged. Streaming requires that the
+     * data of each subject is contiguous: a subject that appears again after other subjects gets a second set of rows.
+     *
+     * @param patientId The identifier of the patient that has been converted.
+     */
+    public void finishSubject(final String patientId) {
+        if (streamClinicalData && !metaDataOnly && entityRows.size() > 0) {
+            try {
+                writeEntityData(patientId);
+            } catch (final IOException e) {
+                logger.error("Error while writing the clinical data before subject " + patientId + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Write the clinical data, which was kept in the memory, to the tab-delimited clinical data file. The rows that
+     * are written are removed from the memory.
+     *
+     * @param carriedOverPatientId The identifier of the patient of which the rows are kept, or null to write all rows.
      * @throws IOException An input-output exception.
      */
-    private void writeEntityData() throws IOException {
+    private void writeEntityData(final String carriedOverPatientId) throws IOException {
+        if (writeClinicalDataHeaders) {
+            writeCSVData(clinicalDataWriter, columnHeaders);
+            writeClinicalDataHeaders = false;
+        }
+        final List<EntityRow> carriedOverEntityRows = new ArrayList<>();
+        String previousPatientId = null;
+        for (final EntityRow entityRow : entityRows) {
+            final String patientId = entityRow.getPatientId();
+            if (patientId.equals(carriedOverPatientId)) {
+                carriedOverEntityRows.add(entityRow);
+                continue;
+            }
+            if (streamClinicalData && !patientId.equals(previousPatientId) && !markPatientIdWritten(patientId)) {
+                reappearedSubjectCount++;
+                logger.warn("Subject " + patientId + " seems to appear again after other subjects; its rows are "
+                            + "then written again instead of being merged. Set stream-clinical-data to false to "
+                            + "merge them.");
+            }
+            previousPatientId = patientId;
+            entityRowsById.remove(entityRow.getEntityId());
+            writeCSVData(clinicalDataWriter, getRowAsList(entityRow));
+        }
+        entityRows = carriedOverEntityRows;
+        currentEntityRow = null;
+    }
 
-        writeCSVData(clinicalDataWriter, columnHeaders);
-        for (final String entityId : entityIds) {
-            final List<String> rowAsList = new ArrayList<>();
-            final Map<String, String> patientData = clinicalDataMap.get(entityId);
-            for (final String columnId : columnIds) {
-                final String rawDataEntry = patientData.get(columnId);
-                String dataEntry;
-                if (rawDataEntry == null) {
-                    dataEntry = "";
-                } else if (rawDataEntry.length() > maxClinicalDataEntry) {
-                    final String tooLongIndicator = "...";
-                    final int logSegmentLength = 15;
-                    dataEntry = rawDataEntry.substring(0, maxClinicalDataEntry - tooLongIndicator.length())
-                            + tooLongIndicator;
-                    logger.warn("Data entry " + dataEntry.substring(0, logSegmentLength) + " of " + entityId
-                            + " and column " + columnId + " was cut off at "
-                            + rawDataEntry.substring(maxClinicalDataEntry - logSegmentLength,
-                            maxClinicalDataEntry - tooLongIndicator.length()));
-                } else {
-                    dataEntry = rawDataEntry;
-                }
-                rowAsList.add(dataEntry);
+    /**
+     * Add a patient ID to the filter of the written patient IDs.
+     *
+     * @param patientId the patient ID.
+     * @return whether the patient ID was new; false means that it was (very probably) written before.
+     */
+    private boolean markPatientIdWritten(final String patientId) {
+        final int hash = patientId.hashCode();
+        // Two hashes derived from one (Kirsch-Mitzenmacher) set three bits per patient ID.
+        final int secondHash = (hash >>> 16 | hash << 16) * 0x9E3779B1 | 1;
+        boolean isNew = false;
+        for (int hashIndex = 0; hashIndex < 3; hashIndex++) {
+            final int bitIndex = (hash + hashIndex * secondHash) & (WRITTEN_PATIENT_ID_BIT_COUNT - 1);
+            if (!writtenPatientIdBits.get(bitIndex)) {
+                writtenPatientIdBits.set(bitIndex);
+                isNew = true;
             }
-            writeCSVData(clinicalDataWriter, rowAsList);
+        }
+        return isNew;
+    }
+
+    /**
+     * Get the number of subjects that appeared again after other subjects, when the clinical data is streamed.
+     *
+     * @return the number of subjects that appeared again.
+     */
+    int getReappearedSubjectCount() {
+        return reappearedSubjectCount;
+    }
+
+    /**
+     * Get the fields of a row in the clinical data file. Data entries that are too long are cut off.
+     *
+     * @param entityRow the row.
+     * @return the fields, with an empty string for the empty fields.
+     */
+    List<String> getRowAsList(final EntityRow entityRow) {
+        final int[] columnValueIndexes = getValueIndexes();
+        final List<String> rowAsList = new ArrayList<>(columnValueIndexes.length);
+        for (int columnIndex = 0; columnIndex < columnValueIndexes.length; columnIndex++) {
+            final String rawDataEntry = getDataEntry(entityRow, columnIndex, columnValueIndexes);
+            String dataEntry;
+            if (rawDataEntry == null) {
+                dataEntry = "";
+            } else if (rawDataEntry.length() > maxClinicalDataEntry) {
+                final String tooLongIndicator = "...";
+                final int logSegmentLength = 15;
+                dataEntry = rawDataEntry.substring(0, maxClinicalDataEntry - tooLongIndicator.length())
+                        + tooLongIndicator;
+                logger.warn("Data entry " + dataEntry.substring(0, logSegmentLength) + " of "
+                        + entityRow.getEntityId() + " and column " + columnIds.get(columnIndex) + " was cut off at "
+                        + rawDataEntry.substring(maxClinicalDataEntry - logSegmentLength,
+                        maxClinicalDataEntry - tooLongIndicator.length()));
+            } else {
+                dataEntry = rawDataEntry;
+            }
+            rowAsList.add(dataEntry);
+        }
+        return rowAsList;
+    }
+
+    /**
+     * Get the index of the column with the values for each column, which is the first column with the same ID.
+     *
+     * @return the value indexes, with -1 for the columns with the IDs of the patient, the event and the item group.
+     */
+    private int[] getValueIndexes() {
+        if (valueIndexes == null) {
+            valueIndexes = new int[columnIds.size()];
+            for (int columnIndex = 0; columnIndex < valueIndexes.length; columnIndex++) {
+                valueIndexes[columnIndex] = columnIndex < DIMENSION_COLUMN_COUNT
+                                            ? -1
+                                            : getColumnIndex(columnIds.get(columnIndex));
+            }
+        }
+        return valueIndexes;
+    }
+
+    /**
+     * Get a field of a row in the clinical data file.
+     *
+     * @param entityRow the row.
+     * @param columnIndex the index of the column.
+     * @param columnValueIndexes the index of the column with the values for each column.
+     * @return the value of the field, or null if it is empty.
+     */
+    private String getDataEntry(final EntityRow entityRow, final int columnIndex, final int[] columnValueIndexes) {
+        final EntityRow.EntityType entityType = entityRow.getEntityType();
+        switch (columnIndex) {
+            case 0:
+                return entityRow.getPatientId();
+            case 1:
+                return entityType != null ? entityType.getEventId() : null;
+            case 2:
+                return entityType != null ? entityType.getEventName() : null;
+            case 3:
+                return entityRow.getEventRepeatKey();
+            case 4:
+                return entityRow.getItemGroupRepeatKey() != null ? entityType.getItemGroupId() : null;
+            case 5:
+                return entityRow.getItemGroupRepeatKey() != null ? entityType.getItemGroupName() : null;
+            case 6:
+                return entityRow.getItemGroupRepeatKey();
+            default:
+                return entityRow.getValue(columnValueIndexes[columnIndex]);
         }
     }
 
@@ -901,10 +1111,12 @@ public class FileExporter {
     public void close() {
         try {
 //            scanForNewEntities();
-            writeEntityData();
             columnsWriter.close();
             wordMapWriter.close();
-            clinicalDataWriter.close();
+            if (!metaDataOnly) {
+                writeEntityData(null);
+                clinicalDataWriter.close();
+            }
         } catch (final IOException e) {
             e.printStackTrace();
         }
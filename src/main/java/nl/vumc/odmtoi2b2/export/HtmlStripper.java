@@ -0,0 +1,344 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jsoup.Jsoup;
+
+/**
+ * Converts the (HTML) question texts of items to plain text, with the same result as Jsoup.parse(html).text(). Plain
+ * text without markup is returned as is, simple markup (inline tags, paragraphs, line breaks and the common entities)
+ * is stripped in a single pass, and anything else is handed to Jsoup. The results are memoized, since the same
+ * question texts occur for many items. An instance is not thread safe.
+ */
+public class HtmlStripper {
+    /**
+     * The inline tags, which do not add any text.
+     */
+    private static final Set<String> INLINE_TAGS = new HashSet<>(Arrays.asList(
+            "b", "big", "em", "font", "i", "small", "span", "strong", "sub", "sup", "u"));
+
+    /**
+     * The block tags, which are separated from the preceding text by a space.
+     */
+    private static final Set<String> BLOCK_TAGS = new HashSet<>(Arrays.asList("div", "p"));
+
+    /**
+     * The line break tag, which adds a space.
+     */
+    private static final String BREAK_TAG = "br";
+
+    /**
+     * The paragraph tag, which is closed implicitly by a block tag.
+     */
+    private static final String PARAGRAPH_TAG = "p";
+
+    /**
+     * The named entities that are decoded.
+     */
+    private static final Map<String, Character> ENTITIES = new HashMap<>();
+
+    static {
+        ENTITIES.put("amp", '&');
+        ENTITIES.put("gt", '>');
+        ENTITIES.put("lt", '<');
+        ENTITIES.put("nbsp", '\u00a0');
+        ENTITIES.put("quot", '"');
+    }
+
+    /**
+     * The plain texts by input text.
+     */
+    private final Map<String, String> plainTexts = new HashMap<>();
+
+    /**
+     * Convert a text to plain text.
+     *
+     * @param text the text, which can contain HTML.
+     * @return the plain text.
+     */
+    public String toPlainText(final String text) {
+        if (isPlainText(text)) {
+            return text;
+        }
+        String plainText = plainTexts.get(text);
+        if (plainText == null) {
+            plainText = strip(text);
+            if (plainText == null) {
+                plainText = Jsoup.parse(text).text();
+            }
+            plainTexts.put(text, plainText);
+        }
+        return plainText;
+    }
+
+    /**
+     * Check whether a text has no markup and no whitespace to normalize, so it is its own plain text.
+     *
+     * @param text the text.
+     * @return whether the text is plain text.
+     */
+    private static boolean isPlainText(final String text) {
+        char previous = ' ';
+        for (int index = 0; index < text.length(); index++) {
+            final char c = text.charAt(index);
+            if (c == '<' || c == '&' || (c <= ' ' && (c != ' ' || previous == ' '))) {
+                return false;
+            }
+            previous = c;
+        }
+        return previous != ' ';
+    }
+
+    /**
+     * Strip the tags and decode the entities of a text in a single pass, like Jsoup does for simple markup: the text is
+     * normalized to single spaces, a line break adds a space, a block is separated from the preceding text by a space
+     * and the result is trimmed.
+     *
+     * @param text the text.
+     * @return the plain text, or null if the text has markup that is not handled here.
+     */
+    private static String strip(final String text) {
+        final StringBuilder plainText = new StringBuilder(text.length());
+        final List<String> openTags = new ArrayList<>();
+        int index = 0;
+        while (index < text.length()) {
+            final char c = text.charAt(index);
+            if (c == '<' && index + 1 < text.length() && isTagStart(text, index + 1)) {
+                index = stripTag(text, index, openTags, plainText);
+                if (index < 0) {
+                    return null;
+                }
+            } else if (c == '&' && index + 1 < text.length() && isEntityStart(text.charAt(index + 1))) {
+                final int end = text.indexOf(';', index);
+                final Character decoded = end < 0 ? null : decodeEntity(text.substring(index + 1, end));
+                if (decoded == null) {
+                    return null;
+                }
+                appendCharacter(plainText, decoded);
+                index = end + 1;
+            } else if (c < ' ' && !isWhitespace(c)) {
+                // Jsoup treats the other control characters inconsistently.
+                return null;
+            } else {
+                appendCharacter(plainText, c);
+                index++;
+            }
+        }
+        return plainText.toString().trim();
+    }
+
+    /**
+     * Check whether the character after a '&lt;' starts a tag, a comment or another markup declaration, as opposed to
+     * a literal '&lt;'.
+     *
+     * @param text  the text.
+     * @param index the index after the '&lt;'.
+     * @return whether the '&lt;' starts markup.
+     */
+    private static boolean isTagStart(final String text, final int index) {
+        final char c = text.charAt(index);
+        return isAsciiLetter(c) || c == '/' || c == '!' || c == '?';
+    }
+
+    /**
+     * Handle a start or end tag.
+     *
+     * @param text      the text.
+     * @param index     the index of the '&lt;' that starts the tag.
+     * @param openTags  the tags that are open.
+     * @param plainText the plain text so far.
+     * @return the index after the tag, or -1 if the tag is not handled here.
+     */
+    private static int stripTag(final String text, final int index, final List<String> openTags,
+                                final StringBuilder plainText) {
+        final boolean endTag = text.charAt(index + 1) == '/';
+        final int nameStart = endTag ? index + 2 : index + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < text.length() && (isAsciiLetter(text.charAt(nameEnd)) || isAsciiDigit(text.charAt(nameEnd)))) {
+            nameEnd++;
+        }
+        if (nameEnd == nameStart || nameEnd == text.length() || !isAsciiLetter(text.charAt(nameStart))) {
+            return -1;
+        }
+        final char afterName = text.charAt(nameEnd);
+        if (afterName != '/' && afterName != '>' && !isWhitespace(afterName)) {
+            return -1;
+        }
+        final String name = text.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+        final int tagEnd = findTagEnd(text, nameEnd);
+        if (tagEnd < 0) {
+            return -1;
+        }
+        final boolean selfClosing = text.charAt(tagEnd - 1) == '/';
+
+        if (BREAK_TAG.equals(name)) {
+            // Both <br> and </br> are line breaks.
+            appendSpace(plainText, false);
+        } else if (endTag) {
+            // Only properly nested end tags are handled here.
+            if (openTags.isEmpty() || !openTags.get(openTags.size() - 1).equals(name)) {
+                return -1;
+            }
+            openTags.remove(openTags.size() - 1);
+        } else if (selfClosing) {
+            return -1;
+        } else if (BLOCK_TAGS.contains(name)) {
+            // A block tag closes an open paragraph implicitly, which is left to Jsoup.
+            if (openTags.contains(PARAGRAPH_TAG)) {
+                return -1;
+            }
+            appendSpace(plainText, true);
+            openTags.add(name);
+        } else if (INLINE_TAGS.contains(name)) {
+            openTags.add(name);
+        } else {
+            return -1;
+        }
+        return tagEnd + 1;
+    }
+
+    /**
+     * Find the '&gt;' that ends a tag, skipping quoted attribute values.
+     *
+     * @param text  the text.
+     * @param index the index after the tag name.
+     * @return the index of the '&gt;', or -1 if the tag is not closed or its attributes are not simple.
+     */
+    private static int findTagEnd(final String text, final int index) {
+        int current = index;
+        boolean afterEquals = false;
+        while (current < text.length()) {
+            final char c = text.charAt(current);
+            if (c == '>') {
+                return current;
+            } else if (c == '<' || c == '\0') {
+                return -1;
+            } else if (c == '"' || c == '\'') {
+                if (!afterEquals) {
+                    return -1;
+                }
+                current = text.indexOf(c, current + 1);
+                if (current < 0) {
+                    return -1;
+                }
+                afterEquals = false;
+            } else if (c == '=') {
+                afterEquals = true;
+            } else if (!isWhitespace(c)) {
+                afterEquals = false;
+            }
+            current++;
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether the character after a '&amp;' starts an entity, as opposed to a literal '&amp;'.
+     *
+     * @param c the character after the '&amp;'.
+     * @return whether the '&amp;' starts an entity.
+     */
+    private static boolean isEntityStart(final char c) {
+        return c == '#' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Decode a named entity or a numeric character reference with a printable character.
+     *
+     * @param entity the entity between the '&amp;' and the ';'.
+     * @return the character, or null if the entity is not handled here.
+     */
+    private static Character decodeEntity(final String entity) {
+        if (!entity.startsWith("#")) {
+            return ENTITIES.get(entity);
+        }
+        final boolean hexadecimal = entity.startsWith("#x") || entity.startsWith("#X");
+        final String digits = entity.substring(hexadecimal ? 2 : 1);
+        if (digits.isEmpty() || digits.length() > 4) {
+            return null;
+        }
+        final int radix = hexadecimal ? 16 : 10;
+        int codePoint = 0;
+        for (int index = 0; index < digits.length(); index++) {
+            // Character.digit also accepts non-ASCII digits, which Jsoup does not.
+            final char digitCharacter = digits.charAt(index);
+            final int digit = digitCharacter < 0x80 ? Character.digit(digitCharacter, radix) : -1;
+            if (digit < 0) {
+                return null;
+            }
+            codePoint = codePoint * radix + digit;
+        }
+        final boolean printable = (codePoint >= ' ' && codePoint < 0x7f)
+                                  || (codePoint >= 0xa0 && codePoint < Character.MIN_SURROGATE);
+        return printable && Character.isDefined(codePoint) ? Character.valueOf((char) codePoint) : null;
+    }
+
+    /**
+     * Append a character to the plain text, collapsing whitespace to a single space.
+     *
+     * @param plainText the plain text so far.
+     * @param c         the character.
+     */
+    private static void appendCharacter(final StringBuilder plainText, final char c) {
+        if (isWhitespace(c)) {
+            appendSpace(plainText, false);
+        } else {
+            plainText.append(c);
+        }
+    }
+
+    /**
+     * Append a space to the plain text, unless it already ends with one.
+     *
+     * @param plainText     the plain text so far.
+     * @param onlyAfterText whether the space is only appended when there is text already.
+     */
+    private static void appendSpace(final StringBuilder plainText, final boolean onlyAfterText) {
+        final int length = plainText.length();
+        if ((length > 0 || !onlyAfterText) && (length == 0 || plainText.charAt(length - 1) != ' ')) {
+            plainText.append(' ');
+        }
+    }
+
+    /**
+     * Check whether a character is HTML whitespace.
+     *
+     * @param c the character.
+     * @return whether the character is whitespace.
+     */
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Check whether a character is an ASCII digit.
+     *
+     * @param c the character.
+     * @return whether the character is an ASCII digit.
+     */
+    private static boolean isAsciiDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Check whether a character is an ASCII letter.
+     *
+     * @param c the character.
+     * @return whether the character is an ASCII letter.
+     */
+    private static boolean isAsciiLetter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+/**
+ * The ways in which an ODM file can be read before it is converted. The mode is set with the ingestion-mode
+ * property in the configuration file.
+ */
+public enum IngestionMode {
+    /**
+     * Unmarshal the whole ODM file into one odm object before the conversion starts.
+     */
+    TREE,
+
+    /**
+     * Unmarshal the metadata completely and then unmarshal and convert the subjects one at a time, so the
+     * memory use is bounded by the largest subject instead of by the size of the file.
+     */
+    STREAMING,
+
+    /**
+     * Unmarshal the metadata completely and then unmarshal the subjects on several threads, which are set with the
+     * parallel-threads property. The subjects are still converted one at a time and in document order, so the
+     * output is the same as with streaming.
+     */
+    PARALLEL
+}
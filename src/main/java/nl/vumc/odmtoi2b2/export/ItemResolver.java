@@ -0,0 +1,624 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import com.recomdata.i2b2.util.ODMUtil;
+import com.recomdata.odm.MetaDataRegistry;
+import com.recomdata.odm.MetaDataWithIncludes;
+import com.recomdata.odm.ODMItemFilter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormRef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemGroupDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemGroupRef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemRef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudy;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The metadata of all items, compiled into the form that the clinical data needs. For each (study OID, study event
+ * OID, form OID, item OID) it knows the column of the item in the export files, the kind of value and the decoder of
+ * the code list, so an item value can be stored with a single lookup. The items are compiled by following the
+ * protocols of the defining studies, after the columns have been written.
+ *
+ * An item that is not in a protocol is resolved when its data is found, but it is not added to the compiled items.
+ * The decoders of such items are created lazily and cached, so a resolver is not immutable: it is meant to be used
+ * by the single thread that converts the clinical data and should not be shared between threads.
+ */
+public class ItemResolver {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ItemResolver.class);
+
+    /**
+     * The separator between the OIDs in a column ID.
+     */
+    private static final String SEP = "\\";
+
+    /**
+     * The kinds of item values.
+     */
+    public enum ValueKind {
+        /**
+         * A value that is decoded with a code list.
+         */
+        CODED,
+
+        /**
+         * A number.
+         */
+        NUMERIC,
+
+        /**
+         * Any other value, which is written as text.
+         */
+        TEXT
+    }
+
+    /**
+     * The odm object with the studies.
+     */
+    private final ODM odm;
+
+    /**
+     * The metadata of all studies.
+     */
+    private final MetaDataRegistry metaDataRegistry;
+
+    /**
+     * The file exporters by the name of the defining study.
+     */
+    private final Map<String, FileExporter> fileExporters;
+
+    /**
+     * The items that are excluded by the column filter.
+     */
+    private final ODMItemFilter itemFilter;
+
+    /**
+     * The languages in which the decoded values are taken.
+     */
+    private final LanguagePreference languagePreference;
+
+    /**
+     * The dictionaries of the external code lists, or null if external code lists are not decoded.
+     */
+    private final ExternalCodeLists externalCodeLists;
+
+    /**
+     * The decoded values of the code lists, which are replayed from or recorded in a cached metadata snapshot, or
+     * null if the metadata cache is not used.
+     */
+    private final MetaDataSnapshot.DecodedCodeLists decodedCodeLists;
+
+    /**
+     * The compiled code list decoders by code list, so items that share a code list share its decoder.
+     */
+    private final Map<ODMcomplexTypeDefinitionCodeList, CodeListDecoder> decoders = new HashMap<>();
+
+    /**
+     * The compiled items.
+     */
+    private final Map<ItemKey, ResolvedItem> resolvedItems;
+
+    /**
+     * Compile the items of all studies.
+     *
+     * @param odm                the odm object with the studies.
+     * @param metaDataRegistry   the metadata of all studies.
+     * @param fileExporters      the file exporters by the name of the defining study, which have stored the columns.
+     * @param itemFilter         the items that are excluded by the column filter.
+     * @param languagePreference the languages in which the decoded values are taken.
+     * @param externalCodeLists  the dictionaries of the external code lists, or null.
+     * @param decodedCodeLists   the decoded values of the code lists from the metadata cache, or null.
+     */
+    public ItemResolver(final ODM odm, final MetaDataRegistry metaDataRegistry,
+                        final Map<String, FileExporter> fileExporters, final ODMItemFilter itemFilter,
+                        final LanguagePreference languagePreference, final ExternalCodeLists externalCodeLists,
+                        final MetaDataSnapshot.DecodedCodeLists decodedCodeLists) {
+        this.odm = odm;
+        this.metaDataRegistry = metaDataRegistry;
+        this.fileExporters = fileExporters;
+        this.itemFilter = itemFilter;
+        this.languagePreference = languagePreference;
+        this.externalCodeLists = externalCodeLists;
+        this.decodedCodeLists = decodedCodeLists;
+        final Map<ItemKey, ResolvedItem> items = new HashMap<>();
+        for (final ODMcomplexTypeDefinitionStudy study : odm.getStudy()) {
+            compileStudy(study, items);
+        }
+        this.resolvedItems = Collections.unmodifiableMap(items);
+        final String cachedCount = decodedCodeLists != null
+                                   ? ", " + decodedCodeLists.getReplayedCount() + " from the cache"
+                                   : "";
+        logger.debug("Compiled " + resolvedItems.size() + " items with " + decoders.size() + " code lists"
+                     + cachedCount + ".");
+    }
+
+    /**
+     * Get the number of compiled items.
+     *
+     * @return the number of compiled items.
+     */
+    public int size() {
+        return resolvedItems.size();
+    }
+
+    /**
+     * Resolve an item of the clinical data.
+     *
+     * @param study         the study or study-site in which the patient is treated.
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     * @return the resolved item, or null if the metadata of the study does not define the item.
+     */
+    public ResolvedItem resolve(final ODMcomplexTypeDefinitionStudy study, final String studyEventOID,
+                                final String formOID, final String itemOID) {
+        final ResolvedItem resolvedItem = resolvedItems.get(new ItemKey(study.getOID(), studyEventOID, formOID,
+                                                                          itemOID));
+        if (resolvedItem != null) {
+            return resolvedItem;
+        }
+        logger.debug("Resolving item " + itemOID + " of form " + formOID + " of study event " + studyEventOID
+                     + ", which is not in the protocol of study " + study.getOID());
+        return createResolvedItem(study, getMetaData(study), studyEventOID, formOID, itemOID);
+    }
+
+    /**
+     * Compile the items in the protocol of the defining study of a study.
+     *
+     * @param study the study.
+     * @param items the compiled items, to which the items of the study are added.
+     */
+    private void compileStudy(final ODMcomplexTypeDefinitionStudy study, final Map<ItemKey, ResolvedItem> items) {
+        final MetaDataWithIncludes metaData = getMetaData(study);
+        final ODMcomplexTypeDefinitionStudy definingStudy = metaData.getDefiningStudy(odm);
+        final MetaDataWithIncludes definingMetaData = getMetaData(definingStudy);
+        final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion = definingStudy.getMetaDataVersion().get(0);
+        if (metaDataVersion.getProtocol() == null) {
+            return;
+        }
+        for (final ODMcomplexTypeDefinitionStudyEventRef eventRef : metaDataVersion.getProtocol().getStudyEventRef()) {
+            final ODMcomplexTypeDefinitionStudyEventDef eventDef =
+                    definingMetaData.getStudyEventDef(eventRef.getStudyEventOID());
+            if (eventDef == null) {
+                continue;
+            }
+            for (final ODMcomplexTypeDefinitionFormRef formRef : eventDef.getFormRef()) {
+                final ODMcomplexTypeDefinitionFormDef formDef = definingMetaData.getFormDef(formRef.getFormOID());
+                if (formDef == null) {
+                    continue;
+                }
+                for (final ODMcomplexTypeDefinitionItemGroupRef itemGroupRef : formDef.getItemGroupRef()) {
+                    final ODMcomplexTypeDefinitionItemGroupDef itemGroupDef =
+                            definingMetaData.getItemGroupDef(itemGroupRef.getItemGroupOID());
+                    if (itemGroupDef == null) {
+                        continue;
+                    }
+                    for (final ODMcomplexTypeDefinitionItemRef itemRef : itemGroupDef.getItemRef()) {
+                        final ItemKey key = new ItemKey(study.getOID(), eventDef.getOID(), formDef.getOID(),
+                                                        itemRef.getItemOID());
+                        if (!items.containsKey(key)) {
+                            final ResolvedItem resolvedItem = createResolvedItem(study, metaData, eventDef.getOID(),
+                                                                                 formDef.getOID(),
+                                                                                 itemRef.getItemOID());
+                            if (resolvedItem != null) {
+                                items.put(key, resolvedItem);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve an item with the metadata of the study in which the patient is treated.
+     *
+     * @param study         the study or study-site.
+     * @param metaData      the metadata of the study.
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     * @return the resolved item, or null if the metadata does not define the item.
+     */
+    private ResolvedItem createResolvedItem(final ODMcomplexTypeDefinitionStudy study,
+                                            final MetaDataWithIncludes metaData, final String studyEventOID,
+                                            final String formOID, final String itemOID) {
+        final ODMcomplexTypeDefinitionItemDef itemDef = metaData.getItemDef(itemOID);
+        if (itemDef == null) {
+            return null;
+        }
+        final ODMcomplexTypeDefinitionStudy definingStudy = metaData.getDefiningStudy(odm);
+        final FileExporter fileExporter =
+                fileExporters.get(definingStudy.getGlobalVariables().getStudyName().getValue());
+        final String columnId = definingStudy.getOID() + SEP + studyEventOID + SEP + formOID + SEP + itemOID + SEP;
+        final boolean excluded = itemFilter.isExcluded(studyEventOID, formOID, itemOID);
+
+        final ValueKind valueKind;
+        CodeListDecoder decoder = null;
+        if (itemDef.getCodeListRef() != null) {
+            valueKind = ValueKind.CODED;
+            decoder = getDecoder(metaData, itemDef.getCodeListRef().getCodeListOID());
+        } else if (ODMUtil.isNumericDataType(itemDef.getDataType())) {
+            valueKind = ValueKind.NUMERIC;
+        } else {
+            valueKind = ValueKind.TEXT;
+        }
+        return new ResolvedItem(itemDef.getOID(), itemDef.getName(), fileExporter, columnId,
+                                fileExporter.getColumnIndex(columnId), excluded, valueKind, decoder);
+    }
+
+    /**
+     * Get the decoder of a code list, which is compiled the first time it is needed.
+     *
+     * @param metaData    the metadata in which the code list is defined.
+     * @param codeListOID the OID of the code list.
+     * @return the decoder.
+     */
+    private CodeListDecoder getDecoder(final MetaDataWithIncludes metaData, final String codeListOID) {
+        final ODMcomplexTypeDefinitionCodeList codeList = metaData.getCodeList(codeListOID);
+        if (codeList == null) {
+            logger.error("Code list " + codeListOID + " not found.");
+            return new CodeListDecoder(codeListOID, Collections.<String, String>emptyMap());
+        }
+        CodeListDecoder decoder = decoders.get(codeList);
+        if (decoder == null && codeList.getExternalCodeList() != null) {
+            final ExternalDictionary dictionary = externalCodeLists != null
+                                                  ? externalCodeLists.getDictionary(codeList.getExternalCodeList())
+                                                  : null;
+            if (dictionary != null) {
+                decoder = new CodeListDecoder(codeList.getOID(), dictionary);
+                decoders.put(codeList, decoder);
+            }
+        }
+        if (decoder == null) {
+            Map<String, String> words = decodedCodeLists != null ? decodedCodeLists.replay(codeList.getOID()) : null;
+            if (words == null) {
+                words = decodeCodeList(codeList);
+                if (decodedCodeLists != null) {
+                    decodedCodeLists.record(codeList.getOID(), words);
+                }
+            }
+            decoder = new CodeListDecoder(codeList.getOID(), words);
+            decoders.put(codeList, decoder);
+        }
+        return decoder;
+    }
+
+    /**
+     * Decode the items of a code list in the preferred language.
+     *
+     * @param codeList the code list.
+     * @return the decoded values by coded value.
+     */
+    private Map<String, String> decodeCodeList(final ODMcomplexTypeDefinitionCodeList codeList) {
+        final Map<String, String> words = new HashMap<>();
+        for (final ODMcomplexTypeDefinitionCodeListItem codeListItem : codeList.getCodeListItem()) {
+            // The first code list item with a coded value wins, like a search would.
+            if (!words.containsKey(codeListItem.getCodedValue())) {
+                words.put(codeListItem.getCodedValue(), languagePreference.chooseDecode(codeListItem));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Get the metadata of a study.
+     *
+     * @param study the study.
+     * @return the metadata with includes.
+     */
+    private MetaDataWithIncludes getMetaData(final ODMcomplexTypeDefinitionStudy study) {
+        // We assume there is only one pack of metadata for a study.
+        return metaDataRegistry.get(study.getOID(), study.getMetaDataVersion().get(0).getOID());
+    }
+
+    /**
+     * An item with everything that is needed to store its values.
+     */
+    public static final class ResolvedItem {
+        /**
+         * The OID of the item.
+         */
+        private final String itemOID;
+
+        /**
+         * The name of the item, for log messages.
+         */
+        private final String itemName;
+
+        /**
+         * The file exporter of the defining study.
+         */
+        private final FileExporter fileExporter;
+
+        /**
+         * The full path of OIDs, which identifies the column.
+         */
+        private final String columnId;
+
+        /**
+         * The index of the column in the clinical data file, or -1 if the column is not exported.
+         */
+        private final int columnIndex;
+
+        /**
+         * Whether the item is excluded by the column filter.
+         */
+        private final boolean excluded;
+
+        /**
+         * The kind of value.
+         */
+        private final ValueKind valueKind;
+
+        /**
+         * The decoder of the code list, or null if the item has no code list.
+         */
+        private final CodeListDecoder decoder;
+
+        /**
+         * Construct a resolved item.
+         *
+         * @param itemOID      the OID of the item.
+         * @param itemName     the name of the item.
+         * @param fileExporter the file exporter of the defining study.
+         * @param columnId     the full path of OIDs, which identifies the column.
+         * @param columnIndex  the index of the column in the clinical data file, or -1.
+         * @param excluded     whether the item is excluded by the column filter.
+         * @param valueKind    the kind of value.
+         * @param decoder      the decoder of the code list, or null.
+         */
+        ResolvedItem(final String itemOID, final String itemName, final FileExporter fileExporter,
+                     final String columnId, final int columnIndex, final boolean excluded,
+                     final ValueKind valueKind, final CodeListDecoder decoder) {
+            this.itemOID = itemOID;
+            this.itemName = itemName;
+            this.fileExporter = fileExporter;
+            this.columnId = columnId;
+            this.columnIndex = columnIndex;
+            this.excluded = excluded;
+            this.valueKind = valueKind;
+            this.decoder = decoder;
+        }
+
+        /**
+         * Get the OID of the item.
+         *
+         * @return the item OID.
+         */
+        public String getItemOID() {
+            return itemOID;
+        }
+
+        /**
+         * Get the name of the item.
+         *
+         * @return the item name.
+         */
+        public String getItemName() {
+            return itemName;
+        }
+
+        /**
+         * Get the file exporter of the defining study.
+         *
+         * @return the file exporter.
+         */
+        public FileExporter getFileExporter() {
+            return fileExporter;
+        }
+
+        /**
+         * Get the full path of OIDs, which identifies the column.
+         *
+         * @return the column ID.
+         */
+        public String getColumnId() {
+            return columnId;
+        }
+
+        /**
+         * Get the index of the column in the clinical data file.
+         *
+         * @return the column index, or -1 if the column is not exported.
+         */
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        /**
+         * Check whether the item is excluded by the column filter.
+         *
+         * @return whether the values of the item are left out.
+         */
+        public boolean isExcluded() {
+            return excluded;
+        }
+
+        /**
+         * Get the kind of value.
+         *
+         * @return the value kind.
+         */
+        public ValueKind getValueKind() {
+            return valueKind;
+        }
+
+        /**
+         * Get the decoder of the code list.
+         *
+         * @return the decoder, or null if the item has no code list.
+         */
+        public CodeListDecoder getDecoder() {
+            return decoder;
+        }
+    }
+
+    /**
+     * The decoded values of a code list by coded value, taken from its items or from the dictionary of an external
+     * code list.
+     */
+    public static final class CodeListDecoder {
+        /**
+         * The OID of the code list.
+         */
+        private final String codeListOID;
+
+        /**
+         * The decoded values by coded value, or null for an external code list.
+         */
+        private final Map<String, String> words;
+
+        /**
+         * The dictionary of an external code list, or null.
+         */
+        private final ExternalDictionary dictionary;
+
+        /**
+         * Construct a decoder.
+         *
+         * @param codeListOID the OID of the code list.
+         * @param words       the decoded values by coded value.
+         */
+        CodeListDecoder(final String codeListOID, final Map<String, String> words) {
+            this.codeListOID = codeListOID;
+            this.words = words;
+            this.dictionary = null;
+        }
+
+        /**
+         * Construct a decoder for an external code list.
+         *
+         * @param codeListOID the OID of the code list.
+         * @param dictionary  the dictionary of the external code list.
+         */
+        CodeListDecoder(final String codeListOID, final ExternalDictionary dictionary) {
+            this.codeListOID = codeListOID;
+            this.words = null;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * Get the OID of the code list.
+         *
+         * @return the code list OID.
+         */
+        public String getCodeListOID() {
+            return codeListOID;
+        }
+
+        /**
+         * Decode a coded value.
+         *
+         * @param codedValue the coded value.
+         * @return the decoded value, or null if the code list has no item with this coded value.
+         */
+        public String decode(final String codedValue) {
+            return dictionary != null ? dictionary.decode(codedValue) : words.get(codedValue);
+        }
+    }
+
+    /**
+     * The key of a compiled item, which compares the OIDs without concatenating them.
+     */
+    private static final class ItemKey {
+        /**
+         * The OID of the study.
+         */
+        private final String studyOID;
+
+        /**
+         * The OID of the study event.
+         */
+        private final String studyEventOID;
+
+        /**
+         * The OID of the form.
+         */
+        private final String formOID;
+
+        /**
+         * The OID of the item.
+         */
+        private final String itemOID;
+
+        /**
+         * The hash code.
+         */
+        private final int hashCode;
+
+        /**
+         * Construct a key.
+         *
+         * @param studyOID      the OID of the study.
+         * @param studyEventOID the OID of the study event.
+         * @param formOID       the OID of the form.
+         * @param itemOID       the OID of the item.
+         */
+        ItemKey(final String studyOID, final String studyEventOID, final String formOID, final String itemOID) {
+            this.studyOID = studyOID;
+            this.studyEventOID = studyEventOID;
+            this.formOID = formOID;
+            this.itemOID = itemOID;
+            this.hashCode = ((hash(studyOID) * 31 + hash(studyEventOID)) * 31 + hash(formOID)) * 31 + hash(itemOID);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof ItemKey)) {
+                return false;
+            }
+            final ItemKey other = (ItemKey) object;
+            return hashCode == other.hashCode && equal(itemOID, other.itemOID) && equal(formOID, other.formOID)
+                   && equal(studyEventOID, other.studyEventOID) && equal(studyOID, other.studyOID);
+        }
+
+        /**
+         * Get the hash code of an OID.
+         *
+         * @param oid the OID, which can be null.
+         * @return the hash code.
+         */
+        private static int hash(final String oid) {
+            return oid != null ? oid.hashCode() : 0;
+        }
+
+        /**
+         * Compare two OIDs.
+         *
+         * @param oid1 the first OID, which can be null.
+         * @param oid2 the second OID, which can be null.
+         * @return whether the OIDs are equal.
+         */
+        private static boolean equal(final String oid1, final String oid2) {
+            return oid1 == null ? oid2 == null : oid1.equals(oid2);
+        }
+    }
+}
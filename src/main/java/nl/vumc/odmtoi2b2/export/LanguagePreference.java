@@ -0,0 +1,193 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDescription;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionTranslatedText;
+
+/**
+ * The ordered languages in which the descriptions, questions and decodes of the metadata are taken, like "nl,en,*".
+ * The first language that has a (non-empty) translation wins; the wildcard "*" matches any translation, including
+ * translations without a language, which are common in OpenClinica exports. The translations are chosen while the
+ * metadata is processed, so the clinical data only uses the chosen strings.
+ *
+ * Without configured languages, the descriptions and decodes are taken in English and each question is taken in its
+ * first translation, like the conversion has always done. Configured languages also apply to the questions.
+ */
+public class LanguagePreference {
+    /**
+     * The language preference that is used when none is configured.
+     */
+    public static final LanguagePreference DEFAULT =
+            new LanguagePreference(Collections.singletonList("en"), true);
+
+    /**
+     * The wildcard that matches any language.
+     */
+    private static final String ANY_LANGUAGE = "*";
+
+    /**
+     * The languages in order of preference, in lower case.
+     */
+    private final List<String> languages;
+
+    /**
+     * Whether a question is taken in its first translation, regardless of the languages.
+     */
+    private final boolean firstQuestionTaken;
+
+    /**
+     * Construct a language preference.
+     *
+     * @param languages          the languages in order of preference, in lower case.
+     * @param firstQuestionTaken whether a question is taken in its first translation, regardless of the languages.
+     */
+    private LanguagePreference(final List<String> languages, final boolean firstQuestionTaken) {
+        this.languages = Collections.unmodifiableList(languages);
+        this.firstQuestionTaken = firstQuestionTaken;
+    }
+
+    /**
+     * Parse a comma-separated list of languages, like "nl,en,*". An empty list results in the default.
+     *
+     * @param languagesAsString the languages in order of preference, which may be null.
+     * @return the language preference.
+     */
+    public static LanguagePreference parse(final String languagesAsString) {
+        final List<String> languages = new ArrayList<>();
+        if (languagesAsString != null) {
+            for (final String language : languagesAsString.split(",")) {
+                final String trimmedLanguage = language.trim().toLowerCase(Locale.ENGLISH);
+                if (!"".equals(trimmedLanguage) && !languages.contains(trimmedLanguage)) {
+                    languages.add(trimmedLanguage);
+                }
+            }
+        }
+        return languages.isEmpty() ? DEFAULT : new LanguagePreference(languages, false);
+    }
+
+    /**
+     * Get the languages in order of preference.
+     *
+     * @return the languages, in lower case.
+     */
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    /**
+     * Check whether a question is taken in its first translation, regardless of the languages, which is the case when
+     * no languages are configured.
+     *
+     * @return whether the first question is taken.
+     */
+    public boolean isFirstQuestionTaken() {
+        return firstQuestionTaken;
+    }
+
+    /**
+     * Choose the description of a definition.
+     *
+     * @param description  the description, which may be null.
+     * @param defaultValue the value that is returned if there is no translation in one of the languages, usually the
+     *                     name of the definition.
+     * @return the translated description or the default value.
+     */
+    public String chooseDescription(final ODMcomplexTypeDefinitionDescription description,
+                                    final String defaultValue) {
+        final String translatedDescription = description != null ? choose(description.getTranslatedText()) : null;
+        return translatedDescription != null ? translatedDescription : defaultValue;
+    }
+
+    /**
+     * Choose the (trimmed) question of an item. If there is no question in one of the languages, or if no languages
+     * are configured, the first question is taken.
+     *
+     * @param itemDef the item definition.
+     * @return the question, or null if the item has no (non-empty) question.
+     */
+    public String chooseQuestion(final ODMcomplexTypeDefinitionItemDef itemDef) {
+        if (itemDef.getQuestion() == null) {
+            return null;
+        }
+        final List<ODMcomplexTypeDefinitionTranslatedText> translatedTexts = itemDef.getQuestion().getTranslatedText();
+        final String question = firstQuestionTaken ? getFirst(translatedTexts) : chooseOrFirst(translatedTexts);
+        return question != null && !"".equals(question.trim()) ? question.trim() : null;
+    }
+
+    /**
+     * Choose the decode of a code list item. If there is no decode in one of the languages, the first decode is taken.
+     *
+     * @param codeListItem the code list item.
+     * @return the decoded value, or null if the code list item has no decode.
+     */
+    public String chooseDecode(final ODMcomplexTypeDefinitionCodeListItem codeListItem) {
+        return codeListItem.getDecode() != null ? chooseOrFirst(codeListItem.getDecode().getTranslatedText()) : null;
+    }
+
+    /**
+     * Choose the translation in the most preferred language, or the first translation.
+     *
+     * @param translatedTexts the translations, which may be null.
+     * @return the value of the chosen translation, or null if there are no translations.
+     */
+    private String chooseOrFirst(final List<ODMcomplexTypeDefinitionTranslatedText> translatedTexts) {
+        final String value = choose(translatedTexts);
+        return value != null ? value : getFirst(translatedTexts);
+    }
+
+    /**
+     * Get the first translation.
+     *
+     * @param translatedTexts the translations, which may be null.
+     * @return the value of the first translation, or null if there are no translations.
+     */
+    private static String getFirst(final List<ODMcomplexTypeDefinitionTranslatedText> translatedTexts) {
+        return translatedTexts == null || translatedTexts.isEmpty() || translatedTexts.get(0) == null
+               ? null
+               : translatedTexts.get(0).getValue();
+    }
+
+    /**
+     * Choose the translation in the most preferred language.
+     *
+     * @param translatedTexts the translations, which may be null.
+     * @return the value of the chosen translation, or null if there is no translation in one of the languages.
+     */
+    private String choose(final List<ODMcomplexTypeDefinitionTranslatedText> translatedTexts) {
+        if (translatedTexts != null) {
+            for (final String language : languages) {
+                for (final ODMcomplexTypeDefinitionTranslatedText translatedText : translatedTexts) {
+                    if (translatedText != null && translatedText.getValue() != null
+                        && !"".equals(translatedText.getValue().trim())
+                        && (ANY_LANGUAGE.equals(language) || language.equalsIgnoreCase(translatedText.getLang()))) {
+                        return translatedText.getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder languagesAsString = new StringBuilder();
+        for (final String language : languages) {
+            if (languagesAsString.length() > 0) {
+                languagesAsString.append(',');
+            }
+            languagesAsString.append(language);
+        }
+        return languagesAsString.toString();
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import com.recomdata.odm.ODMResources;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A directory with {@link MetaDataSnapshot}s, so a run that converts the same study definitions as an earlier run can
+ * skip the metadata pass. A snapshot is stored under a hash of the serialized studies (with their metadata versions),
+ * the excluded columns and the languages, so any change to the definitions results in a new snapshot. A snapshot that
+ * cannot be read is ignored, and the metadata pass is done as usual.
+ */
+public class MetaDataCache {
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MetaDataCache.class);
+
+    /**
+     * The version of the metadata pass, which is part of the hash. Change it when the metadata pass produces different
+     * results, so the snapshots of earlier versions are no longer used.
+     */
+    private static final String METADATA_PASS_VERSION = "4";
+
+    /**
+     * The extension of the snapshot files.
+     */
+    private static final String SNAPSHOT_EXTENSION = ".metadata";
+
+    /**
+     * The directory with the snapshots.
+     */
+    private final Path directory;
+
+    /**
+     * Construct a cache.
+     *
+     * @param directory the directory with the snapshots, which is created when the first snapshot is stored.
+     */
+    public MetaDataCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Compute the key of the metadata of an ODM object.
+     *
+     * @param odm                the odm object with the studies.
+     * @param columnFilter       the filter with the excluded columns.
+     * @param languagePreference the languages in which the metadata is taken.
+     * @return the key, as a hexadecimal SHA-256 hash.
+     * @throws JAXBException When the studies cannot be serialized.
+     */
+    public static String computeKey(final ODM odm, final ColumnFilter columnFilter,
+                                    final LanguagePreference languagePreference) throws JAXBException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform supports SHA-256.", e);
+        }
+        digest.update(METADATA_PASS_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(languagePreference.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) (languagePreference.isFirstQuestionTaken() ? '1' : '0'));
+        digest.update((byte) '\n');
+        for (final String excludedItem : columnFilter.getExcludedItems()) {
+            digest.update(excludedItem.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        // Only the studies are serialized, not the clinical data.
+        final ODM studies = new ODM();
+        studies.getStudy().addAll(odm.getStudy());
+        final Marshaller marshaller = ODMResources.getJAXBContext().createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+        marshaller.marshal(studies, new DigestOutputStream(new OutputStream() {
+            @Override
+            public void write(final int b) {
+                // The bytes are only digested.
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) {
+                // The bytes are only digested.
+            }
+        }, digest));
+
+        final StringBuilder key = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Load the snapshot with a key.
+     *
+     * @param key the key of the metadata.
+     * @return the snapshot, or null if there is no (readable) snapshot with this key.
+     */
+    public MetaDataSnapshot load(final String key) {
+        final Path path = getPath(key);
+        try (InputStream inputStream = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            final MetaDataSnapshot snapshot = MetaDataSnapshot.read(new DataInputStream(inputStream));
+            logger.info("Loaded the metadata snapshot " + path + " with " + snapshot.getOperations().size()
+                        + " operations.");
+            return snapshot;
+        } catch (final NoSuchFileException e) {
+            logger.info("No metadata snapshot " + path + " yet.");
+        } catch (final IOException e) {
+            logger.warn("The metadata snapshot " + path + " cannot be read; the metadata will be processed.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Store a snapshot with a key. The snapshot is written to a temporary file first, so a concurrent run never reads
+     * half a snapshot. A snapshot that cannot be stored is logged and skipped.
+     *
+     * @param key      the key of the metadata.
+     * @param snapshot the snapshot.
+     */
+    public void store(final String key, final MetaDataSnapshot snapshot) {
+        final Path path = getPath(key);
+        Path temporaryPath = null;
+        try {
+            Files.createDirectories(directory);
+            temporaryPath = Files.createTempFile(directory, key, SNAPSHOT_EXTENSION + ".tmp");
+            try (OutputStream outputStream = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+                snapshot.write(dataOutputStream);
+                dataOutputStream.flush();
+            }
+            try {
+                Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("Stored the metadata snapshot " + path + ".");
+        } catch (final IOException e) {
+            logger.warn("The metadata snapshot " + path + " cannot be stored.", e);
+            deleteQuietly(temporaryPath);
+        }
+    }
+
+    /**
+     * Get the path of the snapshot with a key.
+     *
+     * @param key the key of the metadata.
+     * @return the path.
+     */
+    private Path getPath(final String key) {
+        return directory.resolve(key + SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Delete a file, if it exists, without complaining when that fails.
+     *
+     * @param path the path of the file, which can be null.
+     */
+    private static void deleteQuietly(final Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (final IOException e) {
+                logger.debug("The temporary file " + path + " cannot be deleted.", e);
+            }
+        }
+    }
+}
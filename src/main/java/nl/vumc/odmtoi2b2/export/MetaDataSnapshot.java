@@ -0,0 +1,369 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of the metadata pass of {@link OdmToFilesConverter}, as the list of operations that it performed: the
+ * file exporters that were created, the columns and words that were stored, the items that were included or excluded
+ * and the studies that were mapped to their defining study. Replaying the operations results in the same export files
+ * and the same state as the metadata pass itself, without the translations, the HTML cleaning and the name building.
+ *
+ * The snapshot also holds the decoded values of the code lists that the {@link ItemResolver} compiled after the
+ * metadata pass, so a later run does not translate the code list items either.
+ */
+public class MetaDataSnapshot {
+    /**
+     * The number that starts a serialized snapshot.
+     */
+    private static final int MAGIC_NUMBER = 0x4f444d53;
+
+    /**
+     * The length that is written for a null string.
+     */
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * The types of operations.
+     */
+    public enum OperationType {
+        /**
+         * A file exporter is created; the argument is the name of the defining study.
+         */
+        FILE_EXPORTER(1),
+
+        /**
+         * A column is stored; the arguments are the name of the defining study and the arguments of
+         * {@link FileExporter#storeColumn}.
+         */
+        COLUMN(8),
+
+        /**
+         * A word is stored; the arguments are the name of the defining study and the word.
+         */
+        WORD(2),
+
+        /**
+         * An item is included; the arguments are the OIDs of the study event, form and item.
+         */
+        INCLUDED_ITEM(3),
+
+        /**
+         * An item is excluded; the arguments are the OIDs of the study event, form and item.
+         */
+        EXCLUDED_ITEM(3),
+
+        /**
+         * A study is mapped to its defining study; the arguments are the names of both studies.
+         */
+        STUDY(2);
+
+        /**
+         * The number of arguments.
+         */
+        private final int argumentCount;
+
+        /**
+         * Construct an operation type.
+         *
+         * @param argumentCount the number of arguments.
+         */
+        OperationType(final int argumentCount) {
+            this.argumentCount = argumentCount;
+        }
+    }
+
+    /**
+     * The operations in the order in which they were performed.
+     */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Whether the studies are modelled as a separate Study-site column.
+     */
+    private boolean modelStudiesAsColumn;
+
+    /**
+     * The decoded values of the code lists that the item resolver compiled.
+     */
+    private final DecodedCodeLists decodedCodeLists = new DecodedCodeLists();
+
+    /**
+     * Add an operation.
+     *
+     * @param type      the type of operation.
+     * @param arguments the arguments, which can be null.
+     */
+    public void add(final OperationType type, final String... arguments) {
+        if (arguments.length != type.argumentCount) {
+            throw new IllegalArgumentException("An operation of type " + type + " has " + type.argumentCount
+                                               + " arguments instead of " + arguments.length + ".");
+        }
+        operations.add(new Operation(type, arguments.clone()));
+    }
+
+    /**
+     * Get the operations in the order in which they were performed.
+     *
+     * @return the operations.
+     */
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Check whether the studies are modelled as a separate Study-site column.
+     *
+     * @return whether the studies are modelled as a column.
+     */
+    public boolean isModelStudiesAsColumn() {
+        return modelStudiesAsColumn;
+    }
+
+    /**
+     * Set whether the studies are modelled as a separate Study-site column.
+     *
+     * @param modelStudiesAsColumn whether the studies are modelled as a column.
+     */
+    public void setModelStudiesAsColumn(final boolean modelStudiesAsColumn) {
+        this.modelStudiesAsColumn = modelStudiesAsColumn;
+    }
+
+    /**
+     * Get the decoded values of the code lists that the item resolver compiled.
+     *
+     * @return the decoded code lists.
+     */
+    public DecodedCodeLists getDecodedCodeLists() {
+        return decodedCodeLists;
+    }
+
+    /**
+     * Write the snapshot.
+     *
+     * @param output the output to write to.
+     * @throws IOException An input-output exception.
+     */
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(MAGIC_NUMBER);
+        output.writeBoolean(modelStudiesAsColumn);
+        output.writeInt(operations.size());
+        for (final Operation operation : operations) {
+            output.writeByte(operation.type.ordinal());
+            for (final String argument : operation.arguments) {
+                writeString(output, argument);
+            }
+        }
+        output.writeInt(decodedCodeLists.codeListOIDs.size());
+        for (int codeListIndex = 0; codeListIndex < decodedCodeLists.codeListOIDs.size(); codeListIndex++) {
+            writeString(output, decodedCodeLists.codeListOIDs.get(codeListIndex));
+            final Map<String, String> words = decodedCodeLists.words.get(codeListIndex);
+            output.writeInt(words.size());
+            for (final Map.Entry<String, String> word : words.entrySet()) {
+                writeString(output, word.getKey());
+                writeString(output, word.getValue());
+            }
+        }
+    }
+
+    /**
+     * Read a snapshot.
+     *
+     * @param input the input to read from.
+     * @return the snapshot.
+     * @throws IOException An input-output exception, also when the input is not a snapshot.
+     */
+    public static MetaDataSnapshot read(final DataInput input) throws IOException {
+        if (input.readInt() != MAGIC_NUMBER) {
+            throw new IOException("The input is not a metadata snapshot.");
+        }
+        final MetaDataSnapshot snapshot = new MetaDataSnapshot();
+        snapshot.modelStudiesAsColumn = input.readBoolean();
+        final int operationCount = input.readInt();
+        final OperationType[] types = OperationType.values();
+        for (int operationIndex = 0; operationIndex < operationCount; operationIndex++) {
+            final int typeIndex = input.readUnsignedByte();
+            if (typeIndex >= types.length) {
+                throw new IOException("Unknown operation type " + typeIndex + " in the metadata snapshot.");
+            }
+            final String[] arguments = new String[types[typeIndex].argumentCount];
+            for (int argumentIndex = 0; argumentIndex < arguments.length; argumentIndex++) {
+                arguments[argumentIndex] = readString(input);
+            }
+            snapshot.operations.add(new Operation(types[typeIndex], arguments));
+        }
+        final int codeListCount = input.readInt();
+        for (int codeListIndex = 0; codeListIndex < codeListCount; codeListIndex++) {
+            final String codeListOID = readString(input);
+            final int wordCount = input.readInt();
+            final Map<String, String> words = new HashMap<>();
+            for (int wordIndex = 0; wordIndex < wordCount; wordIndex++) {
+                final String codedValue = readString(input);
+                words.put(codedValue, readString(input));
+            }
+            snapshot.decodedCodeLists.record(codeListOID, words);
+        }
+        snapshot.decodedCodeLists.replayableCount = codeListCount;
+        return snapshot;
+    }
+
+    /**
+     * Write a string as its length and its UTF-8 bytes, which (unlike writeUTF) also works for long texts.
+     *
+     * @param output the output to write to.
+     * @param string the string, which can be null.
+     * @throws IOException An input-output exception.
+     */
+    private static void writeString(final DataOutput output, final String string) throws IOException {
+        if (string == null) {
+            output.writeInt(NULL_LENGTH);
+        } else {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Read a string that was written by {@link #writeString}.
+     *
+     * @param input the input to read from.
+     * @return the string, which can be null.
+     * @throws IOException An input-output exception.
+     */
+    private static String readString(final DataInput input) throws IOException {
+        final int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length + " in the metadata snapshot.");
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An operation of the metadata pass.
+     */
+    public static final class Operation {
+        /**
+         * The type of operation.
+         */
+        private final OperationType type;
+
+        /**
+         * The arguments.
+         */
+        private final String[] arguments;
+
+        /**
+         * Construct an operation.
+         *
+         * @param type      the type of operation.
+         * @param arguments the arguments.
+         */
+        Operation(final OperationType type, final String[] arguments) {
+            this.type = type;
+            this.arguments = arguments;
+        }
+
+        /**
+         * Get the type of operation.
+         *
+         * @return the operation type.
+         */
+        public OperationType getType() {
+            return type;
+        }
+
+        /**
+         * Get an argument.
+         *
+         * @param index the index of the argument.
+         * @return the argument, which can be null.
+         */
+        public String getArgument(final int index) {
+            return arguments[index];
+        }
+    }
+
+    /**
+     * The decoded values of code lists by coded value, in the order in which the item resolver compiled the code
+     * lists. A fresh instance records the code lists; an instance that was read from the cache replays them in the
+     * same order, which is the same as long as the study definitions are the same. When a code list comes up that
+     * does not match the recorded one (for example because an external dictionary has become available), replaying
+     * stops and the remaining code lists are decoded as usual.
+     */
+    public static final class DecodedCodeLists {
+        /**
+         * The OIDs of the code lists.
+         */
+        private final List<String> codeListOIDs = new ArrayList<>();
+
+        /**
+         * The decoded values by coded value of the code lists.
+         */
+        private final List<Map<String, String>> words = new ArrayList<>();
+
+        /**
+         * The number of code lists that were read from the cache and can be replayed.
+         */
+        private int replayableCount;
+
+        /**
+         * The index of the next code list to replay.
+         */
+        private int replayIndex;
+
+        /**
+         * Take the decoded values of the next recorded code list.
+         *
+         * @param codeListOID the OID of the code list that is compiled.
+         * @return the decoded values by coded value, or null if there is no matching recorded code list.
+         */
+        public Map<String, String> replay(final String codeListOID) {
+            if (replayIndex >= replayableCount) {
+                return null;
+            }
+            if (!codeListOIDs.get(replayIndex).equals(codeListOID)) {
+                replayableCount = replayIndex;
+                return null;
+            }
+            return words.get(replayIndex++);
+        }
+
+        /**
+         * Record the decoded values of a code list.
+         *
+         * @param codeListOID   the OID of the code list.
+         * @param codeListWords the decoded values by coded value.
+         */
+        public void record(final String codeListOID, final Map<String, String> codeListWords) {
+            codeListOIDs.add(codeListOID);
+            words.add(codeListWords);
+        }
+
+        /**
+         * Get the number of code lists that were replayed.
+         *
+         * @return the number of replayed code lists.
+         */
+        public int getReplayedCount() {
+            return replayIndex;
+        }
+    }
+}
@@ -6,14 +6,16 @@
 package nl.vumc.odmtoi2b2.export;
 
 import com.recomdata.i2b2.util.ODMUtil;
+import com.recomdata.odm.MetaDataRegistry;
 import com.recomdata.odm.MetaDataWithIncludes;
+import com.recomdata.odm.ODMItemData;
+import com.recomdata.odm.ODMItemFilter;
 
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import javax.xml.bind.JAXBException;
@@ -22,7 +24,6 @@ import org.cdisk.odm.jaxb.ODM;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
-import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDescription;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormDef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormRef;
@@ -39,8 +40,6 @@ import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventData;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventDef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventRef;
 import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
-import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionTranslatedText;
-import org.jsoup.Jsoup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,11 +82,6 @@ public class OdmToFilesConverter {
      */
     private static final Logger logger = LoggerFactory.getLogger(OdmToFilesConverter.class);
 
-    /**
-     * The language variant of the label that is retrieved. en = english.
-     */
-    private static final String LANGUAGE = "en";
-
     /**
      * A separator to separate OIDs in the OIDPath.
      */
@@ -152,10 +146,20 @@ public class OdmToFilesConverter {
     private MetaDataWithIncludes metaDataWithIncludes;
 
     /**
-     * A list with the full human-readable names of the columns, which are used as identifiers within tranSMART.
+     * The full human-readable names of the columns, which are used as identifiers within tranSMART.
      * For this reason, they should be kept unique.
      */
-    private List<String> columnFullNameList;
+    private final ColumnNames columnNames = new ColumnNames();
+
+    /**
+     * The converter of the (HTML) question texts of the items to plain text.
+     */
+    private final HtmlStripper htmlStripper = new HtmlStripper();
+
+    /**
+     * The languages in which the descriptions, questions and decodes of the metadata are taken.
+     */
+    private LanguagePreference languagePreference = LanguagePreference.DEFAULT;
 
     /**
      * Map<studyName, fileExporter> to keep track of all the file exporters that were created.
@@ -163,9 +167,24 @@ public class OdmToFilesConverter {
     private Map<String, FileExporter> fileExporters;
 
     /**
-     * Map<studyOID+metadata_ID, metaDataWithIncludes> to keep track of all the metadata objects that were created.
+     * The metadata of all studies with the (recursive) includes resolved, which is created for each ODM object.
+     */
+    private MetaDataRegistry metaDataRegistry;
+
+    /**
+     * The compiled items, which is created after the columns of all studies have been written.
+     */
+    private ItemResolver itemResolver;
+
+    /**
+     * The snapshot in which the metadata pass is recorded for the metadata cache, or null if it is not recorded.
      */
-    private Map<String, MetaDataWithIncludes> metaDataMap;
+    private MetaDataSnapshot metaDataSnapshot;
+
+    /**
+     * Whether the metadata was loaded from a snapshot in the metadata cache.
+     */
+    private boolean metaDataFromCache;
 
     /**
      * Key: ODM-study, value: defining study with the metadata. File exporters are only made for the latter.
@@ -177,6 +196,22 @@ public class OdmToFilesConverter {
      */
     private ColumnFilter columnFilter;
 
+    /**
+     * The items that are excluded by the column filter, by the OIDs of their study event, form and item. It is
+     * filled while the metadata is processed, so a streaming reader can skip the data of these items.
+     */
+    private final ODMItemFilter itemFilter;
+
+    /**
+     * The clinical data block to which the last processed subject belonged.
+     */
+    private ODMcomplexTypeDefinitionClinicalData currentClinicalData;
+
+    /**
+     * The study or study-site of the current clinical data block, or null if it is not in the odm object.
+     */
+    private ODMcomplexTypeDefinitionStudy currentClinicalDataStudy;
+
 
     /**
      * This class is instantiated once for each ODM file.
@@ -184,11 +219,20 @@ public class OdmToFilesConverter {
      */
     public OdmToFilesConverter(final ColumnFilter columnFilter) {
         this.fileExporters = new HashMap<>();
-        this.metaDataMap = new HashMap<>();
         this.modelStudiesAsColumn = false;
-        this.columnFullNameList = new ArrayList<>();
         this.studies = new HashMap<>();
         this.columnFilter = columnFilter;
+        this.itemFilter = new ODMItemFilter();
+    }
+
+    /**
+     * Get the filter with the items that the column filter excludes. It is filled by {@link #processODMMetaData}, so
+     * it can be passed to a streaming reader before the metadata is read.
+     *
+     * @return the item filter.
+     */
+    public ODMItemFilter getItemFilter() {
+        return itemFilter;
     }
 
     /**
@@ -205,11 +249,26 @@ public class OdmToFilesConverter {
      */
     public void processODM(final ODM odm, final String exportFilePath,
                            final String propertiesFilePath) throws IOException, JAXBException {
+        processODMMetaData(odm, exportFilePath, propertiesFilePath);
+        processODMClinicalData();
+    }
+
+    /**
+     * This method processes only the metadata of an ODM file. It is used when the subjects are streamed
+     * separately, after which each subject is passed to {@link #processSubjectData}.
+     *
+     * @param odm                the odm object with at least the studies.
+     * @param exportFilePath     the path to the directory in which the export files will be written.
+     * @param propertiesFilePath the file path to the properties.
+     * @throws IOException   An input-output exception.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    public void processODMMetaData(final ODM odm, final String exportFilePath,
+                                   final String propertiesFilePath) throws IOException, JAXBException {
         this.odm = odm;
         this.exportFilePath = exportFilePath + File.separator;
 
         processODMStudy(propertiesFilePath);
-        processODMClinicalData();
     }
 
     /**
@@ -237,10 +296,185 @@ public class OdmToFilesConverter {
         // 1) Lookup all metadata definition values and paths for each tree leaf.
         // 2) Pass the metadata to the corresponding file exporter.
 
-        for (ODMcomplexTypeDefinitionStudy study : odm.getStudy()) {
-            saveStudy(study, propertiesFilePath);
+        metaDataRegistry = new MetaDataRegistry(odm.getStudy());
+        final Configuration configuration = new Configuration(propertiesFilePath);
+        languagePreference = configuration.getLanguagePreference();
+        final String metaDataCacheDirectory = configuration.getMetaDataCacheDirectory();
+        final MetaDataCache metaDataCache = metaDataCacheDirectory != null
+                                            ? new MetaDataCache(Paths.get(metaDataCacheDirectory))
+                                            : null;
+        final String metaDataKey = metaDataCache != null
+                                   ? MetaDataCache.computeKey(odm, columnFilter, languagePreference)
+                                   : null;
+        final MetaDataSnapshot cachedSnapshot = metaDataCache != null ? metaDataCache.load(metaDataKey) : null;
+        metaDataFromCache = cachedSnapshot != null;
+        if (metaDataFromCache) {
+            replayMetaData(cachedSnapshot, propertiesFilePath);
+        } else {
+            metaDataSnapshot = metaDataCache != null ? new MetaDataSnapshot() : null;
+            for (ODMcomplexTypeDefinitionStudy study : odm.getStudy()) {
+                saveStudy(study, propertiesFilePath);
+            }
+            writeStudySites();
+        }
+        final String externalCodeListDirectory = configuration.getExternalCodeListDirectory();
+        final ExternalCodeLists externalCodeLists = externalCodeListDirectory != null
+                                                    ? new ExternalCodeLists(Paths.get(externalCodeListDirectory))
+                                                    : null;
+        // The resolver replays the decoded code lists of a cached snapshot, or records them in the new snapshot.
+        final MetaDataSnapshot resolverSnapshot = metaDataFromCache ? cachedSnapshot : metaDataSnapshot;
+        itemResolver = new ItemResolver(odm, metaDataRegistry, fileExporters, itemFilter, languagePreference,
+                                        externalCodeLists,
+                                        resolverSnapshot != null ? resolverSnapshot.getDecodedCodeLists() : null);
+        if (metaDataSnapshot != null) {
+            metaDataSnapshot.setModelStudiesAsColumn(modelStudiesAsColumn);
+            metaDataCache.store(metaDataKey, metaDataSnapshot);
+            metaDataSnapshot = null;
+        }
+    }
+
+    /**
+     * Check whether the metadata was loaded from a snapshot in the metadata cache, instead of being processed.
+     *
+     * @return whether the metadata pass was skipped.
+     */
+    public boolean isMetaDataFromCache() {
+        return metaDataFromCache;
+    }
+
+    /**
+     * Perform the operations of an earlier metadata pass, which results in the same export files and state.
+     *
+     * @param snapshot           the snapshot of the metadata pass.
+     * @param propertiesFilePath the file path to the properties.
+     * @throws IOException An input-output exception.
+     */
+    private void replayMetaData(final MetaDataSnapshot snapshot, final String propertiesFilePath) throws IOException {
+        for (MetaDataSnapshot.Operation operation : snapshot.getOperations()) {
+            switch (operation.getType()) {
+                case FILE_EXPORTER:
+                    createFileExporter(operation.getArgument(0), propertiesFilePath);
+                    break;
+                case COLUMN:
+                    storeColumn(operation.getArgument(0), operation.getArgument(1), operation.getArgument(2),
+                            operation.getArgument(3), operation.getArgument(4), operation.getArgument(5),
+                            operation.getArgument(6), operation.getArgument(7));
+                    break;
+                case WORD:
+                    storeWord(operation.getArgument(0), operation.getArgument(1));
+                    break;
+                case INCLUDED_ITEM:
+                    includeItem(operation.getArgument(0), operation.getArgument(1), operation.getArgument(2));
+                    break;
+                case EXCLUDED_ITEM:
+                    excludeItem(operation.getArgument(0), operation.getArgument(1), operation.getArgument(2));
+                    break;
+                case STUDY:
+                    putStudy(operation.getArgument(0), operation.getArgument(1));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation type " + operation.getType());
+            }
+        }
+        modelStudiesAsColumn = snapshot.isModelStudiesAsColumn();
+    }
+
+    /**
+     * Create the file exporter of a defining study.
+     *
+     * @param definingStudyName  the name of the defining study.
+     * @param propertiesFilePath the file path to the properties.
+     * @throws IOException An input-output exception.
+     */
+    private void createFileExporter(final String definingStudyName, final String propertiesFilePath)
+            throws IOException {
+        logger.debug("Creating file exporter for study " + definingStudyName);
+        final Configuration configuration = new Configuration(propertiesFilePath);
+        fileExporters.put(definingStudyName, new FileExporter(exportFilePath, definingStudyName, configuration));
+        record(MetaDataSnapshot.OperationType.FILE_EXPORTER, definingStudyName);
+    }
+
+    /**
+     * Store a column with the file exporter of a defining study (see {@link FileExporter#storeColumn}).
+     *
+     * @param definingStudyName The name of the defining study.
+     * @param eventName         The human readable name of the event.
+     * @param eventId           The OID that identifies the type of event.
+     * @param formName          The human readable name of the form (the CRF).
+     * @param itemGroupName     The (most) human readable name of the item group.
+     * @param itemGroupId       The OID that identifies the type of repeating item group.
+     * @param preferredItemName The human readable name of the last node in the concept tree.
+     * @param oidPath           The full path of OIDs, which provides a unique identifier for the columns.
+     * @throws IOException      An input-output exception.
+     */
+    // CHECKSTYLE_OFF: ParameterNumberCheck
+    private void storeColumn(final String definingStudyName, final String eventName, final String eventId,
+                             final String formName, final String itemGroupName, final String itemGroupId,
+                             final String preferredItemName, final String oidPath) throws IOException {
+        fileExporters.get(definingStudyName).storeColumn(eventName, eventId, formName, itemGroupName, itemGroupId,
+                preferredItemName, oidPath);
+        record(MetaDataSnapshot.OperationType.COLUMN, definingStudyName, eventName, eventId, formName, itemGroupName,
+                itemGroupId, preferredItemName, oidPath);
+    }
+    // CHECKSTYLE_ON: ParameterNumberCheck
+
+    /**
+     * Store a word with the file exporter of a defining study (see {@link FileExporter#storeWord}).
+     *
+     * @param definingStudyName The name of the defining study.
+     * @param wordValue         The word.
+     * @throws IOException An input-output exception.
+     */
+    private void storeWord(final String definingStudyName, final String wordValue) throws IOException {
+        fileExporters.get(definingStudyName).storeWord(wordValue);
+        record(MetaDataSnapshot.OperationType.WORD, definingStudyName, wordValue);
+    }
+
+    /**
+     * Include an item in the item filter.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     */
+    private void includeItem(final String studyEventOID, final String formOID, final String itemOID) {
+        itemFilter.include(studyEventOID, formOID, itemOID);
+        record(MetaDataSnapshot.OperationType.INCLUDED_ITEM, studyEventOID, formOID, itemOID);
+    }
+
+    /**
+     * Exclude an item in the item filter.
+     *
+     * @param studyEventOID the OID of the study event.
+     * @param formOID       the OID of the form.
+     * @param itemOID       the OID of the item.
+     */
+    private void excludeItem(final String studyEventOID, final String formOID, final String itemOID) {
+        itemFilter.exclude(studyEventOID, formOID, itemOID);
+        record(MetaDataSnapshot.OperationType.EXCLUDED_ITEM, studyEventOID, formOID, itemOID);
+    }
+
+    /**
+     * Map a study to its defining study.
+     *
+     * @param studyName         the name of the study.
+     * @param definingStudyName the name of the defining study.
+     */
+    private void putStudy(final String studyName, final String definingStudyName) {
+        studies.put(studyName, definingStudyName);
+        record(MetaDataSnapshot.OperationType.STUDY, studyName, definingStudyName);
+    }
+
+    /**
+     * Record an operation of the metadata pass, if the metadata pass is recorded.
+     *
+     * @param type      the type of operation.
+     * @param arguments the arguments.
+     */
+    private void record(final MetaDataSnapshot.OperationType type, final String... arguments) {
+        if (metaDataSnapshot != null) {
+            metaDataSnapshot.add(type, arguments);
         }
-        writeStudySites();
     }
 
     /**
@@ -267,10 +501,10 @@ public class OdmToFilesConverter {
             final String definingStudyName = studies.get(evaluatedStudyEntry.getValue());
             if (!evaluatedStudyEntry.getValue().equals(definingStudyName) && !handledStudies.get(definingStudyName)) {
                 final String oidPath = definingStudyName + SEP + STUDY_SITE;
-                fileExporters.get(definingStudyName).storeColumn("", "", "", "", "", STUDY_SITE, oidPath);
+                storeColumn(definingStudyName, "", "", "", "", "", STUDY_SITE, oidPath);
                 for (Map.Entry<String, String> studyEntry : studies.entrySet()) {
                     if (studies.get(studyEntry.getValue()).equals(definingStudyName)) {
-                        fileExporters.get(definingStudyName).storeWord(studyEntry.getValue());
+                        storeWord(definingStudyName, studyEntry.getValue());
                     }
                 }
                 handledStudies.put(definingStudyName, true);
@@ -291,40 +525,26 @@ public class OdmToFilesConverter {
      * @throws IOException   An input-output exception.
      * @throws JAXBException A Java Architecture for XML Binding exception.
      */
-    // todo: split this method up into smaller pieces? (Checkstyle: "Cyclomatic Complexity is 8 (max allowed is 7).")
     // CHECKSTYLE_OFF: CyclomaticComplexityCheck
     private void saveStudy(final ODMcomplexTypeDefinitionStudy study, final String propertiesFilePath)
         throws IOException, JAXBException {
         final String studyName = study.getGlobalVariables().getStudyName().getValue();
-        final String studyOID = study.getOID();
 
         // 1. Handle included metadata issue.
         final ODMcomplexTypeDefinitionMetaDataVersion metaData = study.getMetaDataVersion().get(0);
         final ODMcomplexTypeDefinitionInclude includedMetaData = metaData.getInclude();
-        final List<MetaDataWithIncludes> metaDataWithIncludesList = new ArrayList<>();
         if (includedMetaData != null) {
-            final String includedMetaDataKey = includedMetaData.getStudyOID() + SEP + includedMetaData.getMetaDataVersionOID();
-            if (metaDataMap.containsKey(includedMetaDataKey)) {
-//                The following two lines may be of use in the case of recursive includes. We assume that
-//                the situation will not become so complicated for now.
-//                List<MetaDataWithIncludes> tbd = null;
-//                MetaDataWithIncludes backup = new MetaDataWithIncludes(metaDataMap.get(includedMetaDataKey), tbd);
-                metaDataWithIncludesList.add(metaDataMap.get(includedMetaDataKey));
-            }
             modelStudiesAsColumn = true;
         }
-        metaDataWithIncludes = new MetaDataWithIncludes(metaData, studyOID, metaDataWithIncludesList);
-        metaDataMap.put(getMetaDataKey(study), metaDataWithIncludes);
+        metaDataWithIncludes = getMetaData(study);
 
         // 2. Create a fileExporter for the defining studies.
         final ODMcomplexTypeDefinitionStudy definingStudy = metaDataWithIncludes.getDefiningStudy(odm);
         final String definingStudyName = definingStudy.getGlobalVariables().getStudyName().getValue();
-        studies.put(studyName, definingStudyName);
+        putStudy(studyName, definingStudyName);
 
         if (!fileExporters.containsKey(definingStudyName)) {
-            logger.debug("Creating file exporter for study " + definingStudyName);
-            final Configuration configuration = new Configuration(propertiesFilePath);
-            fileExporters.put(definingStudyName, new FileExporter(exportFilePath, definingStudyName, configuration));
+            createFileExporter(definingStudyName, propertiesFilePath);
         }
 
         // 3. Loop through the events.
@@ -346,18 +566,8 @@ public class OdmToFilesConverter {
      * @return The metadata with includes object.
      */
     private MetaDataWithIncludes getMetaData(final ODMcomplexTypeDefinitionStudy study) {
-        return metaDataMap.get(getMetaDataKey(study));
-    }
-
-    /**
-     * Returns a unique ID for the first pack of metadata (we assume there is only one pack of metadata)
-     * for a given study.
-     *
-     * @param study The given study.
-     * @return The unique ID.
-     */
-    private String getMetaDataKey(final ODMcomplexTypeDefinitionStudy study) {
-        return study.getOID() + SEP + study.getMetaDataVersion().get(0).getOID();
+        // We assume there is only one pack of metadata for a study.
+        return metaDataRegistry.get(study.getOID(), study.getMetaDataVersion().get(0).getOID());
     }
 
     /**
@@ -374,7 +584,6 @@ public class OdmToFilesConverter {
 
         if (eventDef.getFormRef() != null) {
             for (ODMcomplexTypeDefinitionFormRef formRef : eventDef.getFormRef()) {
-//              final ODMcomplexTypeDefinitionFormDef formDef = ODMUtil.getFormDef(study, formRef.getFormOID());
                 final ODMcomplexTypeDefinitionFormDef formDef = metaDataWithIncludes.getFormDef(formRef.getFormOID());
 
                 saveForm(definingStudy, eventDef, formDef);
@@ -454,10 +663,11 @@ public class OdmToFilesConverter {
                           final ODMcomplexTypeDefinitionItemDef itemDef)
             throws JAXBException, IOException {
         final String studyName      = definingStudy.getGlobalVariables().getStudyName().getValue();
-        final String eventName = getTranslatedDescription(eventDef.getDescription(), LANGUAGE, eventDef.getName());
+        final String eventName = languagePreference.chooseDescription(eventDef.getDescription(), eventDef.getName());
         final String eventId = eventDef.getOID();
-        final String formName       = getTranslatedDescription(formDef.getDescription(),       LANGUAGE, formDef.getName());
-        final String itemGroupName  = getTranslatedDescription(itemGroupDef.getDescription(),  LANGUAGE, itemGroupDef.getName());
+        final String formName       = languagePreference.chooseDescription(formDef.getDescription(), formDef.getName());
+        final String itemGroupName  = languagePreference.chooseDescription(itemGroupDef.getDescription(),
+                                                                           itemGroupDef.getName());
         final String itemGroupId  = itemGroupDef.getOID();
         final String namePath       = eventName + PLUS + formName + PLUS + itemGroupName;
         final String preferredItemName = getPreferredItemName(itemDef, namePath);
@@ -474,9 +684,11 @@ public class OdmToFilesConverter {
                 + "; preferred item name: " + preferredItemName
                 + "; OID path: " + oidPath);
         if (columnFilter.isIncluded(filterPath)) {
-            fileExporters.get(studyName).storeColumn(eventName, eventId, formName, itemGroupName, itemGroupId, preferredItemName, oidPath);
+            includeItem(eventDef.getOID(), formDef.getOID(), itemDef.getOID());
+            storeColumn(studyName, eventName, eventId, formName, itemGroupName, itemGroupId, preferredItemName, oidPath);
         }
         else {
+            excludeItem(eventDef.getOID(), formDef.getOID(), itemDef.getOID());
             logger.info("Excluded field: " + filterPath);
         }
 
@@ -484,6 +696,8 @@ public class OdmToFilesConverter {
             final ODMcomplexTypeDefinitionCodeList codeList = ODMUtil.getCodeList(definingStudy,
                     itemDef.getCodeListRef().getCodeListOID());
 
+            // An external code list has no items: its values are decoded from a dictionary (see ItemResolver)
+            // and are not put in the word map.
             if (codeList != null) {
                 for (ODMcomplexTypeDefinitionCodeListItem codeListItem : codeList.getCodeListItem()) {
                     saveCodeListItem(definingStudy, codeListItem);
@@ -495,44 +709,19 @@ public class OdmToFilesConverter {
     /**
      * This method strikes a balance in choosing for the human readable name in questionValue, or a
      * unique identifier in itemName. At least the namePath + preferredItemName must be unique for
-     * loading in tranSMART. HTML tags are removed from the human readable strings.
+     * loading in tranSMART. HTML tags are removed from the human readable strings. When both names are
+     * taken already, the item OID (and if needed an ordinal) is added, see {@link ColumnNames}.
      *
      * @param itemDef The item object in which both questionValue as itemName can be found.
      * @param namePath The namePath that identifies a column, for checking uniqueness.
      * @return The preferred name for an item to be written to the columns file.
      */
     private String getPreferredItemName(final ODMcomplexTypeDefinitionItemDef itemDef, final String namePath) {
-        final String itemName       = getTranslatedDescription(itemDef.getDescription(),       LANGUAGE, itemDef.getName());
-        final String questionValue  = getQuestionValue(itemDef);
+        final String itemName       = languagePreference.chooseDescription(itemDef.getDescription(), itemDef.getName());
+        final String questionValue  = languagePreference.chooseQuestion(itemDef);
         final String preferredItemNameWithHtml = questionValue != null ? questionValue : itemName;
-        String preferredItemName =  Jsoup.parse(preferredItemNameWithHtml).text();
-        for (String fullNamePath : columnFullNameList) {
-            if (fullNamePath.equals(namePath + PLUS + preferredItemName)) {
-                logger.warn("\"" + fullNamePath + "\" was found more than once. "
-                        + itemName + " is now taken as preferred name.");
-                preferredItemName = itemName;
-            }
-        }
-        columnFullNameList.add(namePath + PLUS + preferredItemName);
-        return preferredItemName;
-    }
-
-    /**
-     * This method checks whether a question value is present in the item object and returns it.
-     * It returns null otherwise.
-     *
-     * @param itemDef The item object.
-     * @return The question value, or null.
-     */
-    private String getQuestionValue(final ODMcomplexTypeDefinitionItemDef itemDef) {
-        return itemDef.getQuestion() != null
-                && itemDef.getQuestion().getTranslatedText() != null
-                && itemDef.getQuestion().getTranslatedText().size() >= 1
-                && itemDef.getQuestion().getTranslatedText().get(0) != null
-                && itemDef.getQuestion().getTranslatedText().get(0).getValue() != null
-                && !"".equals(itemDef.getQuestion().getTranslatedText().get(0).getValue().trim())
-                ? itemDef.getQuestion().getTranslatedText().get(0).getValue().trim()
-                : null;
+        final String preferredItemName = htmlStripper.toPlainText(preferredItemNameWithHtml);
+        return columnNames.takeUniqueName(namePath, preferredItemName, itemName, itemDef.getOID());
     }
 
     /**
@@ -546,32 +735,11 @@ public class OdmToFilesConverter {
     private void saveCodeListItem(final ODMcomplexTypeDefinitionStudy definingStudy,
                                   final ODMcomplexTypeDefinitionCodeListItem codeListItem) throws IOException {
         final String studyName = definingStudy.getGlobalVariables().getStudyName().getValue();
-        final String dataValue = ODMUtil.getTranslatedValue(codeListItem, LANGUAGE);
-        fileExporters.get(studyName).storeWord(dataValue);
+        final String dataValue = languagePreference.chooseDecode(codeListItem);
+        storeWord(studyName, dataValue);
 
     }
 
-    /**
-     * This method returns a translated value according to a given language.
-     *
-     * @param description The data object in which a translated value may be present.
-     * @param lang The language.
-     * @param defaultValue The value that is returned if there is no translated value present.
-     * @return The translated value if it is present. Otherwise keeps the default value.
-     */
-    private String getTranslatedDescription(final ODMcomplexTypeDefinitionDescription description,
-                                            final String lang,
-                                            final String defaultValue) {
-        if (description != null) {
-            for (ODMcomplexTypeDefinitionTranslatedText translatedText : description.getTranslatedText()) {
-                if (translatedText.getLang().equals(lang)) {
-                    return translatedText.getValue();
-                }
-            }
-        }
-        return defaultValue;
-    }
-
     /********************************************************************************************
      * Above this point are the methods for processing the study metadata.
      * Below are the methods for processing the clinical data itself.
@@ -583,34 +751,38 @@ public class OdmToFilesConverter {
      */
     private void processODMClinicalData() {
         for (ODMcomplexTypeDefinitionClinicalData clinicalData : odm.getClinicalData()) {
-            if (clinicalData.getSubjectData() != null) {
-                final String studyOID = clinicalData.getStudyOID();
-                final ODMcomplexTypeDefinitionStudy study = ODMUtil.getStudy(odm, studyOID);
-                if (study != null) {
-                    saveClinicalData(study, clinicalData);
-                } else {
-                    logger.error("ODM does not contain study metadata for study OID " + studyOID);
-                }
+            for (ODMcomplexTypeDefinitionSubjectData subjectData : clinicalData.getSubjectData()) {
+                processSubjectData(clinicalData, subjectData);
             }
         }
     }
 
     /**
-     * This method loops through the data of one patient (aka subject) in order to save its contents.
+     * This method saves the data of one patient (aka subject). The metadata must have been processed
+     * before. Afterwards the file exporters can write the rows of the previous patients.
      *
-     * @param study The study in which the patient is stored.
-     * @param clinicalData The clinical data object in which the patient is stored.
-     */
-    private void saveClinicalData(final ODMcomplexTypeDefinitionStudy study,
-                                  final ODMcomplexTypeDefinitionClinicalData clinicalData) {
-        final String studyOID = clinicalData.getStudyOID();
-        logger.info("Write Clinical data for study OID " + studyOID + " to clinical data file...");
-
-        for (ODMcomplexTypeDefinitionSubjectData subjectData : clinicalData.getSubjectData()) {
-            if (subjectData.getStudyEventData() != null) {
-                saveSubjectData(study, subjectData);
+     * @param clinicalData The clinical data object in which the patient is stored. Only its attributes are used.
+     * @param subjectData The data of the patient.
+     */
+    public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                   final ODMcomplexTypeDefinitionSubjectData subjectData) {
+        if (clinicalData != currentClinicalData) {
+            currentClinicalData = clinicalData;
+            final String studyOID = clinicalData.getStudyOID();
+            currentClinicalDataStudy = ODMUtil.getStudy(odm, studyOID);
+            if (currentClinicalDataStudy != null) {
+                logger.info("Write Clinical data for study OID " + studyOID + " to clinical data file...");
+            } else {
+                logger.error("ODM does not contain study metadata for study OID " + studyOID);
             }
         }
+
+        if (currentClinicalDataStudy != null && subjectData.getStudyEventData() != null) {
+            saveSubjectData(currentClinicalDataStudy, subjectData);
+        }
+        for (FileExporter fileExporter : fileExporters.values()) {
+            fileExporter.finishSubject(subjectData.getSubjectKey());
+        }
     }
 
     /**
@@ -622,7 +794,7 @@ public class OdmToFilesConverter {
      */
     private void saveSubjectData(final ODMcomplexTypeDefinitionStudy study,
                                  final ODMcomplexTypeDefinitionSubjectData subjectData) {
-        final ODMcomplexTypeDefinitionStudy definingStudy = metaDataMap.get(getMetaDataKey(study)).getDefiningStudy(odm);
+        final ODMcomplexTypeDefinitionStudy definingStudy = getMetaData(study).getDefiningStudy(odm);
         final String definingStudyName = definingStudy.getGlobalVariables().getStudyName().getValue();
         final String oidPath = definingStudyName + SEP + STUDY_SITE;
         final String studyName = study.getGlobalVariables().getStudyName().getValue();
@@ -669,14 +841,13 @@ public class OdmToFilesConverter {
                               final ODMcomplexTypeDefinitionStudyEventData eventData,
                               final ODMcomplexTypeDefinitionFormData formData) {
         for (ODMcomplexTypeDefinitionItemGroupData itemGroupData : formData.getItemGroupData()) {
-            if (itemGroupData.getItemDataGroup() != null) {
-                saveItemGroupData(study, subjectData, eventData, formData, itemGroupData);
-            }
+            saveItemGroupData(study, subjectData, eventData, formData, itemGroupData);
         }
     }
 
     /**
-     * This method loops through the items of a particular item group.
+     * This method loops through the items of a particular item group, first the ItemData elements and then the typed
+     * elements like ItemDataInteger.
      *
      * @param study The study or study-site in which the patient is treated.
      * @param subjectData The data of a particular patient.
@@ -690,88 +861,121 @@ public class OdmToFilesConverter {
                                    final ODMcomplexTypeDefinitionFormData formData,
                                    final ODMcomplexTypeDefinitionItemGroupData itemGroupData) {
         for (ODMcomplexTypeDefinitionItemData itemData : itemGroupData.getItemDataGroup()) {
-            if (itemData.getValue() != null) {
-                saveItemData(study, subjectData, eventData, formData, itemGroupData, itemData);
+            saveItemValue(study, subjectData, eventData, formData, itemGroupData, itemData.getItemOID(),
+                          itemData.getValue(), null);
+        }
+        for (Object typedItemData : itemGroupData.getItemDataStarGroup()) {
+            final ODMItemData itemData = ODMItemData.fromTyped(typedItemData);
+            if (itemData != null) {
+                saveItemValue(study, subjectData, eventData, formData, itemGroupData, itemData.getItemOID(),
+                              itemData.getValue(), itemData.getNumber());
             }
         }
     }
 
     /**
-     * This method sticks the data together that was assembled in the series of nested loops and passes
-     * it to the clinical data file. Three things are constructed: an OIDPath, a final value and a patient
-     * identifier.
+     * This method resolves the item of a value and passes the value on, unless the item is excluded by the column
+     * filter or the value is missing.
      *
      * @param study The study or study-site in which the patient is treated.
      * @param subjectData The data of a particular patient.
      * @param eventData The data of a particular event.
      * @param formData The data of a particular form.
      * @param itemGroupData The data of a particular item group.
-     * @param itemData The data of a particular item.
+     * @param itemOID The OID of the item.
+     * @param itemValue The value as a string, or null.
+     * @param number The numeric value of a typed element, or null.
      */
-    private void saveItemData(final ODMcomplexTypeDefinitionStudy study,
-                              final ODMcomplexTypeDefinitionSubjectData subjectData,
+    // CHECKSTYLE_OFF: ParameterNumberCheck
+    private void saveItemValue(final ODMcomplexTypeDefinitionStudy study,
+                               final ODMcomplexTypeDefinitionSubjectData subjectData,
+                               final ODMcomplexTypeDefinitionStudyEventData eventData,
+                               final ODMcomplexTypeDefinitionFormData formData,
+                               final ODMcomplexTypeDefinitionItemGroupData itemGroupData,
+                               final String itemOID,
+                               final String itemValue,
+                               final BigDecimal number) {
+        if (itemValue != null) {
+            final ItemResolver.ResolvedItem item = itemResolver.resolve(study, eventData.getStudyEventOID(),
+                    formData.getFormOID(), itemOID);
+            if (item == null) {
+                logger.error("Item definition not found for item OID " + itemOID
+                        + " of subject: " + subjectData.getSubjectKey());
+            } else if (!item.isExcluded()) {
+                saveItemData(subjectData, eventData, itemGroupData, itemValue, number, item);
+            }
+        }
+    }
+    // CHECKSTYLE_ON: ParameterNumberCheck
+
+    /**
+     * This method passes the value of an item to the clinical data file, in the column of the resolved item. The
+     * value is decoded, parsed or cleaned up according to the kind of value of the item.
+     *
+     * @param subjectData The data of a particular patient.
+     * @param eventData The data of a particular event.
+     * @param itemGroupData The data of a particular item group.
+     * @param value The value of a particular item.
+     * @param number The numeric value of a typed element, or null.
+     * @param item The resolved item, with the column and the kind of value.
+     */
+    private void saveItemData(final ODMcomplexTypeDefinitionSubjectData subjectData,
                               final ODMcomplexTypeDefinitionStudyEventData eventData,
-                              final ODMcomplexTypeDefinitionFormData formData,
                               final ODMcomplexTypeDefinitionItemGroupData itemGroupData,
-                              final ODMcomplexTypeDefinitionItemData itemData) {
-        final ODMcomplexTypeDefinitionStudy definingStudy = metaDataMap.get(getMetaDataKey(study)).getDefiningStudy(odm);
-        final String definingStudyName = definingStudy.getGlobalVariables().getStudyName().getValue();
-        final String oidPath = definingStudy.getOID() + SEP
-                             + eventData.getStudyEventOID() + SEP
-                             + formData.getFormOID() + SEP
-                             + itemData.getItemOID() + SEP;
-        String itemValue = itemData.getValue();
-//      final ODMcomplexTypeDefinitionItemDef item = ODMUtil.getItem(study, itemData.getItemOID());
-        final ODMcomplexTypeDefinitionItemDef itemDef = getMetaData(study).getItemDef(itemData.getItemOID());
-        final String wordValue;
-        final BigDecimal bigDecimal;
+                              final String value,
+                              final BigDecimal number,
+                              final ItemResolver.ResolvedItem item) {
+        String itemValue = value;
+        final String finalValue;
         final String patientId = subjectData.getSubjectKey();
-        final String eventId = eventData.getStudyEventOID();
-        final String eventRepeatKey = eventData.getStudyEventRepeatKey();
-        final String itemGroupId = itemGroupData.getItemGroupOID();
-        final String itemGroupRepeatKey = itemGroupData.getItemGroupRepeatKey();
 
-        if (itemDef.getCodeListRef() != null) {
-            bigDecimal = null;
-
-            final ODMcomplexTypeDefinitionCodeList codeList = getMetaData(study).getCodeList(itemDef.getCodeListRef().getCodeListOID());
-            final ODMcomplexTypeDefinitionCodeListItem codeListItem = ODMUtil.getCodeListItem(codeList, itemValue);
-
-            if (codeListItem == null) {
-                if (!itemValue.isEmpty()) {
-                    logger.error("Code list item for coded value: " + itemValue
-                            + " not found in code list: " + codeList.getOID() + ", for subject: " + patientId);
+        switch (item.getValueKind()) {
+            case CODED:
+                finalValue = item.getDecoder().decode(itemValue);
+                if (finalValue == null) {
+                    if (!itemValue.isEmpty()) {
+                        logger.error("Code list item for coded value: " + itemValue
+                                + " not found in code list: " + item.getDecoder().getCodeListOID()
+                                + ", for subject: " + patientId);
+                    }
+                    return;
                 }
-                return;
-            } else {
-                wordValue = ODMUtil.getTranslatedValue(codeListItem, LANGUAGE);
-            }
-        } else if (ODMUtil.isNumericDataType(itemDef.getDataType())) {
-            wordValue = "";
-            bigDecimal = parseItemValue(itemValue, patientId, itemDef.getName());
-        } else {
-            if (itemValue.contains(TAB)
-                  || itemValue.contains(NEW_LINE)
-                  || itemValue.contains(FORM_FEED)
-                  || itemValue.contains(XML_TAB)
-                  || itemValue.contains(XML_NEW_LINE)
-                  || itemValue.contains(XML_FORM_FEED)) {
-                logger.warn("Replacing special characters in item: " + itemDef.getName() + ", " + itemDef.getOID()
-                        + " for subject: " + subjectData.getSubjectKey());
-                itemValue = itemValue.replace(TAB, "");
-                itemValue = itemValue.replace(NEW_LINE, " ");
-                itemValue = itemValue.replace(FORM_FEED, "");
-                itemValue = itemValue.replace(XML_TAB, "");
-                itemValue = itemValue.replace(XML_NEW_LINE, " ");
-                itemValue = itemValue.replace(XML_FORM_FEED, "");
-            }
-            wordValue = itemValue;
-            bigDecimal = null;
+                break;
+            case NUMERIC:
+                final BigDecimal bigDecimal = number != null
+                                              ? number
+                                              : parseItemValue(itemValue, patientId, item.getItemName());
+                if (bigDecimal != null) {
+                    item.getFileExporter().storeClinicalDataNumber(item.getColumnIndex(), bigDecimal, patientId,
+                            eventData.getStudyEventOID(), eventData.getStudyEventRepeatKey(),
+                            itemGroupData.getItemGroupOID(), itemGroupData.getItemGroupRepeatKey());
+                    return;
+                }
+                finalValue = "";
+                break;
+            default:
+                if (itemValue.contains(TAB)
+                      || itemValue.contains(NEW_LINE)
+                      || itemValue.contains(FORM_FEED)
+                      || itemValue.contains(XML_TAB)
+                      || itemValue.contains(XML_NEW_LINE)
+                      || itemValue.contains(XML_FORM_FEED)) {
+                    logger.warn("Replacing special characters in item: " + item.getItemName() + ", "
+                            + item.getItemOID() + " for subject: " + patientId);
+                    itemValue = itemValue.replace(TAB, "");
+                    itemValue = itemValue.replace(NEW_LINE, " ");
+                    itemValue = itemValue.replace(FORM_FEED, "");
+                    itemValue = itemValue.replace(XML_TAB, "");
+                    itemValue = itemValue.replace(XML_NEW_LINE, " ");
+                    itemValue = itemValue.replace(XML_FORM_FEED, "");
+                }
+                finalValue = itemValue;
+                break;
         }
 
-        final String finalValue = (bigDecimal != null) ? bigDecimal.toString() : wordValue;
-        fileExporters.get(definingStudyName).storeClinicalDataInfo(oidPath, finalValue, patientId,
-                eventId, eventRepeatKey, itemGroupId, itemGroupRepeatKey);
+        item.getFileExporter().storeClinicalDataInfo(item.getColumnIndex(), finalValue, patientId,
+                eventData.getStudyEventOID(), eventData.getStudyEventRepeatKey(),
+                itemGroupData.getItemGroupOID(), itemGroupData.getItemGroupRepeatKey());
     }
 
     /**
@@ -0,0 +1,37 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://www.apache.org/licenses/LICENSE-2.0.html).
+ */
+
+package com.recomdata.i2b2;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the ConceptPath class.
+ */
+public class ConceptPathTest {
+    /**
+     * Test that the full names and tooltips are the same as the concatenated paths of the STUDY ontology.
+     */
+    @Test
+    public void testRender() {
+        final StringBuilder buffer = new StringBuilder("left over");
+        final ConceptPath studyPath = ConceptPath.root("STUDY").child("source:S.1");
+        final ConceptPath itemPath = studyPath.child("SE.1").child("F.1").child("I.1");
+
+        studyPath.render(buffer);
+        assertEquals("\\STUDY\\source:S.1\\", studyPath.getFullName(buffer));
+        assertEquals("STUDY\\source:S.1", studyPath.getToolTip(buffer));
+
+        itemPath.render(buffer);
+        assertEquals("\\STUDY\\source:S.1\\SE.1\\F.1\\I.1\\", itemPath.getFullName(buffer));
+        assertEquals("STUDY\\source:S.1\\SE.1\\F.1\\I.1", itemPath.getToolTip(buffer));
+        assertEquals("\\STUDY\\source:S.1\\SE.1\\F.1\\I.1\\1\\", itemPath.getChildFullName(buffer, "1"));
+        assertEquals("STUDY\\source:S.1\\SE.1\\F.1\\I.1\\Yes", itemPath.getChildToolTip(buffer, "Yes"));
+        assertEquals("\\STUDY\\source:S.1\\SE.1\\F.1\\I.1\\10\\", itemPath.getChildFullName(buffer, "10"));
+        assertEquals("STUDY\\source:S.1\\SE.1", studyPath.child("SE.1").toString());
+    }
+}
@@ -17,7 +17,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * I2B2ODMStudyHandlerClientTest.java
@@ -73,4 +78,44 @@ public class I2B2ODMStudyHandlerClientTest {
 		final long end = System.currentTimeMillis();
 		logger.warn("Finish...[" + (end - start) / 1000.00 + "] secs");
 	}
+
+	/**
+	 * Test that the documents of a zip file with the same study are written to their own directories, so they do not
+	 * overwrite each other's export files.
+	 */
+	@Test
+	public void testLoadZipFileWithTwoDocumentsForTheSameStudy() throws Exception {
+		final File odmFile = new File(EXAMPLES_DIRECTORY + "CDISC_ODM_example_3.xml");
+		final File directory = Files.createTempDirectory("odm-zip").toFile();
+		final File zipFile = new File(directory, "export.zip");
+		final File exportDirectory = new File(directory, "export");
+		Assert.assertTrue(exportDirectory.mkdir());
+		try (final ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+			for (final String entryName : Arrays.asList("first.xml", "batch/second.xml")) {
+				outputStream.putNextEntry(new ZipEntry(entryName));
+				Files.copy(odmFile.toPath(), outputStream);
+				outputStream.closeEntry();
+			}
+		}
+
+		new I2B2ODMStudyHandlerCMLClient().loadODMFile2I2B2(zipFile.getAbsolutePath(),
+															 exportDirectory.getAbsolutePath() + File.separator,
+															 new File(PROPERTIES_DIRECTORY + "ODM-to-i2b2.properties")
+																	 .getAbsolutePath(), "");
+
+		final File firstDirectory = new File(exportDirectory, "first.xml");
+		final File secondDirectory = new File(exportDirectory, "batch_second.xml");
+		final String[] fileNames = firstDirectory.list();
+		Assert.assertNotNull(fileNames);
+		Assert.assertTrue(fileNames.length > 0);
+		Arrays.sort(fileNames);
+		final String[] secondFileNames = secondDirectory.list();
+		Assert.assertNotNull(secondFileNames);
+		Arrays.sort(secondFileNames);
+		Assert.assertArrayEquals(fileNames, secondFileNames);
+		for (final String fileName : fileNames) {
+			Assert.assertArrayEquals(Files.readAllBytes(new File(firstDirectory, fileName).toPath()),
+									 Files.readAllBytes(new File(secondDirectory, fileName).toPath()));
+		}
+	}
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.i2b2.util;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the MetaDataVersionIndex class.
+ */
+public class MetaDataVersionIndexTest {
+    /**
+     * Test that the index finds the first definition with an OID, and that a definition that is added after the index
+     * has been built is only found by a new index.
+     */
+    @Test
+    public void testGetItemDef() {
+        final ODMcomplexTypeDefinitionMetaDataVersion version = new ODMcomplexTypeDefinitionMetaDataVersion();
+        final ODMcomplexTypeDefinitionItemDef firstItem = addItemDef(version, "I.1");
+        addItemDef(version, "I.1");
+        final ODMcomplexTypeDefinitionCodeList codeList = new ODMcomplexTypeDefinitionCodeList();
+        codeList.setOID("CL.1");
+        version.getCodeList().add(codeList);
+
+        final MetaDataVersionIndex index = new MetaDataVersionIndex(version);
+        assertSame(firstItem, index.getItemDef("I.1"));
+        assertSame(codeList, index.getCodeList("CL.1"));
+        assertNull(index.getItemDef("I.2"));
+        assertNull(index.getFormDef("F.1"));
+
+        final ODMcomplexTypeDefinitionItemDef secondItem = addItemDef(version, "I.2");
+        assertNull(index.getItemDef("I.2"));
+        assertSame(secondItem, new MetaDataVersionIndex(version).getItemDef("I.2"));
+    }
+
+    /**
+     * Add an item definition to a metadata version.
+     *
+     * @param version the metadata version.
+     * @param oid     the OID of the item.
+     * @return the item definition.
+     */
+    private static ODMcomplexTypeDefinitionItemDef addItemDef(final ODMcomplexTypeDefinitionMetaDataVersion version,
+                                                              final String oid) {
+        final ODMcomplexTypeDefinitionItemDef itemDef = new ODMcomplexTypeDefinitionItemDef();
+        itemDef.setOID(oid);
+        version.getItemDef().add(itemDef);
+        return itemDef;
+    }
+}
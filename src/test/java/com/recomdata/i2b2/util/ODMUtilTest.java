@@ -0,0 +1,44 @@
+package com.recomdata.i2b2.util;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDecode;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionTranslatedText;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the ODMUtil class.
+ */
+public class ODMUtilTest {
+    /**
+     * Test that a code list item is decoded in the requested language, with the first translation as the default.
+     */
+    @Test
+    public void testGetTranslatedValue() {
+        final ODMcomplexTypeDefinitionCodeListItem codeListItem = new ODMcomplexTypeDefinitionCodeListItem();
+        codeListItem.setCodedValue("1");
+        codeListItem.setDecode(new ODMcomplexTypeDefinitionDecode());
+        addTranslatedText(codeListItem, "nl", "ja");
+        addTranslatedText(codeListItem, "en", "yes");
+
+        assertEquals("yes", ODMUtil.getTranslatedValue(codeListItem, "en"));
+        assertEquals("ja", ODMUtil.getTranslatedValue(codeListItem, "nl"));
+        assertEquals("ja", ODMUtil.getTranslatedValue(codeListItem, "fr"));
+    }
+
+    /**
+     * Add a translation to a code list item.
+     *
+     * @param codeListItem the code list item.
+     * @param lang         the language.
+     * @param value        the translated value.
+     */
+    private static void addTranslatedText(final ODMcomplexTypeDefinitionCodeListItem codeListItem, final String lang,
+                                          final String value) {
+        final ODMcomplexTypeDefinitionTranslatedText translatedText = new ODMcomplexTypeDefinitionTranslatedText();
+        translatedText.setLang(lang);
+        translatedText.setValue(value);
+        codeListItem.getDecode().getTranslatedText().add(translatedText);
+    }
+}
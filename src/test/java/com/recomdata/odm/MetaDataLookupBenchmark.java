@@ -0,0 +1,220 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for the lookups that the conversion does for every ItemData element: the item definition and its code
+ * list. The metadata is synthetic, with a study that includes the metadata of another study, like a site that
+ * includes the metadata of its parent study. The indexed lookup of MetaDataWithIncludes is compared with the linear
+ * search through the metadata blocks that it replaced. Run it with
+ * "mvn -P benchmark test -Dbenchmark=MetaDataLookupBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetaDataLookupBenchmark {
+    /**
+     * The number of lookups in a single benchmark invocation.
+     */
+    private static final int LOOKUP_COUNT = 1024;
+
+    /**
+     * The number of item definitions that share a code list.
+     */
+    private static final int ITEMS_PER_CODE_LIST = 10;
+
+    /**
+     * The number of item definitions in the included metadata; the including metadata has a tenth of this number.
+     */
+    @Param({"500", "5000", "20000"})
+    private int itemDefCount;
+
+    /**
+     * The metadata of the including study.
+     */
+    private MetaDataWithIncludes metaData;
+
+    /**
+     * The metadata blocks in the order in which the linear search visits them.
+     */
+    private List<ODMcomplexTypeDefinitionMetaDataVersion> searchOrder;
+
+    /**
+     * The item OIDs to look up, in a random order.
+     */
+    private String[] itemOIDs;
+
+    /**
+     * Create the metadata and the item OIDs to look up.
+     */
+    @Setup(Level.Trial)
+    public void createMetaData() {
+        final ODMcomplexTypeDefinitionMetaDataVersion parentVersion = createMetaDataVersion("P", itemDefCount);
+        final ODMcomplexTypeDefinitionMetaDataVersion siteVersion = createMetaDataVersion("S", itemDefCount / 10);
+        final MetaDataWithIncludes parent = new MetaDataWithIncludes(parentVersion, "PARENT",
+                new ArrayList<MetaDataWithIncludes>());
+        metaData = new MetaDataWithIncludes(siteVersion, "SITE", Collections.singletonList(parent));
+        searchOrder = new ArrayList<>();
+        searchOrder.add(siteVersion);
+        searchOrder.add(parentVersion);
+
+        final Random random = new Random(42);
+        itemOIDs = new String[LOOKUP_COUNT];
+        for (int index = 0; index < LOOKUP_COUNT; index++) {
+            itemOIDs[index] = random.nextInt(10) == 0
+                              ? "I.S." + random.nextInt(itemDefCount / 10)
+                              : "I.P." + random.nextInt(itemDefCount);
+        }
+        // The index is built on the first lookup; build it here, so it is not part of the measurement.
+        metaData.getItemDef(itemOIDs[0]);
+    }
+
+    /**
+     * Create a metadata block with item definitions and code lists.
+     *
+     * @param prefix       the prefix of the OIDs.
+     * @param itemDefCount the number of item definitions.
+     * @return the metadata block.
+     */
+    private static ODMcomplexTypeDefinitionMetaDataVersion createMetaDataVersion(final String prefix,
+                                                                                final int itemDefCount) {
+        final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion = new ODMcomplexTypeDefinitionMetaDataVersion();
+        metaDataVersion.setOID("MDV." + prefix);
+        for (int index = 0; index < itemDefCount; index++) {
+            final ODMcomplexTypeDefinitionItemDef itemDef = new ODMcomplexTypeDefinitionItemDef();
+            itemDef.setOID("I." + prefix + "." + index);
+            metaDataVersion.getItemDef().add(itemDef);
+            if (index % ITEMS_PER_CODE_LIST == 0) {
+                final ODMcomplexTypeDefinitionCodeList codeList = new ODMcomplexTypeDefinitionCodeList();
+                codeList.setOID("CL." + prefix + "." + index / ITEMS_PER_CODE_LIST);
+                metaDataVersion.getCodeList().add(codeList);
+            }
+        }
+        return metaDataVersion;
+    }
+
+    /**
+     * Look up the item definitions and code lists with the index.
+     *
+     * @return the number of definitions that were found.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public int indexed() {
+        int foundCount = 0;
+        for (final String itemOID : itemOIDs) {
+            if (metaData.getItemDef(itemOID) != null) {
+                foundCount++;
+            }
+            if (metaData.getCodeList(getCodeListOID(itemOID)) != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    /**
+     * Look up the item definitions and code lists with the linear search that was used before the index: the whole
+     * list of each metadata block is scanned (the last match wins), and the included block is only searched when the
+     * including block has no match.
+     *
+     * @return the number of definitions that were found.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public int linear() {
+        int foundCount = 0;
+        for (final String itemOID : itemOIDs) {
+            if (searchItemDef(itemOID) != null) {
+                foundCount++;
+            }
+            if (searchCodeList(getCodeListOID(itemOID)) != null) {
+                foundCount++;
+            }
+        }
+        return foundCount;
+    }
+
+    /**
+     * Get the OID of the code list of an item, which is shared by ten items.
+     *
+     * @param itemOID the item OID.
+     * @return the code list OID.
+     */
+    private static String getCodeListOID(final String itemOID) {
+        final int numberStart = itemOID.lastIndexOf('.') + 1;
+        final int number = Integer.parseInt(itemOID.substring(numberStart));
+        return "CL." + itemOID.substring(2, numberStart) + number / ITEMS_PER_CODE_LIST;
+    }
+
+    /**
+     * Search an item definition linearly.
+     *
+     * @param itemOID the item OID.
+     * @return the item definition, or null.
+     */
+    private ODMcomplexTypeDefinitionItemDef searchItemDef(final String itemOID) {
+        for (final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion : searchOrder) {
+            ODMcomplexTypeDefinitionItemDef result = null;
+            for (final ODMcomplexTypeDefinitionItemDef itemDef : metaDataVersion.getItemDef()) {
+                if (itemDef.getOID().equals(itemOID)) {
+                    result = itemDef;
+                }
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Search a code list linearly.
+     *
+     * @param codeListOID the code list OID.
+     * @return the code list, or null.
+     */
+    private ODMcomplexTypeDefinitionCodeList searchCodeList(final String codeListOID) {
+        for (final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion : searchOrder) {
+            ODMcomplexTypeDefinitionCodeList result = null;
+            for (final ODMcomplexTypeDefinitionCodeList codeList : metaDataVersion.getCodeList()) {
+                if (codeList.getOID().equals(codeListOID)) {
+                    result = codeList;
+                }
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
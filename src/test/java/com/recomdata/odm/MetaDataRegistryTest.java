@@ -0,0 +1,125 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://www.apache.org/licenses/LICENSE-2.0.html).
+ */
+
+package com.recomdata.odm;
+
+import java.util.Arrays;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionInclude;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudy;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the MetaDataRegistry class.
+ */
+public class MetaDataRegistryTest {
+    /**
+     * Test that a chain site -> country -> master is resolved completely, even when the site comes before the master
+     * in the file, and that the included metadata is shared.
+     */
+    @Test
+    public void testIncludeChain() {
+        final ODMcomplexTypeDefinitionStudy site = createStudy("SITE", "MDV.SITE", "COUNTRY", "MDV.COUNTRY");
+        final ODMcomplexTypeDefinitionStudy country = createStudy("COUNTRY", "MDV.COUNTRY", "MASTER", "MDV.MASTER");
+        final ODMcomplexTypeDefinitionStudy master = createStudy("MASTER", "MDV.MASTER", null, null);
+        final ODMcomplexTypeDefinitionItemDef masterItem = addItemDef(master, "I.1");
+        final ODMcomplexTypeDefinitionItemDef countryItem = addItemDef(country, "I.2");
+
+        final MetaDataRegistry registry = new MetaDataRegistry(Arrays.asList(site, country, master));
+
+        assertEquals(3, registry.size());
+        final MetaDataWithIncludes siteMetaData = registry.get("SITE", "MDV.SITE");
+        assertSame(masterItem, siteMetaData.getItemDef("I.1"));
+        assertSame(countryItem, siteMetaData.getItemDef("I.2"));
+        assertEquals("MASTER", siteMetaData.getDefiningStudyOID());
+        assertEquals("MASTER", registry.get("COUNTRY", "MDV.COUNTRY").getDefiningStudyOID());
+        assertSame(registry.get("MASTER", "MDV.MASTER"), registry.get("MASTER", "MDV.MASTER"));
+        assertNull(registry.get("SITE", "MDV.UNKNOWN"));
+    }
+
+    /**
+     * Test that a cycle of includes is broken instead of being followed forever.
+     */
+    @Test
+    public void testIncludeCycle() {
+        final ODMcomplexTypeDefinitionStudy studyA = createStudy("A", "MDV.A", "B", "MDV.B");
+        final ODMcomplexTypeDefinitionStudy studyB = createStudy("B", "MDV.B", "A", "MDV.A");
+        final ODMcomplexTypeDefinitionItemDef itemA = addItemDef(studyA, "I.A");
+        final ODMcomplexTypeDefinitionItemDef itemB = addItemDef(studyB, "I.B");
+
+        final MetaDataRegistry registry = new MetaDataRegistry(Arrays.asList(studyA, studyB));
+
+        final MetaDataWithIncludes metaDataA = registry.get("A", "MDV.A");
+        final MetaDataWithIncludes metaDataB = registry.get("B", "MDV.B");
+        assertSame(itemA, metaDataA.getItemDef("I.A"));
+        assertSame(itemB, metaDataA.getItemDef("I.B"));
+        assertSame(itemB, metaDataB.getItemDef("I.B"));
+        assertNull(metaDataB.getItemDef("I.A"));
+        assertEquals("B", metaDataA.getDefiningStudyOID());
+    }
+
+    /**
+     * Test that an include of an unknown metadata version is ignored.
+     */
+    @Test
+    public void testUnknownInclude() {
+        final ODMcomplexTypeDefinitionStudy study = createStudy("S", "MDV.S", "MISSING", "MDV.MISSING");
+        final ODMcomplexTypeDefinitionItemDef item = addItemDef(study, "I.1");
+
+        final MetaDataWithIncludes metaData = new MetaDataRegistry(Arrays.asList(study)).get("S", "MDV.S");
+
+        assertNotNull(metaData);
+        assertSame(item, metaData.getItemDef("I.1"));
+        assertEquals("S", metaData.getDefiningStudyOID());
+    }
+
+    /**
+     * Create a study with a single metadata version.
+     *
+     * @param studyOID                   the OID of the study.
+     * @param metaDataVersionOID         the OID of the metadata version.
+     * @param includedStudyOID           the OID of the included study, or null if nothing is included.
+     * @param includedMetaDataVersionOID the OID of the included metadata version.
+     * @return the study.
+     */
+    private static ODMcomplexTypeDefinitionStudy createStudy(final String studyOID, final String metaDataVersionOID,
+                                                             final String includedStudyOID,
+                                                             final String includedMetaDataVersionOID) {
+        final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion = new ODMcomplexTypeDefinitionMetaDataVersion();
+        metaDataVersion.setOID(metaDataVersionOID);
+        if (includedStudyOID != null) {
+            final ODMcomplexTypeDefinitionInclude include = new ODMcomplexTypeDefinitionInclude();
+            include.setStudyOID(includedStudyOID);
+            include.setMetaDataVersionOID(includedMetaDataVersionOID);
+            metaDataVersion.setInclude(include);
+        }
+        final ODMcomplexTypeDefinitionStudy study = new ODMcomplexTypeDefinitionStudy();
+        study.setOID(studyOID);
+        study.getMetaDataVersion().add(metaDataVersion);
+        return study;
+    }
+
+    /**
+     * Add an item definition to the metadata version of a study.
+     *
+     * @param study the study.
+     * @param oid   the OID of the item.
+     * @return the item definition.
+     */
+    private static ODMcomplexTypeDefinitionItemDef addItemDef(final ODMcomplexTypeDefinitionStudy study,
+                                                              final String oid) {
+        final ODMcomplexTypeDefinitionItemDef itemDef = new ODMcomplexTypeDefinitionItemDef();
+        itemDef.setOID(oid);
+        study.getMetaDataVersion().get(0).getItemDef().add(itemDef);
+        return itemDef;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://www.apache.org/licenses/LICENSE-2.0.html).
+ */
+
+package com.recomdata.odm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeList;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionMetaDataVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the MetaDataWithIncludes class.
+ */
+public class MetaDataWithIncludesTest {
+    /**
+     * Test that the indexed lookups find the same definitions as a search would: the last definition in the metadata
+     * block itself, and otherwise the definition in the first included block that has one.
+     */
+    @Test
+    public void testLookupPrecedence() {
+        final ODMcomplexTypeDefinitionMetaDataVersion ownVersion = new ODMcomplexTypeDefinitionMetaDataVersion();
+        final ODMcomplexTypeDefinitionItemDef firstOwnItem = addItemDef(ownVersion, "I.1");
+        final ODMcomplexTypeDefinitionItemDef lastOwnItem = addItemDef(ownVersion, "I.1");
+
+        final ODMcomplexTypeDefinitionMetaDataVersion firstIncludedVersion = new ODMcomplexTypeDefinitionMetaDataVersion();
+        addItemDef(firstIncludedVersion, "I.1");
+        final ODMcomplexTypeDefinitionItemDef firstIncludedItem = addItemDef(firstIncludedVersion, "I.2");
+
+        final ODMcomplexTypeDefinitionMetaDataVersion secondIncludedVersion = new ODMcomplexTypeDefinitionMetaDataVersion();
+        addItemDef(secondIncludedVersion, "I.2");
+        final ODMcomplexTypeDefinitionItemDef secondIncludedItem = addItemDef(secondIncludedVersion, "I.3");
+        final ODMcomplexTypeDefinitionCodeList codeList = new ODMcomplexTypeDefinitionCodeList();
+        codeList.setOID("CL.1");
+        secondIncludedVersion.getCodeList().add(codeList);
+
+        final MetaDataWithIncludes secondIncluded = new MetaDataWithIncludes(secondIncludedVersion, "S.3",
+                new ArrayList<MetaDataWithIncludes>());
+        final MetaDataWithIncludes firstIncluded = new MetaDataWithIncludes(firstIncludedVersion, "S.2",
+                new ArrayList<MetaDataWithIncludes>());
+        final MetaDataWithIncludes metaData = new MetaDataWithIncludes(ownVersion, "S.1",
+                Arrays.asList(firstIncluded, secondIncluded));
+
+        assertSame(lastOwnItem, metaData.getItemDef("I.1"));
+        assertSame(firstIncludedItem, metaData.getItemDef("I.2"));
+        assertSame(secondIncludedItem, metaData.getItemDef("I.3"));
+        assertSame(codeList, metaData.getCodeList("CL.1"));
+        assertNull(metaData.getItemDef("I.4"));
+        assertNull(metaData.getFormDef("F.1"));
+        assertSame(secondIncludedItem, secondIncluded.getItemDef("I.3"));
+        assertNull(firstIncluded.getItemDef("I.3"));
+        // The first definition is hidden by the last one with the same OID.
+        assertSame(lastOwnItem, metaData.getItemDef(firstOwnItem.getOID()));
+    }
+
+    /**
+     * Add an item definition to a metadata block.
+     *
+     * @param metaDataVersion the metadata block.
+     * @param oid             the OID of the item.
+     * @return the item definition.
+     */
+    private static ODMcomplexTypeDefinitionItemDef addItemDef(final ODMcomplexTypeDefinitionMetaDataVersion metaDataVersion,
+                                                              final String oid) {
+        final ODMcomplexTypeDefinitionItemDef itemDef = new ODMcomplexTypeDefinitionItemDef();
+        itemDef.setOID(oid);
+        metaDataVersion.getItemDef().add(itemDef);
+        return itemDef;
+    }
+}
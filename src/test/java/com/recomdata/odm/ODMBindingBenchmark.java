@@ -0,0 +1,181 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark that compares the two ODM bindings (JAXB and the generated reader) on a scaled-up version of
+ * CDISC_ODM_example_3.xml, for the tree, the streaming and the parallel ingestion. Run it with
+ * "mvn -P benchmark test -Dbenchmark=ODMBindingBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ODMBindingBenchmark {
+    /**
+     * The ODM file that is scaled up.
+     */
+    private static final String ODM_FILE_PATH = "src/test/resources/examples/CDISC_ODM_example_3.xml";
+
+    /**
+     * The number of times the subjects of the example file are repeated.
+     */
+    @Param({"1", "100"})
+    private int scale;
+
+    /**
+     * The scaled-up ODM file.
+     */
+    private File scaledOdmFile;
+
+    /**
+     * Create the scaled-up ODM file by repeating all the subjects of the example file.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @Setup(Level.Trial)
+    public void createScaledOdmFile() throws IOException {
+        // The example file is encoded in ISO-8859-1; use the same encoding for reading and writing.
+        final String odm = new String(Files.readAllBytes(new File(ODM_FILE_PATH).toPath()), StandardCharsets.ISO_8859_1);
+        final int subjectsStart = odm.indexOf("<SubjectData");
+        final int subjectsEnd = odm.lastIndexOf("</SubjectData>") + "</SubjectData>".length();
+        final String subjects = odm.substring(subjectsStart, subjectsEnd);
+
+        final StringBuilder scaledOdm = new StringBuilder(odm.substring(0, subjectsStart));
+        for (int copy = 0; copy < scale; copy++)
+            scaledOdm.append(subjects);
+        scaledOdm.append(odm.substring(subjectsEnd));
+
+        scaledOdmFile = File.createTempFile("scaled-odm-", ".xml");
+        Files.write(scaledOdmFile.toPath(), scaledOdm.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Delete the scaled-up ODM file.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @TearDown(Level.Trial)
+    public void deleteScaledOdmFile() throws IOException {
+        Files.delete(scaledOdmFile.toPath());
+    }
+
+    /**
+     * Unmarshall the whole file with JAXB.
+     *
+     * @return the odm object.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    @Benchmark
+    public ODM unmarshallWithJaxb() throws JAXBException {
+        return new ODMLoader(ODMReadOptions.builder().binding(ODMBinding.JAXB).build()).unmarshall(scaledOdmFile);
+    }
+
+    /**
+     * Read the whole file with the generated reader.
+     *
+     * @return the odm object.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    @Benchmark
+    public ODM unmarshallWithGeneratedReader() throws JAXBException {
+        return new ODMLoader(ODMReadOptions.DEFAULT).unmarshall(scaledOdmFile);
+    }
+
+    /**
+     * Stream the file subject by subject with JAXB.
+     *
+     * @return the number of subjects.
+     * @throws Exception when streaming the file fails.
+     */
+    @Benchmark
+    public int streamWithJaxb() throws Exception {
+        return stream(ODMBinding.JAXB, 1);
+    }
+
+    /**
+     * Stream the file subject by subject with the generated reader.
+     *
+     * @return the number of subjects.
+     * @throws Exception when streaming the file fails.
+     */
+    @Benchmark
+    public int streamWithGeneratedReader() throws Exception {
+        return stream(ODMBinding.GENERATED, 1);
+    }
+
+    /**
+     * Stream the file with the generated reader, parsing the subjects on four threads.
+     *
+     * @return the number of subjects.
+     * @throws Exception when streaming the file fails.
+     */
+    @Benchmark
+    public int streamParallelWithGeneratedReader() throws Exception {
+        return stream(ODMBinding.GENERATED, 4);
+    }
+
+    /**
+     * Stream the file and count the subjects.
+     *
+     * @param binding     the ODM binding to use.
+     * @param threadCount the number of threads that parse the subjects; with one thread the sequential reader is used.
+     * @return the number of subjects.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    private int stream(final ODMBinding binding, final int threadCount)
+            throws JAXBException, XMLStreamException, IOException {
+        final int[] subjectCount = {0};
+        final ODMStreamHandler handler = new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                subjectCount[0]++;
+            }
+        };
+        final ODMLoader loader = new ODMLoader(ODMReadOptions.builder().binding(binding).build());
+        if (threadCount > 1) {
+            loader.streamParallel(scaledOdmFile, handler, threadCount);
+        } else {
+            loader.stream(scaledOdmFile, handler);
+        }
+        return subjectCount[0];
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://www.apache.org/licenses/LICENSE-2.0.html).
+ */
+
+package com.recomdata.odm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the ODMDocument class and for reading compressed and piped ODM files with the ODMLoader class.
+ */
+public class ODMDocumentTest {
+    /**
+     * The test ODM file with clinical data for several subjects.
+     */
+    private static final File ODM_FILE = Paths.get("src", "test", "resources", "examples",
+            "CDISC_ODM_example_3.xml").toFile();
+
+    /**
+     * The minimal test ODM file.
+     */
+    private static final File MINIMAL_ODM_FILE = Paths.get("src", "test", "resources", "examples",
+            "CDISC_ODM_example_minim.xml").toFile();
+
+    /**
+     * Test that a plain file is a single uncompressed document.
+     */
+    @Test
+    public void testPlainFile() throws Exception {
+        final List<ODMDocument> documents = ODMDocument.list(ODM_FILE);
+        assertEquals(1, documents.size());
+        assertEquals(ODMCompression.NONE, documents.get(0).getCompression());
+        assertEquals(ODM_FILE.getPath(), documents.get(0).getName());
+    }
+
+    /**
+     * Test that a gzip file is detected by its content, even without a .gz extension, and is read like the original.
+     */
+    @Test
+    public void testGzipFile() throws Exception {
+        final File gzipFile = File.createTempFile("odm-gzip", ".xml");
+        gzipFile.deleteOnExit();
+        try (final OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(gzipFile))) {
+            Files.copy(ODM_FILE.toPath(), outputStream);
+        }
+
+        final ODMDocument document = ODMDocument.forFile(gzipFile);
+        assertEquals(ODMCompression.GZIP, document.getCompression());
+        assertSameOdm(new ODMLoader().unmarshall(ODM_FILE), new ODMLoader().unmarshall(gzipFile));
+        assertSameOdm(new ODMLoader(ODMReadOptions.builder().binding(ODMBinding.JAXB).build()).unmarshall(ODM_FILE),
+                      new ODMLoader(ODMReadOptions.builder().binding(ODMBinding.JAXB).build()).unmarshall(gzipFile));
+    }
+
+    /**
+     * Test that every ODM entry of a zip file is a document, in the order of the archive, and that other entries are
+     * skipped.
+     */
+    @Test
+    public void testZipFile() throws Exception {
+        final File zipFile = File.createTempFile("odm-zip", ".zip");
+        zipFile.deleteOnExit();
+        try (final ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            addZipEntry(outputStream, "export/", null);
+            addZipEntry(outputStream, "export/readme.txt", "Not an ODM file.".getBytes(StandardCharsets.UTF_8));
+            addZipEntry(outputStream, "export/study.xml", Files.readAllBytes(ODM_FILE.toPath()));
+            addZipEntry(outputStream, "export/minimal.xml", Files.readAllBytes(MINIMAL_ODM_FILE.toPath()));
+        }
+
+        final List<ODMDocument> documents = ODMDocument.list(zipFile);
+        assertEquals(2, documents.size());
+        assertEquals(zipFile.getPath() + "!/export/study.xml", documents.get(0).getName());
+        assertEquals(zipFile.getPath() + "!/export/minimal.xml", documents.get(1).getName());
+        assertSameOdm(new ODMLoader().unmarshall(ODM_FILE), new ODMLoader().unmarshall(documents.get(0)));
+        assertSameOdm(new ODMLoader().unmarshall(MINIMAL_ODM_FILE), new ODMLoader().unmarshall(documents.get(1)));
+    }
+
+    /**
+     * Test that a file is not accepted as a single document when it is a zip file with several ODM documents.
+     */
+    @Test(expected = IOException.class)
+    public void testZipFileWithSeveralDocumentsIsNotASingleDocument() throws Exception {
+        final File zipFile = File.createTempFile("odm-zip", ".zip");
+        zipFile.deleteOnExit();
+        try (final ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            addZipEntry(outputStream, "first.xml", Files.readAllBytes(MINIMAL_ODM_FILE.toPath()));
+            addZipEntry(outputStream, "second.xml", Files.readAllBytes(MINIMAL_ODM_FILE.toPath()));
+        }
+
+        ODMDocument.forFile(zipFile);
+    }
+
+    /**
+     * Test that a gzip compressed document can be read from the standard input, but only once.
+     */
+    @Test
+    public void testStandardInput() throws Exception {
+        final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+        try (final OutputStream outputStream = new GZIPOutputStream(gzipBytes)) {
+            Files.copy(ODM_FILE.toPath(), outputStream);
+        }
+
+        final InputStream standardInput = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream(gzipBytes.toByteArray()));
+            final ODMDocument document = ODMDocument.forFile(new File(ODMDocument.STANDARD_INPUT));
+            assertTrue(document.isPipe());
+            assertEquals(ODMCompression.GZIP, document.getCompression());
+            assertEquals("standard input", document.getName());
+            assertSameOdm(new ODMLoader().unmarshall(ODM_FILE), new ODMLoader().unmarshall(document));
+            try {
+                document.open();
+                fail("A document from a pipe can only be opened once.");
+            } catch (final IOException e) {
+                // Expected.
+            }
+        } finally {
+            System.setIn(standardInput);
+        }
+    }
+
+    /**
+     * Test that a document is read from a named pipe while another thread is still writing it, with the parallel
+     * reader falling back to streaming. This test only runs where the mkfifo command is available.
+     */
+    @Test
+    public void testNamedPipe() throws Exception {
+        final File directory = Files.createTempDirectory("odm-fifo").toFile();
+        final File fifo = new File(directory, "export.xml");
+        try {
+            Assume.assumeTrue(new ProcessBuilder("mkfifo", fifo.getPath()).start().waitFor() == 0);
+        } catch (final IOException e) {
+            Assume.assumeNoException(e);
+        }
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try (final OutputStream outputStream = new FileOutputStream(fifo)) {
+                    Files.copy(ODM_FILE.toPath(), outputStream);
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        writer.start();
+
+        final int[] subjectCount = {0};
+        final ODM odm = new ODMLoader().streamParallel(fifo, new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                subjectCount[0]++;
+            }
+        }, 4);
+        writer.join();
+        Files.delete(fifo.toPath());
+        Files.delete(directory.toPath());
+
+        assertEquals(13, subjectCount[0]);
+        assertEquals(new ODMLoader().unmarshall(ODM_FILE).getFileOID(), odm.getFileOID());
+    }
+
+    /**
+     * Add an entry to a zip file.
+     *
+     * @param outputStream the zip output stream.
+     * @param name         the name of the entry.
+     * @param content      the content of the entry, or null for a directory.
+     * @throws IOException An input-output exception.
+     */
+    private void addZipEntry(final ZipOutputStream outputStream, final String name, final byte[] content)
+            throws IOException {
+        outputStream.putNextEntry(new ZipEntry(name));
+        if (content != null) {
+            outputStream.write(content);
+        }
+        outputStream.closeEntry();
+    }
+
+    /**
+     * Check that two odm objects have the same studies and subjects.
+     *
+     * @param expected the expected odm object.
+     * @param actual   the actual odm object.
+     */
+    private void assertSameOdm(final ODM expected, final ODM actual) {
+        final ODMLoader odmLoader = new ODMLoader();
+        assertEquals(odmLoader.getODMXMLString(expected), odmLoader.getODMXMLString(actual));
+    }
+}
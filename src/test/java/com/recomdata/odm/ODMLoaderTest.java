@@ -0,0 +1,735 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://www.apache.org/licenses/LICENSE-2.0.html).
+ */
+
+package com.recomdata.odm;
+
+import nl.vumc.odmtoi2b2.export.ColumnFilter;
+import nl.vumc.odmtoi2b2.export.OdmToFilesConverter;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionFormData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemGroupData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionStudyEventData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the ODMLoader class.
+ */
+public class ODMLoaderTest {
+    /**
+     * The test ODM file with clinical data for several subjects.
+     */
+    private static final File ODM_FILE = Paths.get("src", "test", "resources", "examples",
+            "CDISC_ODM_example_3.xml").toFile();
+
+    /**
+     * The properties file for the conversion.
+     */
+    private static final String PROPERTIES_FILE_PATH = Paths.get("src", "test", "resources",
+            "ODM-to-i2b2.properties").toString();
+
+    /**
+     * The names of the files that are written for the test study.
+     */
+    private static final String[] EXPORT_FILE_NAMES = {
+            "CDISC_Connect-A-Thon_Test_Study_III_clinical_data.txt",
+            "CDISC_Connect-A-Thon_Test_Study_III_columns.txt",
+            "CDISC_Connect-A-Thon_Test_Study_III_word_map.txt"
+    };
+
+    /**
+     * Test that streaming hands over the metadata once and then every subject in the file, in document order.
+     */
+    @Test
+    public void testStreamHandsOverEverySubject() throws Exception {
+        final ODM tree = new ODMLoader().unmarshall(ODM_FILE);
+        final List<String> streamedSubjectKeys = new ArrayList<>();
+        final int[] metaDataCalls = {0};
+
+        final ODM streamed = new ODMLoader().stream(ODM_FILE, new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+                metaDataCalls[0]++;
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                assertEquals(0, clinicalData.getSubjectData().size());
+                streamedSubjectKeys.add(clinicalData.getStudyOID() + "/" + subjectData.getSubjectKey());
+            }
+        });
+
+        final List<String> treeSubjectKeys = new ArrayList<>();
+        for (final ODMcomplexTypeDefinitionClinicalData clinicalData : tree.getClinicalData()) {
+            for (final ODMcomplexTypeDefinitionSubjectData subjectData : clinicalData.getSubjectData()) {
+                treeSubjectKeys.add(clinicalData.getStudyOID() + "/" + subjectData.getSubjectKey());
+            }
+        }
+
+        assertEquals(1, metaDataCalls[0]);
+        assertTrue(treeSubjectKeys.size() > 0);
+        assertEquals(treeSubjectKeys, streamedSubjectKeys);
+        assertEquals(tree.getStudy().size(), streamed.getStudy().size());
+        assertEquals(tree.getFileOID(), streamed.getFileOID());
+        assertEquals(0, streamed.getClinicalData().size());
+    }
+
+    /**
+     * Test that converting a streamed file results in exactly the same export files as converting the whole tree.
+     */
+    @Test
+    public void testStreamedConversionEqualsTreeConversion() throws Exception {
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final File streamDirectory = Files.createTempDirectory("odm-stream").toFile();
+
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        final OdmToFilesConverter streamConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        new ODMLoader().stream(ODM_FILE, createConvertingHandler(streamConverter, streamDirectory));
+        streamConverter.closeExportWriters();
+
+        assertSameExportFiles(treeDirectory, streamDirectory);
+    }
+
+    /**
+     * Test that converting a file that is read with several threads results in exactly the same export files as
+     * converting the whole tree, for both bindings. Every subject is parsed in its own batch, so the batches of both
+     * ClinicalData elements of the test file are spread over the threads.
+     */
+    @Test
+    public void testParallelConversionEqualsTreeConversion() throws Exception {
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final File parallelDirectory = Files.createTempDirectory("odm-parallel").toFile();
+            final OdmToFilesConverter parallelConverter = new OdmToFilesConverter(new ColumnFilter(""));
+            final ODMReadOptions options = ODMReadOptions.builder().binding(binding).batchSize(1).build();
+            final ODM odm = new ODMParallelReader(options, 4, null).read(
+                    ODM_FILE, createConvertingHandler(parallelConverter, parallelDirectory));
+            parallelConverter.closeExportWriters();
+
+            assertEquals(0, odm.getClinicalData().size());
+            assertSameExportFiles(treeDirectory, parallelDirectory);
+        }
+    }
+
+    /**
+     * Test that the items that the column filter excludes are skipped by the streaming and the parallel reader, and
+     * that this does not change the export files.
+     */
+    @Test
+    public void testExcludedItemsAreSkippedWhileStreaming() throws Exception {
+        final File filterFile = File.createTempFile("column-filter", ".txt");
+        filterFile.deleteOnExit();
+        Files.write(filterFile.toPath(), ("StudyEvent_Name\tForm_Name\tItemGroup_Name\tItem_Name\n"
+                + "Pre-treatment\tDemography\tDemography\tHeight\n"
+                + "Pre-treatment\tDemography\tDemography\tWeight\n").getBytes(StandardCharsets.UTF_8));
+
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+        assertEquals(2, treeConverter.getItemFilter().getExcludedItemCount());
+
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final File streamDirectory = Files.createTempDirectory("odm-stream").toFile();
+            final OdmToFilesConverter streamConverter = new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+            final ODMLoader loader = new ODMLoader(ODMReadOptions.builder().binding(binding).build());
+            loader.stream(ODMDocument.forFile(ODM_FILE),
+                    createConvertingHandler(streamConverter, streamDirectory), streamConverter.getItemFilter());
+            streamConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, streamDirectory);
+            assertTrue(streamConverter.getItemFilter().getSkippedItemCount() > 0);
+
+            final File parallelDirectory = Files.createTempDirectory("odm-parallel").toFile();
+            final OdmToFilesConverter parallelConverter =
+                    new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+            loader.streamParallel(ODMDocument.forFile(ODM_FILE),
+                    createConvertingHandler(parallelConverter, parallelDirectory), 4,
+                    parallelConverter.getItemFilter());
+            parallelConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, parallelDirectory);
+            assertEquals(streamConverter.getItemFilter().getSkippedItemCount(),
+                    parallelConverter.getItemFilter().getSkippedItemCount());
+        }
+    }
+
+    /**
+     * Test that a conversion with the metadata cache stores a snapshot in the first run and loads it in the next runs,
+     * for the tree and for the streaming reader, and that this does not change the export files.
+     */
+    @Test
+    public void testMetaDataCacheResultsInSameExportFiles() throws Exception {
+        final File filterFile = File.createTempFile("column-filter", ".txt");
+        filterFile.deleteOnExit();
+        Files.write(filterFile.toPath(), ("StudyEvent_Name\tForm_Name\tItemGroup_Name\tItem_Name\n"
+                + "Pre-treatment\tDemography\tDemography\tHeight\n").getBytes(StandardCharsets.UTF_8));
+        final File cacheDirectory = Files.createTempDirectory("odm-metadata-cache").toFile();
+        final File propertiesFile = File.createTempFile("ODM-to-i2b2", ".properties");
+        propertiesFile.deleteOnExit();
+        final String properties = new String(Files.readAllBytes(Paths.get(PROPERTIES_FILE_PATH)), StandardCharsets.UTF_8)
+                + "\nmetadata-cache-directory=" + cacheDirectory.getPath().replace("\\", "/") + "\n";
+        Files.write(propertiesFile.toPath(), properties.getBytes(StandardCharsets.UTF_8));
+
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        for (int run = 0; run < 2; run++) {
+            final File cachedDirectory = Files.createTempDirectory("odm-tree-cached").toFile();
+            final OdmToFilesConverter cachedConverter =
+                    new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+            cachedConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), cachedDirectory.getPath(),
+                    propertiesFile.getPath());
+            cachedConverter.closeExportWriters();
+            assertEquals(run > 0, cachedConverter.isMetaDataFromCache());
+            assertEquals(1, cacheDirectory.list().length);
+            assertEquals(1, cachedConverter.getItemFilter().getExcludedItemCount());
+            assertSameExportFiles(treeDirectory, cachedDirectory);
+        }
+
+        final File streamDirectory = Files.createTempDirectory("odm-stream-cached").toFile();
+        final OdmToFilesConverter streamConverter = new OdmToFilesConverter(new ColumnFilter(filterFile.getPath()));
+        new ODMLoader().stream(ODMDocument.forFile(ODM_FILE), createConvertingHandler(streamConverter, streamDirectory,
+                propertiesFile.getPath()), streamConverter.getItemFilter());
+        streamConverter.closeExportWriters();
+        assertTrue(streamConverter.isMetaDataFromCache());
+        assertTrue(streamConverter.getItemFilter().getSkippedItemCount() > 0);
+        assertSameExportFiles(treeDirectory, streamDirectory);
+
+        final File unfilteredDirectory = Files.createTempDirectory("odm-tree-unfiltered").toFile();
+        final OdmToFilesConverter unfilteredConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        unfilteredConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), unfilteredDirectory.getPath(),
+                propertiesFile.getPath());
+        unfilteredConverter.closeExportWriters();
+        assertFalse(unfilteredConverter.isMetaDataFromCache());
+        assertEquals(2, cacheDirectory.list().length);
+    }
+
+    /**
+     * Test that a subject selection skips the other subjects for the tree, the streaming and the parallel reader, and
+     * that the first subjects are taken in document order.
+     */
+    @Test
+    public void testSubjectSelection() throws Exception {
+        final List<String> allSubjectKeys = readSubjectKeys(new ODMLoader(), false);
+        assertEquals(13, allSubjectKeys.size());
+
+        final List<String> whitelist = Arrays.asList(allSubjectKeys.get(7), allSubjectKeys.get(2), "unknown");
+        final ODMSubjectSelection sample = new ODMSubjectSelection(null, 3, 0);
+        final List<String> sampledKeys = new ArrayList<>();
+        for (final String subjectKey : allSubjectKeys) {
+            if (sample.isCandidate(subjectKey)) {
+                sampledKeys.add(subjectKey);
+            }
+        }
+        assertTrue(sampledKeys.size() > 0 && sampledKeys.size() < allSubjectKeys.size());
+
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final ODMLoader whitelistLoader = new ODMLoader(ODMReadOptions.builder().binding(binding)
+                    .subjectSelection(new ODMSubjectSelection(whitelist, 0, 0)).build());
+            final List<String> expectedKeys = Arrays.asList(allSubjectKeys.get(2), allSubjectKeys.get(7));
+            assertEquals(expectedKeys, getSubjectKeys(whitelistLoader.unmarshall(ODM_FILE)));
+            assertEquals(expectedKeys, readSubjectKeys(whitelistLoader, false));
+            assertEquals(expectedKeys, readSubjectKeys(whitelistLoader, true));
+
+            final ODMLoader sampleLoader = new ODMLoader(ODMReadOptions.builder().binding(binding)
+                    .subjectSelection(sample).build());
+            assertEquals(sampledKeys, getSubjectKeys(sampleLoader.unmarshall(ODM_FILE)));
+            assertEquals(sampledKeys, readSubjectKeys(sampleLoader, true));
+
+            final ODMLoader firstLoader = new ODMLoader(ODMReadOptions.builder().binding(binding)
+                    .subjectSelection(new ODMSubjectSelection(null, 0, 4)).build());
+            assertEquals(allSubjectKeys.subList(0, 4), getSubjectKeys(firstLoader.unmarshall(ODM_FILE)));
+            assertEquals(allSubjectKeys.subList(0, 4), readSubjectKeys(firstLoader, true));
+        }
+    }
+
+    /**
+     * Test that the first subjects are counted once when they reappear in another ClinicalData element, and that the
+     * rest of the document is not read once the limit is reached and the current ClinicalData element is closed: the
+     * last ClinicalData element is cut off, which would be a parse error if it were read.
+     */
+    @Test
+    public void testSubjectLimitEndsTheDocument() throws Exception {
+        final String clinicalData = "<ClinicalData StudyOID=\"S\" MetaDataVersionOID=\"v1\">";
+        final String odmXml = "<ODM xmlns=\"http://www.cdisc.org/ns/odm/v1.3\" FileOID=\"f\">"
+                              + clinicalData + "<SubjectData SubjectKey=\"a\"/><SubjectData SubjectKey=\"b\"/>"
+                              + "</ClinicalData>"
+                              + clinicalData + "<SubjectData SubjectKey=\"a\"/><SubjectData SubjectKey=\"c\"/>"
+                              + "</ClinicalData>"
+                              + clinicalData + "<SubjectData SubjectKey=\"d\"><Broken";
+        final File odmFile = File.createTempFile("odm-limit", ".xml");
+        odmFile.deleteOnExit();
+        Files.write(odmFile.toPath(), odmXml.getBytes(StandardCharsets.UTF_8));
+
+        final List<String> expectedKeys = Arrays.asList("a", "b", "a", "c");
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final ODMLoader loader = new ODMLoader(ODMReadOptions.builder().binding(binding)
+                    .subjectSelection(new ODMSubjectSelection(null, 0, 3)).build());
+            assertEquals(expectedKeys, getSubjectKeys(loader.unmarshall(odmFile)));
+            assertEquals(expectedKeys, readSubjectKeys(loader, odmFile, false));
+        }
+
+        final ODMSubjectFilter filter = new ODMSubjectSelection(null, 0, 3).createFilter();
+        final XMLStreamReader reader = filter.apply(XMLParser.JDK.createInputFactory().createXMLStreamReader(
+                new StringReader(odmXml)));
+        int endElementCount = 0;
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.END_ELEMENT && "ODM".equals(reader.getLocalName())) {
+                endElementCount++;
+            }
+        }
+        assertEquals(1, endElementCount);
+        assertEquals(XMLStreamConstants.END_DOCUMENT, reader.getEventType());
+        assertEquals(3, filter.getSelectedSubjectCount());
+        assertEquals(0, filter.getSkippedSubjectCount());
+    }
+
+    /**
+     * Stream the test file and collect the keys of the subjects in document order.
+     *
+     * @param loader   the loader.
+     * @param parallel whether the file is read with several threads.
+     * @return the subject keys.
+     */
+    private List<String> readSubjectKeys(final ODMLoader loader, final boolean parallel) throws Exception {
+        return readSubjectKeys(loader, ODM_FILE, parallel);
+    }
+
+    /**
+     * Stream an ODM file and collect the keys of the subjects in document order.
+     *
+     * @param loader   the loader.
+     * @param odmFile  the ODM file.
+     * @param parallel whether the file is read with several threads.
+     * @return the subject keys.
+     */
+    private List<String> readSubjectKeys(final ODMLoader loader, final File odmFile, final boolean parallel)
+            throws Exception {
+        final List<String> subjectKeys = new ArrayList<>();
+        final ODMStreamHandler handler = new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                subjectKeys.add(subjectData.getSubjectKey());
+            }
+        };
+        if (parallel) {
+            loader.streamParallel(ODMDocument.forFile(odmFile), handler, 4);
+        } else {
+            loader.stream(ODMDocument.forFile(odmFile), handler);
+        }
+        return subjectKeys;
+    }
+
+    /**
+     * Get the keys of all subjects of an odm object in document order.
+     *
+     * @param odm the odm object.
+     * @return the subject keys.
+     */
+    private List<String> getSubjectKeys(final ODM odm) {
+        final List<String> subjectKeys = new ArrayList<>();
+        for (final ODMcomplexTypeDefinitionClinicalData clinicalData : odm.getClinicalData()) {
+            for (final ODMcomplexTypeDefinitionSubjectData subjectData : clinicalData.getSubjectData()) {
+                subjectKeys.add(subjectData.getSubjectKey());
+            }
+        }
+        return subjectKeys;
+    }
+
+    /**
+     * Test that every StAX parser results in exactly the same export files, for both bindings and for both the
+     * sequential and the parallel reader.
+     */
+    @Test
+    public void testConversionIsTheSameForEveryXmlParser() throws Exception {
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        for (final XMLParser parser : XMLParser.values()) {
+            for (final ODMBinding binding : ODMBinding.values()) {
+                final File streamDirectory = Files.createTempDirectory("odm-stream").toFile();
+                final OdmToFilesConverter streamConverter = new OdmToFilesConverter(new ColumnFilter(""));
+                new ODMLoader(ODMReadOptions.builder().binding(binding).parser(parser).build()).stream(ODM_FILE,
+                        createConvertingHandler(streamConverter, streamDirectory));
+                streamConverter.closeExportWriters();
+                assertSameExportFiles(treeDirectory, streamDirectory);
+
+                final File parallelDirectory = Files.createTempDirectory("odm-parallel").toFile();
+                final OdmToFilesConverter parallelConverter = new OdmToFilesConverter(new ColumnFilter(""));
+                new ODMParallelReader(ODMReadOptions.builder().binding(binding).parser(parser).batchSize(1).build(), 4,
+                        null).read(
+                        ODM_FILE, createConvertingHandler(parallelConverter, parallelDirectory));
+                parallelConverter.closeExportWriters();
+                assertSameExportFiles(treeDirectory, parallelDirectory);
+            }
+        }
+    }
+
+    /**
+     * Test that skipping the audit records, signatures and annotations does not change the export files, for every
+     * StAX parser and for the tree, the streaming and the parallel reader, and that the filter counts what it skips.
+     */
+    @Test
+    public void testSkippingUnusedElementsDoesNotChangeConversion() throws Exception {
+        final List<String> skippedElementNames = Arrays.asList("AuditRecord", "Signature", "Annotation");
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        for (final XMLParser parser : XMLParser.values()) {
+            final ODMReadOptions options = ODMReadOptions.builder().parser(parser)
+                    .skippedElementNames(skippedElementNames).build();
+            final ODMLoader loader = new ODMLoader(options);
+            final File skippedTreeDirectory = Files.createTempDirectory("odm-tree-skipped").toFile();
+            final OdmToFilesConverter skippedTreeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+            skippedTreeConverter.processODM(loader.unmarshall(ODM_FILE), skippedTreeDirectory.getPath(),
+                                            PROPERTIES_FILE_PATH);
+            skippedTreeConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, skippedTreeDirectory);
+
+            final File streamDirectory = Files.createTempDirectory("odm-stream-skipped").toFile();
+            final OdmToFilesConverter streamConverter = new OdmToFilesConverter(new ColumnFilter(""));
+            loader.stream(ODM_FILE, createConvertingHandler(streamConverter, streamDirectory));
+            streamConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, streamDirectory);
+
+            final File parallelDirectory = Files.createTempDirectory("odm-parallel-skipped").toFile();
+            final OdmToFilesConverter parallelConverter = new OdmToFilesConverter(new ColumnFilter(""));
+            final ODMParallelReader parallelReader = new ODMParallelReader(ODMReadOptions.builder().parser(parser)
+                    .skippedElementNames(skippedElementNames).batchSize(1).build(), 4, null);
+            parallelReader.read(ODM_FILE, createConvertingHandler(parallelConverter, parallelDirectory));
+            parallelConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, parallelDirectory);
+            assertTrue(parallelReader.getElementFilter().getSkippedElementCount() > 0);
+        }
+    }
+
+    /**
+     * Test that canonicalizing the strings does not change the export files, and that the ItemOIDs of different
+     * subjects share a single instance, for both bindings.
+     */
+    @Test
+    public void testCanonicalizedStringsAreShared() throws Exception {
+        final File treeDirectory = Files.createTempDirectory("odm-tree").toFile();
+        final OdmToFilesConverter treeConverter = new OdmToFilesConverter(new ColumnFilter(""));
+        treeConverter.processODM(new ODMLoader().unmarshall(ODM_FILE), treeDirectory.getPath(), PROPERTIES_FILE_PATH);
+        treeConverter.closeExportWriters();
+
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final ODM odm = new ODMLoader(ODMReadOptions.builder().binding(binding).canonicalizeStrings(true).build())
+                    .unmarshall(ODM_FILE);
+            final File pooledDirectory = Files.createTempDirectory("odm-tree-pooled").toFile();
+            final OdmToFilesConverter pooledConverter = new OdmToFilesConverter(new ColumnFilter(""));
+            pooledConverter.processODM(odm, pooledDirectory.getPath(), PROPERTIES_FILE_PATH);
+            pooledConverter.closeExportWriters();
+            assertSameExportFiles(treeDirectory, pooledDirectory);
+
+            final Map<String, String> itemOIDs = new HashMap<>();
+            int sharedCount = 0;
+            for (final ODMcomplexTypeDefinitionClinicalData clinicalData : odm.getClinicalData()) {
+                for (final ODMcomplexTypeDefinitionSubjectData subjectData : clinicalData.getSubjectData()) {
+                    for (final ODMcomplexTypeDefinitionStudyEventData eventData : subjectData.getStudyEventData()) {
+                        for (final ODMcomplexTypeDefinitionFormData formData : eventData.getFormData()) {
+                            for (final ODMcomplexTypeDefinitionItemGroupData groupData : formData.getItemGroupData()) {
+                                for (final ODMcomplexTypeDefinitionItemData itemData : groupData.getItemDataGroup()) {
+                                    final String itemOID = itemData.getItemOID();
+                                    if (itemOIDs.containsKey(itemOID)) {
+                                        assertSame(itemOIDs.get(itemOID), itemOID);
+                                        sharedCount++;
+                                    }
+                                    itemOIDs.put(itemOID, itemOID);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            assertTrue(sharedCount > 0);
+        }
+    }
+
+    /**
+     * Test that a single loader can be used by several threads at the same time, for both bindings: every thread gets
+     * the same tree, and marshalling it again gives the same XML.
+     */
+    @Test
+    public void testLoaderCanBeSharedByThreads() throws Exception {
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final ODMLoader loader = new ODMLoader(ODMReadOptions.builder().binding(binding).build());
+            final String expectedXml = loader.getODMXMLString(loader.unmarshall(ODM_FILE));
+            final ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                final List<Future<String>> results = new ArrayList<>();
+                for (int task = 0; task < 8; task++) {
+                    results.add(executor.submit(new Callable<String>() {
+                        @Override
+                        public String call() throws Exception {
+                            return loader.getODMXMLString(loader.unmarshall(ODM_FILE));
+                        }
+                    }));
+                }
+                for (final Future<String> result : results) {
+                    assertEquals(expectedXml, result.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Test that the background validation accepts a valid ODM file and reports the errors of an invalid one: the test
+     * file claims to be ODM 1.3.0, which is not a valid ODMVersion, and has dates that are not valid. Closing the loader
+     * lets the started validations finish.
+     */
+    @Test
+    public void testValidateInBackground() throws Exception {
+        final File validFile = File.createTempFile("odm-valid", ".xml");
+        validFile.deleteOnExit();
+        Files.write(validFile.toPath(), ("<ODM xmlns=\"http://www.cdisc.org/ns/odm/v1.3\" FileType=\"Snapshot\""
+                + " FileOID=\"F.1\" CreationDateTime=\"2014-01-01T00:00:00\" ODMVersion=\"1.3.1\">"
+                + "<Study OID=\"S.1\"><GlobalVariables><StudyName>Study</StudyName>"
+                + "<StudyDescription>Study</StudyDescription><ProtocolName>Study</ProtocolName></GlobalVariables>"
+                + "</Study></ODM>").getBytes(StandardCharsets.UTF_8));
+
+        final ODMLoader loader = new ODMLoader();
+        final Future<ODMValidationResult> validResult = loader.validateInBackground(ODMDocument.forFile(validFile));
+        final Future<ODMValidationResult> invalidResult = loader.validateInBackground(ODMDocument.forFile(ODM_FILE));
+        loader.close();
+
+        assertTrue(validResult.get().getMessages().toString(), validResult.get().isValid());
+        assertEquals(ODM_FILE.getPath(), invalidResult.get().getDocumentName());
+        assertTrue(invalidResult.get().getErrorCount() > 0);
+        assertTrue(invalidResult.get().getMessages().get(0).contains("1.3.0"));
+        assertTrue(loader.validateInBackground(ODMDocument.forFile(validFile)).get().isValid());
+        loader.close();
+    }
+
+    /**
+     * Test that typed item data elements are read by both bindings, that the numeric ones keep their parsed value and
+     * that an empty boolean element has an empty value.
+     */
+    @Test
+    public void testTypedItemData() throws Exception {
+        final File typedFile = File.createTempFile("odm-typed", ".xml");
+        typedFile.deleteOnExit();
+        Files.write(typedFile.toPath(), ("<ODM xmlns=\"http://www.cdisc.org/ns/odm/v1.3\" FileType=\"Snapshot\""
+                + " FileOID=\"F.1\" CreationDateTime=\"2014-01-01T00:00:00\" ODMVersion=\"1.3.1\">"
+                + "<ClinicalData StudyOID=\"S.1\" MetaDataVersionOID=\"V.1\"><SubjectData SubjectKey=\"1\">"
+                + "<StudyEventData StudyEventOID=\"SE.1\"><FormData FormOID=\"F.1\">"
+                + "<ItemGroupData ItemGroupOID=\"IG.1\"><ItemData ItemOID=\"I.0\" Value=\"7\"/></ItemGroupData>"
+                + "<ItemGroupData ItemGroupOID=\"IG.2\" TransactionType=\"Insert\">"
+                + "<ItemDataInteger ItemOID=\"I.1\">42</ItemDataInteger>"
+                + "<ItemDataFloat ItemOID=\"I.2\">3.25</ItemDataFloat>"
+                + "<ItemDataString ItemOID=\"I.3\">text</ItemDataString>"
+                + "<ItemDataBoolean ItemOID=\"I.4\">true</ItemDataBoolean>"
+                + "<ItemDataDate ItemOID=\"I.5\">2014-02-03</ItemDataDate>"
+                + "<ItemDataBoolean ItemOID=\"I.6\"></ItemDataBoolean>"
+                + "</ItemGroupData></FormData></StudyEventData></SubjectData></ClinicalData></ODM>")
+                .getBytes(StandardCharsets.UTF_8));
+
+        for (final ODMBinding binding : ODMBinding.values()) {
+            final ODM odm = new ODMLoader(ODMReadOptions.builder().binding(binding).build()).unmarshall(typedFile);
+            final List<ODMcomplexTypeDefinitionItemGroupData> itemGroups = odm.getClinicalData().get(0)
+                    .getSubjectData().get(0).getStudyEventData().get(0).getFormData().get(0).getItemGroupData();
+
+            assertEquals(1, itemGroups.get(0).getItemDataGroup().size());
+            assertEquals("7", itemGroups.get(0).getItemDataGroup().get(0).getValue());
+            assertTrue(itemGroups.get(0).getItemDataStarGroup().isEmpty());
+
+            final List<ODMItemData> typed = new ArrayList<>();
+            for (final Object typedItemData : itemGroups.get(1).getItemDataStarGroup()) {
+                typed.add(ODMItemData.fromTyped(typedItemData));
+            }
+            final List<String> itemOIDs = new ArrayList<>();
+            final List<String> values = new ArrayList<>();
+            for (final ODMItemData itemData : typed) {
+                itemOIDs.add(itemData.getItemOID());
+                values.add(itemData.getValue());
+            }
+            assertEquals(binding.name(), Arrays.asList("I.1", "I.2", "I.3", "I.4", "I.5", "I.6"), itemOIDs);
+            assertEquals(binding.name(), Arrays.asList("42", "3.25", "text", "true", "2014-02-03", ""), values);
+            assertEquals(new BigDecimal(42), typed.get(0).getNumber());
+            assertEquals(new BigDecimal("3.25"), typed.get(1).getNumber());
+            assertNull(typed.get(2).getNumber());
+        }
+    }
+
+    /**
+     * Test that the element filter skips complete subtrees, counts the elements inside them and keeps nextTag working.
+     */
+    @Test
+    public void testElementFilterSkipsSubtrees() throws Exception {
+        final String xml = "<a><AuditRecord><b>text</b><c/></AuditRecord>\n<d/><Annotation/></a>";
+        final ODMElementFilter elementFilter = new ODMElementFilter(Arrays.asList("AuditRecord", "Annotation"));
+        final XMLStreamReader reader = elementFilter.apply(
+                XMLParser.JDK.createInputFactory().createXMLStreamReader(new StringReader(xml)));
+
+        final List<String> events = new ArrayList<>();
+        reader.nextTag();
+        events.add(reader.getLocalName());
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT
+               || !"a".equals(reader.getLocalName())) {
+            events.add((reader.isStartElement() ? "" : "/") + reader.getLocalName());
+        }
+        reader.close();
+
+        assertEquals(Arrays.asList("a", "d", "/d"), events);
+        assertEquals(4, elementFilter.getSkippedElementCount());
+        assertTrue(elementFilter.getSkippedByteCount() > 0);
+    }
+
+    /**
+     * Test that a file with a document type declaration, which cannot be split safely, is still read completely
+     * (by the sequential reader).
+     */
+    @Test
+    public void testParallelReaderFallsBackForDocumentType() throws Exception {
+        final String content = new String(Files.readAllBytes(ODM_FILE.toPath()), StandardCharsets.ISO_8859_1);
+        final int prologEnd = content.indexOf("?>") + 2;
+        final File doctypeFile = File.createTempFile("odm-doctype", ".xml");
+        doctypeFile.deleteOnExit();
+        Files.write(doctypeFile.toPath(), (content.substring(0, prologEnd) + "<!DOCTYPE ODM>"
+                + content.substring(prologEnd)).getBytes(StandardCharsets.ISO_8859_1));
+
+        final int[] subjectCount = {0};
+        final ODMReadOptions options = ODMReadOptions.builder().batchSize(1).build();
+        new ODMParallelReader(options, 4, null).read(doctypeFile, new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                subjectCount[0]++;
+            }
+        });
+        assertEquals(13, subjectCount[0]);
+    }
+
+    /**
+     * Create a stream handler that converts the metadata and the subjects to export files.
+     *
+     * @param converter the converter.
+     * @param directory the directory for the export files.
+     * @return the stream handler.
+     */
+    private ODMStreamHandler createConvertingHandler(final OdmToFilesConverter converter, final File directory) {
+        return createConvertingHandler(converter, directory, PROPERTIES_FILE_PATH);
+    }
+
+    /**
+     * Create a stream handler that converts the metadata and the subjects to export files, with a properties file.
+     *
+     * @param converter          the converter.
+     * @param directory          the directory for the export files.
+     * @param propertiesFilePath the file path to the properties.
+     * @return the stream handler.
+     */
+    private ODMStreamHandler createConvertingHandler(final OdmToFilesConverter converter, final File directory,
+                                                     final String propertiesFilePath) {
+        return new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) throws IOException, JAXBException {
+                converter.processODMMetaData(odm, directory.getPath(), propertiesFilePath);
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                converter.processSubjectData(clinicalData, subjectData);
+            }
+        };
+    }
+
+    /**
+     * Check that two directories contain the same export files for the test study.
+     *
+     * @param expectedDirectory the directory with the expected files.
+     * @param actualDirectory   the directory with the actual files.
+     * @throws IOException An input-output exception.
+     */
+    private void assertSameExportFiles(final File expectedDirectory, final File actualDirectory) throws IOException {
+        for (final String fileName : EXPORT_FILE_NAMES) {
+            final byte[] expected = Files.readAllBytes(new File(expectedDirectory, fileName).toPath());
+            final byte[] actual = Files.readAllBytes(new File(actualDirectory, fileName).toPath());
+            assertTrue(expected.length > 0);
+            assertArrayEquals(fileName, expected, actual);
+        }
+    }
+
+    /**
+     * Test that reading only the metadata returns all the studies and stops before the clinical data: the clinical
+     * data of the test file is cut off halfway, which would make a complete parse fail.
+     */
+    @Test
+    public void testUnmarshallMetaDataStopsAfterLastStudy() throws Exception {
+        final String content = new String(Files.readAllBytes(ODM_FILE.toPath()), StandardCharsets.ISO_8859_1);
+        final int clinicalDataStart = content.indexOf("<ClinicalData");
+        assertTrue(clinicalDataStart > 0);
+        final File truncatedFile = File.createTempFile("odm-truncated", ".xml");
+        truncatedFile.deleteOnExit();
+        Files.write(truncatedFile.toPath(),
+                content.substring(0, clinicalDataStart + 200).getBytes(StandardCharsets.ISO_8859_1));
+
+        final ODM tree = new ODMLoader().unmarshall(ODM_FILE);
+        final ODM metaData = new ODMLoader().unmarshallMetaData(truncatedFile);
+
+        assertEquals(tree.getStudy().size(), metaData.getStudy().size());
+        assertEquals(tree.getStudy().get(0).getOID(), metaData.getStudy().get(0).getOID());
+        assertEquals(tree.getStudy().get(0).getMetaDataVersion().get(0).getItemDef().size(),
+                metaData.getStudy().get(0).getMetaDataVersion().get(0).getItemDef().size());
+        assertEquals(0, metaData.getClinicalData().size());
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package com.recomdata.odm;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionClinicalData;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark that compares the StAX parsers on synthetic ODM files of increasing size, which are made by repeating
+ * the subjects of CDISC_ODM_example_3.xml. The parse benchmark only pulls the events from the parser; the stream
+ * benchmark also turns the elements into objects with the generated reader, like the streaming ingestion does. Run it
+ * with "mvn -P benchmark test -Dbenchmark=XMLParserBenchmark".
+ *
+ * The megabytes counter gives the throughput in MB/s, and the gc.alloc.rate (MB/s) and gc.alloc.rate.norm (bytes per
+ * file) results of the GC profiler, which the benchmark profile enables, give the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XMLParserBenchmark {
+    /**
+     * The ODM file that is scaled up.
+     */
+    private static final String ODM_FILE_PATH = "src/test/resources/examples/CDISC_ODM_example_3.xml";
+
+    /**
+     * The number of bytes in a megabyte.
+     */
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    /**
+     * The parser to benchmark.
+     */
+    @Param({"JDK", "WOODSTOX", "AALTO"})
+    private XMLParser parser;
+
+    /**
+     * The number of times the subjects of the example file are repeated (about 0.3, 3 and 29 MB).
+     */
+    @Param({"1", "10", "100"})
+    private int scale;
+
+    /**
+     * The scaled-up ODM file.
+     */
+    private File scaledOdmFile;
+
+    /**
+     * The factory of the parser.
+     */
+    private XMLInputFactory inputFactory;
+
+    /**
+     * The counter for the number of megabytes that are read, which JMH reports per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        /**
+         * The number of megabytes that are read.
+         */
+        public double megabytes;
+
+        /**
+         * Reset the counter before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    /**
+     * Create the scaled-up ODM file by repeating all the subjects of the example file, and the factory of the parser.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @Setup(Level.Trial)
+    public void createScaledOdmFile() throws IOException {
+        // The example file is encoded in ISO-8859-1; use the same encoding for reading and writing.
+        final String odm = new String(Files.readAllBytes(new File(ODM_FILE_PATH).toPath()), StandardCharsets.ISO_8859_1);
+        final int subjectsStart = odm.indexOf("<SubjectData");
+        final int subjectsEnd = odm.lastIndexOf("</SubjectData>") + "</SubjectData>".length();
+        final String subjects = odm.substring(subjectsStart, subjectsEnd);
+
+        final StringBuilder scaledOdm = new StringBuilder(odm.substring(0, subjectsStart));
+        for (int copy = 0; copy < scale; copy++)
+            scaledOdm.append(subjects);
+        scaledOdm.append(odm.substring(subjectsEnd));
+
+        scaledOdmFile = File.createTempFile("scaled-odm-", ".xml");
+        Files.write(scaledOdmFile.toPath(), scaledOdm.toString().getBytes(StandardCharsets.ISO_8859_1));
+        inputFactory = parser.createInputFactory();
+    }
+
+    /**
+     * Delete the scaled-up ODM file.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @TearDown(Level.Trial)
+    public void deleteScaledOdmFile() throws IOException {
+        Files.delete(scaledOdmFile.toPath());
+    }
+
+    /**
+     * Pull all the events of the file from the parser.
+     *
+     * @param throughput the throughput counter.
+     * @return the number of start elements.
+     * @throws IOException        An input-output exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     */
+    @Benchmark
+    public int parse(final Throughput throughput) throws IOException, XMLStreamException {
+        int elementCount = 0;
+        try (final InputStream inputStream = new BufferedInputStream(new FileInputStream(scaledOdmFile))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamReader.START_ELEMENT) {
+                    elementCount++;
+                }
+            }
+            reader.close();
+        }
+        throughput.megabytes += scaledOdmFile.length() / BYTES_PER_MEGABYTE;
+        return elementCount;
+    }
+
+    /**
+     * Stream the file subject by subject with the generated reader.
+     *
+     * @param throughput the throughput counter.
+     * @return the number of subjects.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws IOException        An input-output exception.
+     */
+    @Benchmark
+    public int stream(final Throughput throughput) throws JAXBException, XMLStreamException, IOException {
+        final int[] subjectCount = {0};
+        new ODMLoader(ODMReadOptions.builder().parser(parser).build()).stream(scaledOdmFile, new ODMStreamHandler() {
+            @Override
+            public void processMetaData(final ODM odm) {
+            }
+
+            @Override
+            public void processSubjectData(final ODMcomplexTypeDefinitionClinicalData clinicalData,
+                                           final ODMcomplexTypeDefinitionSubjectData subjectData) {
+                subjectCount[0]++;
+            }
+        });
+        throughput.megabytes += scaledOdmFile.length() / BYTES_PER_MEGABYTE;
+        return subjectCount[0];
+    }
+}
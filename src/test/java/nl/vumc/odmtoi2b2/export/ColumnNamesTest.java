@@ -0,0 +1,47 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the ColumnNames class.
+ */
+public class ColumnNamesTest {
+    /**
+     * Test that a taken name is replaced by the item name, then by the item name with the OID and then by an ordinal.
+     */
+    @Test
+    public void testTakeUniqueName() {
+        final ColumnNames columnNames = new ColumnNames();
+        assertEquals("Weight", columnNames.takeUniqueName("E+F+G", "Weight", "WEIGHT", "I.1"));
+        assertEquals("Weight", columnNames.takeUniqueName("E+F+G2", "Weight", "WEIGHT", "I.1"));
+        assertEquals("WEIGHT", columnNames.takeUniqueName("E+F+G", "Weight", "WEIGHT", "I.2"));
+        assertEquals("WEIGHT (I.3)", columnNames.takeUniqueName("E+F+G", "Weight", "WEIGHT", "I.3"));
+        assertEquals("WEIGHT (I.3) (2)", columnNames.takeUniqueName("E+F+G", "Weight", "WEIGHT", "I.3"));
+        assertEquals("WEIGHT (I.3) (3)", columnNames.takeUniqueName("E+F+G", "WEIGHT", "WEIGHT", "I.3"));
+    }
+
+    /**
+     * Test that many items with the same names and OIDs all get a unique full name.
+     */
+    @Test
+    public void testManyDuplicates() {
+        final int itemCount = 20000;
+        final ColumnNames columnNames = new ColumnNames();
+        final Set<String> names = new HashSet<>();
+        for (int itemIndex = 0; itemIndex < itemCount; itemIndex++) {
+            names.add(columnNames.takeUniqueName("E+F+G", "Question", "Item", "I." + (itemIndex % 3)));
+        }
+        assertEquals(itemCount, names.size());
+        assertEquals(itemCount, columnNames.size());
+    }
+}
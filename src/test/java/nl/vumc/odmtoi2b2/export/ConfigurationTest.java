@@ -9,6 +9,8 @@ import org.junit.Test;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.ArrayList;
 
 import static org.junit.Assert.*;
 
@@ -46,6 +48,12 @@ public class ConfigurationTest {
 	  assertEquals(33550336, configuration.getMaxClinicalDataEntry());
 	  assertEquals("\t", configuration.getForbiddenSymbolRegex());
 	  assertTrue(configuration.getAvoidTransmartSymbolBugs());
+	  assertEquals(Arrays.asList("AuditRecord", "Signature"),
+	               new ArrayList<>(configuration.getSkippedElementNames()));
+	  assertNull(configuration.getSubjectWhitelistPath());
+	  assertEquals(10, configuration.getSubjectSampleModulus());
+	  assertEquals(0, configuration.getSubjectLimit());
+	  assertTrue(configuration.isStreamClinicalData());
 	}
 
 	/**
@@ -58,5 +66,6 @@ public class ConfigurationTest {
 	  assertEquals(0, configuration.getMaxClinicalDataEntry());
 	  assertNull(configuration.getForbiddenSymbolRegex());
 	  assertFalse(configuration.getAvoidTransmartSymbolBugs());
+	  assertTrue(configuration.getSkippedElementNames().isEmpty());
 	}
 }
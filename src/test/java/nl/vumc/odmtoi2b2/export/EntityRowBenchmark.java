@@ -0,0 +1,351 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import au.com.bytecode.opencsv.CSVWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for the rows of the clinical data file: the column-indexed EntityRow objects of the FileExporter are
+ * compared with the maps of column IDs to values that they replaced, for synthetic item group rows with ten values
+ * each (half of them numbers). The store benchmarks build the rows; with the GC profiler, gc.alloc.rate.norm is the
+ * allocation for a row. The maps keep all of it, while the entity rows also allocate the arrays that are replaced
+ * when the window of columns grows and a temporary BigInteger for each number, so their heap is lower than their
+ * allocation. The write benchmarks turn the rows into lines of the clinical data file, with the same CSV writer.
+ * Run it with "mvn -P benchmark test -Dbenchmark=EntityRowBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityRowBenchmark {
+    /**
+     * The number of rows in a single benchmark invocation.
+     */
+    private static final int ROW_COUNT = 1000;
+
+    /**
+     * The number of items in an item group, and the number of values in a row.
+     */
+    private static final int ITEMS_PER_ITEM_GROUP = 10;
+
+    /**
+     * The number of columns with the IDs of the patient, the event and the item group.
+     */
+    private static final int DIMENSION_COLUMN_COUNT = 7;
+
+    /**
+     * The maximum length of a data entry.
+     */
+    private static final int MAX_CLINICAL_DATA_ENTRY = 256;
+
+    /**
+     * The separator between the OIDs in a column ID.
+     */
+    private static final String SEP = "\\";
+
+    /**
+     * The number of item columns in the clinical data file.
+     */
+    @Param({"100", "1000"})
+    private int columnCount;
+
+    /**
+     * The directory for the files of the file exporter.
+     */
+    private Path exportDirectory;
+
+    /**
+     * The file exporter with the columns.
+     */
+    private FileExporter fileExporter;
+
+    /**
+     * The column IDs, including those of the IDs of the patient, the event and the item group.
+     */
+    private List<String> columnIds;
+
+    /**
+     * The OIDs of the item groups, which are shared like the OIDs in the ODM objects.
+     */
+    private String[] itemGroupIds;
+
+    /**
+     * The names of the item groups, which are shared like the names from the metadata.
+     */
+    private String[] itemGroupNames;
+
+    /**
+     * The values of the rows, as they are passed to the file exporter.
+     */
+    private Object[][] values;
+
+    /**
+     * The rows as maps, for the write benchmark.
+     */
+    private List<Map<String, String>> mapRows;
+
+    /**
+     * The rows as entity rows, for the write benchmark.
+     */
+    private List<EntityRow> entityRows;
+
+    /**
+     * Create the file exporter, the values and the rows.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @Setup(Level.Trial)
+    public void createRows() throws IOException {
+        exportDirectory = Files.createTempDirectory("entity-row-benchmark");
+        final Path propertiesPath = exportDirectory.resolve("benchmark.properties");
+        Files.write(propertiesPath, Arrays.asList("max-clinical-data-entry=" + MAX_CLINICAL_DATA_ENTRY),
+                    StandardCharsets.UTF_8);
+        fileExporter = new FileExporter(exportDirectory.toString() + File.separator, "benchmark",
+                                        new Configuration(propertiesPath.toString()));
+        fileExporter.setColumnsWriter(new StringWriter());
+        columnIds = new ArrayList<>(Arrays.asList("columnIdWithPatientIds", "columnIdWithEventIds",
+                "columnIdWithEventNames", "columnIdWithEventNr", "columnIdWithIgIds", "columnIdWithIgNames",
+                "columnIdWithIgNr"));
+        itemGroupIds = new String[columnCount / ITEMS_PER_ITEM_GROUP];
+        itemGroupNames = new String[itemGroupIds.length];
+        for (int itemGroupIndex = 0; itemGroupIndex < itemGroupIds.length; itemGroupIndex++) {
+            itemGroupIds[itemGroupIndex] = "IG_GROUP_" + itemGroupIndex;
+            itemGroupNames[itemGroupIndex] = "Group " + itemGroupIndex;
+        }
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final int itemGroupIndex = columnIndex / ITEMS_PER_ITEM_GROUP;
+            final String columnId = "S_STUDY" + SEP + "SE_VISIT" + SEP + "F_FORM_V1" + SEP
+                                    + "IG_GROUP_" + itemGroupIndex + SEP + "I_ITEM_" + columnIndex + SEP;
+            fileExporter.storeColumn("Visit", "SE_VISIT", "Form", itemGroupNames[itemGroupIndex],
+                                     itemGroupIds[itemGroupIndex], "Item " + columnIndex, columnId);
+            columnIds.add(columnId);
+        }
+
+        values = new Object[ROW_COUNT][ITEMS_PER_ITEM_GROUP];
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            for (int valueIndex = 0; valueIndex < ITEMS_PER_ITEM_GROUP; valueIndex++) {
+                values[rowIndex][valueIndex] = valueIndex % 2 == 0
+                                               ? BigDecimal.valueOf(rowIndex * 7 + valueIndex, 2)
+                                               : "value " + valueIndex;
+            }
+        }
+        mapRows = storeMaps();
+        entityRows = storeRows();
+    }
+
+    /**
+     * Delete the files of the file exporter.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        fileExporter.close();
+        for (final File file : exportDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(exportDirectory);
+    }
+
+    /**
+     * Store the rows as maps, like the file exporter did before the entity rows: each row has the IDs and names of
+     * the patient, the event and the item group, and the values by column ID.
+     *
+     * @return the rows.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public List<Map<String, String>> storeMaps() {
+        final Map<String, Map<String, String>> clinicalDataMap = new HashMap<>();
+        final List<Map<String, String>> rows = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            final int itemGroupIndex = getItemGroupIndex(rowIndex);
+            final String patientId = "SS_" + rowIndex / 10;
+            final String entityId = patientId + "_E1_IG" + (itemGroupIndex + 1) + "_R" + (rowIndex % 10 + 1);
+            final Map<String, String> entityData = new HashMap<>();
+            entityData.put("columnIdWithRowIds", entityId);
+            entityData.put("columnIdWithPatientIds", patientId);
+            entityData.put("columnIdWithEventIds", "SE_VISIT");
+            entityData.put("columnIdWithEventNames", "Visit");
+            entityData.put("columnIdWithIgIds", itemGroupIds[itemGroupIndex]);
+            entityData.put("columnIdWithIgNames", itemGroupNames[itemGroupIndex]);
+            entityData.put("columnIdWithIgNr", String.valueOf(rowIndex % 10 + 1));
+            clinicalDataMap.put(entityId, entityData);
+            rows.add(entityData);
+            for (int valueIndex = 0; valueIndex < ITEMS_PER_ITEM_GROUP; valueIndex++) {
+                final String columnId = columnIds.get(getColumnIndex(itemGroupIndex, valueIndex));
+                final Object value = values[rowIndex][valueIndex];
+                entityData.put(columnId, value instanceof BigDecimal ? value.toString() : (String) value);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Store the rows as entity rows, like the file exporter does, with a shared entity type for each item group.
+     *
+     * @return the rows.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public List<EntityRow> storeRows() {
+        final Map<String, EntityRow> entityRowsById = new HashMap<>();
+        final Map<String, EntityRow.EntityType> entityTypes = new HashMap<>();
+        final List<EntityRow> rows = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+            final int itemGroupIndex = getItemGroupIndex(rowIndex);
+            final String patientId = "SS_" + rowIndex / 10;
+            final String entityId = patientId + "_E1_IG" + (itemGroupIndex + 1) + "_R" + (rowIndex % 10 + 1);
+            final String itemGroupId = itemGroupIds[itemGroupIndex];
+            EntityRow.EntityType entityType = entityTypes.get(itemGroupId);
+            if (entityType == null) {
+                entityType = new EntityRow.EntityType("SE_VISIT", "Visit", itemGroupId, itemGroupNames[itemGroupIndex]);
+                entityTypes.put(itemGroupId, entityType);
+            }
+            final EntityRow entityRow = new EntityRow(entityId, patientId, entityType, null,
+                                                      String.valueOf(rowIndex % 10 + 1));
+            entityRowsById.put(entityId, entityRow);
+            rows.add(entityRow);
+            for (int valueIndex = 0; valueIndex < ITEMS_PER_ITEM_GROUP; valueIndex++) {
+                final int columnIndex = getColumnIndex(itemGroupIndex, valueIndex);
+                final Object value = values[rowIndex][valueIndex];
+                if (value instanceof BigDecimal) {
+                    entityRow.setNumber(columnIndex, (BigDecimal) value);
+                } else {
+                    entityRow.setText(columnIndex, (String) value);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Write the rows that are stored as maps, like the file exporter did before the entity rows.
+     *
+     * @return the number of written characters.
+     * @throws IOException An input-output exception.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public int writeMaps() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        final CSVWriter csvWriter = new CSVWriter(writer, '\t', CSVWriter.NO_QUOTE_CHARACTER);
+        for (final Map<String, String> entityData : mapRows) {
+            final List<String> rowAsList = new ArrayList<>();
+            for (final String columnId : columnIds) {
+                final String dataEntry = entityData.get(columnId);
+                if (dataEntry == null) {
+                    rowAsList.add("");
+                } else if (dataEntry.length() > MAX_CLINICAL_DATA_ENTRY) {
+                    rowAsList.add(dataEntry.substring(0, MAX_CLINICAL_DATA_ENTRY - 3) + "...");
+                } else {
+                    rowAsList.add(dataEntry);
+                }
+            }
+            csvWriter.writeNext(rowAsList.toArray(new String[rowAsList.size()]));
+        }
+        return writer.characterCount;
+    }
+
+    /**
+     * Write the entity rows with the file exporter.
+     *
+     * @return the number of written characters.
+     * @throws IOException An input-output exception.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROW_COUNT)
+    public int writeRows() throws IOException {
+        final CountingWriter writer = new CountingWriter();
+        final CSVWriter csvWriter = new CSVWriter(writer, '\t', CSVWriter.NO_QUOTE_CHARACTER);
+        for (final EntityRow entityRow : entityRows) {
+            final List<String> rowAsList = fileExporter.getRowAsList(entityRow);
+            csvWriter.writeNext(rowAsList.toArray(new String[rowAsList.size()]));
+        }
+        return writer.characterCount;
+    }
+
+    /**
+     * Get the item group of a row; the rows cycle through the item groups.
+     *
+     * @param rowIndex the index of the row.
+     * @return the index of the item group.
+     */
+    private int getItemGroupIndex(final int rowIndex) {
+        return rowIndex % (columnCount / ITEMS_PER_ITEM_GROUP);
+    }
+
+    /**
+     * Get the column index of a value in a row.
+     *
+     * @param itemGroupIndex the index of the item group of the row.
+     * @param valueIndex     the index of the value in the row.
+     * @return the column index.
+     */
+    private static int getColumnIndex(final int itemGroupIndex, final int valueIndex) {
+        return DIMENSION_COLUMN_COUNT + itemGroupIndex * ITEMS_PER_ITEM_GROUP + valueIndex;
+    }
+
+    /**
+     * A writer that only counts the characters.
+     */
+    private static final class CountingWriter extends Writer {
+        /**
+         * The number of written characters.
+         */
+        private int characterCount;
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) {
+            characterCount += length;
+        }
+
+        @Override
+        public void write(final String string) {
+            characterCount += string.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the EntityRow class.
+ */
+public class EntityRowTest {
+    /**
+     * Test that numbers are written exactly like BigDecimal.toString, also when they are stored as text.
+     */
+    @Test
+    public void testNumbers() {
+        final String[] numbers = {"71.45", "1.50", "-0.001", "0", "1E+3", "123456789012345678", "1234567890123456789",
+                                  "12345678901234567890.5", "1E-200", "-9.9E+130"};
+        final EntityRow entityRow = new EntityRow("patient-id", "patient-id", null, null, null);
+        for (int index = 0; index < numbers.length; index++) {
+            entityRow.setNumber(10 + index, new BigDecimal(numbers[index]));
+        }
+        for (int index = 0; index < numbers.length; index++) {
+            assertEquals(new BigDecimal(numbers[index]).toString(), entityRow.getValue(10 + index));
+        }
+    }
+
+    /**
+     * Test that the window of columns grows in both directions and that a value replaces the previous value.
+     */
+    @Test
+    public void testWindow() {
+        final EntityRow entityRow = new EntityRow("patient-id", "patient-id", null, null, null);
+        assertNull(entityRow.getValue(7));
+        entityRow.setText(20, "a");
+        entityRow.setNumber(40, new BigDecimal("2.5"));
+        entityRow.setText(8, "b");
+        entityRow.setNumber(21, BigDecimal.ONE);
+        entityRow.setText(21, "c");
+        entityRow.setText(39, "d");
+        entityRow.setNumber(39, BigDecimal.TEN);
+
+        assertEquals("a", entityRow.getValue(20));
+        assertEquals("2.5", entityRow.getValue(40));
+        assertEquals("b", entityRow.getValue(8));
+        assertEquals("c", entityRow.getValue(21));
+        assertEquals("10", entityRow.getValue(39));
+        assertNull(entityRow.getValue(7));
+        assertNull(entityRow.getValue(9));
+        assertNull(entityRow.getValue(41));
+        assertNull(entityRow.getValue(1000));
+    }
+}
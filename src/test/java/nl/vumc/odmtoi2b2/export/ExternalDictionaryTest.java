@@ -0,0 +1,98 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionExternalCodeList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the ExternalDictionary and ExternalCodeLists classes.
+ */
+public class ExternalDictionaryTest {
+    /**
+     * Test that an index decodes the coded values of an unsorted dictionary file, with the first line of a coded value.
+     */
+    @Test
+    public void testDecode() throws IOException {
+        final Path directory = Files.createTempDirectory("external-dictionary");
+        final Path dictionaryPath = writeDictionary(directory.resolve("MedDRA.txt"),
+                "# code\tterm\n10019211\tHeadache\n10028813\tNausea\n\n10019211\tCephalalgia\n"
+                + "\u00e9\tAccent\n10\tTen\n1\tOne\n");
+        final Path indexPath = directory.resolve("MedDRA.txt.index");
+
+        assertEquals(5, ExternalDictionary.buildIndex(dictionaryPath, indexPath));
+        final ExternalDictionary dictionary = ExternalDictionary.open(indexPath);
+        assertEquals(5, dictionary.size());
+        assertEquals("Headache", dictionary.decode("10019211"));
+        assertEquals("Nausea", dictionary.decode("10028813"));
+        assertEquals("Accent", dictionary.decode("\u00e9"));
+        assertEquals("One", dictionary.decode("1"));
+        assertEquals("Ten", dictionary.decode("10"));
+        assertNull(dictionary.decode("100"));
+        assertNull(dictionary.decode(""));
+        assertNull(dictionary.decode("99999999"));
+    }
+
+    /**
+     * Test that the dictionary file of an external code list is found by dictionary and version, and that its index
+     * is rebuilt when the dictionary file has changed.
+     */
+    @Test
+    public void testExternalCodeLists() throws IOException {
+        final Path directory = Files.createTempDirectory("external-code-lists");
+        writeDictionary(directory.resolve("MedDRA-14.0.txt"), "1\tVersion 14\n");
+        final Path dictionaryPath = writeDictionary(directory.resolve("MedDRA.txt"), "1\tAny version\n");
+
+        assertEquals("Version 14", new ExternalCodeLists(directory).getDictionary(
+                createExternalCodeList("MedDRA", "14.0")).decode("1"));
+        assertEquals("Any version", new ExternalCodeLists(directory).getDictionary(
+                createExternalCodeList("MedDRA", "15.0")).decode("1"));
+        assertNull(new ExternalCodeLists(directory).getDictionary(createExternalCodeList("WHODrug", null)));
+        assertTrue(Files.isRegularFile(directory.resolve("MedDRA.txt.index")));
+
+        writeDictionary(dictionaryPath, "1\tChanged\n");
+        Files.setLastModifiedTime(dictionaryPath, FileTime.fromMillis(System.currentTimeMillis() + 60000));
+        assertEquals("Changed", new ExternalCodeLists(directory).getDictionary(
+                createExternalCodeList("MedDRA", null)).decode("1"));
+    }
+
+    /**
+     * Write a dictionary file.
+     *
+     * @param path    the path of the dictionary file.
+     * @param content the content of the file.
+     * @return the path.
+     * @throws IOException An input-output exception.
+     */
+    private static Path writeDictionary(final Path path, final String content) throws IOException {
+        return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create an external code list.
+     *
+     * @param dictionary the name of the dictionary.
+     * @param version    the version of the dictionary, which can be null.
+     * @return the external code list.
+     */
+    private static ODMcomplexTypeDefinitionExternalCodeList createExternalCodeList(final String dictionary,
+                                                                                   final String version) {
+        final ODMcomplexTypeDefinitionExternalCodeList externalCodeList = new ODMcomplexTypeDefinitionExternalCodeList();
+        externalCodeList.setDictionary(dictionary);
+        externalCodeList.setVersion(version);
+        return externalCodeList;
+    }
+}
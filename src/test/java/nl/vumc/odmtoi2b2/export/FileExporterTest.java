@@ -79,6 +79,23 @@ public class FileExporterTest {
         assertEquals(expectedOutput, wordMapWriter.toString());
 	}
 
+    /**
+     * Test the getColumnIndex method.
+     */
+    @Test
+    public void testColumnIndex() throws IOException {
+        final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
+        final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "my-study-name", configuration);
+
+        fileExporter.setColumnsWriter(new StringWriter());
+        fileExporter.storeColumn("abc", "", "", "", "", "preferred-item-name", "oid-path1");
+        fileExporter.storeColumn("abc", "", "", "", "", "preferred-item-name2", "oid-path2");
+        fileExporter.storeColumn("abc", "", "", "", "", "preferred-item-name3", "oid-path1");
+        assertEquals(7, fileExporter.getColumnIndex("oid-path1"));
+        assertEquals(8, fileExporter.getColumnIndex("oid-path2"));
+        assertEquals(-1, fileExporter.getColumnIndex("oid-path3"));
+    }
+
 	/**
 	 * Test the storeClinicalDataInfo method.
 	 */
@@ -101,6 +118,9 @@ public class FileExporterTest {
 		final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
 		final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
 
+		fileExporter.setColumnsWriter(new StringWriter());
+		fileExporter.storeColumn("abc", "", "", "", "", "item1", "column-id1");
+		fileExporter.storeColumn("abc", "", "", "", "", "item2", "column-id2");
 		fileExporter.storeClinicalDataInfo("column-id1", "data-value1", "patient-id1", "event-id", null,
                 "item-group-id", null);
 		fileExporter.storeClinicalDataInfo("column-id2", "data-value2", "patient-id1", "event-id", null,
@@ -130,6 +150,8 @@ public class FileExporterTest {
         final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
         final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
 
+        fileExporter.setColumnsWriter(new StringWriter());
+        fileExporter.storeColumn("abc", "", "", "", "", "item", "column-id");
         fileExporter.storeClinicalDataInfo("column-id", "data-value", "patient-id", "event-id",
                 "event-repeat-key", "item-group-id", null);
 
@@ -157,6 +179,8 @@ public class FileExporterTest {
 		final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
 		final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
 
+		fileExporter.setColumnsWriter(new StringWriter());
+		fileExporter.storeColumn("abc", "", "", "", "", "item", "column-id");
 		fileExporter.storeClinicalDataInfo("column-id", "data-value", "patient-id", "event-id", null,
                 "item-group-id", "item-group-repeat-key");
 
@@ -185,9 +209,77 @@ public class FileExporterTest {
         final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
         final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
 
+        fileExporter.setColumnsWriter(new StringWriter());
+        fileExporter.storeColumn("abc", "", "", "", "", "item", "column-id");
         fileExporter.storeClinicalDataInfo("column-id", "data-value", "patient-id", "event-id",
                 "event-repeat-key", "item-group-id", "item-group-repeat-key");
 
         assertEquals(expectedClinicalDataMap, fileExporter.getClinicalDataMap());
     }
+
+    /**
+     * Test that the rows of a subject are written after the next subject, so a subject that continues in the next
+     * clinical data block still gets a single row.
+     */
+    @Test
+    public void testFinishSubject() throws IOException {
+        final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
+        final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
+
+        final StringWriter clinicalDataWriter = new StringWriter();
+        fileExporter.setColumnsWriter(new StringWriter());
+        fileExporter.setWordMapWriter(new StringWriter());
+        fileExporter.setClinicalDataWriter(clinicalDataWriter);
+        fileExporter.storeColumn("abc", "", "", "", "", "item1", "column-id1");
+        fileExporter.storeColumn("abc", "", "", "", "", "item2", "column-id2");
+        final String headers = "Patient_num\tEncounter_num\tEncounter_name\tEncounter_repeat_key\tItem_group_id"
+                + "\tItem_group_name\tInstance_num\titem1\titem2\n";
+
+        fileExporter.storeClinicalDataInfo("column-id1", "value1", "patient-id1", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id1");
+        assertEquals(headers, clinicalDataWriter.toString());
+
+        fileExporter.storeClinicalDataInfo("column-id1", "value2", "patient-id2", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id2");
+        fileExporter.storeClinicalDataInfo("column-id2", "value3", "patient-id2", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id2");
+        assertEquals(headers + "patient-id1\t\t\t\t\t\t\tvalue1\t\n", clinicalDataWriter.toString());
+        assertEquals(1, fileExporter.getClinicalDataMap().size());
+
+        fileExporter.close();
+        assertEquals(headers + "patient-id1\t\t\t\t\t\t\tvalue1\t\n"
+                     + "patient-id2\t\t\t\t\t\t\tvalue2\tvalue3\n", clinicalDataWriter.toString());
+    }
+
+    /**
+     * Test that a subject that appears again after another subject gets a second row when the clinical data is
+     * streamed, so streaming requires the data of each subject to be contiguous, and that this is warned about.
+     */
+    @Test
+    public void testFinishSubjectNotContiguous() throws IOException {
+        final Configuration configuration = new Configuration(EXPORT_DIRECTORY + "filled-configuration.properties");
+        final FileExporter fileExporter = new FileExporter(OUTPUT_DIRECTORY, "study-name", configuration);
+
+        final StringWriter clinicalDataWriter = new StringWriter();
+        fileExporter.setColumnsWriter(new StringWriter());
+        fileExporter.setWordMapWriter(new StringWriter());
+        fileExporter.setClinicalDataWriter(clinicalDataWriter);
+        fileExporter.storeColumn("abc", "", "", "", "", "item1", "column-id1");
+        fileExporter.storeColumn("abc", "", "", "", "", "item2", "column-id2");
+
+        fileExporter.storeClinicalDataInfo("column-id1", "value1", "patient-id1", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id1");
+        fileExporter.storeClinicalDataInfo("column-id1", "value2", "patient-id2", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id2");
+        fileExporter.storeClinicalDataInfo("column-id2", "value3", "patient-id1", "event-id", null, "ig-id", null);
+        fileExporter.finishSubject("patient-id1");
+        fileExporter.close();
+        assertEquals(1, fileExporter.getReappearedSubjectCount());
+
+        assertEquals("Patient_num\tEncounter_num\tEncounter_name\tEncounter_repeat_key\tItem_group_id"
+                     + "\tItem_group_name\tInstance_num\titem1\titem2\n"
+                     + "patient-id1\t\t\t\t\t\t\tvalue1\t\n"
+                     + "patient-id2\t\t\t\t\t\t\tvalue2\t\n"
+                     + "patient-id1\t\t\t\t\t\t\t\tvalue3\n", clinicalDataWriter.toString());
+    }
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.Random;
+
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the HtmlStripper class.
+ */
+public class HtmlStripperTest {
+    /**
+     * The fragments from which random texts are built, including markup that is left to Jsoup.
+     */
+    private static final String[] FRAGMENTS = {
+        "a", "Weight", " ", "  ", "\n", "\t", "\r\n", "\u00a0", "<", ">", "&", ";", "#", "=", "\"", "'", "/",
+        "<b>", "</b>", "<I>", "</i>", "<span style=\"color: red\">", "</span>", "<font color='blue'>", "</font>",
+        "<p>", "</p>", "<div class=x>", "</div>", "<br>", "<br/>", "<BR />", "</br>", "<p/>", "<sup>", "</sup>",
+        "&amp;", "&lt;", "&gt;", "&quot;", "&nbsp;", "&#65;", "&#x42;", "&#233;", "&#0;", "&#x1F600;", "&eacute;",
+        "&amp", "&foo;", "<!-- note -->", "<table>", "<td>", "<ul>", "<li>", "<pre>", "<title>", "<b-x>", "< b>"
+    };
+
+    /**
+     * Test that plain text is returned as is.
+     */
+    @Test
+    public void testPlainText() {
+        final HtmlStripper htmlStripper = new HtmlStripper();
+        final String text = "Date of birth (dd-mm-yyyy)";
+        assertSame(text, htmlStripper.toPlainText(text));
+        assertEquals("", htmlStripper.toPlainText(""));
+        assertEquals("a b", htmlStripper.toPlainText(" a \n b "));
+    }
+
+    /**
+     * Test that simple markup is stripped.
+     */
+    @Test
+    public void testMarkup() {
+        final HtmlStripper htmlStripper = new HtmlStripper();
+        assertEquals("Body weight (kg)", htmlStripper.toPlainText("<b>Body weight</b> (kg)"));
+        assertEquals("Smoker? yes & no", htmlStripper.toPlainText("<p>Smoker?</p><p>yes &amp; no</p>"));
+        assertEquals("x < y a b", htmlStripper.toPlainText("x < y<br/>a<div>b</div>"));
+        assertEquals("\u00a0A", htmlStripper.toPlainText("&nbsp;&#65;"));
+    }
+
+    /**
+     * Test that the results for random texts are the same as those of Jsoup, also when they are memoized.
+     */
+    @Test
+    public void testSameAsJsoup() {
+        final HtmlStripper htmlStripper = new HtmlStripper();
+        final Random random = new Random(19);
+        for (int textIndex = 0; textIndex < 5000; textIndex++) {
+            final StringBuilder text = new StringBuilder();
+            final int fragmentCount = random.nextInt(12);
+            for (int fragmentIndex = 0; fragmentIndex < fragmentCount; fragmentIndex++) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            final String expected = Jsoup.parse(text.toString()).text();
+            assertEquals(text.toString(), expected, htmlStripper.toPlainText(text.toString()));
+            assertEquals(text.toString(), expected, htmlStripper.toPlainText(text.toString()));
+        }
+    }
+}
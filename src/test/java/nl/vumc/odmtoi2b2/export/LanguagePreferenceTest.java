@@ -0,0 +1,98 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.util.Arrays;
+
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionCodeListItem;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDecode;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionDescription;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionItemDef;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionQuestion;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionTranslatedText;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for the LanguagePreference class.
+ */
+public class LanguagePreferenceTest {
+    /**
+     * Test that the languages are parsed in order, with en as the default.
+     */
+    @Test
+    public void testParse() {
+        assertEquals(Arrays.asList("nl", "en", "*"), LanguagePreference.parse(" NL, en,,*,nl ").getLanguages());
+        assertEquals("nl,en,*", LanguagePreference.parse("nl,en,*").toString());
+        assertSame(LanguagePreference.DEFAULT, LanguagePreference.parse(" "));
+        assertSame(LanguagePreference.DEFAULT, LanguagePreference.parse(null));
+        assertEquals("en", LanguagePreference.DEFAULT.toString());
+    }
+
+    /**
+     * Test that a description is taken in the first available language, also when translations have no language.
+     */
+    @Test
+    public void testChooseDescription() {
+        final ODMcomplexTypeDefinitionDescription description = new ODMcomplexTypeDefinitionDescription();
+        description.getTranslatedText().add(createTranslatedText(null, "Gewicht"));
+        description.getTranslatedText().add(createTranslatedText("en", "Weight"));
+
+        assertEquals("Weight", LanguagePreference.parse("nl,en,*").chooseDescription(description, "WEIGHT"));
+        assertEquals("Gewicht", LanguagePreference.parse("nl,*").chooseDescription(description, "WEIGHT"));
+        assertEquals("WEIGHT", LanguagePreference.parse("nl").chooseDescription(description, "WEIGHT"));
+        assertEquals("WEIGHT", LanguagePreference.DEFAULT.chooseDescription(null, "WEIGHT"));
+    }
+
+    /**
+     * Test that a decode falls back to the first translation.
+     */
+    @Test
+    public void testChooseDecode() {
+        final ODMcomplexTypeDefinitionCodeListItem codeListItem = new ODMcomplexTypeDefinitionCodeListItem();
+        codeListItem.setDecode(new ODMcomplexTypeDefinitionDecode());
+        codeListItem.getDecode().getTranslatedText().add(createTranslatedText("nl", "ja"));
+        codeListItem.getDecode().getTranslatedText().add(createTranslatedText("EN", "yes"));
+
+        assertEquals("yes", LanguagePreference.DEFAULT.chooseDecode(codeListItem));
+        assertEquals("ja", LanguagePreference.parse("fr").chooseDecode(codeListItem));
+    }
+
+    /**
+     * Test that a question is taken in its first translation without configured languages, like the conversion has
+     * always done, and in the configured languages otherwise.
+     */
+    @Test
+    public void testChooseQuestion() {
+        final ODMcomplexTypeDefinitionItemDef itemDef = new ODMcomplexTypeDefinitionItemDef();
+        assertNull(LanguagePreference.DEFAULT.chooseQuestion(itemDef));
+        itemDef.setQuestion(new ODMcomplexTypeDefinitionQuestion());
+        itemDef.getQuestion().getTranslatedText().add(createTranslatedText("nl", " Wat is uw gewicht? "));
+        itemDef.getQuestion().getTranslatedText().add(createTranslatedText("en", "What is your weight?"));
+
+        assertEquals("Wat is uw gewicht?", LanguagePreference.DEFAULT.chooseQuestion(itemDef));
+        assertEquals("Wat is uw gewicht?", LanguagePreference.parse("").chooseQuestion(itemDef));
+        assertEquals("What is your weight?", LanguagePreference.parse("en").chooseQuestion(itemDef));
+        assertEquals("Wat is uw gewicht?", LanguagePreference.parse("fr").chooseQuestion(itemDef));
+    }
+
+    /**
+     * Create a translation.
+     *
+     * @param lang  the language, which can be null.
+     * @param value the translated value.
+     * @return the translation.
+     */
+    private static ODMcomplexTypeDefinitionTranslatedText createTranslatedText(final String lang, final String value) {
+        final ODMcomplexTypeDefinitionTranslatedText translatedText = new ODMcomplexTypeDefinitionTranslatedText();
+        translatedText.setLang(lang);
+        translatedText.setValue(value);
+        return translatedText;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the MetaDataSnapshot class.
+ */
+public class MetaDataSnapshotTest {
+    /**
+     * Test that the decoded code lists are written and read, and that a read snapshot replays them in order until a
+     * code list does not match.
+     */
+    @Test
+    public void testDecodedCodeLists() throws IOException {
+        final MetaDataSnapshot snapshot = new MetaDataSnapshot();
+        snapshot.add(MetaDataSnapshot.OperationType.STUDY, "Study", "Defining study");
+        final Map<String, String> yesNo = new HashMap<>();
+        yesNo.put("1", "Yes");
+        yesNo.put("0", "No");
+        final MetaDataSnapshot.DecodedCodeLists recorded = snapshot.getDecodedCodeLists();
+        assertNull(recorded.replay("CL.YESNO"));
+        recorded.record("CL.YESNO", yesNo);
+        recorded.record("CL.EMPTY", Collections.<String, String>emptyMap());
+        recorded.record("CL.OTHER", Collections.singletonMap("9", "Other"));
+        // A snapshot that is being recorded does not replay its own code lists.
+        assertNull(recorded.replay("CL.YESNO"));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.write(new DataOutputStream(bytes));
+        final MetaDataSnapshot readSnapshot =
+                MetaDataSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(1, readSnapshot.getOperations().size());
+        final MetaDataSnapshot.DecodedCodeLists replayed = readSnapshot.getDecodedCodeLists();
+        assertEquals(yesNo, replayed.replay("CL.YESNO"));
+        assertEquals(Collections.<String, String>emptyMap(), replayed.replay("CL.EMPTY"));
+        assertNull(replayed.replay("CL.CHANGED"));
+        assertNull(replayed.replay("CL.OTHER"));
+        assertEquals(2, replayed.getReplayedCount());
+    }
+}
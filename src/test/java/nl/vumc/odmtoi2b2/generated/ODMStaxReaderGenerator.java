@@ -0,0 +1,860 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.generated;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.xml.bind.annotation.XmlAnyElement;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.bind.annotation.XmlElementRefs;
+import javax.xml.bind.annotation.XmlElements;
+import javax.xml.bind.annotation.XmlID;
+import javax.xml.bind.annotation.XmlIDREF;
+import javax.xml.bind.annotation.XmlMixed;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
+import javax.xml.bind.annotation.adapters.HexBinaryAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import org.cdisk.odm.jaxb.ObjectFactory;
+
+/**
+ * Generates the source code of the org.cdisk.odm.stax.ODMStaxReader class: a StAX reader that fills the
+ * org.cdisk.odm.jaxb classes with direct setter calls instead of the reflection that JAXB uses at run-time.
+ *
+ * The generator works from the classes that the xjc tool generated from the bundled ODM 1.3.1 schemas (see
+ * src/main/generate-odm-reader-code/GENERATE.md), so the element names, attribute names, conversions and ID
+ * references follow exactly the same mapping as JAXB. The annotations are only inspected here, at generation time.
+ * Types that the reader cannot handle itself (like the XML signature types and the mixed content of an Association)
+ * are delegated to a JAXB unmarshaller by the generated code.
+ *
+ * Run the main method from the project root directory after regenerating the JAXB classes:
+ * mvn test-compile exec:java -Dexec.mainClass="nl.vumc.odmtoi2b2.generated.ODMStaxReaderGenerator"
+ * -Dexec.classpathScope=test
+ */
+public class ODMStaxReaderGenerator {
+    /**
+     * The path of the generated source file, relative to the project root directory.
+     */
+    public static final String READER_SOURCE_PATH = "src/main/java-generated/org/cdisk/odm/stax/ODMStaxReader.java";
+
+    /**
+     * The package of the generated reader.
+     */
+    private static final String READER_PACKAGE = "org.cdisk.odm.stax";
+
+    /**
+     * The package of the JAXB classes that the reader fills.
+     */
+    private static final String JAXB_PACKAGE = "org.cdisk.odm.jaxb";
+
+    /**
+     * The prefix that xjc put in front of the names of all ODM complex type classes.
+     */
+    private static final String TYPE_PREFIX = "ODMcomplexTypeDefinition";
+
+    /**
+     * The default value of the name and namespace properties of the JAXB annotations.
+     */
+    private static final String DEFAULT = "##default";
+
+    /**
+     * The namespace of the ODM elements.
+     */
+    private final String odmNamespace = ObjectFactory.class.getPackage().getAnnotation(XmlSchema.class).namespace();
+
+    /**
+     * The enum types that are used in attributes or values, for which a parse method is generated.
+     */
+    private final SortedSet<Class<?>> enumTypes = new TreeSet<>(new ClassNameComparator());
+
+    /**
+     * The generated source code.
+     */
+    private final StringBuilder source = new StringBuilder();
+
+    /**
+     * Generate the reader and write it to the java-generated source directory.
+     *
+     * @param arguments optionally the project root directory.
+     * @throws IOException when writing the source file fails.
+     */
+    public static void main(final String[] arguments) throws IOException {
+        final File projectDirectory = new File(arguments.length > 0 ? arguments[0] : ".");
+        final File sourceFile = new File(projectDirectory, READER_SOURCE_PATH);
+        if (!sourceFile.getParentFile().exists() && !sourceFile.getParentFile().mkdirs())
+            throw new IOException("Unable to create directory " + sourceFile.getParentFile());
+        Files.write(sourceFile.toPath(), new ODMStaxReaderGenerator().generate().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generate the source code of the reader.
+     *
+     * @return the source code.
+     */
+    public String generate() {
+        final List<Class<?>> types = getTypes();
+        final Map<Class<?>, String> classSources = new LinkedHashMap<>();
+        for (final Class<?> type : types)
+            classSources.put(type, generateReadMethod(type));
+
+        addHeader();
+        addLine("public class ODMStaxReader {");
+        addFields();
+        addConstructors();
+        addPublicReadMethod(types);
+        for (final String classSource : classSources.values())
+            source.append(classSource);
+        for (final Class<?> enumType : enumTypes)
+            addEnumParseMethod(enumType);
+        addHelperMethods();
+        addLine("}");
+        return source.toString();
+    }
+
+    /**
+     * Determine the complex types for which a read method is generated: all classes that the ObjectFactory can
+     * create, sorted by name.
+     *
+     * @return the complex types.
+     */
+    private List<Class<?>> getTypes() {
+        final SortedSet<Class<?>> types = new TreeSet<>(new ClassNameComparator());
+        for (final Method method : ObjectFactory.class.getDeclaredMethods())
+            if (method.getParameterTypes().length == 0 && method.getName().startsWith("create"))
+                types.add(method.getReturnType());
+        return new ArrayList<>(types);
+    }
+
+    /**
+     * Add the file header, package declaration and imports.
+     */
+    private void addHeader() {
+        addLine("//");
+        addLine("// This file was generated by nl.vumc.odmtoi2b2.generated.ODMStaxReaderGenerator from the JAXB classes in");
+        addLine("// " + JAXB_PACKAGE + ". Any modifications to this file will be lost when the reader is regenerated.");
+        addLine("//");
+        addLine("");
+        addLine("");
+        addLine("package " + READER_PACKAGE + ";");
+        addLine("");
+        addLine("import java.math.BigDecimal;");
+        addLine("import java.math.BigInteger;");
+        addLine("import java.util.ArrayList;");
+        addLine("import java.util.HashMap;");
+        addLine("import java.util.List;");
+        addLine("import java.util.Map;");
+        addLine("import javax.xml.bind.DatatypeConverter;");
+        addLine("import javax.xml.bind.JAXBContext;");
+        addLine("import javax.xml.bind.JAXBException;");
+        addLine("import javax.xml.bind.Unmarshaller;");
+        addLine("import javax.xml.datatype.DatatypeConfigurationException;");
+        addLine("import javax.xml.datatype.DatatypeFactory;");
+        addLine("import javax.xml.datatype.XMLGregorianCalendar;");
+        addLine("import javax.xml.stream.XMLStreamConstants;");
+        addLine("import javax.xml.stream.XMLStreamException;");
+        addLine("import javax.xml.stream.XMLStreamReader;");
+        addLine("import " + JAXB_PACKAGE + ".*;");
+        addLine("");
+        addLine("");
+        addLine("/**");
+        addLine(" * Reads ODM 1.3.1 elements from a StAX stream reader into the " + JAXB_PACKAGE + " classes with direct");
+        addLine(" * setter calls. It gives the same result as a JAXB unmarshaller without using reflection; elements whose");
+        addLine(" * types cannot be read directly (like XML signatures) are delegated to a JAXB unmarshaller, which is only");
+        addLine(" * created when such an element is found.");
+        addLine(" * ");
+        addLine(" * An instance is not thread safe; use one reader per thread.");
+        addLine(" */");
+    }
+
+    /**
+     * Add the constants and fields of the reader.
+     */
+    private void addFields() {
+        addLine("");
+        addLine("    private static final String ODM_NAMESPACE = \"" + odmNamespace + "\";");
+        addLine("");
+        addLine("    private final Map<String, Object> identifiers = new HashMap<String, Object>();");
+        addLine("    private final List<ODMStaxReader.PendingReference> pendingReferences = "
+                + "new ArrayList<ODMStaxReader.PendingReference>();");
+        addLine("    private JAXBContext jaxbContext;");
+        addLine("    private Unmarshaller unmarshaller;");
+        addLine("    private DatatypeFactory datatypeFactory;");
+        addLine("");
+    }
+
+    /**
+     * Add the constructors of the reader.
+     */
+    private void addConstructors() {
+        addLine("    /**");
+        addLine("     * Creates a reader that creates its own JAXB context when an element has to be delegated to JAXB.");
+        addLine("     * ");
+        addLine("     */");
+        addLine("    public ODMStaxReader() {");
+        addLine("        this(null);");
+        addLine("    }");
+        addLine("");
+        addLine("    /**");
+        addLine("     * Creates a reader that uses the given JAXB context (for the " + JAXB_PACKAGE + " package) when an");
+        addLine("     * element has to be delegated to JAXB.");
+        addLine("     * ");
+        addLine("     * @param jaxbContext");
+        addLine("     *     the JAXB context, or null to create one when it is needed.");
+        addLine("     */");
+        addLine("    public ODMStaxReader(final JAXBContext jaxbContext) {");
+        addLine("        this.jaxbContext = jaxbContext;");
+        addLine("    }");
+        addLine("");
+    }
+
+    /**
+     * Add the public read method, which dispatches on the requested type.
+     *
+     * @param types the complex types that have a read method.
+     */
+    private void addPublicReadMethod(final List<Class<?>> types) {
+        addLine("    /**");
+        addLine("     * Reads the element at which the reader is positioned (or the first element after that position). Like");
+        addLine("     * the JAXB unmarshaller, the reader is left right after the end of the element. ID references are");
+        addLine("     * resolved within the element that is read.");
+        addLine("     * ");
+        addLine("     * @param reader");
+        addLine("     *     the stream reader.");
+        addLine("     * @param type");
+        addLine("     *     the class of the element.");
+        addLine("     * @return");
+        addLine("     *     the object with the contents of the element.");
+        addLine("     * @throws XMLStreamException");
+        addLine("     *     when the XML cannot be parsed.");
+        addLine("     * @throws JAXBException");
+        addLine("     *     when an element that is delegated to JAXB cannot be unmarshalled.");
+        addLine("     */");
+        addLine("    public <T> T read(final XMLStreamReader reader, final Class<T> type)");
+        addLine("        throws XMLStreamException, JAXBException");
+        addLine("    {");
+        addLine("        while (!reader.isStartElement()) {");
+        addLine("            reader.next();");
+        addLine("        }");
+        addLine("        identifiers.clear();");
+        addLine("        pendingReferences.clear();");
+        addLine("        final Object result = readElement(reader, type);");
+        addLine("        for (final ODMStaxReader.PendingReference pendingReference : pendingReferences) {");
+        addLine("            final Object target = identifiers.get(pendingReference.identifier);");
+        addLine("            if (target != null) {");
+        addLine("                pendingReference.resolve(target);");
+        addLine("            }");
+        addLine("        }");
+        addLine("        pendingReferences.clear();");
+        addLine("        identifiers.clear();");
+        addLine("        return type.cast(result);");
+        addLine("    }");
+        addLine("");
+        addLine("    private Object readElement(final XMLStreamReader reader, final Class<?> type)");
+        addLine("        throws XMLStreamException, JAXBException");
+        addLine("    {");
+        for (final Class<?> type : types) {
+            addLine("        if (type == " + type.getSimpleName() + ".class) {");
+            addLine("            return " + getReadMethodName(type) + "(reader);");
+            addLine("        }");
+        }
+        addLine("        return unmarshalWithJaxb(reader, type);");
+        addLine("    }");
+        addLine("");
+    }
+
+    /**
+     * Generate the read method for one complex type.
+     *
+     * @param type the complex type.
+     * @return the source code of the read method.
+     */
+    private String generateReadMethod(final Class<?> type) {
+        final ClassModel model = createClassModel(type);
+        final StringBuilder method = new StringBuilder();
+        final String name = type.getSimpleName();
+        method.append("    /**\n");
+        method.append("     * Reads an element of type ").append(type.getAnnotation(XmlType.class).name()).append(".\n");
+        method.append("     * \n");
+        method.append("     */\n");
+        method.append("    private ").append(name).append(" ").append(getReadMethodName(type))
+                .append("(final XMLStreamReader reader)\n");
+        method.append("        throws XMLStreamException, JAXBException\n");
+        method.append("    {\n");
+        if (model == null) {
+            method.append("        return unmarshalWithJaxb(reader, ").append(name).append(".class);\n");
+        } else {
+            method.append("        final ").append(name).append(" result = new ").append(name).append("();\n");
+            appendAttributes(method, model);
+            if (model.valueCode != null) {
+                method.append("        final String text = readText(reader);\n");
+                method.append("        ").append(model.valueCode).append("\n");
+            } else if (model.elements.isEmpty()) {
+                method.append("        skipElement(reader);\n");
+            } else {
+                appendElements(method, model);
+            }
+            method.append("        return result;\n");
+        }
+        method.append("    }\n\n");
+        return method.toString();
+    }
+
+    /**
+     * Add the code that reads the attributes.
+     *
+     * @param method the source code of the read method.
+     * @param model  the model of the class.
+     */
+    private void appendAttributes(final StringBuilder method, final ClassModel model) {
+        if (model.attributes.isEmpty())
+            return;
+        method.append("        for (int index = 0; index < reader.getAttributeCount(); index++) {\n");
+        method.append("            final String namespace = reader.getAttributeNamespace(index);\n");
+        String prefix = "            ";
+        for (final Map.Entry<String, Map<String, String>> namespaceEntry : model.attributes.entrySet()) {
+            if (namespaceEntry.getKey().isEmpty())
+                method.append(prefix).append("if (namespace == null || namespace.isEmpty()) {\n");
+            else
+                method.append(prefix).append("if (\"").append(namespaceEntry.getKey())
+                        .append("\".equals(namespace)) {\n");
+            method.append("                final String value = reader.getAttributeValue(index);\n");
+            method.append("                switch (reader.getAttributeLocalName(index)) {\n");
+            for (final Map.Entry<String, String> attributeEntry : namespaceEntry.getValue().entrySet()) {
+                method.append("                    case \"").append(attributeEntry.getKey()).append("\":\n");
+                method.append("                        ").append(attributeEntry.getValue()).append("\n");
+                method.append("                        break;\n");
+            }
+            method.append("                    default:\n");
+            method.append("                        break;\n");
+            method.append("                }\n");
+            prefix = "            } else ";
+        }
+        method.append("            }\n");
+        method.append("        }\n");
+    }
+
+    /**
+     * Add the code that reads the child elements.
+     *
+     * @param method the source code of the read method.
+     * @param model  the model of the class.
+     */
+    private void appendElements(final StringBuilder method, final ClassModel model) {
+        method.append("        int event = reader.next();\n");
+        method.append("        while (event != XMLStreamConstants.END_ELEMENT) {\n");
+        method.append("            if (event != XMLStreamConstants.START_ELEMENT) {\n");
+        method.append("                event = reader.next();\n");
+        method.append("                continue;\n");
+        method.append("            }\n");
+        method.append("            final String namespace = reader.getNamespaceURI();\n");
+        String prefix = "            ";
+        for (final Map.Entry<String, Map<String, String>> namespaceEntry : model.elements.entrySet()) {
+            final String namespace = namespaceEntry.getKey();
+            final String condition = odmNamespace.equals(namespace) ? "ODM_NAMESPACE.equals(namespace)"
+                                                                    : "\"" + namespace + "\".equals(namespace)";
+            method.append(prefix).append("if (").append(condition).append(") {\n");
+            method.append("                switch (reader.getLocalName()) {\n");
+            for (final Map.Entry<String, String> elementEntry : namespaceEntry.getValue().entrySet()) {
+                method.append("                    case \"").append(elementEntry.getKey()).append("\":\n");
+                method.append("                        ").append(elementEntry.getValue()).append("\n");
+                method.append("                        break;\n");
+            }
+            method.append("                    default:\n");
+            method.append("                        skipElement(reader);\n");
+            method.append("                        break;\n");
+            method.append("                }\n");
+            prefix = "            } else ";
+        }
+        method.append("            } else {\n");
+        method.append("                skipElement(reader);\n");
+        method.append("            }\n");
+        method.append("            event = reader.getEventType();\n");
+        method.append("        }\n");
+        method.append("        reader.next();\n");
+    }
+
+    /**
+     * Create the model of a complex type: the code for each attribute and child element, grouped by namespace.
+     *
+     * @param type the complex type.
+     * @return the model, or null if the type has content that has to be delegated to JAXB.
+     */
+    private ClassModel createClassModel(final Class<?> type) {
+        final ClassModel model = new ClassModel();
+        final Map<String, Field> fields = new LinkedHashMap<>();
+        for (final Field field : type.getDeclaredFields())
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(XmlTransient.class))
+                fields.put(field.getName(), field);
+
+        // Attributes and the value, in declaration order.
+        for (final Field field : fields.values()) {
+            final XmlAttribute attribute = field.getAnnotation(XmlAttribute.class);
+            if (attribute != null) {
+                final String code = getAttributeCode(type, field);
+                if (code == null)
+                    return null;
+                final String namespace = DEFAULT.equals(attribute.namespace()) ? "" : attribute.namespace();
+                final String attributeName = DEFAULT.equals(attribute.name()) ? field.getName() : attribute.name();
+                getGroup(model.attributes, namespace).put(attributeName, code);
+            } else if (field.isAnnotationPresent(XmlValue.class)) {
+                final String conversion = getConversion(field, field.getType(), "text");
+                if (conversion == null)
+                    return null;
+                model.valueCode = getAssignment(type, field, conversion);
+            } else if (field.isAnnotationPresent(XmlElementRef.class) || field.isAnnotationPresent(XmlElementRefs.class)
+                       || field.isAnnotationPresent(XmlAnyElement.class) || field.isAnnotationPresent(XmlMixed.class)) {
+                return null;
+            }
+        }
+
+        // Elements, in the property order of the schema.
+        for (final String propertyName : type.getAnnotation(XmlType.class).propOrder()) {
+            final Field field = fields.get(propertyName);
+            if (field == null)
+                continue;
+            if (field.isAnnotationPresent(XmlElements.class)) {
+                for (final XmlElement element : field.getAnnotation(XmlElements.class).value())
+                    if (!addElement(model, type, field, element, element.type()))
+                        return null;
+            } else if (!field.isAnnotationPresent(XmlValue.class) && !field.isAnnotationPresent(XmlAttribute.class)) {
+                if (!addElement(model, type, field, field.getAnnotation(XmlElement.class), getItemType(field)))
+                    return null;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Add a child element to the model.
+     *
+     * @param model       the model of the class.
+     * @param type        the complex type.
+     * @param field       the field that stores the element.
+     * @param element     the element annotation, or null if the field is not annotated.
+     * @param elementType the type of the element.
+     * @return whether the element can be read without JAXB.
+     */
+    private boolean addElement(final ClassModel model, final Class<?> type, final Field field,
+                               final XmlElement element, final Class<?> elementType) {
+        final String elementName = element == null || DEFAULT.equals(element.name()) ? field.getName() : element.name();
+        final String namespace = element == null || DEFAULT.equals(element.namespace()) ? odmNamespace
+                                                                                         : element.namespace();
+        final String value;
+        if (elementType.getPackage().getName().equals(JAXB_PACKAGE) && !elementType.isEnum())
+            value = getReadMethodName(elementType) + "(reader)";
+        else if (isSimpleType(elementType))
+            value = getConversion(field, elementType, "readText(reader)");
+        else if (elementType.isAnnotationPresent(XmlType.class))
+            value = "unmarshalWithJaxb(reader, " + elementType.getName() + ".class)";
+        else
+            return false;
+        if (value == null)
+            return false;
+        getGroup(model.elements, namespace).put(elementName, getAssignment(type, field, value));
+        return true;
+    }
+
+    /**
+     * Get the code that reads an attribute value.
+     *
+     * @param type  the complex type.
+     * @param field the field that stores the attribute.
+     * @return the code, or null if the attribute type is not supported.
+     */
+    private String getAttributeCode(final Class<?> type, final Field field) {
+        final String code;
+        if (field.isAnnotationPresent(XmlIDREF.class)) {
+            code = "pendingReferences.add(new ODMStaxReader.PendingReference(collapse(value)) {\n"
+                   + "                            @Override\n"
+                   + "                            void resolve(final Object target) {\n"
+                   + "                                result." + getSetter(type, field).getName() + "(target);\n"
+                   + "                            }\n"
+                   + "                        });";
+        } else {
+            final String conversion = getConversion(field, field.getType(), "value");
+            if (conversion == null)
+                return null;
+            if (field.isAnnotationPresent(XmlID.class))
+                code = getAssignment(type, field, conversion) + "\n"
+                       + "                        identifiers.put(result." + getGetterName(type, field) + "(), result);";
+            else
+                code = getAssignment(type, field, conversion);
+        }
+        return code;
+    }
+
+    /**
+     * Get the code that converts a string to the type of a field.
+     *
+     * @param field      the field.
+     * @param targetType the type to convert to.
+     * @param expression the expression that gives the string.
+     * @return the code, or null if the type is not supported.
+     */
+    private String getConversion(final Field field, final Class<?> targetType, final String expression) {
+        final XmlJavaTypeAdapter adapter = field.getAnnotation(XmlJavaTypeAdapter.class);
+        final Class<?> adapterClass = adapter != null ? adapter.value() : null;
+        final String conversion;
+        if (targetType == String.class && adapterClass == null)
+            conversion = expression;
+        else if (targetType == String.class && adapterClass == CollapsedStringAdapter.class)
+            conversion = "collapse(" + expression + ")";
+        else if (targetType == byte[].class && adapterClass == HexBinaryAdapter.class)
+            conversion = "parseHexBinary(" + expression + ")";
+        else if (adapterClass != null)
+            conversion = null;
+        else if (targetType == byte[].class)
+            conversion = "parseBase64Binary(" + expression + ")";
+        else if (targetType == BigInteger.class)
+            conversion = "parseInteger(" + expression + ")";
+        else if (targetType == BigDecimal.class)
+            conversion = "parseDecimal(" + expression + ")";
+        else if (targetType == XMLGregorianCalendar.class)
+            conversion = "parseCalendar(" + expression + ")";
+        else if (targetType == Boolean.class)
+            conversion = "parseBoolean(" + expression + ")";
+        else if (targetType == boolean.class)
+            conversion = "Boolean.TRUE.equals(parseBoolean(" + expression + "))";
+        else if (targetType.isEnum()) {
+            enumTypes.add(targetType);
+            conversion = "parse" + targetType.getSimpleName() + "(" + expression + ")";
+        } else
+            conversion = null;
+        return conversion;
+    }
+
+    /**
+     * Get the code that stores a value in a field: a setter call for a single value or an add call for a list.
+     *
+     * @param type  the complex type.
+     * @param field the field.
+     * @param value the expression that gives the value.
+     * @return the code.
+     */
+    private String getAssignment(final Class<?> type, final Field field, final String value) {
+        if (List.class.isAssignableFrom(field.getType()))
+            return "result." + getGetterName(type, field) + "().add(" + value + ");";
+        else
+            return "result." + getSetter(type, field).getName() + "(" + value + ");";
+    }
+
+    /**
+     * Find the setter of a field.
+     *
+     * @param type  the complex type.
+     * @param field the field.
+     * @return the setter.
+     */
+    private Method getSetter(final Class<?> type, final Field field) {
+        for (final Method method : type.getMethods())
+            if (method.getName().equalsIgnoreCase("set" + field.getName()) && method.getParameterTypes().length == 1)
+                return method;
+        throw new IllegalStateException("No setter for " + type.getName() + "." + field.getName());
+    }
+
+    /**
+     * Find the name of the getter of a field.
+     *
+     * @param type  the complex type.
+     * @param field the field.
+     * @return the name of the getter.
+     */
+    private String getGetterName(final Class<?> type, final Field field) {
+        for (final Method method : type.getMethods())
+            if ((method.getName().equalsIgnoreCase("get" + field.getName())
+                 || method.getName().equalsIgnoreCase("is" + field.getName()))
+                && method.getParameterTypes().length == 0)
+                return method.getName();
+        throw new IllegalStateException("No getter for " + type.getName() + "." + field.getName());
+    }
+
+    /**
+     * Get the type of a single element stored in a field: the type argument for a list or the field type otherwise.
+     *
+     * @param field the field.
+     * @return the element type.
+     */
+    private Class<?> getItemType(final Field field) {
+        if (List.class.isAssignableFrom(field.getType())) {
+            final Object argument = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+            return argument instanceof Class ? (Class<?>) argument : Object.class;
+        }
+        return field.getType();
+    }
+
+    /**
+     * Whether a type is stored as text.
+     *
+     * @param type the type.
+     * @return whether the type is a simple type.
+     */
+    private boolean isSimpleType(final Class<?> type) {
+        return type == String.class || type == byte[].class || type == BigInteger.class || type == BigDecimal.class
+               || type == XMLGregorianCalendar.class || type == Boolean.class || type == boolean.class
+               || type.isEnum();
+    }
+
+    /**
+     * Get the name of the read method for a complex type.
+     *
+     * @param type the complex type.
+     * @return the method name.
+     */
+    private String getReadMethodName(final Class<?> type) {
+        final String name = type.getSimpleName();
+        return "read" + (name.startsWith(TYPE_PREFIX) ? name.substring(TYPE_PREFIX.length()) : name);
+    }
+
+    /**
+     * Get (or create) the group of names for a namespace.
+     *
+     * @param groups    the groups by namespace.
+     * @param namespace the namespace.
+     * @return the group for the namespace.
+     */
+    private Map<String, String> getGroup(final Map<String, Map<String, String>> groups, final String namespace) {
+        if (!groups.containsKey(namespace))
+            groups.put(namespace, new LinkedHashMap<String, String>());
+        return groups.get(namespace);
+    }
+
+    /**
+     * Add the parse method for an enum type, which returns null for unknown values like JAXB does.
+     *
+     * @param enumType the enum type.
+     */
+    private void addEnumParseMethod(final Class<?> enumType) {
+        final String name = enumType.getSimpleName();
+        addLine("    private static " + name + " parse" + name + "(final String value) {");
+        addLine("        try {");
+        addLine("            return " + name + ".fromValue(collapse(value));");
+        addLine("        } catch (IllegalArgumentException e) {");
+        addLine("            return null;");
+        addLine("        }");
+        addLine("    }");
+        addLine("");
+    }
+
+    /**
+     * Add the helper methods and the pending reference class.
+     */
+    private void addHelperMethods() {
+        final String[] lines = {
+            "    private <T> T unmarshalWithJaxb(final XMLStreamReader reader, final Class<T> type)",
+            "        throws JAXBException",
+            "    {",
+            "        if (unmarshaller == null) {",
+            "            if (jaxbContext == null) {",
+            "                jaxbContext = JAXBContext.newInstance(\"" + JAXB_PACKAGE + "\");",
+            "            }",
+            "            unmarshaller = jaxbContext.createUnmarshaller();",
+            "        }",
+            "        return unmarshaller.unmarshal(reader, type).getValue();",
+            "    }",
+            "",
+            "    private static void skipElement(final XMLStreamReader reader)",
+            "        throws XMLStreamException",
+            "    {",
+            "        int depth = 1;",
+            "        while (depth > 0) {",
+            "            final int event = reader.next();",
+            "            if (event == XMLStreamConstants.START_ELEMENT) {",
+            "                depth++;",
+            "            } else if (event == XMLStreamConstants.END_ELEMENT) {",
+            "                depth--;",
+            "            }",
+            "        }",
+            "        reader.next();",
+            "    }",
+            "",
+            "    private static String readText(final XMLStreamReader reader)",
+            "        throws XMLStreamException",
+            "    {",
+            "        String text = null;",
+            "        StringBuilder builder = null;",
+            "        int event = reader.next();",
+            "        while (event != XMLStreamConstants.END_ELEMENT) {",
+            "            if (event == XMLStreamConstants.START_ELEMENT) {",
+            "                skipElement(reader);",
+            "                event = reader.getEventType();",
+            "                continue;",
+            "            }",
+            "            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA",
+            "                || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {",
+            "                if (text == null) {",
+            "                    text = reader.getText();",
+            "                } else {",
+            "                    if (builder == null) {",
+            "                        builder = new StringBuilder(text);",
+            "                    }",
+            "                    builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());",
+            "                }",
+            "            }",
+            "            event = reader.next();",
+            "        }",
+            "        reader.next();",
+            "        if (builder != null) {",
+            "            return builder.toString();",
+            "        }",
+            "        return text == null ? \"\" : text;",
+            "    }",
+            "",
+            "    private static String collapse(final String value) {",
+            "        if (value == null) {",
+            "            return null;",
+            "        }",
+            "        final StringBuilder builder = new StringBuilder(value.length());",
+            "        boolean space = false;",
+            "        for (int index = 0; index < value.length(); index++) {",
+            "            final char character = value.charAt(index);",
+            "            if (character == ' ' || character == '\\t' || character == '\\n' || character == '\\r') {",
+            "                space = builder.length() > 0;",
+            "            } else {",
+            "                if (space) {",
+            "                    builder.append(' ');",
+            "                    space = false;",
+            "                }",
+            "                builder.append(character);",
+            "            }",
+            "        }",
+            "        return builder.length() == value.length() ? value : builder.toString();",
+            "    }",
+            "",
+            "    private static Boolean parseBoolean(final String value) {",
+            "        final String collapsed = collapse(value);",
+            "        if (\"true\".equals(collapsed) || \"1\".equals(collapsed)) {",
+            "            return Boolean.TRUE;",
+            "        }",
+            "        if (\"false\".equals(collapsed) || \"0\".equals(collapsed)) {",
+            "            return Boolean.FALSE;",
+            "        }",
+            "        return null;",
+            "    }",
+            "",
+            "    private static BigInteger parseInteger(final String value) {",
+            "        try {",
+            "            return DatatypeConverter.parseInteger(value);",
+            "        } catch (IllegalArgumentException e) {",
+            "            return null;",
+            "        }",
+            "    }",
+            "",
+            "    private static BigDecimal parseDecimal(final String value) {",
+            "        try {",
+            "            return DatatypeConverter.parseDecimal(value);",
+            "        } catch (IllegalArgumentException e) {",
+            "            return null;",
+            "        }",
+            "    }",
+            "",
+            "    private static byte[] parseHexBinary(final String value) {",
+            "        try {",
+            "            return DatatypeConverter.parseHexBinary(value.trim());",
+            "        } catch (IllegalArgumentException e) {",
+            "            return null;",
+            "        }",
+            "    }",
+            "",
+            "    private static byte[] parseBase64Binary(final String value) {",
+            "        try {",
+            "            return DatatypeConverter.parseBase64Binary(value);",
+            "        } catch (IllegalArgumentException e) {",
+            "            return null;",
+            "        }",
+            "    }",
+            "",
+            "    private XMLGregorianCalendar parseCalendar(final String value) {",
+            "        try {",
+            "            if (datatypeFactory == null) {",
+            "                datatypeFactory = DatatypeFactory.newInstance();",
+            "            }",
+            "            return datatypeFactory.newXMLGregorianCalendar(value.trim());",
+            "        } catch (DatatypeConfigurationException e) {",
+            "            throw new IllegalStateException(e);",
+            "        } catch (IllegalArgumentException e) {",
+            "            return null;",
+            "        }",
+            "    }",
+            "",
+            "    private abstract static class PendingReference {",
+            "",
+            "        private final String identifier;",
+            "",
+            "        PendingReference(final String identifier) {",
+            "            this.identifier = identifier;",
+            "        }",
+            "",
+            "        abstract void resolve(final Object target);",
+            "",
+            "    }",
+            "",
+        };
+        for (final String line : lines)
+            addLine(line);
+    }
+
+    /**
+     * Add a line to the generated source code.
+     *
+     * @param line the line.
+     */
+    private void addLine(final String line) {
+        source.append(line).append("\n");
+    }
+
+    /**
+     * The code to read the attributes, value and child elements of one complex type.
+     */
+    private static class ClassModel {
+        /**
+         * The code for each attribute name, grouped by namespace (the empty string for unqualified attributes).
+         */
+        private final Map<String, Map<String, String>> attributes = new LinkedHashMap<>();
+
+        /**
+         * The code for each element name, grouped by namespace.
+         */
+        private final Map<String, Map<String, String>> elements = new LinkedHashMap<>();
+
+        /**
+         * The code that stores the text content, or null if the type has no value.
+         */
+        private String valueCode;
+    }
+
+    /**
+     * Sorts classes by their simple name.
+     */
+    private static class ClassNameComparator implements Comparator<Class<?>> {
+        @Override
+        public int compare(final Class<?> class1, final Class<?> class2) {
+            return class1.getSimpleName().compareTo(class2.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright(c) 2014 VU University Medical Center.
+ * Licensed under the Apache License version 2.0 (see http://opensource.org/licenses/Apache-2.0).
+ */
+
+package nl.vumc.odmtoi2b2.generated;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.recomdata.odm.XMLParser;
+
+import org.cdisk.odm.jaxb.ODM;
+import org.cdisk.odm.jaxb.ODMcomplexTypeDefinitionSubjectData;
+import org.cdisk.odm.stax.ODMStaxReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the ODMStaxReader class, which is generated by the ODMStaxReaderGenerator class.
+ */
+public class ODMStaxReaderTest {
+    /**
+     * The ODM files that are read with both JAXB and the generated reader.
+     */
+    private static final List<String> ODM_FILE_PATHS = Arrays.asList(
+            "src/test/resources/examples/CDISC_ODM_example_3.xml",
+            "src/test/resources/examples/CDISC_ODM_example_minim.xml",
+            "src/main/resources/examples/CDISC_ODM_example_maxim.xml",
+            "src/main/resources/examples/odm121.XML",
+            "src/main/resources/examples/CHB_REDCap_2.xml",
+            "src/main/resources/examples/odm130.XML",
+            "src/main/resources/examples/odm130data.XML"
+    );
+
+    /**
+     * The JAXB context for the ODM classes.
+     */
+    private final JAXBContext jaxbContext;
+
+    /**
+     * Create the JAXB context that is shared by the tests.
+     *
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    public ODMStaxReaderTest() throws JAXBException {
+        jaxbContext = JAXBContext.newInstance("org.cdisk.odm.jaxb");
+    }
+
+    /**
+     * Test whether the committed reader is the same as the reader that the generator creates from the current JAXB
+     * classes.
+     *
+     * @throws IOException An input-output exception.
+     */
+    @Test
+    public void testGeneratedReaderIsUpToDate() throws IOException {
+        final byte[] committedSource = Files.readAllBytes(new File(ODMStaxReaderGenerator.READER_SOURCE_PATH).toPath());
+        assertEquals(new String(committedSource, StandardCharsets.UTF_8), new ODMStaxReaderGenerator().generate());
+    }
+
+    /**
+     * Test whether the generated reader creates the same objects as JAXB, by marshalling both results back to XML.
+     *
+     * @throws Exception when reading or writing an ODM file fails.
+     */
+    @Test
+    public void testGeneratedReaderEqualsJaxb() throws Exception {
+        for (final String odmFilePath : ODM_FILE_PATHS) {
+            final File odmFile = new File(odmFilePath);
+            final ODM jaxbOdm = (ODM) jaxbContext.createUnmarshaller().unmarshal(odmFile);
+            final ODM generatedOdm = readWithGeneratedReader(odmFile);
+            assertEquals(odmFilePath, marshall(jaxbOdm), marshall(generatedOdm));
+        }
+    }
+
+    /**
+     * Test whether the generated reader leaves the stream reader right after the element, like JAXB does, so that
+     * consecutive elements can be read one at a time.
+     *
+     * @throws Exception when reading the ODM file fails.
+     */
+    @Test
+    public void testReadConsecutiveSubjects() throws Exception {
+        final File odmFile = new File(ODM_FILE_PATHS.get(0));
+        final ODMStaxReader staxReader = new ODMStaxReader(jaxbContext);
+        int subjectCount = 0;
+        try (final InputStream inputStream = new FileInputStream(odmFile)) {
+            final XMLStreamReader reader = XMLParser.JDK.createInputFactory().createXMLStreamReader(inputStream);
+            while (reader.hasNext()) {
+                if (reader.isStartElement() && "SubjectData".equals(reader.getLocalName())) {
+                    final ODMcomplexTypeDefinitionSubjectData subjectData =
+                            staxReader.read(reader, ODMcomplexTypeDefinitionSubjectData.class);
+                    assertEquals(subjectData.getSubjectKey(), subjectData.getSubjectKey().trim());
+                    subjectCount++;
+                } else {
+                    reader.next();
+                }
+            }
+        }
+        assertEquals(13, subjectCount);
+    }
+
+    /**
+     * Read an ODM file with the generated reader.
+     *
+     * @param odmFile the ODM file.
+     * @return the odm object.
+     * @throws IOException        An input-output exception.
+     * @throws XMLStreamException When the XML cannot be parsed.
+     * @throws JAXBException      A Java Architecture for XML Binding exception.
+     */
+    private ODM readWithGeneratedReader(final File odmFile) throws IOException, XMLStreamException, JAXBException {
+        try (final InputStream inputStream = new FileInputStream(odmFile)) {
+            final XMLStreamReader reader = XMLParser.JDK.createInputFactory().createXMLStreamReader(inputStream);
+            return new ODMStaxReader(jaxbContext).read(reader, ODM.class);
+        }
+    }
+
+    /**
+     * Marshall an odm object to XML.
+     *
+     * @param odm the odm object.
+     * @return the XML.
+     * @throws JAXBException A Java Architecture for XML Binding exception.
+     */
+    private String marshall(final ODM odm) throws JAXBException {
+        final Marshaller marshaller = jaxbContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        final StringWriter writer = new StringWriter();
+        marshaller.marshal(odm, writer);
+        return writer.toString();
+    }
+}